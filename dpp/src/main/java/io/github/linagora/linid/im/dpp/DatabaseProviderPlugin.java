@@ -28,22 +28,30 @@ package io.github.linagora.linid.im.dpp;
 
 import io.github.linagora.linid.im.corelib.exception.ApiException;
 import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
-import io.github.linagora.linid.im.corelib.plugin.config.dto.AttributeConfiguration;
 import io.github.linagora.linid.im.corelib.plugin.config.dto.ProviderConfiguration;
 import io.github.linagora.linid.im.corelib.plugin.entity.DynamicEntity;
 import io.github.linagora.linid.im.corelib.plugin.provider.ProviderPlugin;
 import io.github.linagora.linid.im.corelib.plugin.task.TaskExecutionContext;
 import io.github.linagora.linid.im.dpp.model.DatabasePluginConfiguration;
+import io.github.linagora.linid.im.dpp.model.KeysetPage;
+import io.github.linagora.linid.im.dpp.plan.EntityPlan;
+import io.github.linagora.linid.im.dpp.plan.QueryPlanCache;
 import io.github.linagora.linid.im.dpp.service.CrudService;
+import io.github.linagora.linid.im.dpp.service.NdjsonEntityWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 import org.springframework.util.MultiValueMap;
-import tools.jackson.core.type.TypeReference;
-import tools.jackson.databind.ObjectMapper;
 
 /**
  * Database Provider Plugin implementation.
@@ -51,26 +59,43 @@ import tools.jackson.databind.ObjectMapper;
 @Component
 public class DatabaseProviderPlugin implements ProviderPlugin {
 
+  /**
+   * Context key holding the cursor of the next page of a keyset-paginated {@code findAll}.
+   */
+  public static final String NEXT_CURSOR = "nextCursor";
+
   /**
    * Service to perform CRUD operations.
    */
   private final CrudService crudService;
 
   /**
-   * Jackson ObjectMapper used to convert configuration maps into
-   * {@link DatabasePluginConfiguration} instances.
+   * Cache of the query plans of the entities, holding their converted
+   * {@link DatabasePluginConfiguration} instances and primary key types.
+   */
+  private final QueryPlanCache queryPlans;
+
+  /**
+   * Constructor for DatabaseProviderPlugin, with its own cache of query plans.
+   *
+   * @param crudService the service to perform CRUD operations based on provider
+   *                    configuration and dynamic entity metadata
    */
-  private final ObjectMapper mapper = new ObjectMapper();
+  public DatabaseProviderPlugin(final CrudService crudService) {
+    this(crudService, new QueryPlanCache());
+  }
 
   /**
    * Constructor for DatabaseProviderPlugin.
    *
    * @param crudService the service to perform CRUD operations based on provider
    *                    configuration and dynamic entity metadata
+   * @param queryPlans  the cache of the query plans of the entities
    */
   @Autowired
-  public DatabaseProviderPlugin(final CrudService crudService) {
+  public DatabaseProviderPlugin(final CrudService crudService, final QueryPlanCache queryPlans) {
     this.crudService = crudService;
+    this.queryPlans = queryPlans;
   }
 
   @Override
@@ -94,8 +119,9 @@ public class DatabaseProviderPlugin implements ProviderPlugin {
                         final ProviderConfiguration config,
                         final String id,
                         final DynamicEntity dynamicEntity) {
-    DatabasePluginConfiguration databasePluginConfiguration = getDatabaseConfiguration("delete", dynamicEntity);
-    String type = resolveIdType(dynamicEntity);
+    EntityPlan plan = queryPlans.plan(dynamicEntity.getConfiguration());
+    DatabasePluginConfiguration databasePluginConfiguration = plan.access("delete");
+    String type = plan.idType();
 
     crudService.delete(config, databasePluginConfiguration, mapId(type, id), dynamicEntity);
 
@@ -107,8 +133,9 @@ public class DatabaseProviderPlugin implements ProviderPlugin {
                              final ProviderConfiguration config,
                              final String id,
                              final DynamicEntity dynamicEntity) {
-    DatabasePluginConfiguration databasePluginConfiguration = getDatabaseConfiguration("patch", dynamicEntity);
-    String type = resolveIdType(dynamicEntity);
+    EntityPlan plan = queryPlans.plan(dynamicEntity.getConfiguration());
+    DatabasePluginConfiguration databasePluginConfiguration = plan.access("patch");
+    String type = plan.idType();
     Object validId = mapId(type, id);
 
     // Perform a partial update using the provided dynamicEntity (patch payload).
@@ -127,8 +154,9 @@ public class DatabaseProviderPlugin implements ProviderPlugin {
                                 final ProviderConfiguration config,
                                 final String id,
                                 final DynamicEntity dynamicEntity) {
-    DatabasePluginConfiguration databasePluginConfiguration = getDatabaseConfiguration("findById", dynamicEntity);
-    String type = resolveIdType(dynamicEntity);
+    EntityPlan plan = queryPlans.plan(dynamicEntity.getConfiguration());
+    DatabasePluginConfiguration databasePluginConfiguration = plan.access("findById");
+    String type = plan.idType();
 
     DynamicEntity result = crudService.selectOne(
         context,
@@ -149,19 +177,77 @@ public class DatabaseProviderPlugin implements ProviderPlugin {
 
     DatabasePluginConfiguration databasePluginConfiguration = getDatabaseConfiguration("findAll", dynamicEntity);
 
-    Page<DynamicEntity> result = crudService.select(config, databasePluginConfiguration, dynamicEntity,
-        pageable);
+    Page<DynamicEntity> result = crudService.select(context, config, databasePluginConfiguration, dynamicEntity,
+        filters, pageable);
+
+    if (result instanceof KeysetPage<DynamicEntity> keysetPage && keysetPage.getNextCursor() != null) {
+      context.put(NEXT_CURSOR, keysetPage.getNextCursor());
+    }
 
     return result;
   }
 
+  /**
+   * Exports all the entities matching the filters to a consumer, one entity at a time, without
+   * loading them all in memory.
+   *
+   * @param context       the task execution context
+   * @param config        the provider configuration
+   * @param filters       the filters the entities must match, as for {@code findAll}
+   * @param sort          the order of the entities
+   * @param dynamicEntity the entity configuration
+   * @param consumer      the consumer of the entities
+   * @return the number of exported entities
+   * @throws ApiException with HTTP 500 if the consumer fails
+   */
+  public long export(final TaskExecutionContext context,
+                     final ProviderConfiguration config,
+                     final MultiValueMap<String, String> filters,
+                     final Sort sort,
+                     final DynamicEntity dynamicEntity,
+                     final Consumer<DynamicEntity> consumer) {
+    DatabasePluginConfiguration databasePluginConfiguration = getDatabaseConfiguration("findAll", dynamicEntity);
+
+    return crudService.stream(context, config, databasePluginConfiguration, dynamicEntity, filters, sort,
+        consumer);
+  }
+
+  /**
+   * Exports all the entities matching the filters to an output stream as NDJSON, one line of
+   * attributes per entity.
+   *
+   * @param context       the task execution context
+   * @param config        the provider configuration
+   * @param filters       the filters the entities must match, as for {@code findAll}
+   * @param sort          the order of the entities
+   * @param dynamicEntity the entity configuration
+   * @param output        the output stream, flushed but not closed
+   * @return the number of exported entities
+   * @throws ApiException with HTTP 500 if the output stream cannot be written or flushed
+   */
+  public long exportNdjson(final TaskExecutionContext context,
+                           final ProviderConfiguration config,
+                           final MultiValueMap<String, String> filters,
+                           final Sort sort,
+                           final DynamicEntity dynamicEntity,
+                           final OutputStream output) {
+    long exported = export(context, config, filters, sort, dynamicEntity, new NdjsonEntityWriter(output));
+    try {
+      output.flush();
+    } catch (IOException e) {
+      throw new ApiException(500, I18nMessage.of("dpp.error.export", Map.of("message", String.valueOf(e.getMessage()))));
+    }
+    return exported;
+  }
+
   @Override
   public DynamicEntity update(final TaskExecutionContext context,
                               final ProviderConfiguration config,
                               final String id,
                               final DynamicEntity dynamicEntity) {
-    DatabasePluginConfiguration databasePluginConfiguration = getDatabaseConfiguration("update", dynamicEntity);
-    String type = resolveIdType(dynamicEntity);
+    EntityPlan plan = queryPlans.plan(dynamicEntity.getConfiguration());
+    DatabasePluginConfiguration databasePluginConfiguration = plan.access("update");
+    String type = plan.idType();
 
     DynamicEntity result = crudService.update(
         config,
@@ -173,26 +259,82 @@ public class DatabaseProviderPlugin implements ProviderPlugin {
     return result;
   }
 
+  /**
+   * Creates entities in bulk, with one multi-row insert per batch of {@code batchSize} entities.
+   *
+   * @param context         the task execution context
+   * @param config          the provider configuration
+   * @param dynamicEntities the entities to create, sharing the same configuration
+   * @return the created entities, in the order of the given entities
+   */
+  public List<DynamicEntity> createAll(final TaskExecutionContext context,
+                                       final ProviderConfiguration config,
+                                       final List<DynamicEntity> dynamicEntities) {
+    if (dynamicEntities.isEmpty()) {
+      return List.of();
+    }
+    DatabasePluginConfiguration databasePluginConfiguration =
+        getDatabaseConfiguration("create", dynamicEntities.get(0));
+
+    return crudService.insertAll(config, databasePluginConfiguration, dynamicEntities, context);
+  }
+
+  /**
+   * Updates entities in bulk, with one JDBC batch and transaction per batch of {@code batchSize}
+   * entities.
+   *
+   * @param context         the task execution context
+   * @param config          the provider configuration
+   * @param dynamicEntities the entities to update, indexed by id, sharing the same configuration
+   * @return the number of updated entities
+   */
+  public int updateAll(final TaskExecutionContext context,
+                       final ProviderConfiguration config,
+                       final Map<String, DynamicEntity> dynamicEntities) {
+    if (dynamicEntities.isEmpty()) {
+      return 0;
+    }
+    DynamicEntity first = dynamicEntities.values().iterator().next();
+    EntityPlan plan = queryPlans.plan(first.getConfiguration());
+    DatabasePluginConfiguration databasePluginConfiguration = plan.access("update");
+    String type = plan.idType();
+    Map<Object, DynamicEntity> entitiesById = new LinkedHashMap<>();
+    dynamicEntities.forEach((id, dynamicEntity) -> entitiesById.put(mapId(type, id), dynamicEntity));
+
+    return crudService.updateAll(config, databasePluginConfiguration, entitiesById, context);
+  }
+
+  /**
+   * Deletes entities in bulk, with one statement per batch of {@code batchSize} ids.
+   *
+   * @param context       the task execution context
+   * @param config        the provider configuration
+   * @param ids           the ids of the entities to delete
+   * @param dynamicEntity the entity configuration
+   * @return the number of deleted entities
+   */
+  public int deleteAll(final TaskExecutionContext context,
+                       final ProviderConfiguration config,
+                       final Collection<String> ids,
+                       final DynamicEntity dynamicEntity) {
+    EntityPlan plan = queryPlans.plan(dynamicEntity.getConfiguration());
+    DatabasePluginConfiguration databasePluginConfiguration = plan.access("delete");
+    String type = plan.idType();
+
+    return crudService.deleteAll(config, databasePluginConfiguration,
+        ids.stream().map(id -> mapId(type, id)).toList(), dynamicEntity);
+  }
+
   /**
    * Extracts and converts the database configuration for the specified action
-   * from the dynamic entity's configuration.
+   * from the dynamic entity's configuration, once per configuration.
    *
    * @param action        the action name (e.g., "create", "update", "delete").
    * @param dynamicEntity the entity containing configuration maps.
    * @return the database configuration or an empty configuration if none found.
    */
   public DatabasePluginConfiguration getDatabaseConfiguration(final String action, final DynamicEntity dynamicEntity) {
-    var access = dynamicEntity.getConfiguration().getAccess();
-
-    if (!access.containsKey(action)) {
-      return new DatabasePluginConfiguration();
-    }
-
-    return mapper.convertValue(
-        access.get(action),
-        new TypeReference<>() {
-        }
-    );
+    return queryPlans.plan(dynamicEntity.getConfiguration()).access(action);
   }
 
   /**
@@ -220,15 +362,6 @@ public class DatabaseProviderPlugin implements ProviderPlugin {
    * @throws ApiException if no primary key is defined
    */
   public String resolveIdType(final DynamicEntity dynamicEntity) {
-    return dynamicEntity.getConfiguration().getAttributes().stream()
-        .filter(attr -> Boolean.TRUE.equals(attr.getAccess().get("primaryKey")))
-        .findFirst()
-        .map(AttributeConfiguration::getType)
-        .orElseThrow(
-            () -> new ApiException(
-                500,
-                I18nMessage.of(
-                    "dpp.error.noPrimary",
-                    Map.of("entity", dynamicEntity.getConfiguration().getName()))));
+    return queryPlans.plan(dynamicEntity.getConfiguration()).idType();
   }
 }
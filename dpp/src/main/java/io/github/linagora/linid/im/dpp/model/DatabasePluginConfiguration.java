@@ -55,4 +55,30 @@ public class DatabasePluginConfiguration {
    * Map of field name to retrieving expression configuration.
    */
   private Map<String, FieldExpression> retrievingFieldExpressions;
+
+  /**
+   * Pagination mode of {@code findAll}: {@code offset} (default) or {@code keyset}.
+   */
+  private String pagination;
+
+  /**
+   * Count strategy of {@code findAll}: {@code exact} (default), {@code window}, {@code estimated},
+   * {@code cached} or {@code none}.
+   */
+  private String count;
+
+  /**
+   * Time to live, in milliseconds, of the counts of the {@code cached} strategy.
+   */
+  private Long countCacheTtl;
+
+  /**
+   * Number of entities written per statement and transaction by the bulk operations.
+   */
+  private Integer batchSize;
+
+  /**
+   * Number of rows fetched per round trip by the streamed exports of {@code findAll}.
+   */
+  private Integer fetchSize;
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.model;
+
+import java.util.List;
+import java.util.Objects;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Page of a keyset-paginated {@code findAll}, carrying the cursor of the next page.
+ *
+ * <p>Keyset pages have no page number: the next page is requested with {@link #getNextCursor()}
+ * instead of an offset, and {@link #hasNext()} only depends on the presence of that cursor.
+ *
+ * @param <T> the type of the page elements
+ */
+public class KeysetPage<T> extends PageImpl<T> {
+
+  /**
+   * Opaque cursor of the next page, {@code null} on the last page.
+   */
+  private final String nextCursor;
+
+  /**
+   * Constructor for KeysetPage.
+   *
+   * @param content    the content of the page
+   * @param pageable   the paging information of the page
+   * @param total      the total number of elements
+   * @param nextCursor the cursor of the next page, {@code null} on the last page
+   */
+  public KeysetPage(final List<T> content, final Pageable pageable, final long total, final String nextCursor) {
+    super(content, pageable, total);
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * Returns the opaque cursor of the next page.
+   *
+   * @return the cursor, {@code null} on the last page
+   */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+
+  @Override
+  public boolean isLast() {
+    return !hasNext();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    return super.equals(obj) && obj instanceof KeysetPage<?> other
+        && Objects.equals(nextCursor, other.nextCursor);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * super.hashCode() + Objects.hashCode(nextCursor);
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.plan;
+
+import io.github.linagora.linid.im.corelib.exception.ApiException;
+import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
+import io.github.linagora.linid.im.corelib.plugin.config.dto.AttributeConfiguration;
+import io.github.linagora.linid.im.corelib.plugin.config.dto.EntityConfiguration;
+import io.github.linagora.linid.im.dpp.model.DatabasePluginConfiguration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jooq.Name;
+import org.jooq.impl.DSL;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Immutable query plan of an entity, compiled once per {@link EntityConfiguration}.
+ *
+ * <p>
+ * The plan holds everything the CRUD operations derive from the entity configuration: the primary
+ * key column and type, the attribute-to-column mappings and their indexes, the database
+ * configuration of each action and the {@link TablePlan} of each table. Action and table plans are
+ * built on first use and then reused.
+ * </p>
+ */
+public final class EntityPlan {
+
+  /**
+   * Mapper used to convert the access configuration of the actions.
+   */
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  /**
+   * Entity configuration the plan was compiled from.
+   */
+  private final EntityConfiguration source;
+
+  /**
+   * Version of the entity configuration when the plan was compiled, detecting in-place changes,
+   * see {@link #version(EntityConfiguration)}.
+   */
+  private final int sourceVersion;
+
+  /**
+   * Mappings of all the attributes, in declaration order.
+   */
+  private final List<ColumnMapping> mappings;
+
+  /**
+   * Mapping of the primary key attribute, {@code null} if none is configured.
+   */
+  private final ColumnMapping primaryKey;
+
+  /**
+   * Database configurations, indexed by action.
+   */
+  private final Map<String, DatabasePluginConfiguration> actions = new ConcurrentHashMap<>();
+
+  /**
+   * Table plans, indexed by table name.
+   */
+  private final Map<String, TablePlan> tables = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor for EntityPlan.
+   *
+   * @param source the entity configuration
+   */
+  private EntityPlan(final EntityConfiguration source) {
+    this.source = source;
+    this.sourceVersion = version(source);
+    this.mappings = source.getAttributes().stream()
+        .map(attr -> new ColumnMapping(attr.getName(), (String) attr.getAccess().get("column"), attr.getType()))
+        .toList();
+    this.primaryKey = source.getAttributes().stream()
+        .filter(attr -> Boolean.TRUE.equals(attr.getAccess().get("primaryKey")))
+        .findFirst()
+        .map(AttributeConfiguration::getName)
+        .flatMap(name -> mappings.stream().filter(mapping -> name.equals(mapping.attribute())).findFirst())
+        .orElse(null);
+  }
+
+  /**
+   * Compiles the plan of an entity configuration.
+   *
+   * @param configuration the entity configuration
+   * @return the plan
+   */
+  public static EntityPlan compile(final EntityConfiguration configuration) {
+    return new EntityPlan(configuration);
+  }
+
+  /**
+   * Returns the entity configuration the plan was compiled from.
+   *
+   * @return the entity configuration
+   */
+  public EntityConfiguration source() {
+    return source;
+  }
+
+  /**
+   * Tells whether the plan was compiled from a configuration, i.e. from the same or an equal
+   * configuration that has not changed since.
+   *
+   * <p>
+   * The configuration the plan was compiled from is only checked against its version, which costs
+   * a few identity hashes, so that the plan of the configuration of a request is resolved without
+   * walking the whole configuration. Another instance is compared in depth.
+   * </p>
+   *
+   * @param configuration the entity configuration
+   * @return {@code true} if the plan is up to date with the configuration
+   */
+  public boolean isCompiledFrom(final EntityConfiguration configuration) {
+    if (source == configuration) {
+      return sourceVersion == version(configuration);
+    }
+    return version(source) == sourceVersion && source.equals(configuration);
+  }
+
+  /**
+   * Computes the version of an entity configuration from the identity of its parts: the access of
+   * each action, each attribute and the access of each attribute. The version changes when one of
+   * them is added, removed or replaced, without hashing their contents.
+   *
+   * @param configuration the entity configuration
+   * @return the version
+   */
+  static int version(final EntityConfiguration configuration) {
+    int version = Objects.hashCode(configuration.getName());
+    Map<String, ?> access = configuration.getAccess();
+    version = 31 * version + System.identityHashCode(access);
+    if (access != null) {
+      int actions = 0;
+      for (Map.Entry<String, ?> entry : access.entrySet()) {
+        actions += entry.getKey().hashCode() ^ System.identityHashCode(entry.getValue());
+      }
+      version = 31 * version + actions;
+    }
+    List<AttributeConfiguration> attributes = configuration.getAttributes();
+    version = 31 * version + System.identityHashCode(attributes);
+    if (attributes != null) {
+      for (AttributeConfiguration attribute : attributes) {
+        version = 31 * version + System.identityHashCode(attribute);
+        version = 31 * version + System.identityHashCode(attribute.getAccess());
+      }
+    }
+    return version;
+  }
+
+  /**
+   * Returns the mappings of all the attributes, in declaration order.
+   *
+   * @return the attribute mappings
+   */
+  public List<ColumnMapping> mappings() {
+    return mappings;
+  }
+
+  /**
+   * Returns the primary key column.
+   *
+   * @return the primary key column name
+   * @throws ApiException with HTTP 500 if no primary key is configured
+   */
+  public Name idColumn() {
+    return DSL.name(requirePrimaryKey().column());
+  }
+
+  /**
+   * Returns the type of the primary key attribute.
+   *
+   * @return the primary key type
+   * @throws ApiException with HTTP 500 if no primary key is configured
+   */
+  public String idType() {
+    return requirePrimaryKey().type();
+  }
+
+  /**
+   * Returns the database configuration of an action.
+   *
+   * @param action the action name (e.g., "create", "update", "delete")
+   * @return the database configuration, or an empty configuration if none is configured
+   */
+  public DatabasePluginConfiguration access(final String action) {
+    return actions.computeIfAbsent(action, key -> {
+      Object access = source.getAccess().get(key);
+      if (access == null) {
+        return new DatabasePluginConfiguration();
+      }
+      return MAPPER.convertValue(access, new TypeReference<DatabasePluginConfiguration>() {
+      });
+    });
+  }
+
+  /**
+   * Returns the plan of a table of the entity.
+   *
+   * @param tableName the table name, not cached when {@code null}
+   * @return the table plan
+   */
+  public TablePlan table(final String tableName) {
+    String idColumn = primaryKey == null ? null : primaryKey.column();
+    if (tableName == null) {
+      return new TablePlan(null, mappings, idColumn);
+    }
+    return tables.computeIfAbsent(tableName, name -> new TablePlan(name, mappings, idColumn));
+  }
+
+  /**
+   * Returns the primary key mapping.
+   *
+   * @return the primary key mapping
+   * @throws ApiException with HTTP 500 if no primary key is configured
+   */
+  private ColumnMapping requirePrimaryKey() {
+    if (primaryKey == null) {
+      throw new ApiException(500, I18nMessage.of("dpp.error.noPrimary", Map.of("entity", source.getName())));
+    }
+    return primaryKey;
+  }
+}
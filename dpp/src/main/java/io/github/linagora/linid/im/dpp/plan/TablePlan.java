@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.plan;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record;
+import org.jooq.SQLDialect;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+
+/**
+ * Immutable query plan of an entity on a given table.
+ *
+ * <p>
+ * The plan holds the table, the fields of the mapped columns qualified by the table name and the
+ * SQL of the queries by primary key, rendered once with a {@code ?} placeholder for the id, so that
+ * executing them only binds the id. Reads select the mapped columns only, never {@code *}.
+ * </p>
+ */
+public final class TablePlan {
+
+  /**
+   * Context used to render the SQL of the queries by primary key.
+   */
+  private static final DSLContext RENDERER = DSL.using(SQLDialect.POSTGRES);
+
+  /**
+   * The table.
+   */
+  private final Table<Record> table;
+
+  /**
+   * Mapped attributes with their qualified column fields, in declaration order.
+   */
+  private final Map<String, Field<Object>> fields;
+
+  /**
+   * Qualified fields of the distinct mapped columns, in declaration order.
+   */
+  private final List<Field<?>> columns;
+
+  /**
+   * SQL selecting a row by primary key, {@code null} if no primary key is configured.
+   */
+  private final String selectByIdSql;
+
+  /**
+   * SQL deleting a row by primary key, {@code null} if no primary key is configured.
+   */
+  private final String deleteByIdSql;
+
+  /**
+   * Constructor for TablePlan.
+   *
+   * @param tableName the table name
+   * @param mappings  the attribute mappings of the entity
+   * @param idColumn  the primary key column, {@code null} if none is configured
+   */
+  TablePlan(final String tableName, final List<ColumnMapping> mappings, final String idColumn) {
+    this.table = DSL.table(DSL.name(tableName));
+    Map<String, Field<Object>> qualified = new LinkedHashMap<>();
+    mappings.stream()
+        .filter(mapping -> mapping.column() != null)
+        .forEach(mapping -> qualified.put(mapping.attribute(), DSL.field(DSL.name(tableName, mapping.column()))));
+    this.fields = qualified;
+    this.columns = qualified.values().stream().distinct().collect(Collectors.toUnmodifiableList());
+    if (idColumn == null) {
+      this.selectByIdSql = null;
+      this.deleteByIdSql = null;
+    } else {
+      Field<Object> id = DSL.field(DSL.name(idColumn));
+      this.selectByIdSql = RENDERER.render(DSL.select(columns).from(table).where(id.eq(DSL.param("id"))));
+      this.deleteByIdSql = RENDERER.render(DSL.deleteFrom(table).where(id.eq(DSL.param("id"))));
+    }
+  }
+
+  /**
+   * Returns the table.
+   *
+   * @return the table
+   */
+  public Table<Record> table() {
+    return table;
+  }
+
+  /**
+   * Returns the qualified fields of all the mapped columns.
+   *
+   * @return the column fields
+   */
+  public List<Field<?>> fields() {
+    return columns;
+  }
+
+  /**
+   * Returns the SQL selecting a row by primary key, with a {@code ?} placeholder for the id.
+   *
+   * @return the SQL, {@code null} if no primary key is configured
+   */
+  public String selectByIdSql() {
+    return selectByIdSql;
+  }
+
+  /**
+   * Returns the SQL deleting a row by primary key, with a {@code ?} placeholder for the id.
+   *
+   * @return the SQL, {@code null} if no primary key is configured
+   */
+  public String deleteByIdSql() {
+    return deleteByIdSql;
+  }
+
+  /**
+   * Binds the attribute values of a request to the mapped columns.
+   *
+   * <p>
+   * Missing attributes are bound to the column default, unless the request is partial, in which
+   * case their columns are left out.
+   * </p>
+   *
+   * @param attributes the attribute values of the request
+   * @param partial    whether the request is partial
+   * @return the values, indexed by column field
+   */
+  public Map<Field<?>, Object> bind(final Map<String, Object> attributes, final boolean partial) {
+    Map<Field<?>, Object> values = new LinkedHashMap<>();
+    fields.forEach((attribute, field) -> {
+      if (attributes.containsKey(attribute)) {
+        values.put(field, attributes.get(attribute));
+      } else if (!partial) {
+        values.put(field, DSL.defaultValue());
+      }
+    });
+    return values;
+  }
+}
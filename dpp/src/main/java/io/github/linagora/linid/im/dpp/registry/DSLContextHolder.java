@@ -28,6 +28,7 @@ package io.github.linagora.linid.im.dpp.registry;
 
 import com.zaxxer.hikari.HikariDataSource;
 import io.github.linagora.linid.im.corelib.plugin.config.dto.ProviderConfiguration;
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.jooq.DSLContext;
@@ -48,8 +49,36 @@ public class DSLContextHolder {
    */
   private HikariDataSource datasource;
 
+  /**
+   * The jOOQ DSL context for executing read-only queries, on the read replicas when configured and
+   * on the primary otherwise.
+   */
+  private DSLContext readDsl;
+
+  /**
+   * The Hikari datasources of the read replicas, empty if none is configured.
+   */
+  private List<HikariDataSource> replicas;
+
   /**
    * Provider configuration used to create this DSL context.
    */
   private ProviderConfiguration configSnapshot;
+
+  /**
+   * Fingerprint of the provider configuration when this DSL context was created, detecting changes
+   * without comparing the whole configuration.
+   */
+  private int fingerprint;
+
+  /**
+   * Tells whether this DSL context was created from a configuration that has not changed since.
+   *
+   * @param config      the provider configuration
+   * @param fingerprint the current fingerprint of the configuration
+   * @return {@code true} if the DSL context can be reused for the configuration
+   */
+  public boolean matches(ProviderConfiguration config, int fingerprint) {
+    return this.fingerprint == fingerprint && (configSnapshot == config || configSnapshot.equals(config));
+  }
 }
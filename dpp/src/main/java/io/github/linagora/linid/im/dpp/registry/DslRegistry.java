@@ -28,12 +28,20 @@ package io.github.linagora.linid.im.dpp.registry;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import io.github.linagora.linid.im.corelib.exception.ApiException;
 import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
 import io.github.linagora.linid.im.corelib.plugin.config.dto.ProviderConfiguration;
 import jakarta.annotation.PreDestroy;
-import java.util.HashMap;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
@@ -49,15 +57,63 @@ import org.springframework.stereotype.Component;
  * context
  * are recreated. Each provider maintains its own Hikari connection pool.
  * </p>
+ *
+ * <p>
+ * Looking up the DSL context of an unchanged provider takes no lock: the holder is read from a
+ * concurrent map and matched against the configuration by its fingerprint. The pool of a new or
+ * changed provider is built outside of the map, since it opens a first connection, and installed
+ * with a compare-and-set; a pool that loses the race to a concurrent call is closed unused.
+ * </p>
+ *
+ * <p>
+ * The pool of a changed provider is replaced without interrupting its in-flight queries: new
+ * queries get the new pool, while the old pool closes its idle connections at once and its active
+ * ones when they are returned. The old pool is not suspended, and still lends connections to a
+ * caller holding its DSL context; it is closed once no connection is active, or when the drain
+ * timeout expires.
+ * </p>
+ *
+ * <p>
+ * Providers may declare read replicas, each with its own pool, serving the read-only queries
+ * through {@link #getReadDsl(ProviderConfiguration)}, see {@link ReplicaConnectionProvider}.
+ * </p>
  */
 @Slf4j
 @Component
 public class DslRegistry {
 
+  /**
+   * Default time, in milliseconds, given to the in-flight queries of a replaced pool before it is
+   * closed.
+   */
+  static final long DEFAULT_DRAIN_TIMEOUT = 30_000;
+
+  /**
+   * Default time, in milliseconds, to wait for a connection from a replica pool before falling
+   * back to the next replica.
+   */
+  static final long DEFAULT_REPLICA_CONNECTION_TIMEOUT = 1_000;
+
+  /**
+   * Interval, in milliseconds, between two checks of the active connections of a draining pool.
+   */
+  static final long DRAIN_POLL_INTERVAL = 100;
+
   /**
    * Map of provider name to its associated DSLContextHolder.
    */
-  private final Map<String, DSLContextHolder> dslContexts = new HashMap<>();
+  private final Map<String, DSLContextHolder> dslContexts = new ConcurrentHashMap<>();
+
+  /**
+   * Replaced datasources, waiting for their in-flight queries before being closed.
+   */
+  private final Set<HikariDataSource> draining = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Executor checking the active connections of the draining datasources.
+   */
+  private final ScheduledExecutorService drainer = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("dpp-pool-drain").daemon().factory());
 
   private static final String MISSING_OPTION = "error.plugin.default.missing.option";
   private static final String OPTION = "option";
@@ -66,78 +122,226 @@ public class DslRegistry {
    * Returns a {@link DSLContext} associated with the given provider
    * configuration.
    * If the configuration has changed since the last call, the datasource and DSL
-   * context are recreated.
+   * context are recreated, and the previous datasource is drained.
    *
    * @param config the provider configuration
    * @return the DSLContext associated with the provider
    */
   public DSLContext getDsl(ProviderConfiguration config) {
-    String name = config.getName();
+    return getHolder(config).getDsl();
+  }
 
-    synchronized (name.intern()) {
-      DSLContextHolder holder = dslContexts.get(name);
+  /**
+   * Returns the {@link DSLContext} of the read-only queries of the given provider configuration:
+   * its read replicas, falling back to the primary, when the {@code replicaUrls} option is set,
+   * and the primary otherwise.
+   *
+   * @param config the provider configuration
+   * @return the DSLContext of the read-only queries of the provider
+   */
+  public DSLContext getReadDsl(ProviderConfiguration config) {
+    return getHolder(config).getReadDsl();
+  }
 
-      // If the configuration didn't change we just return the current
-      if (holder != null && config.equals(holder.getConfigSnapshot())) {
-        return holder.getDsl();
+  /**
+   * Returns the holder of the DSL contexts of the given provider configuration, recreating it if
+   * the configuration has changed since the last call.
+   *
+   * @param config the provider configuration
+   * @return the holder of the DSL contexts of the provider
+   */
+  private DSLContextHolder getHolder(ProviderConfiguration config) {
+    int fingerprint = config.hashCode();
+    DSLContextHolder holder = dslContexts.get(config.getName());
+
+    // If the configuration didn't change we just return the current
+    if (holder != null && holder.matches(config, fingerprint)) {
+      return holder;
+    }
+
+    String name = config.getName();
+    while (true) {
+      DSLContextHolder current = dslContexts.get(name);
+      if (current != null && current.matches(config, fingerprint)) {
+        return current;
       }
 
-      // close previous datasource if exists
-      if (holder != null) {
+      // The pool opens a first connection, so it is built without holding the entry of the map
+      DSLContextHolder created = createHolder(config, fingerprint);
+      boolean installed = current == null
+          ? dslContexts.putIfAbsent(name, created) == null
+          : dslContexts.replace(name, current, created);
+      if (!installed) {
+        log.debug("Connection pool of provider '{}' created concurrently, closing this one", name);
+        created.getDatasource().close();
+        created.getReplicas().forEach(HikariDataSource::close);
+        continue;
+      }
+
+      // drain previous datasource if exists
+      if (current != null) {
+        long drainTimeout = Long.parseLong(
+            config.getOption("drainTimeout").orElse(String.valueOf(DEFAULT_DRAIN_TIMEOUT)));
         log.info("Configuration changed for provider '{}', recreating connection pool", name);
-        holder.getDatasource().close();
-        dslContexts.remove(name);
+        drain(current.getDatasource(), drainTimeout);
+        current.getReplicas().forEach(replica -> drain(replica, drainTimeout));
       } else {
         log.info("Initializing connection pool for provider '{}'", name);
       }
+      return created;
+    }
+  }
+
+  /**
+   * Creates the datasource and DSL context of a provider configuration.
+   *
+   * @param config      the provider configuration
+   * @param fingerprint the fingerprint of the configuration
+   * @return the holder of the DSL context
+   * @throws ApiException with HTTP 500 if the url, username or password option is missing, or if
+   *                      the replicaSelection option is unknown
+   */
+  private DSLContextHolder createHolder(ProviderConfiguration config, int fingerprint) {
+    HikariConfig hikariConfig = new HikariConfig();
+
+    String url = config.getOption("url")
+        .orElseThrow(() -> new ApiException(
+            500,
+            I18nMessage.of(MISSING_OPTION, Map.of(OPTION, "url"))
+      ));
+    hikariConfig.setJdbcUrl(url);
+
+    String username = config.getOption("username")
+        .orElseThrow(() -> new ApiException(
+            500,
+            I18nMessage.of(MISSING_OPTION, Map.of(OPTION, "username"))
+      ));
+    hikariConfig.setUsername(username);
+
+    String password = config.getOption("password")
+        .orElseThrow(() -> new ApiException(
+            500,
+            I18nMessage.of(MISSING_OPTION, Map.of(OPTION, "password"))
+      ));
+    hikariConfig.setPassword(password);
+
+    String maximumPoolSize = config.getOption("maximumPoolSize").orElse("10");
+    hikariConfig.setMaximumPoolSize(Integer.parseInt(maximumPoolSize));
+
+    String idleTimeout = config.getOption("idleTimeout").orElse("600000");
+    hikariConfig.setIdleTimeout(Long.parseLong(idleTimeout));
 
-      HikariConfig hikariConfig = new HikariConfig();
+    String connectionTimeout = config.getOption("connectionTimeout").orElse("30000");
+    hikariConfig.setConnectionTimeout(Long.parseLong(connectionTimeout));
 
-      String url = config.getOption("url")
-          .orElseThrow(() -> new ApiException(
-              500,
-              I18nMessage.of(MISSING_OPTION, Map.of(OPTION, "url"))
-        ));
-      hikariConfig.setJdbcUrl(url);
+    List<String> replicaUrls = config.getOption("replicaUrls").stream()
+        .flatMap(urls -> Arrays.stream(urls.split(",")))
+        .map(String::trim)
+        .filter(replicaUrl -> !replicaUrl.isEmpty())
+        .toList();
+    ReplicaSelection replicaSelection = ReplicaSelection.of(config.getOption("replicaSelection").orElse(null));
+    long replicaCooldown = Long.parseLong(
+        config.getOption("replicaCooldown").orElse(String.valueOf(ReplicaConnectionProvider.DEFAULT_COOLDOWN)));
+    long replicaConnectionTimeout = Long.parseLong(
+        config.getOption("replicaConnectionTimeout").orElse(String.valueOf(DEFAULT_REPLICA_CONNECTION_TIMEOUT)));
 
-      String username = config.getOption("username")
-          .orElseThrow(() -> new ApiException(
-              500,
-              I18nMessage.of(MISSING_OPTION, Map.of(OPTION, "username"))
-        ));
-      hikariConfig.setUsername(username);
+    HikariDataSource ds = new HikariDataSource(hikariConfig);
+    DSLContext dsl = DSL.using(ds, SQLDialect.POSTGRES);
 
-      String password = config.getOption("password")
-          .orElseThrow(() -> new ApiException(
-              500,
-              I18nMessage.of(MISSING_OPTION, Map.of(OPTION, "password"))
-        ));
-      hikariConfig.setPassword(password);
+    List<HikariDataSource> replicas = replicaUrls.stream()
+        .map(replicaUrl -> new HikariDataSource(replicaConfig(hikariConfig, replicaUrl, replicaConnectionTimeout)))
+        .toList();
+    DSLContext readDsl = replicas.isEmpty()
+        ? dsl
+        : DSL.using(new ReplicaConnectionProvider(ds, replicas, replicaSelection, replicaCooldown,
+            Clock.systemUTC()), SQLDialect.POSTGRES);
 
-      String maximumPoolSize = config.getOption("maximumPoolSize").orElse("10");
-      hikariConfig.setMaximumPoolSize(Integer.parseInt(maximumPoolSize));
+    return new DSLContextHolder(dsl, ds, readDsl, replicas, config, fingerprint);
+  }
 
-      String idleTimeout = config.getOption("idleTimeout").orElse("600000");
-      hikariConfig.setIdleTimeout(Long.parseLong(idleTimeout));
+  /**
+   * Builds the pool configuration of a read replica from the one of the primary.
+   *
+   * <p>
+   * The pool is started lazily, so that an unreachable replica does not prevent the provider from
+   * starting, and its connections are read-only. It waits for a connection for its own, shorter,
+   * timeout, since every query on an unavailable replica waits that long before falling back.
+   * </p>
+   *
+   * @param primary           the pool configuration of the primary
+   * @param replicaUrl        the JDBC URL of the replica
+   * @param connectionTimeout the time, in milliseconds, to wait for a connection from the replica
+   * @return the pool configuration of the replica
+   */
+  private HikariConfig replicaConfig(HikariConfig primary, String replicaUrl, long connectionTimeout) {
+    HikariConfig replica = new HikariConfig();
+    primary.copyStateTo(replica);
+    replica.setJdbcUrl(replicaUrl);
+    replica.setConnectionTimeout(connectionTimeout);
+    replica.setReadOnly(true);
+    replica.setInitializationFailTimeout(-1);
+    return replica;
+  }
 
-      String connectionTimeout = config.getOption("connectionTimeout").orElse("30000");
-      hikariConfig.setConnectionTimeout(Long.parseLong(connectionTimeout));
+  /**
+   * Drains a replaced datasource: its idle connections are closed, its active connections are
+   * closed when returned, and the datasource is closed once no connection is active anymore or
+   * when the drain timeout expires. The datasource keeps lending new connections until it is
+   * closed, to the callers still holding its DSL context.
+   *
+   * @param datasource the replaced datasource
+   * @param timeout    the maximum time, in milliseconds, to wait for the active connections
+   */
+  void drain(HikariDataSource datasource, long timeout) {
+    HikariPoolMXBean pool = datasource.getHikariPoolMXBean();
+    if (pool == null) {
+      datasource.close();
+      return;
+    }
+
+    pool.softEvictConnections();
+    draining.add(datasource);
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+    drainer.schedule(() -> closeWhenIdle(datasource, pool, deadline), DRAIN_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+  }
 
-      HikariDataSource ds = new HikariDataSource(hikariConfig);
-      DSLContext dsl = DSL.using(ds, SQLDialect.POSTGRES);
+  /**
+   * Closes a draining datasource if no connection is active anymore or if the deadline has passed,
+   * and checks it again later otherwise.
+   *
+   * @param datasource the draining datasource
+   * @param pool       the pool of the datasource
+   * @param deadline   the deadline, in {@link System#nanoTime()} units
+   */
+  private void closeWhenIdle(HikariDataSource datasource, HikariPoolMXBean pool, long deadline) {
+    if (!draining.contains(datasource)) {
+      return;
+    }
 
-      DSLContextHolder newHolder = new DSLContextHolder(dsl, ds, config);
-      dslContexts.put(name, newHolder);
+    int active = pool.getActiveConnections();
+    if (active > 0 && System.nanoTime() - deadline < 0) {
+      drainer.schedule(() -> closeWhenIdle(datasource, pool, deadline), DRAIN_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+      return;
+    }
 
-      return dsl;
+    if (active > 0) {
+      log.warn("Closing replaced connection pool with {} active connections after drain timeout", active);
     }
+    draining.remove(datasource);
+    datasource.close();
   }
 
   /**
-   * Closes all datasource pools when the application shuts down.
+   * Closes all datasource pools, including the draining ones, when the application shuts down.
    */
   @PreDestroy
   public void shutdown() {
-    dslContexts.values().forEach(holder -> holder.getDatasource().close());
+    drainer.shutdownNow();
+    dslContexts.values().forEach(holder -> {
+      holder.getDatasource().close();
+      holder.getReplicas().forEach(HikariDataSource::close);
+    });
+    draining.forEach(HikariDataSource::close);
+    draining.clear();
   }
 }
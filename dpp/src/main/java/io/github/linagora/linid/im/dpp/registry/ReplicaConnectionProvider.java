@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.registry;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.ConnectionProvider;
+import org.jooq.exception.DataAccessException;
+
+/**
+ * {@link ConnectionProvider} lending the connections of read-only queries from read replicas.
+ *
+ * <p>
+ * Replicas are tried in the order of the {@link ReplicaSelection} strategy. A replica that fails
+ * to lend a connection is skipped for a cooldown period, and the connection is lent by the primary
+ * when no replica is available.
+ * </p>
+ */
+@Slf4j
+public class ReplicaConnectionProvider implements ConnectionProvider {
+
+  /**
+   * Default time, in milliseconds, during which a failing replica is skipped.
+   */
+  static final long DEFAULT_COOLDOWN = 30_000;
+
+  /**
+   * Datasource of the primary, used when no replica is available.
+   */
+  private final HikariDataSource primary;
+
+  /**
+   * Read replicas.
+   */
+  private final List<Replica> replicas;
+
+  /**
+   * Strategy selecting the replica of each query.
+   */
+  private final ReplicaSelection selection;
+
+  /**
+   * Time, in milliseconds, during which a failing replica is skipped.
+   */
+  private final long cooldown;
+
+  /**
+   * Clock used to expire the cooldown of the failing replicas.
+   */
+  private final Clock clock;
+
+  /**
+   * Index of the next replica of the round-robin selection.
+   */
+  private final AtomicInteger next = new AtomicInteger();
+
+  /**
+   * Constructor for ReplicaConnectionProvider.
+   *
+   * @param primary   the datasource of the primary
+   * @param replicas  the datasources of the read replicas
+   * @param selection the strategy selecting the replica of each query
+   * @param cooldown  the time, in milliseconds, during which a failing replica is skipped
+   * @param clock     the clock used to expire the cooldown of the failing replicas
+   */
+  public ReplicaConnectionProvider(HikariDataSource primary, List<HikariDataSource> replicas,
+      ReplicaSelection selection, long cooldown, Clock clock) {
+    this.primary = primary;
+    this.replicas = replicas.stream().map(Replica::new).toList();
+    this.selection = selection;
+    this.cooldown = cooldown;
+    this.clock = clock;
+  }
+
+  /**
+   * Lends a connection of the first available replica, or of the primary if none is available.
+   *
+   * @return the connection
+   * @throws DataAccessException if the primary cannot lend a connection either
+   */
+  @Override
+  public Connection acquire() {
+    long now = clock.millis();
+    for (Replica replica : candidates(now)) {
+      try {
+        return replica.datasource().getConnection();
+      } catch (SQLException e) {
+        log.warn("Read replica '{}' unavailable for {} ms: {}", replica.datasource().getJdbcUrl(), cooldown,
+            e.getMessage());
+        replica.unavailableUntil().set(now + cooldown);
+      }
+    }
+
+    try {
+      return primary.getConnection();
+    } catch (SQLException e) {
+      throw new DataAccessException("Cannot acquire a connection from the primary", e);
+    }
+  }
+
+  /**
+   * Returns a connection to the pool that lent it.
+   *
+   * @param connection the connection
+   * @throws DataAccessException if the connection cannot be closed
+   */
+  @Override
+  public void release(Connection connection) {
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      throw new DataAccessException("Cannot release a connection", e);
+    }
+  }
+
+  /**
+   * Returns the available replicas, in the order they should be tried.
+   *
+   * @param now the current time, in milliseconds
+   * @return the replicas to try
+   */
+  private List<Replica> candidates(long now) {
+    List<Replica> available = replicas.stream()
+        .filter(replica -> replica.unavailableUntil().get() <= now)
+        .toList();
+    if (available.size() < 2) {
+      return available;
+    }
+
+    if (selection == ReplicaSelection.LEAST_BUSY) {
+      return available.stream()
+          .sorted(Comparator.comparingInt(Replica::load))
+          .toList();
+    }
+
+    int start = Math.floorMod(next.getAndIncrement(), available.size());
+    List<Replica> ordered = new ArrayList<>(available.subList(start, available.size()));
+    ordered.addAll(available.subList(0, start));
+    return ordered;
+  }
+
+  /**
+   * Read replica.
+   *
+   * @param datasource       the datasource of the replica
+   * @param unavailableUntil the time, in milliseconds, until which the replica is skipped
+   */
+  private record Replica(HikariDataSource datasource, AtomicLong unavailableUntil) {
+
+    /**
+     * Constructor for an available replica.
+     *
+     * @param datasource the datasource of the replica
+     */
+    Replica(HikariDataSource datasource) {
+      this(datasource, new AtomicLong());
+    }
+
+    /**
+     * Returns the number of active and pending connections of the replica.
+     *
+     * @return the load of the replica, {@code 0} if its pool is not started yet
+     */
+    int load() {
+      HikariPoolMXBean pool = datasource.getHikariPoolMXBean();
+      return pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+    }
+  }
+}
@@ -26,12 +26,19 @@
 
 package io.github.linagora.linid.im.dpp.service;
 
+import io.github.linagora.linid.im.corelib.exception.ApiException;
 import io.github.linagora.linid.im.corelib.plugin.config.dto.ProviderConfiguration;
 import io.github.linagora.linid.im.corelib.plugin.entity.DynamicEntity;
 import io.github.linagora.linid.im.corelib.plugin.task.TaskExecutionContext;
 import io.github.linagora.linid.im.dpp.model.DatabasePluginConfiguration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.MultiValueMap;
 
 /**
  * Interface for performing basic database operations using jOOQ.
@@ -44,17 +51,42 @@ public interface CrudService {
   /**
    * Selects all rows from the given table.
    *
+   * @param context the task execution context, rendering the parameters of the field expressions
    * @param config the provider configuration (datasource credentials, pool settings)
    * @param databaseConfiguration the database configuration containing the table name
    * @param dynamicEntity the dynamic entity containing the table name in its configuration
    * @param pageable the pagination information (page number, page size, sorting)
    * @return the list
    */
-  Page<DynamicEntity> select(ProviderConfiguration config,
+  Page<DynamicEntity> select(TaskExecutionContext context,
+                             ProviderConfiguration config,
                              DatabasePluginConfiguration databaseConfiguration,
                              DynamicEntity dynamicEntity,
+                             MultiValueMap<String, String> filters,
                              Pageable pageable);
 
+  /**
+   * Streams all rows from the given table matching the filters to a consumer, one row at a time,
+   * within a read-only transaction.
+   *
+   * @param context the task execution context, rendering the parameters of the field expressions
+   * @param config the provider configuration (datasource credentials, pool settings)
+   * @param databaseConfiguration the database configuration containing the table name and fetch size
+   * @param dynamicEntity the dynamic entity containing the table name in its configuration
+   * @param filters the filters the rows must match
+   * @param sort the order of the rows
+   * @param consumer the consumer of the entities
+   * @return the number of streamed entities
+   * @throws ApiException with HTTP 400 if the query fails, or HTTP 500 if the consumer fails
+   */
+  long stream(TaskExecutionContext context,
+              ProviderConfiguration config,
+              DatabasePluginConfiguration databaseConfiguration,
+              DynamicEntity dynamicEntity,
+              MultiValueMap<String, String> filters,
+              Sort sort,
+              Consumer<DynamicEntity> consumer);
+
   /**
    * Selects a single row from the given table matching the given id.
    *
@@ -127,4 +159,52 @@ public interface CrudService {
               DatabasePluginConfiguration databaseConfiguration,
               Object id,
               DynamicEntity dynamicEntity);
+
+  /**
+   * Inserts new rows into the given table, with one multi-row statement and one transaction per
+   * batch of entities. The retrieving field expressions are rendered with each entity, and a batch
+   * is split into one statement per run of consecutive entities returning the same fields.
+   *
+   * @param config the provider configuration (datasource credentials, pool settings)
+   * @param databaseConfiguration the database configuration containing the table name and batch size
+   * @param dynamicEntities the dynamic entities containing the values, sharing the same configuration
+   * @param context the task execution context
+   * @return the inserted entities, in the order of the given entities
+   */
+  List<DynamicEntity> insertAll(ProviderConfiguration config,
+                                DatabasePluginConfiguration databaseConfiguration,
+                                List<DynamicEntity> dynamicEntities,
+                                TaskExecutionContext context);
+
+  /**
+   * Updates rows in the given table by id, with one JDBC batch and one transaction per batch of
+   * entities.
+   *
+   * @param config the provider configuration (datasource credentials, pool settings)
+   * @param databaseConfiguration the database configuration containing the table name and batch size
+   * @param dynamicEntities the dynamic entities containing the values, indexed by the value their
+   *                        identifier column must match, sharing the same configuration
+   * @param context the task execution context
+   * @return the number of updated rows, counting a statement reported as
+   *         {@link java.sql.Statement#SUCCESS_NO_INFO} as one row
+   */
+  int updateAll(ProviderConfiguration config,
+                DatabasePluginConfiguration databaseConfiguration,
+                Map<Object, DynamicEntity> dynamicEntities,
+                TaskExecutionContext context);
+
+  /**
+   * Deletes rows from the given table by id, with one statement and one transaction per batch of
+   * ids.
+   *
+   * @param config the provider configuration (datasource credentials, pool settings)
+   * @param databaseConfiguration the database configuration containing the table name and batch size
+   * @param ids the values the identifier column must match
+   * @param dynamicEntity the dynamic entity containing the table name in its configuration
+   * @return the number of deleted rows
+   */
+  int deleteAll(ProviderConfiguration config,
+                DatabasePluginConfiguration databaseConfiguration,
+                Collection<Object> ids,
+                DynamicEntity dynamicEntity);
 }
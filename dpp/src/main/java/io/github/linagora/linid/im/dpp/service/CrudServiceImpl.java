@@ -32,31 +32,52 @@ import io.github.linagora.linid.im.corelib.plugin.config.JinjaService;
 import io.github.linagora.linid.im.corelib.plugin.config.dto.ProviderConfiguration;
 import io.github.linagora.linid.im.corelib.plugin.entity.DynamicEntity;
 import io.github.linagora.linid.im.corelib.plugin.task.TaskExecutionContext;
+import io.github.linagora.linid.im.dpp.model.CountStrategy;
 import io.github.linagora.linid.im.dpp.model.DatabasePluginConfiguration;
+import io.github.linagora.linid.im.dpp.model.KeysetPage;
+import io.github.linagora.linid.im.dpp.plan.EntityPlan;
+import io.github.linagora.linid.im.dpp.plan.QueryPlanCache;
+import io.github.linagora.linid.im.dpp.plan.TablePlan;
 import io.github.linagora.linid.im.dpp.registry.DslRegistry;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import lombok.extern.slf4j.Slf4j;
+import org.jooq.BatchBindStep;
+import org.jooq.Condition;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.Field;
+import org.jooq.InsertValuesStepN;
 import org.jooq.Name;
+import org.jooq.Query;
 import org.jooq.QueryPart;
 import org.jooq.Record;
 import org.jooq.Result;
+import org.jooq.SelectSelectStep;
 import org.jooq.SortField;
+import org.jooq.SortOrder;
 import org.jooq.Table;
+import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.MultiValueMap;
 
 /**
  * Default implementation of {@link CrudService} using jOOQ for dynamic SQL
@@ -64,13 +85,39 @@ import org.springframework.transaction.annotation.Transactional;
  *
  * <p>
  * This service resolves table names and column mappings dynamically using
- * the configuration contained in {@link DynamicEntity}.
+ * the configuration contained in {@link DynamicEntity}, through the {@link EntityPlan} compiled
+ * once per entity configuration.
  * </p>
  */
 @Slf4j
 @Service
 public class CrudServiceImpl implements CrudService {
 
+  /**
+   * Value of {@code pagination} enabling the keyset pagination of {@code findAll}.
+   */
+  private static final String KEYSET_PAGINATION = "keyset";
+
+  /**
+   * Alias of the total count selected with the rows by the {@code window} count strategy.
+   */
+  private static final String TOTAL_FIELD = "__dpp_total";
+
+  /**
+   * Alias prefix of the raw sort columns selected with the rows by keyset pagination.
+   */
+  private static final String SORT_FIELD = "__dpp_sort_";
+
+  /**
+   * Default number of entities written per statement and transaction by the bulk operations.
+   */
+  static final int DEFAULT_BATCH_SIZE = 500;
+
+  /**
+   * Default number of rows fetched per round trip by the streamed exports.
+   */
+  static final int DEFAULT_FETCH_SIZE = 1_000;
+
   /**
    * Registry to obtain DSLContext instances based on provider configuration.
    */
@@ -82,43 +129,124 @@ public class CrudServiceImpl implements CrudService {
   private final JinjaService jinjaService;
 
   /**
-   * Constructor for CrudServiceImpl.
+   * Counter of the rows matching a {@code findAll} condition.
+   */
+  private final RowCounter rowCounter = new RowCounter();
+
+  /**
+   * Cache of the query plans of the entities.
+   */
+  private final QueryPlanCache queryPlans;
+
+  /**
+   * Constructor for CrudServiceImpl, with its own cache of query plans.
    *
    * @param dslRegistry the registry to obtain DSLContext instances based on
    *                    provider configuration
    */
   public CrudServiceImpl(final DslRegistry dslRegistry, final JinjaService jinjaService) {
+    this(dslRegistry, jinjaService, new QueryPlanCache());
+  }
+
+  /**
+   * Constructor for CrudServiceImpl.
+   *
+   * @param dslRegistry  the registry to obtain DSLContext instances based on
+   *                     provider configuration
+   * @param jinjaService the service rendering the parameters of the field expressions
+   * @param queryPlans   the cache of the query plans of the entities
+   */
+  @Autowired
+  public CrudServiceImpl(final DslRegistry dslRegistry, final JinjaService jinjaService,
+      final QueryPlanCache queryPlans) {
     this.dslRegistry = dslRegistry;
     this.jinjaService = jinjaService;
+    this.queryPlans = queryPlans;
   }
 
   @Override
   @Transactional(readOnly = true)
-  public Page<DynamicEntity> select(final ProviderConfiguration config,
+  public Page<DynamicEntity> select(final TaskExecutionContext context,
+      final ProviderConfiguration config,
       final DatabasePluginConfiguration databasePluginConfiguration,
       final DynamicEntity dynamicEntity,
+      final MultiValueMap<String, String> filters,
       final Pageable pageable) {
-    DSLContext dsl = dslRegistry.getDsl(config);
+    DSLContext readDsl = dslRegistry.getReadDsl(config);
     String tableName = databasePluginConfiguration.getTable();
-    Table<?> table = DSL.table(DSL.name(tableName));
+    EntityPlan plan = queryPlans.plan(dynamicEntity.getConfiguration());
+    TablePlan tablePlan = plan.table(tableName);
+    Table<?> table = tablePlan.table();
+    Condition condition = FilterConditionBuilder.build(dynamicEntity, filters);
+    List<Field<?>> projection = buildRetrievingFields(databasePluginConfiguration, context, dynamicEntity,
+        tablePlan);
+
+    try {
+      // The page and its count run on one connection, so that they read the same replica
+      return readDsl.connectionResult(connection -> {
+        DSLContext dsl = DSL.using(connection, readDsl.dialect(), readDsl.settings());
+        if (KEYSET_PAGINATION.equals(databasePluginConfiguration.getPagination())) {
+          return selectKeyset(config, databasePluginConfiguration, dsl, table, projection, condition, plan,
+              dynamicEntity, filters, pageable);
+        }
+        return selectOffset(config, databasePluginConfiguration, dsl, table, projection, condition, plan,
+            dynamicEntity, pageable);
+      });
+    } catch (DataAccessException e) {
+      log.error("Error SELECT on tableName `{}`: {}", tableName, e.getMessage());
+      throw new ApiException(400,
+          I18nMessage.of("dpp.error.select", Map.of("tableName", tableName, "message", e.getMessage())));
+    }
+  }
+
+  /**
+   * Selects a page using offset pagination.
+   *
+   * @param config                      the provider configuration
+   * @param databasePluginConfiguration the database plugin configuration
+   * @param dsl                         the DSL context of the connection of the page
+   * @param table                       the selected table
+   * @param projection                  the selected fields
+   * @param condition                   the condition built from the filters
+   * @param plan                        the query plan of the entity
+   * @param dynamicEntity               the entity configuration
+   * @param pageable                    the page number, size and sort
+   * @return the page
+   * @throws ApiException with HTTP 400 if the query fails
+   */
+  private Page<DynamicEntity> selectOffset(final ProviderConfiguration config,
+      final DatabasePluginConfiguration databasePluginConfiguration,
+      final DSLContext dsl,
+      final Table<?> table,
+      final List<Field<?>> projection,
+      final Condition condition,
+      final EntityPlan plan,
+      final DynamicEntity dynamicEntity,
+      final Pageable pageable) {
+    String tableName = table.getName();
+    CountStrategy countStrategy = CountStrategy.of(databasePluginConfiguration.getCount());
     int offset = (int) pageable.getOffset();
     int limit = pageable.getPageSize();
     Collection<SortField<Object>> sortFields = pageable.getSort().stream()
-        .map(this::toSortField)
+        .map(order -> toSortField(tableName, order))
         .toList();
 
     try {
-      Result<Record> records = dsl.select()
+      Result<Record> records = selectFields(dsl, countStrategy, projection)
           .from(table)
+          .where(condition)
           .orderBy(sortFields)
-          .limit(limit)
+          .limit(countStrategy == CountStrategy.NONE ? limit + 1 : limit)
           .offset(offset)
           .fetch();
 
-      int total = dsl.fetchCount(table);
+      boolean hasNext = records.size() > limit;
+      List<Record> rows = hasNext ? records.subList(0, limit) : records;
+      long total = countRows(countStrategy, config, databasePluginConfiguration, dsl, table, condition, rows,
+          offset, hasNext);
 
-      List<DynamicEntity> results = records.stream()
-          .map(record -> mappingEntity(record, dynamicEntity))
+      List<DynamicEntity> results = rows.stream()
+          .map(record -> mappingEntity(record, plan, dynamicEntity))
           .collect(Collectors.toList());
 
       return new PageImpl<>(results, pageable, total);
@@ -129,6 +257,268 @@ public class CrudServiceImpl implements CrudService {
     }
   }
 
+  /**
+   * Selects a page using keyset pagination.
+   *
+   * <p>
+   * Rows are ordered by the requested sort followed by the primary key, and the page starts after
+   * the row of the {@code cursor} filter, if any, using a seek predicate instead of an offset. The
+   * returned page carries the cursor of its last row when more rows follow. The sort columns are
+   * also selected under their own aliases, so that the cursor holds their raw values even when a
+   * retrieving field expression replaces them in the projection.
+   * </p>
+   *
+   * @param config                      the provider configuration
+   * @param databasePluginConfiguration the database plugin configuration
+   * @param dsl                         the DSL context of the connection of the page
+   * @param table                       the selected table
+   * @param projection                  the selected fields
+   * @param condition                   the condition built from the filters
+   * @param plan                        the query plan of the entity
+   * @param dynamicEntity               the entity configuration
+   * @param filters                     the filters of the request, holding the cursor
+   * @param pageable                    the page size and sort
+   * @return the page, with the cursor of the next page
+   * @throws ApiException with HTTP 400 if the cursor is invalid or the query fails
+   */
+  private Page<DynamicEntity> selectKeyset(final ProviderConfiguration config,
+      final DatabasePluginConfiguration databasePluginConfiguration,
+      final DSLContext dsl,
+      final Table<?> table,
+      final List<Field<?>> projection,
+      final Condition condition,
+      final EntityPlan plan,
+      final DynamicEntity dynamicEntity,
+      final MultiValueMap<String, String> filters,
+      final Pageable pageable) {
+    String tableName = table.getName();
+    int limit = pageable.getPageSize();
+    List<SortField<Object>> sortFields = keysetSortFields(tableName, pageable.getSort(), plan.idColumn());
+    String sort = sortFields.stream()
+        .map(field -> field.getName() + ":" + field.getOrder())
+        .collect(Collectors.joining(","));
+    String cursor = filters == null ? null : filters.getFirst(KeysetCursor.PARAMETER);
+    Object[] seekValues = cursor == null
+        ? null
+        : KeysetCursor.decode(cursor, sort, sortFields.size()).seekValues();
+    CountStrategy countStrategy = CountStrategy.of(databasePluginConfiguration.getCount());
+    if (countStrategy == CountStrategy.WINDOW && seekValues != null) {
+      // After a cursor, the window only counts the rows that follow it
+      countStrategy = CountStrategy.EXACT;
+    }
+
+    List<Field<?>> fields = new ArrayList<>(projection);
+    IntStream.range(0, sortFields.size())
+        .forEach(index -> fields.add(DSL.field(DSL.name(tableName, sortFields.get(index).getName()))
+            .as(SORT_FIELD + index)));
+
+    try {
+      Result<Record> records = selectFields(dsl, countStrategy, fields)
+          .from(table)
+          .where(seekValues == null ? condition : condition.and(seekCondition(tableName, sortFields, seekValues)))
+          .orderBy(sortFields)
+          .limit(limit + 1)
+          .fetch();
+
+      boolean hasNext = records.size() > limit;
+      List<Record> rows = hasNext ? records.subList(0, limit) : records;
+      long total = countRows(countStrategy, config, databasePluginConfiguration, dsl, table, condition, rows, 0,
+          hasNext);
+
+      String nextCursor = null;
+      if (hasNext) {
+        Record last = rows.get(limit - 1);
+        List<Field<?>> sortValues = IntStream.range(0, sortFields.size())
+            .<Field<?>>mapToObj(index -> last.field(SORT_FIELD + index))
+            .toList();
+        nextCursor = KeysetCursor.of(sort,
+            sortValues.stream().map(last::get).toList(),
+            sortValues.stream().<Class<?>>map(Field::getType).toList()).encode();
+      }
+
+      List<DynamicEntity> results = rows.stream()
+          .map(record -> mappingEntity(record, plan, dynamicEntity))
+          .collect(Collectors.toList());
+
+      return new KeysetPage<>(results, PageRequest.of(0, limit, pageable.getSort()), total, nextCursor);
+    } catch (Exception e) {
+      log.error("Error SELECT on tableName `{}`: {}", tableName, e.getMessage());
+      throw new ApiException(400,
+          I18nMessage.of("dpp.error.select", Map.of("tableName", tableName, "message", e.getMessage())));
+    }
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public long stream(final TaskExecutionContext context,
+      final ProviderConfiguration config,
+      final DatabasePluginConfiguration databasePluginConfiguration,
+      final DynamicEntity dynamicEntity,
+      final MultiValueMap<String, String> filters,
+      final Sort sort,
+      final Consumer<DynamicEntity> consumer) {
+    DSLContext dsl = dslRegistry.getReadDsl(config);
+    String tableName = databasePluginConfiguration.getTable();
+    EntityPlan plan = queryPlans.plan(dynamicEntity.getConfiguration());
+    TablePlan tablePlan = plan.table(tableName);
+    Table<?> table = tablePlan.table();
+    Condition condition = FilterConditionBuilder.build(dynamicEntity, filters);
+    List<Field<?>> projection = buildRetrievingFields(databasePluginConfiguration, context, dynamicEntity,
+        tablePlan);
+    List<SortField<Object>> sortFields = sort.stream()
+        .map(order -> toSortField(tableName, order))
+        .toList();
+    int fetchSize = Optional.ofNullable(databasePluginConfiguration.getFetchSize())
+        .filter(size -> size > 0)
+        .orElse(DEFAULT_FETCH_SIZE);
+
+    try {
+      // PostgreSQL only fetches rows by batches of the fetch size outside of auto-commit
+      return dsl.transactionResult(transaction -> {
+        DSLContext readOnly = DSL.using(transaction);
+        readOnly.execute("SET TRANSACTION READ ONLY");
+
+        long streamed = 0;
+        try (Cursor<Record> cursor = readOnly.select(projection)
+            .from(table)
+            .where(condition)
+            .orderBy(sortFields)
+            .fetchSize(fetchSize)
+            .fetchLazy()) {
+          for (Record record : cursor) {
+            DynamicEntity entity = mappingEntity(record, plan, dynamicEntity);
+            try {
+              consumer.accept(entity);
+            } catch (RuntimeException e) {
+              throw new ConsumerException(e);
+            }
+            streamed++;
+          }
+        }
+        return streamed;
+      });
+    } catch (ConsumerException e) {
+      if (e.getCause() instanceof ApiException apiException) {
+        throw apiException;
+      }
+      log.error("Error exporting tableName `{}`: {}", tableName, e.getCause().getMessage());
+      throw new ApiException(500,
+          I18nMessage.of("dpp.error.export", Map.of("message", String.valueOf(e.getCause().getMessage()))));
+    } catch (Exception e) {
+      log.error("Error SELECT on tableName `{}`: {}", tableName, e.getMessage());
+      throw new ApiException(400,
+          I18nMessage.of("dpp.error.select", Map.of("tableName", tableName, "message", e.getMessage())));
+    }
+  }
+
+  /**
+   * Starts the page query, selecting the total count with the rows for the {@code window} strategy.
+   *
+   * @param dsl           the DSL context of the provider
+   * @param countStrategy the count strategy
+   * @param projection    the selected fields
+   * @return the select step of the page query
+   */
+  private SelectSelectStep<Record> selectFields(final DSLContext dsl, final CountStrategy countStrategy,
+      final List<Field<?>> projection) {
+    if (countStrategy == CountStrategy.WINDOW) {
+      List<Field<?>> fields = new ArrayList<>(projection);
+      fields.add(DSL.count().over().as(TOTAL_FIELD));
+      return dsl.select(fields);
+    }
+    return dsl.select(projection);
+  }
+
+  /**
+   * Computes the total number of elements of a page with the configured count strategy.
+   *
+   * @param countStrategy               the count strategy
+   * @param config                      the provider configuration
+   * @param databasePluginConfiguration the database plugin configuration
+   * @param dsl                         the DSL context of the provider
+   * @param table                       the selected table
+   * @param condition                   the condition built from the filters
+   * @param rows                        the rows of the page
+   * @param offset                      the offset of the page
+   * @param hasNext                     whether a row follows the page, only known when it was probed
+   * @return the total number of elements
+   */
+  private long countRows(final CountStrategy countStrategy,
+      final ProviderConfiguration config,
+      final DatabasePluginConfiguration databasePluginConfiguration,
+      final DSLContext dsl,
+      final Table<?> table,
+      final Condition condition,
+      final List<Record> rows,
+      final long offset,
+      final boolean hasNext) {
+    long fetched = offset + rows.size();
+    return switch (countStrategy) {
+      case EXACT -> rowCounter.exact(dsl, table, condition);
+      case WINDOW -> rows.isEmpty()
+          ? (offset == 0 ? 0 : rowCounter.exact(dsl, table, condition))
+          : rows.get(0).get(TOTAL_FIELD, Long.class);
+      case ESTIMATED -> Math.max(rowCounter.estimated(dsl, table, condition), fetched + (hasNext ? 1 : 0));
+      case CACHED -> rowCounter.cached(config.getName(), dsl, table, condition,
+          Optional.ofNullable(databasePluginConfiguration.getCountCacheTtl()).orElse(RowCounter.DEFAULT_CACHE_TTL));
+      case NONE -> fetched + (hasNext ? 1 : 0);
+    };
+  }
+
+  /**
+   * Builds the sort of the keyset pagination: the requested sort, followed by the primary key
+   * when it is not already sorted, so that every row has a unique sort key. NULL values are sorted
+   * last in both directions, so that {@link #seekCondition} can place them.
+   *
+   * @param tableName the sorted table
+   * @param sort      the requested sort
+   * @param idColumn  the primary key column
+   * @return the sort fields
+   */
+  private List<SortField<Object>> keysetSortFields(final String tableName, final Sort sort, final Name idColumn) {
+    List<SortField<Object>> sortFields = new ArrayList<>(sort.stream()
+        .map(order -> toSortField(tableName, order).nullsLast())
+        .toList());
+    if (sort.getOrderFor(idColumn.last()) == null) {
+      sortFields.add(DSL.field(DSL.name(tableName, idColumn.last())).asc());
+    }
+    return sortFields;
+  }
+
+  /**
+   * Builds the predicate selecting the rows that follow the cursor in the keyset sort.
+   *
+   * <p>
+   * A row follows the cursor when its sort key equals the cursor up to some column, and its value
+   * of that column comes after the cursor value: greater, or lower in descending order, or NULL
+   * while the cursor value is not. NULL values are compared with {@code IS NULL}, since a
+   * comparison with NULL never matches, which a row value comparison cannot express.
+   * </p>
+   *
+   * @param tableName  the sorted table
+   * @param sortFields the sort fields, NULL values last
+   * @param seekValues the sort key of the last row of the previous page
+   * @return the seek predicate
+   */
+  private Condition seekCondition(final String tableName, final List<SortField<Object>> sortFields,
+      final Object[] seekValues) {
+    Condition seek = DSL.falseCondition();
+    Condition equal = DSL.trueCondition();
+    for (int index = 0; index < sortFields.size(); index++) {
+      SortField<Object> sortField = sortFields.get(index);
+      Field<Object> field = DSL.field(DSL.name(tableName, sortField.getName()));
+      Object value = seekValues[index];
+      if (value != null) {
+        Condition after = sortField.getOrder() == SortOrder.DESC
+            ? field.lt(DSL.val(value))
+            : field.gt(DSL.val(value));
+        seek = seek.or(equal.and(after.or(field.isNull())));
+      }
+      equal = equal.and(value == null ? field.isNull() : field.eq(DSL.val(value)));
+    }
+    return seek;
+  }
+
   @Override
   @Transactional(readOnly = true)
   public DynamicEntity selectOne(final TaskExecutionContext context,
@@ -136,23 +526,26 @@ public class CrudServiceImpl implements CrudService {
       final DatabasePluginConfiguration databasePluginConfiguration,
       final Object id,
       final DynamicEntity dynamicEntity) {
-    DSLContext dsl = dslRegistry.getDsl(config);
+    DSLContext dsl = dslRegistry.getReadDsl(config);
     String tableName = databasePluginConfiguration.getTable();
-    Table<?> table = DSL.table(DSL.name(tableName));
-    var idColumn = resolveIdColumn(dynamicEntity);
+    EntityPlan plan = queryPlans.plan(dynamicEntity.getConfiguration());
+    Name idColumn = plan.idColumn();
+    TablePlan tablePlan = plan.table(tableName);
 
     try {
-      Record record = dsl.select()
-          .from(table)
-          .where(DSL.field(idColumn).eq(id))
-          .fetchOne();
+      Record record = hasRetrievingFieldExpressions(databasePluginConfiguration)
+          ? dsl.select(buildRetrievingFields(databasePluginConfiguration, context, dynamicEntity, tablePlan))
+              .from(tablePlan.table())
+              .where(DSL.field(idColumn).eq(id))
+              .fetchOne()
+          : dsl.resultQuery(tablePlan.selectByIdSql(), id).fetchOne();
 
       if (record == null) {
         throw new ApiException(404,
             I18nMessage.of("dpp.error.record.notFound", Map.of("tableName", tableName, "id", id)));
       }
 
-      DynamicEntity result = mappingEntity(record, dynamicEntity);
+      DynamicEntity result = mappingEntity(record, plan, dynamicEntity);
       return result;
     } catch (Exception e) {
       log.error("Error SELECT ONE on tableName `{}`: {}", tableName, e.getMessage());
@@ -169,11 +562,13 @@ public class CrudServiceImpl implements CrudService {
       final TaskExecutionContext context) {
     String tableName = databasePluginConfiguration.getTable();
     DSLContext dsl = dslRegistry.getDsl(config);
-    Table<?> table = DSL.table(DSL.name(tableName));
+    EntityPlan plan = queryPlans.plan(dynamicEntity.getConfiguration());
+    TablePlan tablePlan = plan.table(tableName);
+    Table<?> table = tablePlan.table();
     Map<Field<?>, Object> assignmentFields = buildAssignmentFields(tableName, databasePluginConfiguration, context,
-        dynamicEntity, false);
-    List<Field<?>> retrievingFields = buildRetrievingFields(tableName, databasePluginConfiguration, context,
-        dynamicEntity);
+        dynamicEntity, tablePlan.bind(dynamicEntity.getAttributes(), false));
+    List<Field<?>> retrievingFields = buildRetrievingFields(databasePluginConfiguration, context, dynamicEntity,
+        tablePlan);
 
     try {
       Record record = dsl.insertInto(table)
@@ -186,7 +581,7 @@ public class CrudServiceImpl implements CrudService {
             I18nMessage.of("dpp.error.insert", Map.of("tableName", tableName, "message", "No record inserted")));
       }
 
-      return mappingEntity(record, dynamicEntity);
+      return mappingEntity(record, plan, dynamicEntity);
     } catch (Exception e) {
       log.error("Error INSERT on tableName `{}`: {}", tableName, e.getMessage());
       throw new ApiException(400,
@@ -203,12 +598,14 @@ public class CrudServiceImpl implements CrudService {
       final TaskExecutionContext context) {
     DSLContext dsl = dslRegistry.getDsl(config);
     String tableName = databasePluginConfiguration.getTable();
-    Table<?> table = DSL.table(DSL.name(tableName));
-    var idColumn = resolveIdColumn(dynamicEntity);
+    EntityPlan plan = queryPlans.plan(dynamicEntity.getConfiguration());
+    var idColumn = plan.idColumn();
+    TablePlan tablePlan = plan.table(tableName);
+    Table<?> table = tablePlan.table();
     Map<Field<?>, Object> assignmentFields = buildAssignmentFields(tableName, databasePluginConfiguration, context,
-        dynamicEntity, false);
-    List<Field<?>> retrievingFields = buildRetrievingFields(tableName, databasePluginConfiguration, context,
-        dynamicEntity);
+        dynamicEntity, tablePlan.bind(dynamicEntity.getAttributes(), false));
+    List<Field<?>> retrievingFields = buildRetrievingFields(databasePluginConfiguration, context, dynamicEntity,
+        tablePlan);
 
     try {
       Record record = dsl.update(table)
@@ -223,7 +620,7 @@ public class CrudServiceImpl implements CrudService {
                 Map.of("tableName", tableName, "id", id)));
       }
 
-      return mappingEntity(record, dynamicEntity);
+      return mappingEntity(record, plan, dynamicEntity);
     } catch (Exception e) {
       log.error("Error UPDATE on tableName `{}`: {}", tableName, e.getMessage());
       throw new ApiException(400,
@@ -240,12 +637,14 @@ public class CrudServiceImpl implements CrudService {
       final TaskExecutionContext context) {
     DSLContext dsl = dslRegistry.getDsl(config);
     String tableName = databasePluginConfiguration.getTable();
-    Table<?> table = DSL.table(DSL.name(tableName));
-    var idColumn = resolveIdColumn(dynamicEntity);
+    EntityPlan plan = queryPlans.plan(dynamicEntity.getConfiguration());
+    var idColumn = plan.idColumn();
+    TablePlan tablePlan = plan.table(tableName);
+    Table<?> table = tablePlan.table();
     Map<Field<?>, Object> assignmentFields = buildAssignmentFields(tableName, databasePluginConfiguration, context,
-        dynamicEntity, true);
-    List<Field<?>> retrievingFields = buildRetrievingFields(tableName, databasePluginConfiguration, context,
-        dynamicEntity);
+        dynamicEntity, tablePlan.bind(dynamicEntity.getAttributes(), true));
+    List<Field<?>> retrievingFields = buildRetrievingFields(databasePluginConfiguration, context, dynamicEntity,
+        tablePlan);
 
     try {
       Record record = dsl.update(table)
@@ -262,7 +661,7 @@ public class CrudServiceImpl implements CrudService {
                 Map.of("tableName", tableName, "id", id)));
       }
 
-      return mappingEntity(record, dynamicEntity);
+      return mappingEntity(record, plan, dynamicEntity);
     } catch (Exception e) {
       log.error("Error PATCH on tableName `{}`: {}", tableName, e.getMessage());
       throw new ApiException(400,
@@ -278,13 +677,12 @@ public class CrudServiceImpl implements CrudService {
       final DynamicEntity dynamicEntity) {
     DSLContext dsl = dslRegistry.getDsl(config);
     String tableName = databasePluginConfiguration.getTable();
-    Table<?> table = DSL.table(DSL.name(tableName));
-    var idColumn = resolveIdColumn(dynamicEntity);
+    EntityPlan plan = queryPlans.plan(dynamicEntity.getConfiguration());
+    plan.idColumn(); // fails when no primary key is configured
+    TablePlan tablePlan = plan.table(tableName);
 
     try {
-      int deleted = dsl.deleteFrom(table)
-          .where(DSL.field(idColumn).eq(id))
-          .execute();
+      int deleted = dsl.execute(tablePlan.deleteByIdSql(), id);
 
       if (deleted == 0) {
         throw new ApiException(404,
@@ -298,26 +696,210 @@ public class CrudServiceImpl implements CrudService {
     }
   }
 
+  @Override
+  public List<DynamicEntity> insertAll(final ProviderConfiguration config,
+      final DatabasePluginConfiguration databasePluginConfiguration,
+      final List<DynamicEntity> dynamicEntities,
+      final TaskExecutionContext context) {
+    if (dynamicEntities.isEmpty()) {
+      return List.of();
+    }
+    String tableName = databasePluginConfiguration.getTable();
+    DSLContext dsl = dslRegistry.getDsl(config);
+    EntityPlan plan = queryPlans.plan(dynamicEntities.get(0).getConfiguration());
+    TablePlan tablePlan = plan.table(tableName);
+    List<DynamicEntity> results = new ArrayList<>(dynamicEntities.size());
+
+    try {
+      for (List<DynamicEntity> batch : batches(dynamicEntities, batchSize(databasePluginConfiguration))) {
+        List<List<Field<?>>> returning = batch.stream()
+            .map(entity -> buildRetrievingFields(databasePluginConfiguration, context, entity, tablePlan))
+            .toList();
+        results.addAll(dsl.transactionResult(transaction -> {
+          List<DynamicEntity> inserted = new ArrayList<>(batch.size());
+          int start = 0;
+          while (start < batch.size()) {
+            // Consecutive entities returning the same fields share a statement, jOOQ fields being
+            // equal when they render the same SQL
+            int end = start + 1;
+            while (end < batch.size() && returning.get(end).equals(returning.get(start))) {
+              end++;
+            }
+            inserted.addAll(insertRows(DSL.using(transaction), databasePluginConfiguration, context, plan,
+                batch.subList(start, end), returning.get(start)));
+            start = end;
+          }
+          return inserted;
+        }));
+      }
+      return results;
+    } catch (Exception e) {
+      log.error("Error INSERT on tableName `{}`: {}", tableName, e.getMessage());
+      throw new ApiException(400,
+          I18nMessage.of("dpp.error.insert", Map.of("tableName", tableName, "message", e.getMessage())));
+    }
+  }
+
+  /**
+   * Inserts entities with a single multi-row statement, returning the given fields.
+   *
+   * @param dsl                         the DSL context of the transaction
+   * @param databasePluginConfiguration the database plugin configuration
+   * @param context                     the task execution context
+   * @param plan                        the query plan of the entities
+   * @param entities                    the entities to insert
+   * @param retrievingFields            the fields returned for every inserted row
+   * @return the inserted entities, in the order of the given entities
+   */
+  private List<DynamicEntity> insertRows(final DSLContext dsl,
+      final DatabasePluginConfiguration databasePluginConfiguration,
+      final TaskExecutionContext context,
+      final EntityPlan plan,
+      final List<DynamicEntity> entities,
+      final List<Field<?>> retrievingFields) {
+    String tableName = databasePluginConfiguration.getTable();
+    TablePlan tablePlan = plan.table(tableName);
+    List<Map<Field<?>, Object>> rows = entities.stream()
+        .map(entity -> buildAssignmentFields(tableName, databasePluginConfiguration, context, entity,
+            tablePlan.bind(entity.getAttributes(), false)))
+        .toList();
+    List<Field<?>> columns = List.copyOf(rows.get(0).keySet());
+
+    InsertValuesStepN<Record> insert = dsl.insertInto(tablePlan.table(), columns);
+    for (Map<Field<?>, Object> row : rows) {
+      insert = insert.values(columns.stream()
+          .map(column -> row.getOrDefault(column, DSL.defaultValue()))
+          .toList());
+    }
+
+    return insert.returning(retrievingFields)
+        .fetch()
+        .stream()
+        .map(record -> mappingEntity(record, plan, entities.get(0)))
+        .toList();
+  }
+
+  @Override
+  public int updateAll(final ProviderConfiguration config,
+      final DatabasePluginConfiguration databasePluginConfiguration,
+      final Map<Object, DynamicEntity> dynamicEntities,
+      final TaskExecutionContext context) {
+    if (dynamicEntities.isEmpty()) {
+      return 0;
+    }
+    DSLContext dsl = dslRegistry.getDsl(config);
+    String tableName = databasePluginConfiguration.getTable();
+    EntityPlan plan = queryPlans.plan(dynamicEntities.values().iterator().next().getConfiguration());
+    Field<Object> idField = DSL.field(plan.idColumn());
+    TablePlan tablePlan = plan.table(tableName);
+    int updated = 0;
+
+    try {
+      for (List<Map.Entry<Object, DynamicEntity>> batch : batches(List.copyOf(dynamicEntities.entrySet()),
+          batchSize(databasePluginConfiguration))) {
+        Map<String, List<Query>> queriesBySql = new LinkedHashMap<>();
+        for (Map.Entry<Object, DynamicEntity> entry : batch) {
+          DynamicEntity entity = entry.getValue();
+          Query query = dsl.update(tablePlan.table())
+              .set(buildAssignmentFields(tableName, databasePluginConfiguration, context, entity,
+                  tablePlan.bind(entity.getAttributes(), false)))
+              .where(idField.eq(entry.getKey()));
+          queriesBySql.computeIfAbsent(dsl.render(query), sql -> new ArrayList<>()).add(query);
+        }
+
+        updated += dsl.transactionResult(transaction -> executeBatches(DSL.using(transaction), queriesBySql));
+      }
+      return updated;
+    } catch (Exception e) {
+      log.error("Error UPDATE on tableName `{}`: {}", tableName, e.getMessage());
+      throw new ApiException(400,
+          I18nMessage.of("dpp.error.update", Map.of("tableName", tableName, "message", e.getMessage())));
+    }
+  }
+
+  @Override
+  public int deleteAll(final ProviderConfiguration config,
+      final DatabasePluginConfiguration databasePluginConfiguration,
+      final Collection<Object> ids,
+      final DynamicEntity dynamicEntity) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    DSLContext dsl = dslRegistry.getDsl(config);
+    String tableName = databasePluginConfiguration.getTable();
+    EntityPlan plan = queryPlans.plan(dynamicEntity.getConfiguration());
+    Field<Object> idField = DSL.field(plan.idColumn());
+    TablePlan tablePlan = plan.table(tableName);
+    int deleted = 0;
+
+    try {
+      for (List<Object> batch : batches(List.copyOf(ids), batchSize(databasePluginConfiguration))) {
+        deleted += dsl.deleteFrom(tablePlan.table())
+            .where(idField.in(batch))
+            .execute();
+      }
+      return deleted;
+    } catch (Exception e) {
+      log.error("Error DELETE on tableName `{}`: {}", tableName, e.getMessage());
+      throw new ApiException(400,
+          I18nMessage.of("dpp.error.delete", Map.of("tableName", tableName, "message", e.getMessage())));
+    }
+  }
+
+  /**
+   * Executes queries as JDBC batches, one prepared statement per SQL shape, binding the values of
+   * each query of that shape.
+   *
+   * <p>
+   * A driver may report a statement of a batch as {@link Statement#SUCCESS_NO_INFO}, without its
+   * number of affected rows. The queries update a row by primary key, so such a statement is
+   * counted as one row, the most it can have affected.
+   * </p>
+   *
+   * @param dsl          the DSL context of the transaction
+   * @param queriesBySql the queries, grouped by rendered SQL
+   * @return the number of affected rows
+   */
+  private int executeBatches(final DSLContext dsl, final Map<String, List<Query>> queriesBySql) {
+    int affected = 0;
+    for (Map.Entry<String, List<Query>> entry : queriesBySql.entrySet()) {
+      BatchBindStep batch = dsl.batch(entry.getKey());
+      for (Query query : entry.getValue()) {
+        batch = batch.bind(query.getBindValues().toArray());
+      }
+      affected += IntStream.of(batch.execute())
+          .map(count -> count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0))
+          .sum();
+    }
+    return affected;
+  }
+
   /**
-   * Resolves the primary key column name from the dynamic entity configuration.
+   * Returns the number of entities written per statement and transaction by the bulk operations.
    *
-   * @param dynamicEntity the dynamic entity containing the configuration with
-   *                      attributes
-   * @return the primary key column name as a jOOQ Name object
+   * @param databasePluginConfiguration the database plugin configuration
+   * @return the configured batch size, or {@link #DEFAULT_BATCH_SIZE} if none or not positive
+   */
+  private int batchSize(final DatabasePluginConfiguration databasePluginConfiguration) {
+    return Optional.ofNullable(databasePluginConfiguration.getBatchSize())
+        .filter(size -> size > 0)
+        .orElse(DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Splits elements into consecutive batches.
+   *
+   * @param elements the elements
+   * @param size     the maximum size of a batch
+   * @param <T>      the type of the elements
+   * @return the batches, as views of the elements
    */
-  private Name resolveIdColumn(final DynamicEntity dynamicEntity) {
-    String name = dynamicEntity.getConfiguration().getAttributes().stream()
-        .filter(attr -> Boolean.TRUE.equals(attr.getAccess().get("primaryKey")))
-        .findFirst()
-        .map(attr -> (String) attr.getAccess().get("column"))
-        .orElseThrow(
-            () -> new ApiException(
-                500,
-                I18nMessage.of(
-                    "dpp.error.noPrimary",
-                    Map.of("entity", dynamicEntity.getConfiguration().getName()))));
-
-    return DSL.name(name);
+  private static <T> List<List<T>> batches(final List<T> elements, final int size) {
+    List<List<T>> batches = new ArrayList<>();
+    for (int from = 0; from < elements.size(); from += size) {
+      batches.add(elements.subList(from, Math.min(from + size, elements.size())));
+    }
+    return batches;
   }
 
   /**
@@ -327,17 +909,16 @@ public class CrudServiceImpl implements CrudService {
    * @param databasePluginConfiguration the database plugin configuration
    * @param context                     the task execution context
    * @param dynamicEntity               the dynamic entity
-   * @param partial                     whether the update is partial
+   * @param requestFieldExpressions     the fields and values bound from the request
    * @return a map of fields and values for assignment in SQL queries
    */
   Map<Field<?>, Object> buildAssignmentFields(final String tableName,
       final DatabasePluginConfiguration databasePluginConfiguration,
       final TaskExecutionContext context,
       final DynamicEntity dynamicEntity,
-      final boolean partial) {
+      final Map<Field<?>, Object> requestFieldExpressions) {
     Map<Field<?>, Object> assignmentFieldExpressions = configurationAssignmentFields(
-        tableName, databasePluginConfiguration, context, dynamicEntity, partial);
-    Map<Field<?>, Object> requestFieldExpressions = buildFields(tableName, dynamicEntity, partial);
+        tableName, databasePluginConfiguration, context, dynamicEntity, requestFieldExpressions);
 
     for (Map.Entry<Field<?>, Object> entry : requestFieldExpressions.entrySet()) {
       assignmentFieldExpressions.putIfAbsent(entry.getKey(), entry.getValue());
@@ -353,20 +934,19 @@ public class CrudServiceImpl implements CrudService {
    * @param databasePluginConfiguration the database plugin configuration
    * @param context                     the task execution context
    * @param dynamicEntity               the dynamic entity
-   * @param partial                     whether the update is partial
+   * @param fields                      the fields and values bound from the request
    * @return a map of fields and values from configuration
    */
   private Map<Field<?>, Object> configurationAssignmentFields(final String tableName,
       DatabasePluginConfiguration databasePluginConfiguration,
       final TaskExecutionContext context,
       final DynamicEntity dynamicEntity,
-      final boolean partial) {
+      final Map<Field<?>, Object> fields) {
     if (databasePluginConfiguration.getAssignmentFieldExpressions() == null
         || databasePluginConfiguration.getAssignmentFieldExpressions().isEmpty()) {
       return new HashMap<>();
     }
     Map<Field<?>, Object> fieldExpressions = new HashMap<Field<?>, Object>();
-    Map<Field<?>, Object> fields = buildFields(tableName, dynamicEntity, partial);
     Set<String> fieldNames = fields.keySet().stream()
         .map(Field::getName)
         .collect(Collectors.toSet());
@@ -403,22 +983,18 @@ public class CrudServiceImpl implements CrudService {
   /**
    * Builds a list of fields for returning in SQL queries.
    *
-   * @param tableName                   the name of the table
    * @param databasePluginConfiguration the database plugin configuration
    * @param context                     the task execution context
    * @param dynamicEntity               the dynamic entity
+   * @param tablePlan                   the query plan of the table, giving the mapped columns
    * @return a list of fields for the RETURNING clause
    */
-  private List<Field<?>> buildRetrievingFields(final String tableName,
-      final DatabasePluginConfiguration databasePluginConfiguration, final TaskExecutionContext context,
-      final DynamicEntity dynamicEntity) {
-    List<Field<?>> retrievingFields = configurationRetrievingFields(tableName, databasePluginConfiguration, context,
+  private List<Field<?>> buildRetrievingFields(final DatabasePluginConfiguration databasePluginConfiguration,
+      final TaskExecutionContext context, final DynamicEntity dynamicEntity, final TablePlan tablePlan) {
+    List<Field<?>> retrievingFields = configurationRetrievingFields(databasePluginConfiguration, context,
         dynamicEntity);
 
-    List<Field<?>> requestFieldExpressions = new ArrayList<Field<?>>();
-    requestFieldExpressions.addAll(buildFields(tableName, dynamicEntity, false).keySet());
-
-    for (Field<?> entry : requestFieldExpressions) {
+    for (Field<?> entry : tablePlan.fields()) {
       if (retrievingFields.stream().noneMatch(f -> f.getName().equals(entry.getName()))) {
         retrievingFields.add(entry);
       }
@@ -427,23 +1003,31 @@ public class CrudServiceImpl implements CrudService {
     return retrievingFields;
   }
 
+  /**
+   * Checks whether retrieving field expressions are configured for the action.
+   *
+   * @param databasePluginConfiguration the database plugin configuration
+   * @return {@code true} if at least one retrieving field expression is configured
+   */
+  private boolean hasRetrievingFieldExpressions(final DatabasePluginConfiguration databasePluginConfiguration) {
+    return databasePluginConfiguration.getRetrievingFieldExpressions() != null
+        && !databasePluginConfiguration.getRetrievingFieldExpressions().isEmpty();
+  }
+
   /**
    * Builds a collection of computed fields for the RETURNING clause.
    *
-   * @param tableName                   the name of the table
    * @param databasePluginConfiguration the plugin configuration containing
    * @param context                     the task execution context used for Jinja
    * @param dynamicEntity               the dynamic entity used for Jinja
    * @return a collection of aliased DSL fields to use in the RETURNING clause
    */
   private List<Field<?>> configurationRetrievingFields(
-      final String tableName,
       final DatabasePluginConfiguration databasePluginConfiguration,
       final TaskExecutionContext context,
       final DynamicEntity dynamicEntity) {
 
-    if (databasePluginConfiguration.getRetrievingFieldExpressions() == null
-        || databasePluginConfiguration.getRetrievingFieldExpressions().isEmpty()) {
+    if (!hasRetrievingFieldExpressions(databasePluginConfiguration)) {
       return new ArrayList<>();
     }
     List<Field<?>> fieldExpressions = new ArrayList<>();
@@ -473,33 +1057,15 @@ public class CrudServiceImpl implements CrudService {
     return fieldExpressions;
   }
 
-  /**
-   * Builds a map of fields and values for a full update/insert/patch operation.
-   *
-   * @param dynamicEntity the source entity
-   * @param partial       boolean for patch operation
-   * @return the map of database fields and values
-   */
-  private Map<Field<?>, Object> buildFields(final String tableName, final DynamicEntity dynamicEntity,
-      boolean partial) {
-    Map<String, Object> attributes = dynamicEntity.getAttributes();
-
-    return dynamicEntity.getConfiguration().getAttributes().stream()
-        .filter(attr -> attr.getAccess().get("column") != null)
-        .filter(attr -> !partial || attributes.containsKey(attr.getName()))
-        .collect(Collectors.toMap(
-            attr -> DSL.field(DSL.name(tableName, (String) attr.getAccess().get("column"))),
-            attr -> attributes.getOrDefault(attr.getName(), DSL.defaultValue())));
-  }
-
   /**
    * Maps a jOOQ record to a DynamicEntity.
    *
    * @param record        the database record
+   * @param plan          the query plan of the entity, giving the attribute columns
    * @param dynamicEntity the entity configuration
    * @return the mapped dynamic entity
    */
-  private DynamicEntity mappingEntity(final Record record, final DynamicEntity dynamicEntity) {
+  private DynamicEntity mappingEntity(final Record record, final EntityPlan plan, final DynamicEntity dynamicEntity) {
     Map<String, Object> recordMap = record.intoMap();
     DynamicEntity entity = new DynamicEntity();
     entity.setConfiguration(dynamicEntity.getConfiguration());
@@ -507,13 +1073,7 @@ public class CrudServiceImpl implements CrudService {
 
     Map<String, Object> attributes = new HashMap<>();
 
-    dynamicEntity.getConfiguration()
-        .getAttributes()
-        .forEach(attr -> {
-          String key = attr.getName();
-          Object value = recordMap.get((String) attr.getAccess().get("column"));
-          attributes.put(key, value);
-        });
+    plan.mappings().forEach(mapping -> attributes.put(mapping.attribute(), recordMap.get(mapping.column())));
 
     entity.setAttributes(attributes);
 
@@ -521,14 +1081,16 @@ public class CrudServiceImpl implements CrudService {
   }
 
   /**
-   * Converts a Spring Sort.Order into a jOOQ SortField.
+   * Converts a Spring Sort.Order into a jOOQ SortField on the raw column of the table, so that a
+   * retrieving expression aliased with the column name does not change the order.
    *
-   * @param order the sort order
+   * @param tableName the sorted table
+   * @param order     the sort order
    * @return the corresponding SortField
    */
-  private SortField<Object> toSortField(final Sort.Order order) {
+  private SortField<Object> toSortField(final String tableName, final Sort.Order order) {
     String property = order.getProperty();
-    Field<Object> field = DSL.field(DSL.name(property));
+    Field<Object> field = DSL.field(DSL.name(tableName, property));
 
     if (order.isAscending()) {
       return field.asc();
@@ -536,4 +1098,19 @@ public class CrudServiceImpl implements CrudService {
 
     return field.desc();
   }
+
+  /**
+   * Failure of the consumer of a stream, told apart from the failures of the query.
+   */
+  private static final class ConsumerException extends RuntimeException {
+
+    /**
+     * Wraps the failure of the consumer.
+     *
+     * @param cause the exception thrown by the consumer
+     */
+    ConsumerException(final RuntimeException cause) {
+      super(cause);
+    }
+  }
 }
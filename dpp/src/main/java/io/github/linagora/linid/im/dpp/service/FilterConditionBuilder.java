@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.service;
+
+import io.github.linagora.linid.im.corelib.exception.ApiException;
+import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
+import io.github.linagora.linid.im.corelib.plugin.config.dto.AttributeConfiguration;
+import io.github.linagora.linid.im.corelib.plugin.entity.DynamicEntity;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.jooq.Condition;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Translates the {@code findAll} filters into a SQL {@link Condition} on the mapped columns.
+ *
+ * <p>
+ * Each filter key is the name of an entity attribute mapped to a column through
+ * {@code access.column}; keys that do not match such an attribute (e.g. paging parameters) are
+ * ignored. Values are converted to the attribute type, so that predicates are bound with the
+ * column type and can use its indexes:
+ * </p>
+ * <ul>
+ *   <li>{@code name=value}: equality; several values of the same key are combined into
+ *   {@code IN (...)}.</li>
+ *   <li>{@code name=prefix*}: {@code LIKE 'prefix%'} on text attributes, with the wildcards of
+ *   the prefix escaped.</li>
+ *   <li>{@code name=gt:value}, {@code gte:}, {@code lt:}, {@code lte:}: range bounds, all applied
+ *   together.</li>
+ * </ul>
+ * <p>
+ * Equality and prefix values of a key are alternatives (OR); range bounds restrict them (AND).
+ * Conditions of different keys are combined with AND.
+ * </p>
+ */
+public final class FilterConditionBuilder {
+
+  /**
+   * Suffix of the values matched as a prefix.
+   */
+  private static final String PREFIX_WILDCARD = "*";
+
+  /**
+   * Escape character of the {@code LIKE} patterns.
+   */
+  private static final char LIKE_ESCAPE = '\\';
+
+  /**
+   * Range operators, indexed by their value prefix.
+   */
+  private static final Map<String, RangeOperator> RANGE_OPERATORS = Map.of(
+      "gt:", RangeOperator.GT,
+      "gte:", RangeOperator.GTE,
+      "lt:", RangeOperator.LT,
+      "lte:", RangeOperator.LTE);
+
+  /**
+   * Range operators supported by the filters.
+   */
+  private enum RangeOperator {
+    /**
+     * Strictly greater than.
+     */
+    GT,
+    /**
+     * Greater than or equal to.
+     */
+    GTE,
+    /**
+     * Strictly lower than.
+     */
+    LT,
+    /**
+     * Lower than or equal to.
+     */
+    LTE
+  }
+
+  private FilterConditionBuilder() {
+  }
+
+  /**
+   * Builds the condition matching the given filters.
+   *
+   * @param dynamicEntity the entity whose attributes define the filterable columns
+   * @param filters       the filters of the request, may be {@code null}
+   * @return the condition, {@link DSL#noCondition()} if no filter applies
+   * @throws ApiException with HTTP 400 if a value cannot be converted to its attribute type
+   */
+  public static Condition build(final DynamicEntity dynamicEntity,
+      final MultiValueMap<String, String> filters) {
+    if (filters == null || filters.isEmpty()) {
+      return DSL.noCondition();
+    }
+
+    List<Condition> conditions = new ArrayList<>();
+    for (AttributeConfiguration attribute : dynamicEntity.getConfiguration().getAttributes()) {
+      String column = (String) attribute.getAccess().get("column");
+      List<String> values = filters.get(attribute.getName());
+      if (column != null && values != null && !values.isEmpty()) {
+        conditions.add(attributeCondition(attribute, DSL.field(DSL.name(column)), values));
+      }
+    }
+
+    return DSL.and(conditions);
+  }
+
+  /**
+   * Builds the condition of a single attribute.
+   *
+   * @param attribute the filtered attribute
+   * @param field     the mapped column
+   * @param values    the filter values of the attribute
+   * @return the condition of the attribute
+   */
+  private static Condition attributeCondition(final AttributeConfiguration attribute,
+      final Field<Object> field,
+      final List<String> values) {
+    List<Object> equalities = new ArrayList<>();
+    List<Condition> alternatives = new ArrayList<>();
+    List<Condition> bounds = new ArrayList<>();
+
+    for (String value : values) {
+      RangeOperator operator = rangeOperator(value);
+      if (operator != null) {
+        String bound = value.substring(value.indexOf(':') + 1);
+        bounds.add(rangeCondition(field, operator, convert(attribute, bound)));
+      } else if (value.endsWith(PREFIX_WILDCARD) && isText(attribute)) {
+        String prefix = value.substring(0, value.length() - PREFIX_WILDCARD.length());
+        alternatives.add(field.like(escapeLike(prefix) + "%", LIKE_ESCAPE));
+      } else {
+        equalities.add(convert(attribute, value));
+      }
+    }
+
+    if (equalities.size() == 1) {
+      alternatives.add(field.eq(equalities.get(0)));
+    } else if (!equalities.isEmpty()) {
+      alternatives.add(field.in(equalities));
+    }
+
+    return DSL.or(alternatives).and(DSL.and(bounds));
+  }
+
+  /**
+   * Returns the range operator the value starts with.
+   *
+   * @param value the filter value
+   * @return the range operator, or {@code null} if the value is not a range bound
+   */
+  private static RangeOperator rangeOperator(final String value) {
+    int separator = value.indexOf(':');
+    if (separator < 0) {
+      return null;
+    }
+    return RANGE_OPERATORS.get(value.substring(0, separator + 1));
+  }
+
+  /**
+   * Builds a range condition.
+   *
+   * @param field    the mapped column
+   * @param operator the range operator
+   * @param bound    the converted bound
+   * @return the range condition
+   */
+  private static Condition rangeCondition(final Field<Object> field,
+      final RangeOperator operator,
+      final Object bound) {
+    return switch (operator) {
+      case GT -> field.gt(bound);
+      case GTE -> field.ge(bound);
+      case LT -> field.lt(bound);
+      case LTE -> field.le(bound);
+    };
+  }
+
+  /**
+   * Returns whether the attribute holds text, the only type matched by prefix.
+   *
+   * @param attribute the attribute
+   * @return {@code true} if the attribute has no type or the {@code String} type
+   */
+  private static boolean isText(final AttributeConfiguration attribute) {
+    return attribute.getType() == null || AttributeValues.DEFAULT_TYPE.equals(attribute.getType());
+  }
+
+  /**
+   * Escapes the {@code LIKE} wildcards of a literal prefix.
+   *
+   * @param prefix the literal prefix
+   * @return the escaped prefix
+   */
+  private static String escapeLike(final String prefix) {
+    StringBuilder escaped = new StringBuilder(prefix.length() + 8);
+    for (char c : prefix.toCharArray()) {
+      if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+        escaped.append(LIKE_ESCAPE);
+      }
+      escaped.append(c);
+    }
+    return escaped.toString();
+  }
+
+  /**
+   * Converts a filter value to the type of its attribute.
+   *
+   * @param attribute the filtered attribute
+   * @param value     the filter value
+   * @return the converted value
+   * @throws ApiException with HTTP 400 if the value does not match the attribute type
+   */
+  private static Object convert(final AttributeConfiguration attribute, final String value) {
+    try {
+      return AttributeValues.convert(attribute.getType(), value);
+    } catch (IllegalArgumentException e) {
+      throw new ApiException(400,
+          I18nMessage.of("dpp.error.filter", Map.of("attribute", attribute.getName(), "value", value)));
+    }
+  }
+}
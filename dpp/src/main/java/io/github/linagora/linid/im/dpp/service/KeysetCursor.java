@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.service;
+
+import io.github.linagora.linid.im.corelib.exception.ApiException;
+import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Opaque continuation cursor of the keyset pagination.
+ *
+ * <p>
+ * The cursor holds the sort key of the last row of a page, i.e. the values of its sort columns
+ * followed by its primary key, together with the sort it was built for. It is encoded as
+ * URL-safe Base64 JSON so that clients pass it back unchanged.
+ * </p>
+ *
+ * <p>
+ * Each value is stored with the Java type it was fetched as, so that it is bound back with the
+ * type of its column, e.g. a timestamp rather than a string, whatever the attribute type of the
+ * entity. Values of other types than the ones listed in {@link #PARSERS} are bound as text.
+ * </p>
+ *
+ * @param sort   the signature of the sort the cursor was built for
+ * @param values the sort key of the last row, as text
+ * @param types  the Java type names of the values, as fetched from their columns
+ */
+record KeysetCursor(String sort, List<String> values, List<String> types) {
+
+  /**
+   * Name of the request parameter carrying the cursor.
+   */
+  static final String PARAMETER = "cursor";
+
+  /**
+   * Mapper used to serialize the cursors.
+   */
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  /**
+   * Parsers of the values, by Java type name of their column.
+   */
+  private static final Map<String, Function<String, Object>> PARSERS = Map.ofEntries(
+      Map.entry(Short.class.getName(), Short::valueOf),
+      Map.entry(Integer.class.getName(), Integer::valueOf),
+      Map.entry(Long.class.getName(), Long::valueOf),
+      Map.entry(BigInteger.class.getName(), BigInteger::new),
+      Map.entry(BigDecimal.class.getName(), BigDecimal::new),
+      Map.entry(Float.class.getName(), Float::valueOf),
+      Map.entry(Double.class.getName(), Double::valueOf),
+      Map.entry(Boolean.class.getName(), Boolean::valueOf),
+      Map.entry(UUID.class.getName(), UUID::fromString),
+      Map.entry(LocalDate.class.getName(), LocalDate::parse),
+      Map.entry(LocalTime.class.getName(), LocalTime::parse),
+      Map.entry(LocalDateTime.class.getName(), LocalDateTime::parse),
+      Map.entry(OffsetTime.class.getName(), OffsetTime::parse),
+      Map.entry(OffsetDateTime.class.getName(), OffsetDateTime::parse),
+      Map.entry(Instant.class.getName(), Instant::parse),
+      Map.entry(Date.class.getName(), Date::valueOf),
+      Map.entry(Time.class.getName(), Time::valueOf),
+      Map.entry(Timestamp.class.getName(), Timestamp::valueOf));
+
+  /**
+   * Builds the cursor of a row.
+   *
+   * @param sort   the signature of the sort
+   * @param values the sort key of the row
+   * @param types  the Java types of the sort columns, as fetched
+   * @return the cursor
+   */
+  static KeysetCursor of(final String sort, final List<?> values, final List<Class<?>> types) {
+    List<String> text = new ArrayList<>(values.size());
+    values.forEach(value -> text.add(value == null ? null : value.toString()));
+    return new KeysetCursor(sort, text, types.stream().map(Class::getName).toList());
+  }
+
+  /**
+   * Encodes the cursor.
+   *
+   * @return the opaque cursor
+   */
+  String encode() {
+    byte[] json = MAPPER.writeValueAsBytes(this);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+  }
+
+  /**
+   * Decodes a cursor and checks that it was built for the given sort.
+   *
+   * @param cursor the opaque cursor
+   * @param sort   the signature of the requested sort
+   * @param size   the number of values of the sort key
+   * @return the decoded cursor
+   * @throws ApiException with HTTP 400 if the cursor is invalid or was built for another sort
+   */
+  static KeysetCursor decode(final String cursor, final String sort, final int size) {
+    KeysetCursor decoded;
+    try {
+      byte[] json = Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII));
+      decoded = MAPPER.readValue(json, KeysetCursor.class);
+    } catch (IllegalArgumentException | JacksonException e) {
+      throw invalid(cursor);
+    }
+    if (!sort.equals(decoded.sort())
+        || decoded.values() == null || decoded.values().size() != size
+        || decoded.types() == null || decoded.types().size() != size) {
+      throw invalid(cursor);
+    }
+    return decoded;
+  }
+
+  /**
+   * Converts the values of the cursor back to the types of their columns.
+   *
+   * @return the values to seek after
+   * @throws ApiException with HTTP 400 if a value does not match its type
+   */
+  Object[] seekValues() {
+    Object[] seek = new Object[values.size()];
+    for (int i = 0; i < seek.length; i++) {
+      String value = values.get(i);
+      try {
+        seek[i] = value == null ? null : PARSERS.getOrDefault(types.get(i), text -> text).apply(value);
+      } catch (RuntimeException e) {
+        throw invalid(encode());
+      }
+    }
+    return seek;
+  }
+
+  /**
+   * Builds the exception of an invalid cursor.
+   *
+   * @param cursor the invalid cursor
+   * @return the exception to throw
+   */
+  private static ApiException invalid(final String cursor) {
+    return new ApiException(400, I18nMessage.of("dpp.error.cursor", Map.of("cursor", cursor)));
+  }
+}
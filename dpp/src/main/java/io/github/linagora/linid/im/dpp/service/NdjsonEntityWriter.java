@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.service;
+
+import io.github.linagora.linid.im.corelib.plugin.entity.DynamicEntity;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Consumer writing the attributes of each entity as one JSON object per line (NDJSON) to an
+ * output stream.
+ *
+ * <p>
+ * Nothing is buffered besides the line being written, so that the output of a streamed export
+ * stays in constant memory. The output stream is neither flushed nor closed by the writer.
+ * </p>
+ */
+public final class NdjsonEntityWriter implements Consumer<DynamicEntity> {
+
+  /**
+   * Mapper used to serialize the attributes of the entities.
+   */
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  /**
+   * Line separator of NDJSON.
+   */
+  private static final int NEW_LINE = '\n';
+
+  /**
+   * Output stream the lines are written to.
+   */
+  private final OutputStream output;
+
+  /**
+   * Constructor for NdjsonEntityWriter.
+   *
+   * @param output the output stream the lines are written to
+   */
+  public NdjsonEntityWriter(final OutputStream output) {
+    this.output = output;
+  }
+
+  /**
+   * Writes the attributes of an entity as one line.
+   *
+   * @param dynamicEntity the entity
+   * @throws UncheckedIOException if the line cannot be written
+   */
+  @Override
+  public void accept(final DynamicEntity dynamicEntity) {
+    try {
+      output.write(MAPPER.writeValueAsBytes(dynamicEntity.getAttributes()));
+      output.write(NEW_LINE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
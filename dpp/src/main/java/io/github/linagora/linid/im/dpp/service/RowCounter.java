@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.service;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+
+/**
+ * Counts the rows matching a {@code findAll} condition, exactly, from the PostgreSQL estimates, or
+ * through a cache of exact counts.
+ */
+final class RowCounter {
+
+  /**
+   * Default time to live, in milliseconds, of the cached counts.
+   */
+  static final long DEFAULT_CACHE_TTL = 60_000L;
+
+  /**
+   * Maximum number of cached counts; the cache is purged beyond it.
+   */
+  static final int MAX_CACHED_COUNTS = 1_000;
+
+  /**
+   * Cached counts, indexed by provider and count query.
+   */
+  private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+  /**
+   * Clock used to expire the cached counts.
+   */
+  private final Clock clock;
+
+  /**
+   * Constructor for RowCounter.
+   */
+  RowCounter() {
+    this(Clock.systemUTC());
+  }
+
+  /**
+   * Constructor for RowCounter, with the clock used to expire the cached counts.
+   *
+   * @param clock the clock
+   */
+  RowCounter(final Clock clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Counts the matching rows with a {@code COUNT(*)} query.
+   *
+   * @param dsl       the DSL context of the provider
+   * @param table     the counted table
+   * @param condition the condition of the rows
+   * @return the number of matching rows
+   */
+  long exact(final DSLContext dsl, final Table<?> table, final Condition condition) {
+    return dsl.fetchCount(table, condition);
+  }
+
+  /**
+   * Estimates the matching rows without scanning them.
+   *
+   * <p>Unfiltered counts read {@code pg_class.reltuples}; filtered ones read the row estimate of
+   * the query plan. Tables that have never been analyzed have no estimate and are counted exactly.
+   *
+   * @param dsl       the DSL context of the provider
+   * @param table     the counted table
+   * @param condition the condition of the rows
+   * @return the estimated number of matching rows
+   */
+  long estimated(final DSLContext dsl, final Table<?> table, final Condition condition) {
+    Double rows;
+    if (DSL.noCondition().equals(condition)) {
+      rows = dsl.select(DSL.field(DSL.name("reltuples"), Double.class))
+          .from(DSL.table(DSL.name("pg_class")))
+          .where(DSL.field(DSL.name("oid")).eq(DSL.function("to_regclass", Object.class,
+              DSL.val(dsl.render(table)))))
+          .fetchOne(0, Double.class);
+    } else {
+      rows = dsl.explain(dsl.selectOne().from(table).where(condition)).rows();
+    }
+
+    if (rows == null || rows < 0) {
+      return exact(dsl, table, condition);
+    }
+    return Math.round(rows);
+  }
+
+  /**
+   * Returns the cached exact count of the matching rows, counting them when the cached value is
+   * missing or expired.
+   *
+   * @param provider  the name of the provider
+   * @param dsl       the DSL context of the provider
+   * @param table     the counted table
+   * @param condition the condition of the rows
+   * @param ttl       the time to live of the count, in milliseconds
+   * @return the number of matching rows
+   */
+  long cached(final String provider,
+      final DSLContext dsl,
+      final Table<?> table,
+      final Condition condition,
+      final long ttl) {
+    String key = provider + '\n' + dsl.renderInlined(DSL.selectCount().from(table).where(condition));
+    long now = clock.millis();
+    CachedCount cached = counts.get(key);
+    if (cached != null && cached.expiresAt() > now) {
+      return cached.count();
+    }
+
+    long count = exact(dsl, table, condition);
+    if (counts.size() >= MAX_CACHED_COUNTS) {
+      counts.values().removeIf(entry -> entry.expiresAt() <= now);
+      if (counts.size() >= MAX_CACHED_COUNTS) {
+        counts.clear();
+      }
+    }
+    counts.put(key, new CachedCount(count, now + ttl));
+    return count;
+  }
+
+  /**
+   * Cached count.
+   *
+   * @param count     the number of matching rows
+   * @param expiresAt the expiration time, in epoch milliseconds
+   */
+  private record CachedCount(long count, long expiresAt) {
+  }
+}
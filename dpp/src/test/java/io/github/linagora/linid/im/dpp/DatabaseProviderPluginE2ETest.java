@@ -27,6 +27,8 @@
 package io.github.linagora.linid.im.dpp;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -38,12 +40,17 @@ import io.github.linagora.linid.im.corelib.plugin.entity.DynamicEntity;
 import io.github.linagora.linid.im.corelib.plugin.task.TaskExecutionContext;
 import io.github.linagora.linid.im.dpp.registry.DslRegistry;
 import io.github.linagora.linid.im.dpp.service.CrudServiceImpl;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.AfterAll;
@@ -54,6 +61,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.LinkedMultiValueMap;
 
 @DisplayName("Test class: DatabaseProviderPlugin with E2E")
 class DatabaseProviderPluginE2ETest {
@@ -194,6 +203,69 @@ class DatabaseProviderPluginE2ETest {
     assertThrows(ApiException.class, () -> provider.create(context, providerConfiguration, entity));
   }
 
+  @Test
+  @DisplayName("Test createAll: should insert users in table test_table_1 in batches")
+  void testCreateAllTestTable1() throws IOException, SQLException {
+    var context = new TaskExecutionContext();
+    List<DynamicEntity> entities = new ArrayList<>();
+    for (int i = 1; i <= 3; i++) {
+      DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+      entity.getConfiguration().getAccess().put("create", Map.of("table", "test_table_1", "batchSize", 2));
+      entity.setAttributes(Map.of(
+          "userName", "testCreateAll" + i, "userEmail", "test-bulk" + i + "@example.com", "age", 30 + i,
+          "isValid", true));
+      entities.add(entity);
+    }
+
+    List<DynamicEntity> result = provider.createAll(context, providerConfiguration, entities);
+
+    assertEquals(3, result.size());
+    for (int i = 1; i <= 3; i++) {
+      assertTrue(result.get(i - 1).getAttributes().containsKey("id"));
+      assertEquals("testCreateAll" + i, result.get(i - 1).getAttributes().get("userName"));
+      assertEquals(30 + i, result.get(i - 1).getAttributes().get("age"));
+      assertEquals("testCreateAll" + i,
+          DatabaseTestUtils.fetchOne(stmt, "test_table_1", "email", "test-bulk" + i + "@example.com").get("name"));
+      DatabaseTestUtils.deleteOne(stmt, "test_table_1", "email", "test-bulk" + i + "@example.com");
+    }
+  }
+
+  @Test
+  @DisplayName("Test updateAll and deleteAll: should update then delete users of table test_table_1 in batches")
+  void testUpdateAllAndDeleteAllTestTable1() throws IOException, SQLException {
+    var context = new TaskExecutionContext();
+    Map<String, DynamicEntity> entities = new LinkedHashMap<>();
+    for (int i = 1; i <= 3; i++) {
+      var id = DatabaseTestUtils.insertOne(
+          stmt,
+          "test_table_1",
+          new String[] { "name", "email", "age", "is_valid" },
+          new String[] { "'testUpdateAll" + i + "'", "'test-bulk" + i + "@example.com'", "21", "true" });
+      DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+      entity.getConfiguration().getAccess().put("update", Map.of("table", "test_table_1", "batchSize", 2));
+      entity.setAttributes(Map.of(
+          "id", id, "userName", "testUpdatedAll" + i, "userEmail", "test-bulk" + i + "@example.com",
+          "age", 40 + i, "isValid", false));
+      entities.put(String.valueOf(id), entity);
+    }
+
+    assertEquals(3, provider.updateAll(context, providerConfiguration, entities));
+    for (int i = 1; i <= 3; i++) {
+      var result = DatabaseTestUtils.fetchOne(stmt, "test_table_1", "email", "test-bulk" + i + "@example.com");
+      assertEquals("testUpdatedAll" + i, result.get("name"));
+      assertEquals(40 + i, result.get("age"));
+      assertEquals(false, result.get("is_valid"));
+    }
+
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    entity.getConfiguration().getAccess().put("delete", Map.of("table", "test_table_1", "batchSize", 2));
+    assertEquals(3, provider.deleteAll(context, providerConfiguration, entities.keySet(), entity));
+    for (int i = 1; i <= 3; i++) {
+      assertTrue(DatabaseTestUtils.fetchOne(stmt, "test_table_1", "email", "test-bulk" + i + "@example.com")
+          .isEmpty());
+    }
+  }
+
   @Test
   @DisplayName("Test delete: should delete user from database in table test_table_1")
   void testDeleteTestTable1() throws IOException, SQLException {
@@ -421,6 +493,339 @@ class DatabaseProviderPluginE2ETest {
     assertEquals("charlie.bernard@example.com", users.get(2).getAttributes().get("userEmail"));
   }
 
+  @Test
+  @DisplayName("Test findAll: should filter users of table test_table_1 in SQL")
+  void testFindAllWithFiltersTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    var filters = new LinkedMultiValueMap<String, String>();
+    filters.add("age", "gte:30");
+    filters.add("isValid", "true");
+    Page<DynamicEntity> result = provider.findAll(context, providerConfiguration, filters,
+        PageRequest.of(0, 10), entity);
+    assertEquals(2, result.getTotalElements());
+    List<DynamicEntity> users = result.getContent();
+    assertEquals("Alice Dupont", users.get(0).getAttributes().get("userName"));
+    assertEquals("Charlie Bernard", users.get(1).getAttributes().get("userName"));
+  }
+
+  @Test
+  @DisplayName("Test findAll: should filter users of table test_table_1 by prefix and values")
+  void testFindAllWithPrefixAndValuesTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    var filters = new LinkedMultiValueMap<String, String>();
+    filters.add("userName", "Bob*");
+    filters.add("userName", "Charlie Bernard");
+    Page<DynamicEntity> result = provider.findAll(context, providerConfiguration, filters,
+        PageRequest.of(0, 10), entity);
+    assertEquals(2, result.getTotalElements());
+    assertEquals("Bob Martin", result.getContent().get(0).getAttributes().get("userName"));
+    assertEquals("Charlie Bernard", result.getContent().get(1).getAttributes().get("userName"));
+  }
+
+  @Test
+  @DisplayName("Test findAll: should page users of table test_table_1 with a keyset cursor")
+  void testFindAllWithKeysetPaginationTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    entity.getConfiguration().getAccess()
+        .put("findAll", Map.of("table", "test_table_1", "pagination", "keyset"));
+    var pageable = PageRequest.of(0, 2, Sort.by("age"));
+
+    Page<DynamicEntity> first = provider.findAll(context, providerConfiguration, null, pageable, entity);
+    assertEquals(3, first.getTotalElements());
+    assertEquals(2, first.getContent().size());
+    assertEquals("Bob Martin", first.getContent().get(0).getAttributes().get("userName"));
+    assertEquals("Alice Dupont", first.getContent().get(1).getAttributes().get("userName"));
+    assertTrue(first.hasNext());
+
+    var filters = new LinkedMultiValueMap<String, String>();
+    filters.add("cursor", (String) context.get(DatabaseProviderPlugin.NEXT_CURSOR));
+    var nextContext = new TaskExecutionContext();
+    Page<DynamicEntity> second = provider.findAll(nextContext, providerConfiguration, filters, pageable, entity);
+    assertEquals(1, second.getContent().size());
+    assertEquals("Charlie Bernard", second.getContent().get(0).getAttributes().get("userName"));
+    assertFalse(second.hasNext());
+    assertNull(nextContext.get(DatabaseProviderPlugin.NEXT_CURSOR));
+  }
+
+  @Test
+  @DisplayName("Test findAll: should page users of table test_table_1 with a keyset cursor on a timestamp")
+  void testFindAllWithKeysetPaginationOnTimestampTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    entity.getConfiguration().getAccess()
+        .put("findAll", Map.of("table", "test_table_1", "pagination", "keyset"));
+    var pageable = PageRequest.of(0, 2, Sort.by("created_at"));
+
+    Page<DynamicEntity> first = provider.findAll(context, providerConfiguration, null, pageable, entity);
+    assertEquals("Bob Martin", first.getContent().get(0).getAttributes().get("userName"));
+    assertEquals("Charlie Bernard", first.getContent().get(1).getAttributes().get("userName"));
+
+    var filters = new LinkedMultiValueMap<String, String>();
+    filters.add("cursor", (String) context.get(DatabaseProviderPlugin.NEXT_CURSOR));
+    Page<DynamicEntity> second = provider.findAll(new TaskExecutionContext(), providerConfiguration, filters,
+        pageable, entity);
+    assertEquals(1, second.getContent().size());
+    assertEquals("Alice Dupont", second.getContent().get(0).getAttributes().get("userName"));
+  }
+
+  @Test
+  @DisplayName("Test findAll: should page users of table test_table_1 with a keyset cursor on a nullable column")
+  void testFindAllWithKeysetPaginationOnNullableColumnTestTable1() throws IOException, SQLException {
+    for (int i = 1; i <= 2; i++) {
+      DatabaseTestUtils.insertOne(
+          stmt,
+          "test_table_1",
+          new String[] { "name", "email", "age", "is_valid" },
+          new String[] { "'testNullable" + i + "'", "'test-nullable" + i + "@example.com'", "25", "NULL" });
+    }
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    entity.getConfiguration().getAccess()
+        .put("findAll", Map.of("table", "test_table_1", "pagination", "keyset"));
+
+    for (Sort sort : List.of(Sort.by("is_valid"), Sort.by(Sort.Direction.DESC, "is_valid"))) {
+      var pageable = PageRequest.of(0, 1, sort);
+      List<Object> names = new ArrayList<>();
+      String cursor = null;
+      do {
+        var context = new TaskExecutionContext();
+        var filters = new LinkedMultiValueMap<String, String>();
+        if (cursor != null) {
+          filters.add("cursor", cursor);
+        }
+        provider.findAll(context, providerConfiguration, filters, pageable, entity).getContent()
+            .forEach(user -> names.add(user.getAttributes().get("userName")));
+        cursor = (String) context.get(DatabaseProviderPlugin.NEXT_CURSOR);
+      } while (cursor != null);
+
+      List<Object> valid = sort.getOrderFor("is_valid").isAscending()
+          ? List.of("Bob Martin", "Alice Dupont", "Charlie Bernard")
+          : List.of("Alice Dupont", "Charlie Bernard", "Bob Martin");
+      List<Object> expected = new ArrayList<>(valid);
+      expected.addAll(List.of("testNullable1", "testNullable2"));
+      assertEquals(expected, names);
+    }
+
+    for (int i = 1; i <= 2; i++) {
+      DatabaseTestUtils.deleteOne(stmt, "test_table_1", "email", "test-nullable" + i + "@example.com");
+    }
+  }
+
+  @Test
+  @DisplayName("Test findAll: should project retrieving field expressions and page on the raw sort column")
+  void testFindAllWithRetrievingFieldExpressionsTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    entity.getConfiguration().getAccess().put("findAll", Map.of("table", "test_table_1", "pagination", "keyset",
+        "retrievingFieldExpressions", Map.of("name", Map.of("expression", "UPPER({0})",
+            "parameters", List.of("name")))));
+    var pageable = PageRequest.of(0, 2, Sort.by("name"));
+
+    Page<DynamicEntity> first = provider.findAll(context, providerConfiguration, null, pageable, entity);
+    assertEquals(2, first.getContent().size());
+    assertEquals("ALICE DUPONT", first.getContent().get(0).getAttributes().get("userName"));
+    assertEquals("alice.dupont@example.com", first.getContent().get(0).getAttributes().get("userEmail"));
+    assertEquals("BOB MARTIN", first.getContent().get(1).getAttributes().get("userName"));
+
+    var filters = new LinkedMultiValueMap<String, String>();
+    filters.add("cursor", (String) context.get(DatabaseProviderPlugin.NEXT_CURSOR));
+    Page<DynamicEntity> second = provider.findAll(new TaskExecutionContext(), providerConfiguration, filters,
+        pageable, entity);
+    assertEquals(1, second.getContent().size());
+    assertEquals("CHARLIE BERNARD", second.getContent().get(0).getAttributes().get("userName"));
+  }
+
+  @Test
+  @DisplayName("Test findAll and export: should render retrieving field expression parameters with the context")
+  void testFindAllAndExportRenderParametersWithContextTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    context.put("column", "name");
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    entity.getConfiguration().getAccess().put("findAll", Map.of("table", "test_table_1",
+        "retrievingFieldExpressions", Map.of("name", Map.of("expression", "UPPER({0})",
+            "parameters", List.of("{{ context.column }}")))));
+
+    Page<DynamicEntity> page = provider.findAll(context, providerConfiguration, null,
+        PageRequest.of(0, 1, Sort.by("name")), entity);
+    assertEquals("ALICE DUPONT", page.getContent().get(0).getAttributes().get("userName"));
+
+    List<DynamicEntity> users = new ArrayList<>();
+    provider.export(context, providerConfiguration, null, Sort.by("name"), entity, users::add);
+    assertEquals(List.of("ALICE DUPONT", "BOB MARTIN", "CHARLIE BERNARD"),
+        users.stream().map(user -> user.getAttributes().get("userName")).toList());
+  }
+
+  @Test
+  @DisplayName("Test findAll: should sort on the raw column of a retrieving field expression")
+  void testFindAllSortsOnRawColumnTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    entity.getConfiguration().getAccess().put("findAll", Map.of("table", "test_table_1",
+        "retrievingFieldExpressions", Map.of("name", Map.of("expression", "REVERSE({0})",
+            "parameters", List.of("name")))));
+
+    Page<DynamicEntity> result = provider.findAll(context, providerConfiguration, null,
+        PageRequest.of(0, 10, Sort.by("name")), entity);
+
+    assertEquals(List.of("tnopuD ecilA", "nitraM boB", "dranreB eilrahC"),
+        result.getContent().stream().map(user -> user.getAttributes().get("userName")).toList());
+  }
+
+  @Test
+  @DisplayName("Test findAll: should count users of table test_table_1 in the page query")
+  void testFindAllWithWindowCountTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    entity.getConfiguration().getAccess()
+        .put("findAll", Map.of("table", "test_table_1", "count", "window"));
+    var filters = new LinkedMultiValueMap<String, String>();
+    filters.add("isValid", "true");
+    Page<DynamicEntity> result = provider.findAll(context, providerConfiguration, filters,
+        PageRequest.of(0, 1), entity);
+    assertEquals(2, result.getTotalElements());
+    assertEquals(1, result.getContent().size());
+    assertEquals(5, result.getContent().get(0).getAttributes().size());
+  }
+
+  @Test
+  @DisplayName("Test findAll: should count all users of table test_table_1 on keyset pages after a cursor")
+  void testFindAllWithWindowCountAndKeysetPaginationTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    entity.getConfiguration().getAccess()
+        .put("findAll", Map.of("table", "test_table_1", "pagination", "keyset", "count", "window"));
+    var pageable = PageRequest.of(0, 2, Sort.by("age"));
+
+    Page<DynamicEntity> first = provider.findAll(context, providerConfiguration, null, pageable, entity);
+    assertEquals(3, first.getTotalElements());
+
+    var filters = new LinkedMultiValueMap<String, String>();
+    filters.add("cursor", (String) context.get(DatabaseProviderPlugin.NEXT_CURSOR));
+    Page<DynamicEntity> second = provider.findAll(new TaskExecutionContext(), providerConfiguration, filters,
+        pageable, entity);
+    assertEquals(1, second.getContent().size());
+    assertEquals(3, second.getTotalElements());
+  }
+
+  @Test
+  @DisplayName("Test findAll: should probe the next page of table test_table_1 without counting")
+  void testFindAllWithoutCountTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    entity.getConfiguration().getAccess()
+        .put("findAll", Map.of("table", "test_table_1", "count", "none"));
+    Page<DynamicEntity> first = provider.findAll(context, providerConfiguration, null,
+        PageRequest.of(0, 2), entity);
+    assertEquals(2, first.getContent().size());
+    assertTrue(first.hasNext());
+    Page<DynamicEntity> last = provider.findAll(context, providerConfiguration, null,
+        PageRequest.of(1, 2), entity);
+    assertEquals(1, last.getContent().size());
+    assertEquals(3, last.getTotalElements());
+    assertFalse(last.hasNext());
+  }
+
+  @Test
+  @DisplayName("Test findAll: should estimate the number of users of table test_table_1")
+  void testFindAllWithEstimatedCountTestTable1() throws IOException, SQLException {
+    var context = new TaskExecutionContext();
+    stmt.execute("ANALYZE test_table_1");
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    entity.getConfiguration().getAccess()
+        .put("findAll", Map.of("table", "test_table_1", "count", "estimated"));
+    Page<DynamicEntity> result = provider.findAll(context, providerConfiguration, null,
+        PageRequest.of(0, 10), entity);
+    assertEquals(3, result.getContent().size());
+    assertEquals(3, result.getTotalElements());
+  }
+
+  @Test
+  @DisplayName("Test findAll: should read users of table test_table_1 from replicas, skipping an unreachable one")
+  void testFindAllWithReplicasTestTable1() throws IOException {
+    var replicaConfiguration = new ProviderConfiguration();
+    replicaConfiguration.setName("test-db-replicas");
+    replicaConfiguration.addOption("url", jdbcUrl);
+    replicaConfiguration.addOption("username", user);
+    replicaConfiguration.addOption("password", password);
+    replicaConfiguration.addOption("replicaConnectionTimeout", "250");
+    replicaConfiguration.addOption("replicaUrls", "jdbc:postgresql://localhost:1/testdb, " + jdbcUrl);
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+
+    for (int i = 0; i < 3; i++) {
+      Page<DynamicEntity> result = provider.findAll(context, replicaConfiguration, null,
+          PageRequest.of(0, 10), entity);
+      assertEquals(3, result.getTotalElements());
+    }
+    assertEquals("Alice Dupont", provider.findById(context, replicaConfiguration, "1", entity)
+        .getAttributes().get("userName"));
+  }
+
+  @Test
+  @DisplayName("Test export: should stream the users of table test_table_1 to a consumer")
+  void testExportTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    entity.getConfiguration().getAccess().put("findAll", Map.of("table", "test_table_1", "fetchSize", 2));
+    List<DynamicEntity> users = new ArrayList<>();
+
+    long exported = provider.export(context, providerConfiguration, null, Sort.by("name"), entity, users::add);
+
+    assertEquals(3, exported);
+    assertEquals(List.of("Alice Dupont", "Bob Martin", "Charlie Bernard"),
+        users.stream().map(user -> user.getAttributes().get("userName")).toList());
+  }
+
+  @Test
+  @DisplayName("Test export: should sort on the raw column of a retrieving field expression")
+  void testExportSortsOnRawColumnTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    entity.getConfiguration().getAccess().put("findAll", Map.of("table", "test_table_1",
+        "retrievingFieldExpressions", Map.of("name", Map.of("expression", "REVERSE({0})",
+            "parameters", List.of("name")))));
+    List<DynamicEntity> users = new ArrayList<>();
+
+    provider.export(context, providerConfiguration, null, Sort.by("name"), entity, users::add);
+
+    assertEquals(List.of("tnopuD ecilA", "nitraM boB", "dranreB eilrahC"),
+        users.stream().map(user -> user.getAttributes().get("userName")).toList());
+  }
+
+  @Test
+  @DisplayName("Test export: should throw 500 when the consumer fails")
+  void testExportThrowsOnConsumerFailureTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+
+    ApiException exception = assertThrows(ApiException.class,
+        () -> provider.export(context, providerConfiguration, null, Sort.unsorted(), entity, user -> {
+          throw new UncheckedIOException(new IOException("Broken pipe"));
+        }));
+
+    assertEquals(500, exception.getStatusCode());
+    assertEquals("dpp.error.export", exception.getError().key());
+  }
+
+  @Test
+  @DisplayName("Test exportNdjson: should write the filtered users of table test_table_1 as NDJSON")
+  void testExportNdjsonTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    var filters = new LinkedMultiValueMap<String, String>();
+    filters.add("userName", "Bob*");
+    var output = new ByteArrayOutputStream();
+
+    long exported = provider.exportNdjson(context, providerConfiguration, filters, Sort.unsorted(), entity, output);
+
+    String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(1, exported);
+    assertEquals(1, lines.length);
+    assertTrue(lines[0].startsWith("{") && lines[0].contains("\"userName\":\"Bob Martin\""));
+  }
+
   @Test
   @DisplayName("Test patch: should patch user in table test_table_1")
   void testPatchTestTable1() throws IOException, SQLException {
@@ -559,6 +964,19 @@ class DatabaseProviderPluginE2ETest {
     assertEquals(true, user.getAttributes().get("isValid"));
   }
 
+  @Test
+  @DisplayName("Test findById: should project retrieving field expressions for table test_table_1")
+  void testFindByIdWithRetrievingFieldExpressionsTestTable1() throws IOException {
+    var context = new TaskExecutionContext();
+    DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+    entity.getConfiguration().getAccess().put("findById", Map.of("table", "test_table_1",
+        "retrievingFieldExpressions", Map.of("name", Map.of("expression", "UPPER({0})",
+            "parameters", List.of("name")))));
+    DynamicEntity user = provider.findById(context, providerConfiguration, "1", entity);
+    assertEquals("ALICE DUPONT", user.getAttributes().get("userName"));
+    assertEquals(32, user.getAttributes().get("age"));
+  }
+
   @Test
   @DisplayName("Test findById: should return user for table test_table_2")
   void testFindByIdTestTable2() throws IOException, SQLException {
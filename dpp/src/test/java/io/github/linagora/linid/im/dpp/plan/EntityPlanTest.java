@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.plan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.linagora.linid.im.corelib.exception.ApiException;
+import io.github.linagora.linid.im.corelib.plugin.config.dto.EntityConfiguration;
+import io.github.linagora.linid.im.dpp.DynamicEntityHelper;
+import io.github.linagora.linid.im.dpp.model.DatabasePluginConfiguration;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jooq.Field;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link EntityPlan} and {@link TablePlan}.
+ */
+@DisplayName("Test class: EntityPlan")
+class EntityPlanTest {
+
+  @Test
+  @DisplayName("test compile: should index the primary key and the columns of the attributes")
+  void testCompile() throws IOException {
+    EntityPlan plan = EntityPlan.compile(DynamicEntityHelper.loadConfiguration("TestTable1.yml"));
+
+    assertEquals(DSL.name("id"), plan.idColumn());
+    assertEquals("Integer", plan.idType());
+    assertEquals(new ColumnMapping("userName", "name", null), plan.mappings().get(1));
+  }
+
+  @Test
+  @DisplayName("test idColumn: should throw 500 when no primary key is configured")
+  void testIdColumnWithoutPrimaryKey() {
+    EntityConfiguration configuration = new EntityConfiguration();
+    configuration.setName("users");
+    configuration.setAccess(new HashMap<>());
+    configuration.setAttributes(List.of());
+    EntityPlan plan = EntityPlan.compile(configuration);
+
+    ApiException exception = assertThrows(ApiException.class, plan::idColumn);
+
+    assertEquals(500, exception.getStatusCode());
+    assertEquals("dpp.error.noPrimary", exception.getError().key());
+    assertEquals(Map.of("entity", "users"), exception.getError().context());
+  }
+
+  @Test
+  @DisplayName("test access: should convert the configuration of an action once")
+  void testAccess() throws IOException {
+    EntityPlan plan = EntityPlan.compile(DynamicEntityHelper.loadConfiguration("TestTable1.yml"));
+
+    DatabasePluginConfiguration access = plan.access("findAll");
+
+    assertEquals("test_table_1", access.getTable());
+    assertSame(access, plan.access("findAll"));
+    assertNull(plan.access("unknown").getTable());
+  }
+
+  @Test
+  @DisplayName("test table: should render the projected queries by primary key once per table")
+  void testTable() throws IOException {
+    EntityPlan plan = EntityPlan.compile(DynamicEntityHelper.loadConfiguration("TestTable1.yml"));
+
+    TablePlan table = plan.table("test_table_1");
+
+    assertSame(table, plan.table("test_table_1"));
+    assertEquals("select \"test_table_1\".\"id\", \"test_table_1\".\"name\", \"test_table_1\".\"email\", "
+        + "\"test_table_1\".\"age\", \"test_table_1\".\"is_valid\" from \"test_table_1\" where \"id\" = ?",
+        table.selectByIdSql());
+    assertEquals("delete from \"test_table_1\" where \"id\" = ?", table.deleteByIdSql());
+    assertEquals(5, table.fields().size());
+  }
+
+  @Test
+  @DisplayName("test bind: should bind missing attributes to the column default unless partial")
+  void testBind() throws IOException {
+    TablePlan table = EntityPlan.compile(DynamicEntityHelper.loadConfiguration("TestTable1.yml"))
+        .table("test_table_1");
+    Field<Object> name = DSL.field(DSL.name("test_table_1", "name"));
+    Field<Object> age = DSL.field(DSL.name("test_table_1", "age"));
+
+    Map<Field<?>, Object> full = table.bind(Map.of("userName", "Alice Dupont"), false);
+    Map<Field<?>, Object> partial = table.bind(Map.of("userName", "Alice Dupont"), true);
+
+    assertEquals(5, full.size());
+    assertEquals("Alice Dupont", full.get(name));
+    assertEquals(DSL.defaultValue(), full.get(age));
+    assertEquals(Map.of(name, "Alice Dupont"), partial);
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.plan;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.github.linagora.linid.im.corelib.plugin.config.dto.AttributeConfiguration;
+import io.github.linagora.linid.im.corelib.plugin.config.dto.EntityConfiguration;
+import io.github.linagora.linid.im.dpp.DynamicEntityHelper;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link QueryPlanCache}.
+ */
+@DisplayName("Test class: QueryPlanCache")
+class QueryPlanCacheTest {
+
+  private final QueryPlanCache cache = new QueryPlanCache();
+
+  @Test
+  @DisplayName("test plan: should reuse the plan of the same or an equal configuration")
+  void testPlanReusesPlan() throws IOException {
+    EntityConfiguration configuration = DynamicEntityHelper.loadConfiguration("TestTable1.yml");
+
+    EntityPlan plan = cache.plan(configuration);
+
+    assertSame(plan, cache.plan(configuration));
+    assertSame(plan, cache.plan(DynamicEntityHelper.loadConfiguration("TestTable1.yml")));
+  }
+
+  @Test
+  @DisplayName("test plan: should compile the plan again when the configuration changes")
+  void testPlanRecompilesOnChange() throws IOException {
+    EntityConfiguration configuration = DynamicEntityHelper.loadConfiguration("TestTable1.yml");
+    EntityPlan plan = cache.plan(configuration);
+
+    configuration.getAccess().put("findAll", Map.of("table", "test_table_2"));
+    EntityPlan changed = cache.plan(configuration);
+
+    assertNotSame(plan, changed);
+    assertEquals("test_table_2", changed.access("findAll").getTable());
+  }
+
+  @Test
+  @DisplayName("test plan: should compile the plan again when an attribute is replaced")
+  void testPlanRecompilesOnAttributeChange() throws IOException {
+    EntityConfiguration configuration = DynamicEntityHelper.loadConfiguration("TestTable1.yml");
+    EntityPlan plan = cache.plan(configuration);
+    AttributeConfiguration attribute = configuration.getAttributes().get(1);
+    Map<String, Object> access = new HashMap<>(attribute.getAccess());
+    access.put("column", "full_name");
+
+    attribute.setAccess(access);
+    EntityPlan changed = cache.plan(configuration);
+
+    assertNotSame(plan, changed);
+    assertEquals("full_name", changed.mappings().get(1).column());
+  }
+}
@@ -28,10 +28,20 @@ package io.github.linagora.linid.im.dpp.registry;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import io.github.linagora.linid.im.corelib.exception.ApiException;
 import io.github.linagora.linid.im.corelib.plugin.config.dto.ProviderConfiguration;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -77,6 +87,66 @@ class DslRegistryTest {
     assertEquals(Map.of("option", "password"), ex.getError().context());
   }
 
+  @Test
+  @DisplayName("test matches: should reuse a holder only while its configuration is unchanged")
+  void testHolderMatchesUnchangedConfiguration() {
+    var config = new ProviderConfiguration();
+    config.setName("test-provider");
+    config.addOption("url", "jdbc:postgresql://localhost:5432/testdb");
+    var copy = new ProviderConfiguration();
+    copy.setName("test-provider");
+    copy.addOption("url", "jdbc:postgresql://localhost:5432/testdb");
+    var holder = new DSLContextHolder(null, null, null, List.of(), config, config.hashCode());
+
+    assertTrue(holder.matches(config, config.hashCode()));
+    assertTrue(holder.matches(copy, copy.hashCode()));
+
+    config.addOption("maximumPoolSize", "20");
+    assertFalse(holder.matches(config, config.hashCode()));
+  }
+
+  @Test
+  @DisplayName("test drain: should close the datasource once its active connections are returned")
+  void testDrainClosesWhenIdle() {
+    HikariDataSource datasource = mock(HikariDataSource.class);
+    HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+    when(datasource.getHikariPoolMXBean()).thenReturn(pool);
+    when(pool.getActiveConnections()).thenReturn(1, 1, 0);
+
+    registry.drain(datasource, 10_000);
+
+    verify(pool).softEvictConnections();
+    verify(datasource, timeout(5_000)).close();
+    verify(pool, atLeast(3)).getActiveConnections();
+  }
+
+  @Test
+  @DisplayName("test drain: should close the datasource when the drain timeout expires")
+  void testDrainClosesOnTimeout() {
+    HikariDataSource datasource = mock(HikariDataSource.class);
+    HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+    when(datasource.getHikariPoolMXBean()).thenReturn(pool);
+    when(pool.getActiveConnections()).thenReturn(1);
+
+    registry.drain(datasource, 0);
+
+    verify(datasource, timeout(5_000)).close();
+  }
+
+  @Test
+  @DisplayName("test shutdown: should close the draining datasources")
+  void testShutdownClosesDrainingDatasources() {
+    HikariDataSource datasource = mock(HikariDataSource.class);
+    HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+    when(datasource.getHikariPoolMXBean()).thenReturn(pool);
+    when(pool.getActiveConnections()).thenReturn(1);
+
+    registry.drain(datasource, 60_000);
+    registry.shutdown();
+
+    verify(datasource).close();
+  }
+
   @Test
   @DisplayName("test shutdown: should not throw when registry is empty")
   void testShutdownWithEmptyRegistry() {
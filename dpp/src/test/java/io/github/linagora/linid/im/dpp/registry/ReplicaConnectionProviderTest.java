@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.registry;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test class: ReplicaConnectionProvider")
+class ReplicaConnectionProviderTest {
+
+  private static final Clock CLOCK = Clock.fixed(Instant.EPOCH, ZoneOffset.UTC);
+
+  private final HikariDataSource primary = mock(HikariDataSource.class);
+
+  private final HikariDataSource first = mock(HikariDataSource.class);
+
+  private final HikariDataSource second = mock(HikariDataSource.class);
+
+  private final Connection primaryConnection = mock(Connection.class);
+
+  private final Connection firstConnection = mock(Connection.class);
+
+  private final Connection secondConnection = mock(Connection.class);
+
+  @BeforeEach
+  void setup() throws SQLException {
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    when(first.getConnection()).thenReturn(firstConnection);
+    when(second.getConnection()).thenReturn(secondConnection);
+  }
+
+  @Test
+  @DisplayName("test acquire: should use the replicas in turn with the round-robin selection")
+  void testAcquireRoundRobin() {
+    var provider = new ReplicaConnectionProvider(primary, List.of(first, second), ReplicaSelection.ROUND_ROBIN,
+        1_000, CLOCK);
+
+    assertSame(firstConnection, provider.acquire());
+    assertSame(secondConnection, provider.acquire());
+    assertSame(firstConnection, provider.acquire());
+  }
+
+  @Test
+  @DisplayName("test acquire: should use the replica with the fewest connections with the least-busy selection")
+  void testAcquireLeastBusy() {
+    HikariPoolMXBean firstPool = mock(HikariPoolMXBean.class);
+    HikariPoolMXBean secondPool = mock(HikariPoolMXBean.class);
+    when(first.getHikariPoolMXBean()).thenReturn(firstPool);
+    when(second.getHikariPoolMXBean()).thenReturn(secondPool);
+    when(firstPool.getActiveConnections()).thenReturn(3);
+    when(secondPool.getActiveConnections()).thenReturn(1);
+    var provider = new ReplicaConnectionProvider(primary, List.of(first, second), ReplicaSelection.LEAST_BUSY,
+        1_000, CLOCK);
+
+    assertSame(secondConnection, provider.acquire());
+  }
+
+  @Test
+  @DisplayName("test acquire: should skip a failing replica during its cooldown and fall back to the primary")
+  void testAcquireFallsBack() throws SQLException {
+    when(first.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+    when(second.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+    var provider = new ReplicaConnectionProvider(primary, List.of(first, second), ReplicaSelection.ROUND_ROBIN,
+        1_000, CLOCK);
+
+    assertSame(primaryConnection, provider.acquire());
+    assertSame(primaryConnection, provider.acquire());
+
+    verify(first, times(1)).getConnection();
+    verify(second, times(1)).getConnection();
+  }
+
+  @Test
+  @DisplayName("test acquire: should use the replicas again once their cooldown has expired")
+  void testAcquireAfterCooldown() throws SQLException {
+    when(first.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"))
+        .thenReturn(firstConnection);
+    var provider = new ReplicaConnectionProvider(primary, List.of(first), ReplicaSelection.ROUND_ROBIN, 0,
+        CLOCK);
+
+    assertSame(primaryConnection, provider.acquire());
+    assertSame(firstConnection, provider.acquire());
+    verify(primary, times(1)).getConnection();
+  }
+
+  @Test
+  @DisplayName("test release: should return the connection to its pool")
+  void testRelease() throws SQLException {
+    var provider = new ReplicaConnectionProvider(primary, List.of(first), ReplicaSelection.ROUND_ROBIN, 1_000,
+        CLOCK);
+
+    provider.release(firstConnection);
+
+    verify(firstConnection).close();
+    verify(primary, never()).getConnection();
+  }
+}
@@ -36,18 +36,32 @@ import io.github.linagora.linid.im.corelib.plugin.config.dto.EntityConfiguration
 import io.github.linagora.linid.im.corelib.plugin.config.dto.ProviderConfiguration;
 import io.github.linagora.linid.im.corelib.plugin.entity.DynamicEntity;
 import io.github.linagora.linid.im.corelib.plugin.task.TaskExecutionContext;
+import io.github.linagora.linid.im.dpp.DynamicEntityHelper;
 import io.github.linagora.linid.im.dpp.model.DatabasePluginConfiguration;
 import io.github.linagora.linid.im.dpp.registry.DslRegistry;
+import java.sql.Statement;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import org.jooq.ConnectionProvider;
 import org.jooq.DSLContext;
+import org.jooq.Record1;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
 import org.jooq.SortField;
+import org.jooq.impl.DSL;
+import org.jooq.tools.jdbc.MockConnection;
+import org.jooq.tools.jdbc.MockDataProvider;
+import org.jooq.tools.jdbc.MockResult;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 
 /**
@@ -240,4 +254,51 @@ class CrudServiceImplTest {
 
     assertEquals("dpp.error.noPrimary", exception.getMessage());
   }
+
+  @Test
+  @DisplayName("test updateAll: should count a statement reported without row count as one row")
+  void testUpdateAllCountsSuccessNoInfo() throws Exception {
+    CrudServiceImpl service = new CrudServiceImpl(dslRegistry, jinjaService);
+    MockDataProvider provider = execution -> new MockResult[] {
+        new MockResult(Statement.SUCCESS_NO_INFO), new MockResult(1)};
+    Mockito.when(dslRegistry.getDsl(Mockito.any()))
+        .thenReturn(DSL.using(new MockConnection(provider), SQLDialect.POSTGRES));
+    DatabasePluginConfiguration databasePluginConfiguration = new DatabasePluginConfiguration();
+    databasePluginConfiguration.setTable("test_table_1");
+    Map<Object, DynamicEntity> entities = new LinkedHashMap<>();
+    for (int id = 1; id <= 2; id++) {
+      DynamicEntity entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+      entity.setAttributes(Map.of("id", id, "userName", "user" + id, "userEmail", "user" + id + "@example.com",
+          "age", 20, "isValid", true));
+      entities.put(id, entity);
+    }
+
+    assertEquals(2, service.updateAll(new ProviderConfiguration(), databasePluginConfiguration, entities, context));
+  }
+
+  @Test
+  @DisplayName("test select: should read the page and its count on one connection")
+  void testSelectReadsPageAndCountOnOneConnection() throws Exception {
+    CrudServiceImpl service = new CrudServiceImpl(dslRegistry, jinjaService);
+    DSLContext create = DSL.using(SQLDialect.POSTGRES);
+    MockDataProvider provider = execution -> {
+      if (execution.sql().contains("count(")) {
+        Result<Record1<Integer>> count = create.newResult(DSL.count());
+        count.add(create.newRecord(DSL.count()).values(3));
+        return new MockResult[] {new MockResult(1, count)};
+      }
+      return new MockResult[] {new MockResult(0, create.newResult())};
+    };
+    ConnectionProvider connections = Mockito.mock(ConnectionProvider.class);
+    Mockito.when(connections.acquire()).thenAnswer(invocation -> new MockConnection(provider));
+    Mockito.when(dslRegistry.getReadDsl(Mockito.any())).thenReturn(DSL.using(connections, SQLDialect.POSTGRES));
+    DatabasePluginConfiguration databasePluginConfiguration = new DatabasePluginConfiguration();
+    databasePluginConfiguration.setTable("test_table_1");
+
+    Page<DynamicEntity> page = service.select(context, new ProviderConfiguration(), databasePluginConfiguration,
+        DynamicEntityHelper.getEntity("TestTable1.yml"), null, PageRequest.of(0, 10));
+
+    assertEquals(3, page.getTotalElements());
+    Mockito.verify(connections, Mockito.times(1)).acquire();
+  }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.linagora.linid.im.corelib.exception.ApiException;
+import io.github.linagora.linid.im.corelib.plugin.entity.DynamicEntity;
+import io.github.linagora.linid.im.dpp.DynamicEntityHelper;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Unit tests for {@link FilterConditionBuilder}.
+ */
+@DisplayName("Test class: FilterConditionBuilder")
+class FilterConditionBuilderTest {
+
+  private static final DSLContext POSTGRES = DSL.using(SQLDialect.POSTGRES);
+
+  private static final Field<Object> NAME = DSL.field(DSL.name("name"));
+
+  private static final Field<Object> AGE = DSL.field(DSL.name("age"));
+
+  private DynamicEntity entity;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    entity = DynamicEntityHelper.getEntity("TestTable1.yml");
+  }
+
+  @Test
+  @DisplayName("test build: should return no condition without filters")
+  void testBuildWithoutFilters() {
+    assertEquals(DSL.noCondition(), FilterConditionBuilder.build(entity, null));
+    assertEquals(DSL.noCondition(), FilterConditionBuilder.build(entity, new LinkedMultiValueMap<>()));
+  }
+
+  @Test
+  @DisplayName("test build: should ignore keys that are not mapped attributes")
+  void testBuildIgnoresUnknownKeys() {
+    var filters = filters(Map.of("page", List.of("0"), "size", List.of("10")));
+
+    assertEquals(DSL.noCondition(), FilterConditionBuilder.build(entity, filters));
+  }
+
+  @Test
+  @DisplayName("test build: should filter on the mapped column with a typed value")
+  void testBuildEquality() {
+    var filters = filters(Map.of("age", List.of("32")));
+
+    assertSql(AGE.eq(32), FilterConditionBuilder.build(entity, filters));
+  }
+
+  @Test
+  @DisplayName("test build: should combine several values into IN")
+  void testBuildIn() {
+    var filters = filters(Map.of("age", List.of("18", "32")));
+
+    assertSql(AGE.in(18, 32), FilterConditionBuilder.build(entity, filters));
+  }
+
+  @Test
+  @DisplayName("test build: should match a trailing wildcard as an escaped prefix")
+  void testBuildPrefix() {
+    var filters = filters(Map.of("userName", List.of("50%_off*")));
+
+    assertSql(NAME.like("50\\%\\_off%", '\\'), FilterConditionBuilder.build(entity, filters));
+  }
+
+  @Test
+  @DisplayName("test build: should combine range bounds with AND")
+  void testBuildRange() {
+    var filters = filters(Map.of("age", List.of("gte:18", "lt:40")));
+
+    assertSql(AGE.ge(18).and(AGE.lt(40)), FilterConditionBuilder.build(entity, filters));
+  }
+
+  @Test
+  @DisplayName("test build: should combine the conditions of several attributes with AND")
+  void testBuildSeveralAttributes() {
+    var filters = new LinkedMultiValueMap<String, String>();
+    filters.add("userName", "Alice*");
+    filters.add("isValid", "true");
+
+    Condition condition = FilterConditionBuilder.build(entity, filters);
+
+    assertSql(NAME.like("Alice%", '\\').and(DSL.field(DSL.name("is_valid")).eq(true)), condition);
+  }
+
+  @Test
+  @DisplayName("test build: should throw 400 when a value does not match the attribute type")
+  void testBuildThrowsOnInvalidValue() {
+    var filters = filters(Map.of("age", List.of("gte:adult")));
+
+    ApiException exception = assertThrows(ApiException.class,
+        () -> FilterConditionBuilder.build(entity, filters));
+
+    assertEquals(400, exception.getStatusCode());
+    assertEquals("dpp.error.filter", exception.getError().key());
+    assertEquals(Map.of("attribute", "age", "value", "adult"), exception.getError().context());
+  }
+
+  @Test
+  @DisplayName("test build: should throw 400 when a boolean value is neither true nor false")
+  void testBuildThrowsOnInvalidBoolean() {
+    var filters = filters(Map.of("isValid", List.of("yes")));
+
+    ApiException exception = assertThrows(ApiException.class,
+        () -> FilterConditionBuilder.build(entity, filters));
+
+    assertEquals("dpp.error.filter", exception.getError().key());
+  }
+
+  private static MultiValueMap<String, String> filters(Map<String, List<String>> values) {
+    return new LinkedMultiValueMap<>(values);
+  }
+
+  private static void assertSql(Condition expected, Condition actual) {
+    assertEquals(POSTGRES.renderInlined(expected), POSTGRES.renderInlined(actual));
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.linagora.linid.im.corelib.exception.ApiException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link KeysetCursor}.
+ */
+@DisplayName("Test class: KeysetCursor")
+class KeysetCursorTest {
+
+  private static final String SORT = "name:ASC,id:ASC";
+
+  @Test
+  @DisplayName("test encode: should decode the values of an encoded cursor")
+  void testEncodeDecodeRoundTrip() {
+    String cursor = KeysetCursor.of(SORT, Arrays.asList("Bob Martin", 2, null),
+        List.of(String.class, Integer.class, Integer.class)).encode();
+
+    KeysetCursor decoded = KeysetCursor.decode(cursor, SORT, 3);
+
+    assertEquals(SORT, decoded.sort());
+    assertEquals(Arrays.asList("Bob Martin", "2", null), decoded.values());
+    assertArrayEquals(new Object[] {"Bob Martin", 2, null}, decoded.seekValues());
+  }
+
+  @Test
+  @DisplayName("test seekValues: should convert the values back to the types of their columns")
+  void testSeekValuesRestoresColumnTypes() {
+    LocalDateTime createdAt = LocalDateTime.of(2024, 1, 15, 8, 30, 0, 250_000_000);
+    UUID id = UUID.randomUUID();
+    String cursor = KeysetCursor.of(SORT, List.of(createdAt, id), List.of(LocalDateTime.class, UUID.class))
+        .encode();
+
+    assertArrayEquals(new Object[] {createdAt, id}, KeysetCursor.decode(cursor, SORT, 2).seekValues());
+  }
+
+  @Test
+  @DisplayName("test seekValues: should throw 400 when a value does not match its type")
+  void testSeekValuesThrowsOnInvalidValue() {
+    KeysetCursor cursor = new KeysetCursor(SORT, List.of("yesterday", "2"),
+        List.of(LocalDateTime.class.getName(), Integer.class.getName()));
+
+    ApiException exception = assertThrows(ApiException.class, cursor::seekValues);
+
+    assertEquals(400, exception.getStatusCode());
+    assertEquals("dpp.error.cursor", exception.getError().key());
+  }
+
+  @Test
+  @DisplayName("test decode: should throw 400 when the cursor was built for another sort")
+  void testDecodeThrowsOnOtherSort() {
+    String cursor = KeysetCursor.of(SORT, List.of("Bob Martin", 2), List.of(String.class, Integer.class)).encode();
+
+    ApiException exception = assertThrows(ApiException.class,
+        () -> KeysetCursor.decode(cursor, "id:ASC", 2));
+
+    assertEquals(400, exception.getStatusCode());
+    assertEquals("dpp.error.cursor", exception.getError().key());
+  }
+
+  @Test
+  @DisplayName("test decode: should throw 400 when the cursor has an unexpected number of values")
+  void testDecodeThrowsOnUnexpectedSize() {
+    String cursor = KeysetCursor.of(SORT, List.of("Bob Martin"), List.of(String.class)).encode();
+
+    ApiException exception = assertThrows(ApiException.class,
+        () -> KeysetCursor.decode(cursor, SORT, 2));
+
+    assertEquals("dpp.error.cursor", exception.getError().key());
+  }
+
+  @Test
+  @DisplayName("test decode: should throw 400 when the cursor is not an encoded cursor")
+  void testDecodeThrowsOnGarbage() {
+    ApiException exception = assertThrows(ApiException.class,
+        () -> KeysetCursor.decode("not a cursor!", SORT, 2));
+
+    assertEquals("dpp.error.cursor", exception.getError().key());
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.linagora.linid.im.corelib.plugin.entity.DynamicEntity;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link NdjsonEntityWriter}.
+ */
+@DisplayName("Test class: NdjsonEntityWriter")
+class NdjsonEntityWriterTest {
+
+  @Test
+  @DisplayName("test accept: should write the attributes of each entity on its own line")
+  void testAccept() {
+    var output = new ByteArrayOutputStream();
+    var writer = new NdjsonEntityWriter(output);
+
+    writer.accept(entity(1, "Alice Dupont"));
+    writer.accept(entity(2, null));
+
+    assertEquals("{\"id\":1,\"userName\":\"Alice Dupont\"}\n{\"id\":2,\"userName\":null}\n",
+        output.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("test accept: should throw when the output cannot be written")
+  void testAcceptThrowsOnWriteFailure() {
+    var writer = new NdjsonEntityWriter(new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("closed");
+      }
+    });
+
+    assertThrows(UncheckedIOException.class, () -> writer.accept(entity(1, "Alice Dupont")));
+  }
+
+  private DynamicEntity entity(int id, String userName) {
+    Map<String, Object> attributes = new LinkedHashMap<>();
+    attributes.put("id", id);
+    attributes.put("userName", userName);
+    DynamicEntity entity = new DynamicEntity();
+    entity.setAttributes(attributes);
+    return entity;
+  }
+}
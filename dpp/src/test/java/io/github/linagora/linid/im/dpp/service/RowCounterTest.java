@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.dpp.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.jooq.Condition;
+import org.jooq.DSLContext;
+import org.jooq.QueryPart;
+import org.jooq.Table;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Unit tests for {@link RowCounter}.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Test class: RowCounter")
+class RowCounterTest {
+
+  private static final Table<?> TABLE = DSL.table(DSL.name("users"));
+
+  private static final Condition CONDITION = DSL.field(DSL.name("age")).ge(18);
+
+  @Mock
+  private DSLContext dsl;
+
+  private final MutableClock clock = new MutableClock();
+
+  private final RowCounter counter = new RowCounter(clock);
+
+  @Test
+  @DisplayName("test exact: should count the matching rows")
+  void testExact() {
+    when(dsl.fetchCount(TABLE, CONDITION)).thenReturn(42);
+
+    assertEquals(42, counter.exact(dsl, TABLE, CONDITION));
+  }
+
+  @Test
+  @DisplayName("test cached: should reuse the count until it expires")
+  void testCachedReusesCountUntilExpiry() {
+    when(dsl.renderInlined(any(QueryPart.class))).thenReturn("select count(*) from users where age >= 18");
+    when(dsl.fetchCount(TABLE, CONDITION)).thenReturn(3, 5);
+
+    assertEquals(3, counter.cached("db", dsl, TABLE, CONDITION, 1_000));
+    clock.advance(999);
+    assertEquals(3, counter.cached("db", dsl, TABLE, CONDITION, 1_000));
+    clock.advance(1);
+    assertEquals(5, counter.cached("db", dsl, TABLE, CONDITION, 1_000));
+    verify(dsl, times(2)).fetchCount(TABLE, CONDITION);
+  }
+
+  @Test
+  @DisplayName("test cached: should cache the counts per provider")
+  void testCachedPerProvider() {
+    when(dsl.renderInlined(any(QueryPart.class))).thenReturn("select count(*) from users where age >= 18");
+    when(dsl.fetchCount(TABLE, CONDITION)).thenReturn(3, 5);
+
+    assertEquals(3, counter.cached("db", dsl, TABLE, CONDITION, 1_000));
+    assertEquals(5, counter.cached("other", dsl, TABLE, CONDITION, 1_000));
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private long millis;
+
+    void advance(long delta) {
+      millis += delta;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+  }
+}
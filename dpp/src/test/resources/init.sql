@@ -3,13 +3,14 @@ CREATE TABLE IF NOT EXISTS test_table_1 (
     name VARCHAR(100) NOT NULL,
     email VARCHAR(255) NOT NULL UNIQUE,
     age INTEGER NOT NULL,
-    is_valid BOOLEAN
+    is_valid BOOLEAN,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
-INSERT INTO test_table_1 (name, email, age, is_valid) VALUES
-    ('Alice Dupont', 'alice.dupont@example.com', 32, TRUE),
-    ('Bob Martin', 'bob.martin@example.com', 18, FALSE),
-    ('Charlie Bernard', 'charlie.bernard@example.com', 54, TRUE);
+INSERT INTO test_table_1 (name, email, age, is_valid, created_at) VALUES
+    ('Alice Dupont', 'alice.dupont@example.com', 32, TRUE, '2024-03-01 10:00:00'),
+    ('Bob Martin', 'bob.martin@example.com', 18, FALSE, '2024-01-15 08:30:00.250'),
+    ('Charlie Bernard', 'charlie.bernard@example.com', 54, TRUE, '2024-02-20 17:45:00');
 
 ---------------------------------------------------------------------
 
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.benchmark;
+
+import io.github.linagora.linid.im.corelib.plugin.config.dto.AuthenticationConfiguration;
+import io.github.linagora.linid.im.corelib.plugin.task.TaskExecutionContext;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of the first validation of an access token by a freshly wired plugin.
+ *
+ * <p>Every measured call resolves the provider metadata, downloads the JWK Set from the in-process
+ * provider, builds the JWT processor and verifies the token signature.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 100)
+@Fork(1)
+public class ColdValidationBenchmark {
+
+  /**
+   * Signature algorithm of the validated token.
+   */
+  @Param({"RS256", "ES256"})
+  String algorithm;
+
+  /**
+   * In-process provider signing the token.
+   */
+  private ProviderStub provider;
+
+  /**
+   * Request carrying the signed token.
+   */
+  private HttpServletRequest request;
+
+  /**
+   * Plugin configuration, with the validated-token cache disabled.
+   */
+  private AuthenticationConfiguration configuration;
+
+  /**
+   * Plugin wired for the current iteration.
+   */
+  private PluginFixture fixture;
+
+  /**
+   * Starts the provider and signs the token.
+   *
+   * @throws IOException if the provider cannot be started
+   * @throws GeneralSecurityException if the token cannot be signed
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, GeneralSecurityException {
+    provider = new ProviderStub();
+    request = ProviderStub.request(provider.sign(algorithm));
+    configuration = provider.configuration(false);
+  }
+
+  /**
+   * Wires a new plugin, so that the single measured call starts with empty caches.
+   */
+  @Setup(Level.Iteration)
+  public void wirePlugin() {
+    fixture = new PluginFixture();
+  }
+
+  /**
+   * Stops the schedulers of the plugin of the iteration.
+   */
+  @TearDown(Level.Iteration)
+  public void releasePlugin() {
+    fixture.close();
+  }
+
+  /**
+   * Stops the provider.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    provider.close();
+  }
+
+  /**
+   * Validates the token with empty caches.
+   *
+   * @return the execution context holding the propagated claims
+   */
+  @Benchmark
+  public TaskExecutionContext cold() {
+    var context = new TaskExecutionContext();
+    fixture.plugin().validateToken(configuration, request, context);
+    return context;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.benchmark;
+
+import io.github.linagora.linid.im.oiap.OIDCAuthenticationPlugin;
+import io.github.linagora.linid.im.oiap.cache.RejectedTokenCache;
+import io.github.linagora.linid.im.oiap.cache.ValidatedTokenCache;
+import io.github.linagora.linid.im.oiap.jwks.JWKSetStoreRegistry;
+import io.github.linagora.linid.im.oiap.metrics.AuthenticationMetrics;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfigurationFactory;
+import io.github.linagora.linid.im.oiap.processor.AccessTokenProcessorFactory;
+import io.github.linagora.linid.im.oiap.processor.JWSProcessor;
+import io.github.linagora.linid.im.oiap.processor.JWTProcessorRegistry;
+import io.github.linagora.linid.im.oiap.revocation.RevocationStore;
+import io.github.linagora.linid.im.oiap.userinfo.UserInfoEnricher;
+import java.util.List;
+
+/**
+ * Plugin wired as in the application context, with fresh caches and registries.
+ *
+ * <p>Every fixture owns the background schedulers of its registries, released by {@link #close()}.
+ */
+public final class PluginFixture implements AutoCloseable {
+
+  /**
+   * Plugin under benchmark.
+   */
+  private final OIDCAuthenticationPlugin plugin;
+
+  /**
+   * Registry of the JWK Set stores, owning the JWK Set refresh scheduler.
+   */
+  private final JWKSetStoreRegistry jwkSetStores;
+
+  /**
+   * Store of the revoked tokens, owning the revocation list refresh scheduler.
+   */
+  private final RevocationStore revocations;
+
+  /**
+   * Wires a new plugin.
+   */
+  public PluginFixture() {
+    var metrics = new AuthenticationMetrics();
+    jwkSetStores = new JWKSetStoreRegistry(metrics);
+    revocations = new RevocationStore();
+    var jwsProcessor = new JWSProcessor(
+        new JWTProcessorRegistry(), jwkSetStores, new RejectedTokenCache(), metrics);
+    plugin = new OIDCAuthenticationPlugin(
+        new OIDCPluginConfigurationFactory(), new AccessTokenProcessorFactory(List.of(jwsProcessor)),
+        new ValidatedTokenCache(), revocations, new UserInfoEnricher(), metrics);
+  }
+
+  /**
+   * Returns the plugin under benchmark.
+   *
+   * @return the plugin
+   */
+  public OIDCAuthenticationPlugin plugin() {
+    return plugin;
+  }
+
+  /**
+   * Stops the background schedulers of the plugin.
+   */
+  @Override
+  public void close() {
+    jwkSetStores.shutdown();
+    revocations.shutdown();
+  }
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.benchmark;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.linagora.linid.im.corelib.plugin.config.dto.AuthenticationConfiguration;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-process OpenID provider serving the discovery document and the JWK Set used by the benchmarks.
+ *
+ * <p>The provider listens on the loopback interface and signs access tokens with an RSA (RS256), an
+ * EC (ES256) and an Ed25519 (EdDSA) key, all published in its JWK Set. Ed25519 tokens are signed with
+ * the JDK provider, since the plugin does not ship the optional Tink dependency required by Nimbus.
+ */
+public final class ProviderStub implements AutoCloseable {
+
+  /**
+   * Audience of the signed access tokens.
+   */
+  public static final String AUDIENCE = "linid-im-benchmark";
+
+  /**
+   * Lifetime of the signed access tokens, long enough to outlive any benchmark run.
+   */
+  private static final Duration TOKEN_LIFETIME = Duration.ofHours(12);
+
+  /**
+   * Path of the OpenID Connect discovery document.
+   */
+  private static final String DISCOVERY_PATH = "/.well-known/openid-configuration";
+
+  /**
+   * Path of the JWK Set.
+   */
+  private static final String JWKS_PATH = "/jwks";
+
+  /**
+   * Size, in bytes, of the prefix of the X.509 encoding of an Ed25519 public key.
+   */
+  private static final int ED25519_X509_PREFIX_LENGTH = 12;
+
+  /**
+   * HTTP server serving the discovery document and the JWK Set.
+   */
+  private final HttpServer server;
+
+  /**
+   * Issuer URI of the provider, derived from the bound port.
+   */
+  private final String issuerURI;
+
+  /**
+   * RSA signing key.
+   */
+  private final RSAKey rsaKey;
+
+  /**
+   * EC P-256 signing key.
+   */
+  private final ECKey ecKey;
+
+  /**
+   * Ed25519 signing key pair, generated by the JDK provider.
+   */
+  private final KeyPair edKeyPair;
+
+  /**
+   * Public Ed25519 key, as published in the JWK Set.
+   */
+  private final OctetKeyPair edKey;
+
+  /**
+   * Starts the provider on an ephemeral loopback port.
+   *
+   * @throws IOException if the server cannot be started
+   * @throws GeneralSecurityException if the signing keys cannot be generated
+   */
+  public ProviderStub() throws IOException, GeneralSecurityException {
+    try {
+      rsaKey = new RSAKeyGenerator(2048).keyID("rsa").generate();
+      ecKey = new ECKeyGenerator(Curve.P_256).keyID("ec").generate();
+    } catch (JOSEException e) {
+      throw new GeneralSecurityException(e);
+    }
+    edKeyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+    byte[] encoded = edKeyPair.getPublic().getEncoded();
+    edKey = new OctetKeyPair.Builder(Curve.Ed25519,
+        Base64URL.encode(Arrays.copyOfRange(encoded, ED25519_X509_PREFIX_LENGTH, encoded.length)))
+        .keyID("ed")
+        .build();
+
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    issuerURI = "http://127.0.0.1:" + server.getAddress().getPort();
+    String discovery = """
+        {"issuer":"%1$s","authorization_endpoint":"%1$s/authorize","token_endpoint":"%1$s/token",\
+        "jwks_uri":"%1$s%2$s","response_types_supported":["code"],\
+        "subject_types_supported":["public"],\
+        "id_token_signing_alg_values_supported":["RS256","ES256","EdDSA"]}"""
+        .formatted(issuerURI, JWKS_PATH);
+    String jwks = new JWKSet(List.<JWK>of(rsaKey.toPublicJWK(), ecKey.toPublicJWK(), edKey))
+        .toString();
+    server.createContext(DISCOVERY_PATH, exchange -> respond(exchange, discovery));
+    server.createContext(JWKS_PATH, exchange -> respond(exchange, jwks));
+    server.start();
+  }
+
+  /**
+   * Returns the issuer URI of the provider.
+   *
+   * @return the issuer URI
+   */
+  public String issuerURI() {
+    return issuerURI;
+  }
+
+  /**
+   * Signs a valid access token with the key of the given algorithm.
+   *
+   * @param algorithm the signature algorithm: {@code RS256}, {@code ES256} or {@code EdDSA}
+   * @return the serialized access token
+   * @throws GeneralSecurityException if the token cannot be signed
+   */
+  public String sign(String algorithm) throws GeneralSecurityException {
+    JWSAlgorithm alg = JWSAlgorithm.parse(algorithm);
+    String keyID = switch (algorithm) {
+      case "RS256" -> rsaKey.getKeyID();
+      case "ES256" -> ecKey.getKeyID();
+      case "EdDSA" -> edKey.getKeyID();
+      default -> throw new IllegalArgumentException("Unsupported algorithm: " + algorithm);
+    };
+    JWSHeader header = new JWSHeader.Builder(alg)
+        .type(new JOSEObjectType("at+jwt"))
+        .keyID(keyID)
+        .build();
+    Instant now = Instant.now();
+    JWTClaimsSet claims = new JWTClaimsSet.Builder()
+        .issuer(issuerURI)
+        .audience(AUDIENCE)
+        .subject("benchmark")
+        .claim("email", "benchmark@example.com")
+        .jwtID(UUID.randomUUID().toString())
+        .issueTime(Date.from(now))
+        .expirationTime(Date.from(now.plus(TOKEN_LIFETIME)))
+        .build();
+
+    try {
+      if (JWSAlgorithm.EdDSA.equals(alg)) {
+        return signEd25519(header, claims);
+      }
+      SignedJWT jwt = new SignedJWT(header, claims);
+      jwt.sign(JWSAlgorithm.RS256.equals(alg) ? new RSASSASigner(rsaKey) : new ECDSASigner(ecKey));
+      return jwt.serialize();
+    } catch (JOSEException e) {
+      throw new GeneralSecurityException(e);
+    }
+  }
+
+  /**
+   * Builds the plugin configuration validating the tokens of this provider.
+   *
+   * @param tokenCache whether the validated-token cache is enabled
+   * @return the plugin configuration
+   */
+  public AuthenticationConfiguration configuration(boolean tokenCache) {
+    var configuration = new AuthenticationConfiguration();
+    configuration.addOption("issuerURI", issuerURI);
+    configuration.addOption("audience", AUDIENCE);
+    configuration.addOption("tokenType", "JWS");
+    configuration.addOption("requiredClaims", List.of("sub"));
+    configuration.addOption("optionalClaims", List.of("email"));
+    configuration.addOption("tokenCache", Map.of("enabled", tokenCache));
+    return configuration;
+  }
+
+  /**
+   * Returns a request carrying the given token in its {@code Authorization} header.
+   *
+   * @param accessToken the access token
+   * @return the HTTP request
+   */
+  public static HttpServletRequest request(String accessToken) {
+    String authorization = "Bearer " + accessToken;
+    return (HttpServletRequest) Proxy.newProxyInstance(
+        HttpServletRequest.class.getClassLoader(),
+        new Class<?>[] {HttpServletRequest.class},
+        (proxy, method, args) -> {
+          if ("getHeader".equals(method.getName()) && "Authorization".equals(args[0])) {
+            return authorization;
+          }
+          throw new UnsupportedOperationException(method.getName());
+        });
+  }
+
+  /**
+   * Stops the provider.
+   */
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+
+  /**
+   * Signs the token with the Ed25519 key of the JDK provider.
+   *
+   * @param header the JWS header
+   * @param claims the token claims
+   * @return the serialized access token
+   * @throws GeneralSecurityException if the token cannot be signed
+   */
+  private String signEd25519(JWSHeader header, JWTClaimsSet claims) throws GeneralSecurityException {
+    Base64URL encodedHeader = header.toBase64URL();
+    Base64URL encodedClaims = Base64URL.encode(claims.toString());
+    Signature signature = Signature.getInstance("Ed25519");
+    signature.initSign(edKeyPair.getPrivate());
+    signature.update((encodedHeader + "." + encodedClaims).getBytes(StandardCharsets.US_ASCII));
+    return encodedHeader + "." + encodedClaims + "." + Base64URL.encode(signature.sign());
+  }
+
+  /**
+   * Writes a JSON response.
+   *
+   * @param exchange the HTTP exchange
+   * @param body     the JSON body
+   * @throws IOException if the response cannot be written
+   */
+  private static void respond(HttpExchange exchange, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.benchmark;
+
+import io.github.linagora.linid.im.corelib.plugin.config.dto.AuthenticationConfiguration;
+import io.github.linagora.linid.im.corelib.plugin.task.TaskExecutionContext;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the validation of a valid access token by a warmed-up plugin.
+ *
+ * <ul>
+ *   <li>{@code warm}: the provider metadata, JWK Set and JWT processor are cached, but every call
+ *       parses the token and verifies its signature.</li>
+ *   <li>{@code cached}: the validated-token cache is enabled, so every call after the first one is
+ *       served from the cache.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenValidationBenchmark {
+
+  /**
+   * Signature algorithm of the validated token.
+   */
+  @Param({"RS256", "ES256"})
+  String algorithm;
+
+  /**
+   * In-process provider signing the token.
+   */
+  private ProviderStub provider;
+
+  /**
+   * Plugin under benchmark.
+   */
+  private PluginFixture fixture;
+
+  /**
+   * Request carrying the signed token.
+   */
+  private HttpServletRequest request;
+
+  /**
+   * Configuration with the validated-token cache disabled.
+   */
+  private AuthenticationConfiguration uncachedConfiguration;
+
+  /**
+   * Configuration with the validated-token cache enabled.
+   */
+  private AuthenticationConfiguration cachedConfiguration;
+
+  /**
+   * Starts the provider and primes the plugin caches with a first validation.
+   *
+   * @throws IOException if the provider cannot be started
+   * @throws GeneralSecurityException if the token cannot be signed
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws IOException, GeneralSecurityException {
+    provider = new ProviderStub();
+    fixture = new PluginFixture();
+    request = ProviderStub.request(provider.sign(algorithm));
+    uncachedConfiguration = provider.configuration(false);
+    cachedConfiguration = provider.configuration(true);
+    warm();
+    cached();
+  }
+
+  /**
+   * Stops the provider and the plugin schedulers.
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    fixture.close();
+    provider.close();
+  }
+
+  /**
+   * Validates the token, verifying its signature.
+   *
+   * @return the execution context holding the propagated claims
+   */
+  @Benchmark
+  public TaskExecutionContext warm() {
+    var context = new TaskExecutionContext();
+    fixture.plugin().validateToken(uncachedConfiguration, request, context);
+    return context;
+  }
+
+  /**
+   * Validates the token through the validated-token cache.
+   *
+   * @return the execution context holding the propagated claims
+   */
+  @Benchmark
+  public TaskExecutionContext cached() {
+    var context = new TaskExecutionContext();
+    fixture.plugin().validateToken(cachedConfiguration, request, context);
+    return context;
+  }
+}
@@ -31,17 +31,19 @@ import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
 import io.github.linagora.linid.im.corelib.plugin.authentication.AuthenticationPlugin;
 import io.github.linagora.linid.im.corelib.plugin.config.dto.AuthenticationConfiguration;
 import io.github.linagora.linid.im.corelib.plugin.task.TaskExecutionContext;
+import io.github.linagora.linid.im.oiap.cache.ValidatedTokenCache;
+import io.github.linagora.linid.im.oiap.claims.ClaimExtractionPlan;
+import io.github.linagora.linid.im.oiap.metrics.AuthenticationMetrics;
+import io.github.linagora.linid.im.oiap.metrics.AuthenticationMetrics.Stage;
 import io.github.linagora.linid.im.oiap.model.ErrorKey;
 import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
 import io.github.linagora.linid.im.oiap.model.OIDCPluginConfigurationFactory;
 import io.github.linagora.linid.im.oiap.processor.AccessTokenProcessorFactory;
+import io.github.linagora.linid.im.oiap.revocation.RevocationStore;
+import io.github.linagora.linid.im.oiap.userinfo.UserInfoEnricher;
 import jakarta.servlet.http.HttpServletRequest;
-import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
@@ -77,11 +79,45 @@ public class OIDCAuthenticationPlugin implements AuthenticationPlugin {
    */
   private final AccessTokenProcessorFactory processorFactory;
 
+  /**
+   * Cache of the claims of already validated tokens, used when enabled in the configuration.
+   */
+  private final ValidatedTokenCache tokenCache;
+
+  /**
+   * Store of the revoked tokens and sessions, checked for cached and freshly validated tokens alike.
+   */
+  private final RevocationStore revocations;
+
+  /**
+   * Enricher merging userinfo fields into the propagated claims, when enabled in the configuration.
+   */
+  private final UserInfoEnricher userInfoEnricher;
+
+  /**
+   * Metrics timing the validations and counting the rejected tokens.
+   */
+  private final AuthenticationMetrics metrics;
+
+  /**
+   * Extraction plan of the claims of the last configuration, compiled again when the claim names
+   * change.
+   */
+  private volatile ClaimExtractionPlan claimPlan;
+
   public OIDCAuthenticationPlugin(
       OIDCPluginConfigurationFactory configurationFactory,
-      AccessTokenProcessorFactory processorFactory) {
+      AccessTokenProcessorFactory processorFactory,
+      ValidatedTokenCache tokenCache,
+      RevocationStore revocations,
+      UserInfoEnricher userInfoEnricher,
+      AuthenticationMetrics metrics) {
     this.configurationFactory = configurationFactory;
     this.processorFactory = processorFactory;
+    this.tokenCache = tokenCache;
+    this.revocations = revocations;
+    this.userInfoEnricher = userInfoEnricher;
+    this.metrics = metrics;
   }
 
   /**
@@ -103,34 +139,80 @@ public class OIDCAuthenticationPlugin implements AuthenticationPlugin {
    *
    * <ol>
    *   <li>Extracts the Bearer token from the {@code Authorization} header.
-   *   <li>Selects the first {@link io.github.linagora.linid.im.oiap.processor.AccessTokenProcessor}
+   *   <li>Returns the cached claims when the token cache is enabled and already holds the token.
+   *   <li>Otherwise, selects the first {@link io.github.linagora.linid.im.oiap.processor.AccessTokenProcessor}
    *       that supports the token format.
-   *   <li>Validates the token and retrieves its claims.
+   *   <li>Validates the token, retrieves its claims and caches them when the token cache is enabled.
+   *   <li>Rejects the token when its {@code jti} or {@code sid} claim has been revoked.
    *   <li>Asserts that all required claims are present and non-blank.
-   *   <li>Propagates the claims subset into the context.
+   *   <li>Propagates the claims subset into the context under the key {@value #CLAIMS_CONTEXT_KEY},
+   *       resolving dot-separated claim paths through the {@link ClaimExtractionPlan} of the
+   *       configuration, and merging the selected userinfo fields when the enrichment is enabled.
    * </ol>
    *
+   * <p>The validation is timed, and rejected tokens are counted by error key, through the
+   * {@link AuthenticationMetrics}.
+   *
    * @param configuration the authentication configuration for this plugin instance
    * @param request       the incoming HTTP request containing the {@code Authorization} header
    * @param context       the task execution context in which claims will be stored
-   * @throws ApiException with HTTP 401 if the token is absent, malformed, invalid, or if required
+   * @throws ApiException with HTTP 401 if the token is absent, malformed, invalid, revoked, or if required
    *                      claims are missing or blank; with HTTP 500 if any error occurs during processor
-   *                      configuration.
+   *                      configuration or userinfo enrichment.
    */
   @Override
   public void validateToken(
       AuthenticationConfiguration configuration,
       HttpServletRequest request,
       TaskExecutionContext context) {
+    long start = this.metrics.start();
+    try {
+      authenticate(configuration, request, context);
+    } catch (ApiException e) {
+      this.metrics.rejected(e.getError().key());
+      throw e;
+    } finally {
+      this.metrics.stop(Stage.TOTAL, start);
+    }
+  }
+
+  /**
+   * Runs the steps of {@link #validateToken}.
+   *
+   * @param configuration the authentication configuration for this plugin instance
+   * @param request       the incoming HTTP request containing the {@code Authorization} header
+   * @param context       the task execution context in which claims will be stored
+   * @throws ApiException as described by {@link #validateToken}
+   */
+  private void authenticate(
+      AuthenticationConfiguration configuration,
+      HttpServletRequest request,
+      TaskExecutionContext context) {
     String accessToken = extractAccessToken(request);
 
-    OIDCPluginConfiguration config = this.configurationFactory.create(configuration);
+    OIDCPluginConfiguration config = this.configurationFactory.get(configuration);
 
-    Map<String, Object> claims =
-        this.processorFactory.getProcessor(config).process(accessToken, config);
+    Map<String, Object> claims = this.tokenCache.get(accessToken, config);
+    if (claims == null) {
+      claims = this.processorFactory.getProcessor(config).process(accessToken, config);
+      this.tokenCache.put(accessToken, config, claims);
+    }
 
-    validateRequiredClaims(claims, config);
-    propagateClaims(context, config, claims);
+    ClaimExtractionPlan plan = claimPlan(config);
+    long start = this.metrics.start();
+    try {
+      if (this.revocations.isRevoked(claims, config.revocation())) {
+        log.debug("Rejected revoked token of issuer {}", claims.get("iss"));
+        throw new ApiException(
+            HttpStatus.UNAUTHORIZED.value(), I18nMessage.of(ErrorKey.INVALID_TOKEN.getKey()));
+      }
+      validateRequiredClaims(claims, plan);
+    } finally {
+      this.metrics.stop(Stage.CLAIMS, start);
+    }
+    Map<String, Object> propagatedClaims = plan.extract(claims);
+    this.userInfoEnricher.enrich(accessToken, claims, config, propagatedClaims);
+    context.put(CLAIMS_CONTEXT_KEY, propagatedClaims);
   }
 
   /**
@@ -161,45 +243,34 @@ public class OIDCAuthenticationPlugin implements AuthenticationPlugin {
   }
 
   /**
-   * Asserts that all required claims are present and non-blank.
+   * Returns the claim extraction plan of the configuration, compiling it when the claim names have
+   * changed since the last request.
    *
-   * @param claims the claims map returned by the token processor
-   * @param config the plugin configuration declaring the required claim names
-   * @throws ApiException with HTTP 401 if any required claim is missing or blank
+   * @param config the plugin configuration declaring the required and optional claim names
+   * @return the claim extraction plan
    */
-  private void validateRequiredClaims(Map<String, Object> claims, OIDCPluginConfiguration config) {
-    for (String claimName : config.requiredClaims()) {
-      Object value = claims.get(claimName);
-      if (value == null || value.toString().isBlank()) {
-        log.debug("Missing or blank required claim: {}", claimName);
-        throw new ApiException(
-            HttpStatus.UNAUTHORIZED.value(), I18nMessage.of(ErrorKey.INVALID_TOKEN.getKey()));
-      }
+  private ClaimExtractionPlan claimPlan(OIDCPluginConfiguration config) {
+    ClaimExtractionPlan plan = this.claimPlan;
+    if (plan == null || !plan.isCompiledFrom(config.requiredClaims(), config.optionalClaims())) {
+      plan = ClaimExtractionPlan.compile(config.requiredClaims(), config.optionalClaims());
+      this.claimPlan = plan;
     }
+    return plan;
   }
 
   /**
-   * Copies the subset of claims (required + optional) into the task execution context under the
-   * key {@value #CLAIMS_CONTEXT_KEY}.
-   *
-   * <p>Claims absent from the token are silently omitted from the propagated map.
+   * Asserts that all required claims are present and non-blank.
    *
-   * @param context the task execution context to populate
-   * @param config  the plugin configuration declaring the required and optional claim names
-   * @param claims  the full claims map returned by the token processor
+   * @param claims the claims map returned by the token processor
+   * @param plan   the claim extraction plan declaring the required claim paths
+   * @throws ApiException with HTTP 401 if any required claim is missing or blank
    */
-  private void propagateClaims(
-      TaskExecutionContext context, OIDCPluginConfiguration config, Map<String, Object> claims) {
-    List<String> allClaimsToPropagate =
-        Stream.concat(config.requiredClaims().stream(), config.optionalClaims().stream())
-            .distinct()
-            .toList();
-
-    Map<String, Object> extractedClaims =
-        allClaimsToPropagate.stream()
-            .filter(claim -> claims.get(claim) != null)
-            .collect(Collectors.toMap(Function.identity(), claims::get));
-
-    context.put(CLAIMS_CONTEXT_KEY, extractedClaims);
+  private void validateRequiredClaims(Map<String, Object> claims, ClaimExtractionPlan plan) {
+    String missingClaim = plan.findMissingRequiredClaim(claims);
+    if (missingClaim != null) {
+      log.debug("Missing or blank required claim: {}", missingClaim);
+      throw new ApiException(
+          HttpStatus.UNAUTHORIZED.value(), I18nMessage.of(ErrorKey.INVALID_TOKEN.getKey()));
+    }
   }
 }
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.cache;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe in-memory cache whose entries carry their own expiration instant and weight.
+ *
+ * <p>The cache is bounded both by a number of entries and by a total weight (typically an estimate
+ * of the memory used by the entries). When either bound is exceeded, expired entries are purged
+ * first, then arbitrary entries are evicted until the cache is back below 90% of its bounds, so
+ * that the eviction cost is amortized over many insertions.
+ *
+ * <p>Hit and miss counters are maintained to help sizing the cache.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the cached values
+ */
+public class ExpiringCache<K, V> {
+
+  /**
+   * Cached entries.
+   */
+  private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Sum of the weights of the cached entries.
+   */
+  private final AtomicLong totalWeight = new AtomicLong();
+
+  /**
+   * Number of lookups that returned a value.
+   */
+  private final LongAdder hits = new LongAdder();
+
+  /**
+   * Number of lookups that found no value, or an expired one.
+   */
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Lock ensuring that a single thread evicts entries at a time.
+   */
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  /**
+   * Maximum number of entries.
+   */
+  private final int maxEntries;
+
+  /**
+   * Maximum total weight of the entries.
+   */
+  private final long maxWeight;
+
+  /**
+   * Clock used to check entry expiration.
+   */
+  private final Clock clock;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param maxEntries the maximum number of entries
+   * @param maxWeight  the maximum total weight of the entries
+   * @param clock      the clock used to check entry expiration
+   */
+  public ExpiringCache(int maxEntries, long maxWeight, Clock clock) {
+    this.maxEntries = maxEntries;
+    this.maxWeight = maxWeight;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the value associated with the key, or {@code null} if absent or expired.
+   *
+   * @param key the key
+   * @return the cached value, or {@code null}
+   */
+  public V get(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    if (entry.expiresAt() <= clock.millis()) {
+      remove(key, entry);
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return entry.value();
+  }
+
+  /**
+   * Associates the value with the key until the given expiration instant.
+   *
+   * <p>Values already expired, or heavier than the maximum total weight, are not cached.
+   *
+   * @param key       the key
+   * @param value     the value
+   * @param expiresAt the epoch milliseconds after which the entry must no longer be returned
+   * @param weight    the weight of the entry
+   */
+  public void put(K key, V value, long expiresAt, long weight) {
+    if (expiresAt <= clock.millis() || weight > maxWeight) {
+      return;
+    }
+    Entry<V> entry = new Entry<>(value, expiresAt, weight);
+    Entry<V> previous = entries.put(key, entry);
+    totalWeight.addAndGet(previous == null ? weight : weight - previous.weight());
+
+    if (entries.size() > maxEntries || totalWeight.get() > maxWeight) {
+      evict();
+    }
+  }
+
+  /**
+   * Removes the entry associated with the key.
+   *
+   * @param key the key
+   */
+  public void invalidate(K key) {
+    Entry<V> entry = entries.remove(key);
+    if (entry != null) {
+      totalWeight.addAndGet(-entry.weight());
+    }
+  }
+
+  /**
+   * Removes all entries.
+   */
+  public void clear() {
+    entries.keySet().forEach(this::invalidate);
+  }
+
+  /**
+   * Returns the number of lookups that returned a value.
+   *
+   * @return the hit count
+   */
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of lookups that found no value, or an expired one.
+   *
+   * @return the miss count
+   */
+  public long missCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the number of entries, including expired ones not yet purged.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the maximum number of entries.
+   *
+   * @return the maximum number of entries
+   */
+  public int maxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * Returns the sum of the weights of the entries.
+   *
+   * @return the total weight
+   */
+  public long weight() {
+    return totalWeight.get();
+  }
+
+  /**
+   * Purges expired entries, then evicts arbitrary entries until the cache is back below 90% of
+   * its bounds. Does nothing if another thread is already evicting.
+   */
+  private void evict() {
+    if (!evictionLock.tryLock()) {
+      return;
+    }
+    try {
+      long now = clock.millis();
+      entries.forEach((key, entry) -> {
+        if (entry.expiresAt() <= now) {
+          remove(key, entry);
+        }
+      });
+
+      long targetEntries = maxEntries * 9L / 10;
+      long targetWeight = maxWeight * 9 / 10;
+      Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+      while (iterator.hasNext() && (entries.size() > targetEntries || totalWeight.get() > targetWeight)) {
+        Map.Entry<K, Entry<V>> candidate = iterator.next();
+        remove(candidate.getKey(), candidate.getValue());
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Removes the entry if it is still associated with the key.
+   *
+   * @param key   the key
+   * @param entry the entry expected to be associated with the key
+   */
+  private void remove(K key, Entry<V> entry) {
+    if (entries.remove(key, entry)) {
+      totalWeight.addAndGet(-entry.weight());
+    }
+  }
+
+  /**
+   * Cached value along with its expiration instant and weight.
+   *
+   * <p>Entries are compared by identity, so that removing an entry never removes a newer value
+   * associated with the same key.
+   *
+   * @param <V> the type of the cached value
+   */
+  private static final class Entry<V> {
+
+    /**
+     * The cached value.
+     */
+    private final V value;
+
+    /**
+     * The epoch milliseconds after which the entry is expired.
+     */
+    private final long expiresAt;
+
+    /**
+     * The weight of the entry.
+     */
+    private final long weight;
+
+    Entry(V value, long expiresAt, long weight) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+      this.weight = weight;
+    }
+
+    V value() {
+      return value;
+    }
+
+    long expiresAt() {
+      return expiresAt;
+    }
+
+    long weight() {
+      return weight;
+    }
+  }
+}
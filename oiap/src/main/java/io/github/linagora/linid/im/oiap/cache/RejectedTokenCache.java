@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.cache;
+
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import java.time.Clock;
+import org.springframework.stereotype.Component;
+
+/**
+ * Negative cache of recently rejected access tokens.
+ *
+ * <p>Tokens are indexed by their SHA-256 digest, along with the issuer URI and audience they were
+ * rejected for, so that a token replayed shortly after its rejection is dropped without being
+ * parsed or verified again. Only rejections that cannot turn into a success later on are recorded
+ * by callers; an entry is kept for {@link #REJECTION_TTL} milliseconds.
+ *
+ * <p>The cache holds at most {@link #MAX_ENTRIES} tokens, so that a flood of distinct invalid
+ * tokens cannot grow it without bound.
+ */
+@Component
+public class RejectedTokenCache {
+
+  /**
+   * Maximum number of rejected tokens remembered.
+   */
+  static final int MAX_ENTRIES = 10_000;
+
+  /**
+   * Time, in milliseconds, during which a rejected token is remembered.
+   */
+  static final long REJECTION_TTL = 60_000L;
+
+  /**
+   * Clock used to compute entry expiration.
+   */
+  private final Clock clock;
+
+  /**
+   * Digests of the rejected tokens.
+   */
+  private final ExpiringCache<TokenKey, Boolean> rejected;
+
+  /**
+   * Creates a cache based on the system UTC clock.
+   */
+  public RejectedTokenCache() {
+    this(Clock.systemUTC());
+  }
+
+  /**
+   * Creates a cache based on the given clock.
+   *
+   * @param clock the clock used to compute entry expiration
+   */
+  RejectedTokenCache(Clock clock) {
+    this.clock = clock;
+    this.rejected = new ExpiringCache<>(MAX_ENTRIES, MAX_ENTRIES, clock);
+  }
+
+  /**
+   * Returns whether the token has been rejected recently.
+   *
+   * @param accessToken the raw access token
+   * @param config      the plugin configuration the token is validated against
+   * @return {@code true} if the token was rejected less than {@link #REJECTION_TTL} milliseconds ago
+   */
+  public boolean contains(String accessToken, OIDCPluginConfiguration config) {
+    return rejected.get(TokenKey.of(accessToken, config)) != null;
+  }
+
+  /**
+   * Remembers that the token has been rejected.
+   *
+   * @param accessToken the raw access token
+   * @param config      the plugin configuration the token was rejected for
+   */
+  public void put(String accessToken, OIDCPluginConfiguration config) {
+    rejected.put(TokenKey.of(accessToken, config), Boolean.TRUE, clock.millis() + REJECTION_TTL, 1);
+  }
+
+  /**
+   * Returns the number of lookups that found a rejected token.
+   *
+   * @return the hit count of the cache
+   */
+  public long hitCount() {
+    return rejected.hitCount();
+  }
+
+  /**
+   * Returns the number of lookups that found no rejected token.
+   *
+   * @return the miss count of the cache
+   */
+  public long missCount() {
+    return rejected.missCount();
+  }
+
+  /**
+   * Returns the number of remembered tokens.
+   *
+   * @return the size of the cache
+   */
+  public int size() {
+    return rejected.size();
+  }
+
+  /**
+   * Cache key identifying a token rejected for a given issuer and audience.
+   *
+   * @param digest    the Base64url-encoded SHA-256 digest of the token
+   * @param issuerURI the issuer URI of the provider
+   * @param audience  the expected audience
+   */
+  private record TokenKey(String digest, String issuerURI, String audience) {
+
+    /**
+     * Builds the key of the given token.
+     *
+     * @param accessToken the raw access token
+     * @param config      the plugin configuration
+     * @return the cache key
+     */
+    static TokenKey of(String accessToken, OIDCPluginConfiguration config) {
+      return new TokenKey(TokenDigest.sha256(accessToken), config.issuerURI(), config.audience());
+    }
+  }
+}
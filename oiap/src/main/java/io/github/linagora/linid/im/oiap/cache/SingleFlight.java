@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent computations of the same key into a single call.
+ *
+ * <p>The first thread requesting a key runs the loader; threads requesting the same key while the
+ * call is in flight wait for its outcome instead of starting their own call. The outcome, value or
+ * exception, is shared by all of them. Once the call completes, the next request for the key
+ * starts a new call, so results are never retained: callers are expected to cache them.
+ *
+ * <p>Waiting threads give up after a bounded time, so that a slow call cannot pile up all the
+ * threads requesting the same key. The call itself keeps running and still completes for the
+ * threads that did not give up yet.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the computed values
+ */
+public class SingleFlight<K, V> {
+
+  /**
+   * Calls currently in flight, by key.
+   */
+  private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the value computed by the loader, sharing the call with concurrent requests for the
+   * same key.
+   *
+   * @param key          the key
+   * @param loader       the computation to run if no call is in flight for the key
+   * @param maxWait      the maximum time, in milliseconds, to wait for a call run by another thread
+   * @param timeoutError the supplier of the exception thrown when {@code maxWait} elapses
+   * @return the computed value
+   * @throws RuntimeException the exception thrown by the loader, possibly in another thread, or the
+   *                          one supplied by {@code timeoutError}
+   */
+  public V execute(
+      K key, Supplier<V> loader, long maxWait, Supplier<? extends RuntimeException> timeoutError) {
+    CompletableFuture<V> call = new CompletableFuture<>();
+    CompletableFuture<V> existing = calls.putIfAbsent(key, call);
+    if (existing != null) {
+      return await(existing, maxWait, timeoutError);
+    }
+    try {
+      V value = loader.get();
+      call.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      call.completeExceptionally(e);
+      throw e;
+    } finally {
+      calls.remove(key, call);
+    }
+  }
+
+  /**
+   * Returns {@code true} when a call is in flight for the key.
+   *
+   * @param key the key
+   * @return whether the key is being computed
+   */
+  public boolean isInFlight(K key) {
+    return calls.containsKey(key);
+  }
+
+  /**
+   * Returns the number of calls currently in flight.
+   *
+   * @return the number of keys being computed
+   */
+  public int inFlight() {
+    return calls.size();
+  }
+
+  /**
+   * Waits for the outcome of a call started by another thread.
+   *
+   * @param call         the call in flight
+   * @param maxWait      the maximum time, in milliseconds, to wait for the call
+   * @param timeoutError the supplier of the exception thrown when {@code maxWait} elapses
+   * @return the computed value
+   */
+  private V await(
+      CompletableFuture<V> call, long maxWait, Supplier<? extends RuntimeException> timeoutError) {
+    try {
+      return call.get(maxWait, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw timeoutError.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw timeoutError.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
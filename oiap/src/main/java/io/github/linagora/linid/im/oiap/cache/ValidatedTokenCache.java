@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.cache;
+
+import com.nimbusds.jwt.JWTClaimNames;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.TokenCacheConfiguration;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opt-in cache of the claims of already validated access tokens.
+ *
+ * <p>Tokens are indexed by their SHA-256 digest, along with the issuer URI and audience they were
+ * validated against, so that raw tokens are never kept in memory. An entry expires at the token's
+ * {@code exp} claim; tokens without expiration are never cached.
+ *
+ * <p>The cache is bounded by the number of entries and by an estimate of the memory used by the
+ * cached claims, both taken from {@link OIDCPluginConfiguration#tokenCache()}. It belongs to the
+ * configuration instance it was created for and is recreated, empty, as soon as another one is
+ * used, e.g. when the plugin options are rebound after an issuer was removed or the static keys
+ * were rotated, so that no token keeps authenticating on the strength of a previous configuration.
+ */
+@Component
+public class ValidatedTokenCache {
+
+  /**
+   * Estimated fixed memory cost, in bytes, of a cache entry (key, digest and map overhead).
+   */
+  static final long ENTRY_OVERHEAD = 256L;
+
+  /**
+   * Clock used to check entry expiration.
+   */
+  private final Clock clock;
+
+  /**
+   * Current cache along with the configuration it was created for, {@code null} until first use.
+   */
+  private volatile ConfigAndCache current;
+
+  /**
+   * Creates a cache based on the system UTC clock.
+   */
+  public ValidatedTokenCache() {
+    this(Clock.systemUTC());
+  }
+
+  /**
+   * Creates a cache based on the given clock.
+   *
+   * @param clock the clock used to check entry expiration
+   */
+  ValidatedTokenCache(Clock clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the cached claims of the token, or {@code null} if the cache is disabled, or if the
+   * token has not been validated yet or has expired.
+   *
+   * @param accessToken the raw access token
+   * @param config      the plugin configuration the token is validated against
+   * @return the cached claims, or {@code null}
+   */
+  public Map<String, Object> get(String accessToken, OIDCPluginConfiguration config) {
+    ExpiringCache<TokenKey, Map<String, Object>> cache = cacheFor(config);
+    if (cache == null) {
+      return null;
+    }
+    return cache.get(TokenKey.of(accessToken, config));
+  }
+
+  /**
+   * Caches the claims of a validated token until its {@code exp} claim.
+   *
+   * @param accessToken the raw access token
+   * @param config      the plugin configuration the token was validated against
+   * @param claims      the claims of the validated token
+   */
+  public void put(String accessToken, OIDCPluginConfiguration config, Map<String, Object> claims) {
+    ExpiringCache<TokenKey, Map<String, Object>> cache = cacheFor(config);
+    if (cache == null) {
+      return;
+    }
+    Long expiresAt = expirationOf(claims);
+    if (expiresAt != null) {
+      cache.put(TokenKey.of(accessToken, config), claims, expiresAt, estimateWeight(claims));
+    }
+  }
+
+  /**
+   * Returns the number of lookups that returned cached claims.
+   *
+   * @return the hit count of the current cache
+   */
+  public long hitCount() {
+    ConfigAndCache snapshot = current;
+    return snapshot == null ? 0 : snapshot.cache().hitCount();
+  }
+
+  /**
+   * Returns the number of lookups that found no cached claims.
+   *
+   * @return the miss count of the current cache
+   */
+  public long missCount() {
+    ConfigAndCache snapshot = current;
+    return snapshot == null ? 0 : snapshot.cache().missCount();
+  }
+
+  /**
+   * Returns the number of cached tokens.
+   *
+   * @return the size of the current cache
+   */
+  public int size() {
+    ConfigAndCache snapshot = current;
+    return snapshot == null ? 0 : snapshot.cache().size();
+  }
+
+  /**
+   * Returns the cache of the given configuration, replacing the cache of any other configuration.
+   *
+   * @param config the plugin configuration the tokens are validated against
+   * @return the cache, or {@code null} if caching is disabled
+   */
+  private ExpiringCache<TokenKey, Map<String, Object>> cacheFor(OIDCPluginConfiguration config) {
+    TokenCacheConfiguration settings = config.tokenCache();
+    if (settings == null || !settings.enabled()) {
+      return null;
+    }
+    ConfigAndCache snapshot = current;
+    if (snapshot != null && snapshot.config() == config) {
+      return snapshot.cache();
+    }
+    synchronized (this) {
+      if (current == null || current.config() != config) {
+        current = new ConfigAndCache(
+            config, new ExpiringCache<>(settings.maxEntries(), settings.maxSize(), clock));
+      }
+      return current.cache();
+    }
+  }
+
+  /**
+   * Returns the expiration of the token in epoch milliseconds, read from its {@code exp} claim.
+   *
+   * @param claims the claims of the token
+   * @return the expiration, or {@code null} if the claim is absent or has an unexpected type
+   */
+  public static Long expirationOf(Map<String, Object> claims) {
+    Object exp = claims.get(JWTClaimNames.EXPIRATION_TIME);
+    if (exp instanceof Date date) {
+      return date.getTime();
+    }
+    if (exp instanceof Instant instant) {
+      return instant.toEpochMilli();
+    }
+    if (exp instanceof Number seconds) {
+      return seconds.longValue() * 1000;
+    }
+    return null;
+  }
+
+  /**
+   * Estimates the memory, in bytes, used by a cache entry holding the given claims.
+   *
+   * @param claims the claims of the token
+   * @return the estimated weight of the entry
+   */
+  static long estimateWeight(Map<String, Object> claims) {
+    long weight = ENTRY_OVERHEAD;
+    for (Map.Entry<String, Object> claim : claims.entrySet()) {
+      weight += 32 + 2L * claim.getKey().length() + estimateValueWeight(claim.getValue());
+    }
+    return weight;
+  }
+
+  /**
+   * Estimates the memory, in bytes, used by a claim value.
+   *
+   * @param value the claim value
+   * @return the estimated weight of the value
+   */
+  private static long estimateValueWeight(Object value) {
+    if (value instanceof CharSequence text) {
+      return 40 + 2L * text.length();
+    }
+    if (value instanceof Collection<?> collection) {
+      long weight = 32;
+      for (Object element : collection) {
+        weight += 8 + estimateValueWeight(element);
+      }
+      return weight;
+    }
+    if (value instanceof Map<?, ?> map) {
+      long weight = 48;
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        weight += 32 + estimateValueWeight(entry.getKey()) + estimateValueWeight(entry.getValue());
+      }
+      return weight;
+    }
+    return 16;
+  }
+
+  /**
+   * Cache key identifying a token validated against a given issuer and audience.
+   *
+   * @param digest    the Base64url-encoded SHA-256 digest of the token
+   * @param issuerURI the issuer URI the token was validated against
+   * @param audience  the audience the token was validated against
+   */
+  private record TokenKey(String digest, String issuerURI, String audience) {
+
+    /**
+     * Builds the key of the given token.
+     *
+     * @param accessToken the raw access token
+     * @param config      the plugin configuration the token is validated against
+     * @return the cache key
+     */
+    static TokenKey of(String accessToken, OIDCPluginConfiguration config) {
+      return new TokenKey(TokenDigest.sha256(accessToken), config.issuerURI(), config.audience());
+    }
+  }
+
+  /**
+   * Cache along with the configuration it was created for.
+   *
+   * @param config the plugin configuration, compared by identity
+   * @param cache  the cache
+   */
+  private record ConfigAndCache(
+      OIDCPluginConfiguration config, ExpiringCache<TokenKey, Map<String, Object>> cache) {
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.claims;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Extraction plan of the required and optional claims of a configuration, compiled once and then
+ * applied to the claims of every validated token.
+ *
+ * <p>A claim name may be a dot-separated path, such as {@code realm_access.roles}, walking nested
+ * JSON objects of the token. A top-level claim whose name contains dots, such as a namespaced
+ * {@code https://example.com/roles} claim, is still found by its full name first. The paths are
+ * split when the plan is compiled, so that extracting them only walks the claims map.
+ */
+public final class ClaimExtractionPlan {
+
+  /**
+   * Required claim names the plan was compiled from.
+   */
+  private final List<String> requiredClaims;
+
+  /**
+   * Optional claim names the plan was compiled from.
+   */
+  private final List<String> optionalClaims;
+
+  /**
+   * Compiled paths of the required claims.
+   */
+  private final ClaimPath[] required;
+
+  /**
+   * Compiled paths of the required and optional claims, without duplicates.
+   */
+  private final ClaimPath[] propagated;
+
+  /**
+   * Creates a plan from claim names.
+   *
+   * @param requiredClaims the names of the claims that must be present and non-blank
+   * @param optionalClaims the names of the claims that are propagated when present
+   */
+  private ClaimExtractionPlan(List<String> requiredClaims, List<String> optionalClaims) {
+    this.requiredClaims = requiredClaims;
+    this.optionalClaims = optionalClaims;
+    this.required = requiredClaims.stream().map(ClaimPath::new).toArray(ClaimPath[]::new);
+    Set<String> names = new LinkedHashSet<>(requiredClaims);
+    names.addAll(optionalClaims);
+    this.propagated = names.stream().map(ClaimPath::new).toArray(ClaimPath[]::new);
+  }
+
+  /**
+   * Compiles the extraction plan of the given claim names.
+   *
+   * @param requiredClaims the names of the claims that must be present and non-blank
+   * @param optionalClaims the names of the claims that are propagated when present
+   * @return the extraction plan
+   */
+  public static ClaimExtractionPlan compile(List<String> requiredClaims, List<String> optionalClaims) {
+    return new ClaimExtractionPlan(requiredClaims, optionalClaims);
+  }
+
+  /**
+   * Returns whether this plan was compiled from the given claim names.
+   *
+   * <p>Configurations reused across requests share their lists, so the check is usually an
+   * identity comparison.
+   *
+   * @param requiredClaims the names of the claims that must be present and non-blank
+   * @param optionalClaims the names of the claims that are propagated when present
+   * @return {@code true} if the plan can be applied for these claim names
+   */
+  public boolean isCompiledFrom(List<String> requiredClaims, List<String> optionalClaims) {
+    return (this.requiredClaims == requiredClaims || this.requiredClaims.equals(requiredClaims))
+        && (this.optionalClaims == optionalClaims || this.optionalClaims.equals(optionalClaims));
+  }
+
+  /**
+   * Returns the first required claim that is missing, {@code null} or blank.
+   *
+   * @param claims the claims of the validated token
+   * @return the name of the missing claim, or {@code null} if all the required claims are present
+   */
+  public String findMissingRequiredClaim(Map<String, Object> claims) {
+    for (ClaimPath path : required) {
+      Object value = path.resolve(claims);
+      if (value == null || value.toString().isBlank()) {
+        return path.name;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Extracts the required and optional claims present in the token, keyed by their configured
+   * name.
+   *
+   * @param claims the claims of the validated token
+   * @return the claims to propagate, without {@code null} values
+   */
+  public Map<String, Object> extract(Map<String, Object> claims) {
+    Map<String, Object> extracted = HashMap.newHashMap(propagated.length);
+    for (ClaimPath path : propagated) {
+      Object value = path.resolve(claims);
+      if (value != null) {
+        extracted.put(path.name, value);
+      }
+    }
+    return extracted;
+  }
+
+  /**
+   * Claim name split into the keys of the nested JSON objects it walks.
+   */
+  private static final class ClaimPath {
+
+    /**
+     * Configured claim name.
+     */
+    private final String name;
+
+    /**
+     * Keys walked from the top-level claims, a single one for a plain claim name.
+     */
+    private final String[] segments;
+
+    /**
+     * Compiles a claim name.
+     *
+     * @param name the configured claim name
+     */
+    private ClaimPath(String name) {
+      this.name = name;
+      this.segments = name.split("\\.", -1);
+    }
+
+    /**
+     * Returns the value of the claim, looking up the full name before walking the path.
+     *
+     * @param claims the claims of the validated token
+     * @return the claim value, or {@code null} if absent
+     */
+    private Object resolve(Map<String, Object> claims) {
+      Object value = claims.get(name);
+      if (value != null || segments.length == 1) {
+        return value;
+      }
+      Object current = claims;
+      for (String segment : segments) {
+        if (!(current instanceof Map<?, ?> object)) {
+          return null;
+        }
+        current = object.get(segment);
+      }
+      return current;
+    }
+  }
+}
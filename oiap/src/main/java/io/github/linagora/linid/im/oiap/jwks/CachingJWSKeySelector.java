@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.jwks;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.crypto.factories.DefaultJWSVerifierFactory;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.proc.JWSKeySelector;
+import com.nimbusds.jose.proc.JWSVerifierFactory;
+import com.nimbusds.jose.proc.SecurityContext;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * JWS key selector and verifier factory serving the keys of a {@link JWKSetStore} from its
+ * {@link JWSVerifierCache}.
+ *
+ * <p>Keys are selected from the JWK Set of the store by key ID and algorithm, as done by the
+ * default key selectors, so that an unknown key ID still triggers a rate-limited refetch. The
+ * selected JWKs are then mapped to the public keys and verifiers cached by the store, which are
+ * handed back to the JWT processor without being rebuilt. Steady-state verification therefore only
+ * costs the signature check.
+ */
+public class CachingJWSKeySelector implements JWSKeySelector<SecurityContext>, JWSVerifierFactory {
+
+  /**
+   * Signature algorithms supported by the selector: the RSA and EC families.
+   */
+  public static final Set<JWSAlgorithm> SUPPORTED_ALGORITHMS = Set.copyOf(Stream.of(
+          JWSAlgorithm.Family.RSA, JWSAlgorithm.Family.EC)
+      .flatMap(Set::stream)
+      .toList());
+
+  /**
+   * Store holding the JWK Set and its cached verifiers.
+   */
+  private final JWKSetStore store;
+
+  /**
+   * Factory used for the keys that are not cached.
+   */
+  private final DefaultJWSVerifierFactory fallback = new DefaultJWSVerifierFactory();
+
+  /**
+   * Creates a selector serving the keys of the given store.
+   *
+   * @param store the store holding the JWK Set of the provider
+   */
+  CachingJWSKeySelector(JWKSetStore store) {
+    this.store = store;
+  }
+
+  /**
+   * Creates a selector serving the keys of the given store, after loading its JWK Set and building
+   * the verifiers of all its signing keys.
+   *
+   * @param store the store holding the JWK Set of the provider
+   * @return the selector
+   * @throws KeySourceException if the JWK Set cannot be loaded or contains no RSA or EC signing key
+   */
+  public static CachingJWSKeySelector fromJWKSetStore(JWKSetStore store) throws KeySourceException {
+    JWKMatcher signingKeys = new JWKMatcher.Builder()
+        .publicOnly(true)
+        .keyUses(KeyUse.SIGNATURE, null)
+        .keyTypes(KeyType.RSA, KeyType.EC)
+        .build();
+    List<JWK> jwks = store.get(new JWKSelector(signingKeys), null);
+    if (jwks.isEmpty()) {
+      throw new KeySourceException("No RSA or EC signing keys found in JWK Set");
+    }
+    try {
+      for (JWK jwk : jwks) {
+        store.verifiers().get(jwk);
+      }
+    } catch (JOSEException e) {
+      throw new KeySourceException("Invalid key in JWK Set: " + e.getMessage(), e);
+    }
+    return new CachingJWSKeySelector(store);
+  }
+
+  /**
+   * Returns the cached public keys matching the header of the token.
+   *
+   * @param header  the JWS header of the token
+   * @param context the security context, unused
+   * @return the candidate public keys, possibly empty
+   * @throws KeySourceException if the JWK Set cannot be loaded or one of its keys is invalid
+   */
+  @Override
+  public List<? extends Key> selectJWSKeys(JWSHeader header, SecurityContext context)
+      throws KeySourceException {
+    if (!SUPPORTED_ALGORITHMS.contains(header.getAlgorithm())) {
+      return List.of();
+    }
+    JWKMatcher matcher = JWKMatcher.forJWSHeader(header);
+    if (matcher == null) {
+      return List.of();
+    }
+    List<JWK> jwks = store.get(new JWKSelector(matcher), context);
+    List<Key> keys = new ArrayList<>(jwks.size());
+    try {
+      for (JWK jwk : jwks) {
+        JWSVerifierCache.CachedVerifier cached = store.verifiers().get(jwk);
+        if (cached != null) {
+          keys.add(cached.key());
+        }
+      }
+    } catch (JOSEException e) {
+      throw new KeySourceException("Invalid key in JWK Set: " + e.getMessage(), e);
+    }
+    return keys;
+  }
+
+  /**
+   * Returns the cached verifier of the key, or builds a new one if the key is not cached.
+   *
+   * @param header the JWS header of the token
+   * @param key    a key returned by {@link #selectJWSKeys(JWSHeader, SecurityContext)}
+   * @return the verifier of the key
+   * @throws JOSEException if no verifier can be built for the key and algorithm
+   */
+  @Override
+  public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+    JWSVerifier cached = store.verifiers().find(key);
+    if (cached != null && cached.supportedJWSAlgorithms().contains(header.getAlgorithm())) {
+      return cached;
+    }
+    return fallback.createJWSVerifier(header, key);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+    return SUPPORTED_ALGORITHMS;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public JCAContext getJCAContext() {
+    return fallback.getJCAContext();
+  }
+}
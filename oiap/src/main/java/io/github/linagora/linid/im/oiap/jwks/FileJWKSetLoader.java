@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.jwks;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.text.ParseException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link JWKSetLoader} reading the JWK Set from a local file.
+ *
+ * <p>The file is parsed again only when its modification time or size changes, so that the
+ * periodic refreshes of the {@link JWKSetStore} keep serving the same {@link JWKSet} instance, and
+ * the verifiers built from it, as long as the file is untouched.
+ */
+@Slf4j
+public class FileJWKSetLoader implements JWKSetLoader {
+
+  /**
+   * Path of the JWK Set file.
+   */
+  private final Path path;
+
+  /**
+   * Modification time of the file when it was last parsed.
+   */
+  private FileTime lastModified;
+
+  /**
+   * Size of the file when it was last parsed.
+   */
+  private long size;
+
+  /**
+   * JWK Set parsed from the file, {@code null} until the first load.
+   */
+  private JWKSet loaded;
+
+  /**
+   * Creates a loader reading the given file.
+   *
+   * @param path the path of the JWK Set file
+   */
+  public FileJWKSetLoader(Path path) {
+    this.path = path;
+  }
+
+  /**
+   * Returns the JWK Set of the file, parsing it again only if the file has changed.
+   *
+   * @return the JWK Set
+   * @throws IOException    if the file cannot be read
+   * @throws ParseException if the file content is not a valid JWK Set
+   */
+  @Override
+  public synchronized JWKSet load() throws IOException, ParseException {
+    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    if (loaded != null && attributes.lastModifiedTime().equals(lastModified) && attributes.size() == size) {
+      return loaded;
+    }
+    JWKSet parsed = JWKSet.parse(Files.readString(path));
+    if (loaded != null) {
+      log.info("JWK Set file {} changed, reloaded {} keys", path, parsed.size());
+    }
+    loaded = parsed;
+    lastModified = attributes.lastModifiedTime();
+    size = attributes.size();
+    return parsed;
+  }
+}
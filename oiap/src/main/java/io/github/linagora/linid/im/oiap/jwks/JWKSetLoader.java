@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.jwks;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Map;
+
+/**
+ * Strategy used by a {@link JWKSetStore} to obtain a fresh copy of a JWK Set.
+ */
+@FunctionalInterface
+public interface JWKSetLoader {
+
+  /**
+   * Connection timeout, in milliseconds, used when downloading a remote JWK Set.
+   */
+  int CONNECT_TIMEOUT = 2000;
+
+  /**
+   * Read timeout, in milliseconds, used when downloading a remote JWK Set.
+   */
+  int READ_TIMEOUT = 2000;
+
+  /**
+   * Maximum size, in bytes, accepted for a remote JWK Set document.
+   */
+  int SIZE_LIMIT = 51_200;
+
+  /**
+   * Loads the JWK Set.
+   *
+   * @return the loaded JWK Set
+   * @throws IOException    if the JWK Set cannot be read
+   * @throws ParseException if the JWK Set content is not valid
+   */
+  JWKSet load() throws IOException, ParseException;
+
+  /**
+   * Returns a loader downloading the JWK Set from the given URL.
+   *
+   * @param url the URL of the JWK Set document, usually the provider's {@code jwks_uri}
+   * @return a loader fetching the JWK Set over HTTP
+   */
+  static JWKSetLoader remote(URL url) {
+    return () -> JWKSet.load(url, CONNECT_TIMEOUT, READ_TIMEOUT, SIZE_LIMIT);
+  }
+
+  /**
+   * Returns a loader reading the JWK Set from a local file, parsed again only when it changes.
+   *
+   * @param path the path of the JWK Set file
+   * @return a loader reading the file
+   */
+  static JWKSetLoader file(Path path) {
+    return new FileJWKSetLoader(path);
+  }
+
+  /**
+   * Returns a loader serving a JWK Set given in the configuration.
+   *
+   * @param jwks the JWK Set document
+   * @return a loader parsing the document
+   */
+  static JWKSetLoader inline(Map<String, Object> jwks) {
+    return () -> JWKSet.parse(jwks);
+  }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.jwks;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Long-lived {@link JWKSource} holding the JWK Set of a single provider.
+ *
+ * <p>The JWK Set is loaded on first use, then refreshed in the background shortly before its
+ * time to live elapses. When a refresh fails, the current JWK Set keeps being served and the
+ * refresh is retried after {@code refetchMinInterval}.
+ *
+ * <p>When a token references a key that is not part of the current JWK Set (typically after a key
+ * rotation), the store performs a single synchronous refetch. Such refetches are rate-limited to
+ * one per {@code refetchMinInterval}, so that tokens carrying unknown key IDs cannot trigger a
+ * flood of requests against the provider. The same limit applies while the JWK Set has never been
+ * loaded: after a failed initial load, requests fail immediately with a {@link KeySourceException}
+ * until {@code refetchMinInterval} elapses, rather than each downloading it again.
+ *
+ * <p>A single fetch runs at a time. Concurrent requests needing a fetch wait for it for at most
+ * {@code fetchMaxWait}, then keep using the current JWK Set, or fail with a
+ * {@link JWKSetTimeoutException} if none has been loaded yet.
+ *
+ * <p>The store also owns the {@link JWSVerifierCache} of its keys, pruned whenever a new JWK Set
+ * is loaded.
+ */
+@Slf4j
+public class JWKSetStore implements JWKSource<SecurityContext> {
+
+  /**
+   * Maximum time, in milliseconds, before expiration at which the background refresh is started.
+   */
+  static final long REFRESH_AHEAD = 30_000L;
+
+  /**
+   * Name identifying the store in logs, usually the JWK Set URI.
+   */
+  private final String name;
+
+  /**
+   * Loader used to fetch the JWK Set.
+   */
+  private final JWKSetLoader loader;
+
+  /**
+   * Time, in milliseconds, during which a loaded JWK Set is considered fresh.
+   */
+  private final long timeToLive;
+
+  /**
+   * Minimum time, in milliseconds, between two fetches triggered by unknown keys.
+   */
+  private final long refetchMinInterval;
+
+  /**
+   * Maximum time, in milliseconds, during which a request waits for a fetch run by another one.
+   */
+  private final long fetchMaxWait;
+
+  /**
+   * Lock ensuring that a single fetch runs at a time.
+   */
+  private final ReentrantLock fetchLock = new ReentrantLock();
+
+  /**
+   * Scheduler running the background refreshes.
+   */
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * Clock used to enforce the refetch rate limit.
+   */
+  private final Clock clock;
+
+  /**
+   * Verifiers built from the keys of the JWK Set.
+   */
+  private final JWSVerifierCache verifiers = new JWSVerifierCache();
+
+  /**
+   * Number of key lookups answered from the current JWK Set.
+   */
+  private final LongAdder hits = new LongAdder();
+
+  /**
+   * Number of key lookups that had to load the JWK Set.
+   */
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Currently served JWK Set, {@code null} until the first successful load.
+   */
+  private volatile JWKSet jwkSet;
+
+  /**
+   * Epoch milliseconds of the last fetch attempt, successful or not.
+   */
+  private volatile long lastFetchAttempt;
+
+  /**
+   * Cause of the last failed load, reported while the JWK Set has never been loaded.
+   */
+  private volatile Exception lastFailure;
+
+  /**
+   * Pending background refresh, if any.
+   */
+  private ScheduledFuture<?> pendingRefresh;
+
+  /**
+   * Whether the store has been closed, in which case no further refresh is scheduled.
+   */
+  private volatile boolean closed;
+
+  /**
+   * Creates a new store.
+   *
+   * @param name               name identifying the store in logs
+   * @param loader             loader used to fetch the JWK Set
+   * @param timeToLive         time, in milliseconds, during which a loaded JWK Set is fresh
+   * @param refetchMinInterval minimum time, in milliseconds, between two refetches
+   * @param fetchMaxWait       maximum time, in milliseconds, to wait for a concurrent fetch
+   * @param scheduler          scheduler running the background refreshes
+   * @param clock              clock used to enforce the refetch rate limit
+   */
+  public JWKSetStore(
+      String name,
+      JWKSetLoader loader,
+      long timeToLive,
+      long refetchMinInterval,
+      long fetchMaxWait,
+      ScheduledExecutorService scheduler,
+      Clock clock) {
+    this.name = name;
+    this.loader = loader;
+    this.timeToLive = timeToLive;
+    this.refetchMinInterval = refetchMinInterval;
+    this.fetchMaxWait = fetchMaxWait;
+    this.scheduler = scheduler;
+    this.clock = clock;
+    this.lastFetchAttempt = clock.millis() - refetchMinInterval;
+  }
+
+  /**
+   * Returns the keys of the current JWK Set matching the selector.
+   *
+   * <p>Loads the JWK Set on first use. When no key matches, performs a rate-limited refetch
+   * before giving up.
+   *
+   * @param jwkSelector the JWK selector
+   * @param context     the security context, unused
+   * @return the matching keys, possibly empty
+   * @throws KeySourceException if the JWK Set has never been loaded and cannot be loaded, or if
+   *     its last load failed less than {@code refetchMinInterval} ago
+   */
+  @Override
+  public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+    JWKSet current = jwkSet;
+    boolean missed = current == null;
+    if (missed) {
+      misses.increment();
+      current = fetch(null, false);
+    }
+
+    List<JWK> matches = jwkSelector.select(current);
+    if (matches.isEmpty() && isRefetchAllowed()) {
+      log.debug("No matching key in JWK Set {}, refetching it", name);
+      if (!missed) {
+        missed = true;
+        misses.increment();
+      }
+      matches = jwkSelector.select(fetch(current, false));
+    }
+    if (!missed) {
+      hits.increment();
+    }
+    return matches;
+  }
+
+  /**
+   * Returns the number of key lookups answered from the current JWK Set, without loading it.
+   *
+   * @return the hit count
+   */
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of key lookups that loaded the JWK Set, because it had never been loaded or
+   * held no matching key.
+   *
+   * @return the miss count
+   */
+  public long missCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the verifiers built from the keys of the JWK Set.
+   *
+   * @return the verifier cache of this store
+   */
+  public JWSVerifierCache verifiers() {
+    return verifiers;
+  }
+
+  /**
+   * Returns {@code true} when this store uses the given settings.
+   *
+   * @param timeToLive         the expected time to live
+   * @param refetchMinInterval the expected minimum refetch interval
+   * @param fetchMaxWait       the expected maximum wait for a concurrent fetch
+   * @return {@code true} if all settings match
+   */
+  boolean hasSettings(long timeToLive, long refetchMinInterval, long fetchMaxWait) {
+    return this.timeToLive == timeToLive
+        && this.refetchMinInterval == refetchMinInterval
+        && this.fetchMaxWait == fetchMaxWait;
+  }
+
+  /**
+   * Cancels the pending background refresh and prevents new ones from being scheduled.
+   */
+  public synchronized void close() {
+    closed = true;
+    if (pendingRefresh != null) {
+      pendingRefresh.cancel(false);
+    }
+  }
+
+  /**
+   * Returns {@code true} when the last fetch attempt is older than the refetch interval.
+   *
+   * @return whether a refetch is currently allowed
+   */
+  private boolean isRefetchAllowed() {
+    return clock.millis() - lastFetchAttempt >= refetchMinInterval;
+  }
+
+  /**
+   * Fetches the JWK Set, unless another thread already replaced {@code observed} in the meantime.
+   *
+   * @param observed the JWK Set seen by the caller before deciding to fetch
+   * @param force    {@code true} to bypass the refetch rate limit
+   * @return the JWK Set to use
+   * @throws KeySourceException if the fetch fails and no JWK Set is available
+   */
+  private JWKSet fetch(JWKSet observed, boolean force) throws KeySourceException {
+    try {
+      if (!fetchLock.tryLock(fetchMaxWait, TimeUnit.MILLISECONDS)) {
+        return currentOrTimeout();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return currentOrTimeout();
+    }
+    try {
+      return fetchLocked(observed, force);
+    } finally {
+      fetchLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the current JWK Set when a concurrent fetch did not complete in time.
+   *
+   * @return the current JWK Set
+   * @throws JWKSetTimeoutException if no JWK Set has been loaded yet
+   */
+  private JWKSet currentOrTimeout() throws JWKSetTimeoutException {
+    JWKSet current = jwkSet;
+    if (current == null) {
+      throw new JWKSetTimeoutException("Timed out waiting for JWK Set " + name);
+    }
+    log.debug("Timed out waiting for a refetch of JWK Set {}, keeping the current one", name);
+    return current;
+  }
+
+  /**
+   * Fetches the JWK Set while holding the fetch lock.
+   *
+   * @param observed the JWK Set seen by the caller before deciding to fetch
+   * @param force    {@code true} to bypass the refetch rate limit
+   * @return the JWK Set to use
+   * @throws KeySourceException if the fetch fails and no JWK Set is available, or if no JWK Set
+   *     is available and the last load failed less than {@code refetchMinInterval} ago
+   */
+  private JWKSet fetchLocked(JWKSet observed, boolean force) throws KeySourceException {
+    JWKSet current = jwkSet;
+    if (current != null && (current != observed || (!force && !isRefetchAllowed()))) {
+      return current;
+    }
+    if (current == null && !force && !isRefetchAllowed()) {
+      throw new KeySourceException("JWK Set " + name + " is unavailable, its last load failed", lastFailure);
+    }
+
+    lastFetchAttempt = clock.millis();
+    try {
+      JWKSet loaded = loader.load();
+      lastFailure = null;
+      jwkSet = loaded;
+      verifiers.retain(loaded);
+      scheduleRefresh(timeToLive - Math.min(REFRESH_AHEAD, timeToLive / 2));
+      return loaded;
+    } catch (IOException | ParseException e) {
+      lastFailure = e;
+      scheduleRefresh(refetchMinInterval);
+      if (current != null) {
+        log.warn("Failed to refresh JWK Set {}, keeping the current one: {}", name, e.getMessage());
+        return current;
+      }
+      throw new KeySourceException("Failed to load JWK Set " + name, e);
+    }
+  }
+
+  /**
+   * Schedules the next background refresh, replacing any pending one.
+   *
+   * @param delay the delay, in milliseconds, before the refresh
+   */
+  private synchronized void scheduleRefresh(long delay) {
+    if (closed) {
+      return;
+    }
+    if (pendingRefresh != null) {
+      pendingRefresh.cancel(false);
+    }
+    pendingRefresh = scheduler.schedule(this::refreshInBackground, Math.max(delay, 0L), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Refreshes the JWK Set from the scheduler thread.
+   */
+  private void refreshInBackground() {
+    try {
+      fetch(jwkSet, true);
+    } catch (KeySourceException e) {
+      log.warn("Background refresh of JWK Set {} failed: {}", name, e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.jwks;
+
+import com.nimbusds.jose.util.JSONObjectUtils;
+import io.github.linagora.linid.im.oiap.cache.TokenDigest;
+import io.github.linagora.linid.im.oiap.metrics.AuthenticationMetrics;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.StaticKeysConfiguration;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry holding one long-lived {@link JWKSetStore} per JWK Set URI, JWK Set file or inline JWK
+ * Set.
+ *
+ * <p>Stores survive the rebuild of the JWT processors using them, so that the JWK Set cache is
+ * kept across provider metadata refreshes. A store is replaced only when the JWKS settings of the
+ * configuration change. A store that no provider uses any longer, e.g. after its JWK Set URI,
+ * file or inline JWK Set was replaced in the configuration, is closed and dropped. All stores share
+ * a single daemon thread for their background refreshes.
+ */
+@Slf4j
+@Component
+public class JWKSetStoreRegistry {
+
+  /**
+   * Stores indexed by JWK Set URI, file path or digest of the inline JWK Set.
+   */
+  private final ConcurrentHashMap<String, JWKSetStore> stores = new ConcurrentHashMap<>();
+
+  /**
+   * Name of the store used by each provider, by issuer URI.
+   */
+  private final Map<String, String> storeNames = new HashMap<>();
+
+  /**
+   * Scheduler shared by all stores for their background refreshes.
+   */
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * Clock given to the created stores.
+   */
+  private final Clock clock;
+
+  /**
+   * Metrics timing the JWK Set loads.
+   */
+  private final AuthenticationMetrics metrics;
+
+  /**
+   * Creates a registry with its own background refresh thread.
+   *
+   * @param metrics the metrics timing the JWK Set loads
+   */
+  public JWKSetStoreRegistry(AuthenticationMetrics metrics) {
+    this(Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "oiap-jwks-refresh");
+      thread.setDaemon(true);
+      return thread;
+    }), Clock.systemUTC(), metrics);
+  }
+
+  /**
+   * Creates a registry with the given scheduler and clock.
+   *
+   * @param scheduler the scheduler running the background refreshes
+   * @param clock     the clock given to the created stores
+   * @param metrics   the metrics timing the JWK Set loads
+   */
+  JWKSetStoreRegistry(ScheduledExecutorService scheduler, Clock clock, AuthenticationMetrics metrics) {
+    this.scheduler = scheduler;
+    this.clock = clock;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the store for the given JWK Set URI, creating it when absent or when the JWKS
+   * settings of the configuration have changed.
+   *
+   * @param jwkSetURI the JWK Set URI published by the provider
+   * @param config    the plugin configuration holding the JWKS settings
+   * @return the store serving the JWK Set
+   * @throws IOException if the JWK Set URI cannot be converted to a URL
+   */
+  public JWKSetStore getStore(URI jwkSetURI, OIDCPluginConfiguration config) throws IOException {
+    JWKSetLoader loader = JWKSetLoader.remote(jwkSetURI.toURL());
+    return getStore(config.issuerURI(), jwkSetURI.toString(), loader, config.jwksCacheTtl(),
+        config.jwksRefetchMinInterval(), config.fetchMaxWait());
+  }
+
+  /**
+   * Returns the store for the JWK Set provided by the {@code staticKeys} settings of the
+   * configuration, creating it when absent or when the settings have changed.
+   *
+   * <p>The store reloads the JWK Set file every {@code reloadInterval} milliseconds at most, and
+   * never performs any network request. An inline JWK Set is identified by the SHA-256 digest of its
+   * JSON document, so that different key sets never share a store.
+   *
+   * @param config the plugin configuration holding the static keys settings
+   * @return the store serving the JWK Set
+   */
+  public JWKSetStore getStaticStore(OIDCPluginConfiguration config) {
+    StaticKeysConfiguration staticKeys = config.staticKeys();
+    String name;
+    JWKSetLoader loader;
+    if (staticKeys.jwksFile() != null) {
+      Path path = Path.of(staticKeys.jwksFile()).toAbsolutePath();
+      name = path.toUri().toString();
+      loader = JWKSetLoader.file(path);
+    } else {
+      name = "inline:" + TokenDigest.sha256(JSONObjectUtils.toJSONString(staticKeys.jwks()));
+      loader = JWKSetLoader.inline(staticKeys.jwks());
+    }
+    return getStore(config.issuerURI(), name, loader, staticKeys.reloadInterval(), staticKeys.reloadInterval(),
+        config.fetchMaxWait());
+  }
+
+  /**
+   * Returns the store with the given name, creating it when absent or when its settings differ, and
+   * records it as the store of the provider.
+   *
+   * @param issuerURI          the issuer URI of the provider using the store
+   * @param name               the name of the store, usually the location of the JWK Set
+   * @param loader             the loader used if the store is created
+   * @param timeToLive         the time to live of the JWK Set
+   * @param refetchMinInterval the minimum time between two refetches
+   * @param fetchMaxWait       the maximum wait for a concurrent fetch
+   * @return the store serving the JWK Set
+   */
+  private JWKSetStore getStore(String issuerURI, String name, JWKSetLoader loader, long timeToLive,
+      long refetchMinInterval, long fetchMaxWait) {
+    JWKSetStore store = stores.get(name);
+    if (store == null || !store.hasSettings(timeToLive, refetchMinInterval, fetchMaxWait)) {
+      store = createStore(name, loader, timeToLive, refetchMinInterval, fetchMaxWait);
+    }
+    release(issuerURI, name);
+    return store;
+  }
+
+  /**
+   * Records the store used by the provider, and closes the store it used before when no other
+   * provider uses it.
+   *
+   * @param issuerURI the issuer URI of the provider
+   * @param name      the name of the store now used by the provider
+   */
+  private void release(String issuerURI, String name) {
+    String previous;
+    JWKSetStore unused = null;
+    synchronized (storeNames) {
+      previous = storeNames.put(issuerURI, name);
+      if (previous != null && !previous.equals(name) && !storeNames.containsValue(previous)) {
+        unused = stores.remove(previous);
+      }
+    }
+    if (unused != null) {
+      log.info("JWK Set store {} is no longer used, closing it", previous);
+      unused.close();
+    }
+  }
+
+  /**
+   * Creates the store with the given name, unless a concurrent call already created it with the
+   * same settings.
+   *
+   * @param name               the name of the store
+   * @param loader             the loader of the JWK Set
+   * @param timeToLive         the time to live of the JWK Set
+   * @param refetchMinInterval the minimum time between two refetches
+   * @param fetchMaxWait       the maximum wait for a concurrent fetch
+   * @return the store serving the JWK Set
+   */
+  private JWKSetStore createStore(
+      String name, JWKSetLoader loader, long timeToLive, long refetchMinInterval, long fetchMaxWait) {
+    return stores.compute(name, (key, existing) -> {
+      if (existing != null && existing.hasSettings(timeToLive, refetchMinInterval, fetchMaxWait)) {
+        return existing;
+      }
+      if (existing != null) {
+        log.info("JWKS settings changed for {}, recreating the JWK Set store", key);
+        existing.close();
+      }
+      return new JWKSetStore(
+          key, timed(loader), timeToLive, refetchMinInterval, fetchMaxWait, scheduler, clock);
+    });
+  }
+
+  /**
+   * Wraps a loader so that its loads are timed as the {@link AuthenticationMetrics.Stage#JWKS}
+   * stage.
+   *
+   * @param loader the loader
+   * @return the timed loader
+   */
+  private JWKSetLoader timed(JWKSetLoader loader) {
+    return () -> {
+      long start = metrics.start();
+      try {
+        return loader.load();
+      } finally {
+        metrics.stop(AuthenticationMetrics.Stage.JWKS, start);
+      }
+    };
+  }
+
+  /**
+   * Returns the number of key lookups answered from the current JWK Set of a store.
+   *
+   * @return the hit count of the stores currently held
+   */
+  public long hitCount() {
+    return stores.values().stream().mapToLong(JWKSetStore::hitCount).sum();
+  }
+
+  /**
+   * Returns the number of key lookups that loaded the JWK Set of a store.
+   *
+   * @return the miss count of the stores currently held
+   */
+  public long missCount() {
+    return stores.values().stream().mapToLong(JWKSetStore::missCount).sum();
+  }
+
+  /**
+   * Returns the number of stores currently held.
+   *
+   * @return the number of stores
+   */
+  public int size() {
+    return stores.size();
+  }
+
+  /**
+   * Stops the background refreshes when the application shuts down.
+   */
+  @PreDestroy
+  public void shutdown() {
+    stores.values().forEach(JWKSetStore::close);
+    stores.clear();
+    scheduler.shutdownNow();
+  }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.jwks;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import java.security.Key;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the ready-to-use {@link JWSVerifier} instances built from the keys of a JWK Set, indexed
+ * by key ID ({@code kid}).
+ *
+ * <p>Converting a JWK into a Java public key and building a verifier from it costs more than the
+ * signature check itself, so both are built once per key and reused by every verification. The
+ * cache is owned by the {@link JWKSetStore} of the provider, which calls {@link #retain(JWKSet)}
+ * when the JWK Set is replaced, so that verifiers of rotated keys are dropped.
+ *
+ * <p>Only RSA and EC keys with a key ID are cached. RSA and EC keys without key ID are converted
+ * on each use and their verifiers are built by the default verifier factory, as they were before
+ * caching; other key types are not supported.
+ */
+public class JWSVerifierCache {
+
+  /**
+   * Cached verifiers, by key ID.
+   */
+  private final ConcurrentHashMap<String, CachedVerifier> verifiers = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the cached verifier of the given key, building it if needed.
+   *
+   * <p>The verifier of a key without key ID is built but not cached.
+   *
+   * @param jwk the public JWK of the provider
+   * @return the verifier, or {@code null} if the key type is not supported
+   * @throws JOSEException if the JWK cannot be converted into a public key
+   */
+  public CachedVerifier get(JWK jwk) throws JOSEException {
+    String keyID = jwk.getKeyID();
+    if (keyID == null) {
+      return build(jwk);
+    }
+    CachedVerifier cached = verifiers.get(keyID);
+    if (cached != null && cached.jwk() == jwk) {
+      return cached;
+    }
+    if (cached != null && cached.jwk().equals(jwk)) {
+      CachedVerifier rebound = new CachedVerifier(jwk, cached.key(), cached.verifier());
+      verifiers.put(keyID, rebound);
+      return rebound;
+    }
+    CachedVerifier built = build(jwk);
+    if (built != null) {
+      verifiers.put(keyID, built);
+    }
+    return built;
+  }
+
+  /**
+   * Returns the cached verifier built for the given public key instance.
+   *
+   * @param key a public key previously returned by {@link CachedVerifier#key()}
+   * @return the verifier, or {@code null} if the key instance is not cached
+   */
+  public JWSVerifier find(Key key) {
+    for (CachedVerifier cached : verifiers.values()) {
+      if (cached.key() == key) {
+        return cached.verifier();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Drops the verifiers of the keys that are no longer part of the given JWK Set.
+   *
+   * @param jwkSet the new JWK Set of the provider
+   */
+  public void retain(JWKSet jwkSet) {
+    verifiers.values().removeIf(cached -> !jwkSet.getKeys().contains(cached.jwk()));
+  }
+
+  /**
+   * Returns the number of cached verifiers.
+   *
+   * @return the size of the cache
+   */
+  public int size() {
+    return verifiers.size();
+  }
+
+  /**
+   * Converts the JWK into a public key and builds its verifier.
+   *
+   * @param jwk the public JWK
+   * @return the built verifier, or {@code null} if the key type is not supported
+   * @throws JOSEException if the JWK cannot be converted into a public key
+   */
+  private static CachedVerifier build(JWK jwk) throws JOSEException {
+    if (jwk instanceof RSAKey rsaKey) {
+      RSAPublicKey publicKey = rsaKey.toRSAPublicKey();
+      return new CachedVerifier(jwk, publicKey, new RSASSAVerifier(publicKey));
+    }
+    if (jwk instanceof ECKey ecKey) {
+      ECPublicKey publicKey = ecKey.toECPublicKey();
+      return new CachedVerifier(jwk, publicKey, new ECDSAVerifier(publicKey));
+    }
+    return null;
+  }
+
+  /**
+   * Verifier built from a JWK.
+   *
+   * @param jwk      the JWK the verifier was built from
+   * @param key      the Java public key converted from the JWK
+   * @param verifier the verifier of the public key, safe for concurrent use
+   */
+  public record CachedVerifier(JWK jwk, Key key, JWSVerifier verifier) {
+  }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.metrics;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Entry point of the metrics of the token validation path.
+ *
+ * <p>The stages of the validation are timed with {@link #start()} and
+ * {@link #stop(Stage, long)}, and rejected tokens are counted by i18n error key. Until a
+ * {@link Recorder} is bound, which only happens when the host application exposes a Micrometer
+ * meter registry, every call reduces to a volatile read: no clock is read and nothing is allocated.
+ */
+@Component
+public class AuthenticationMetrics {
+
+  /**
+   * Recorder of the measurements, {@code null} while no meter registry is bound.
+   */
+  private volatile Recorder recorder;
+
+  /**
+   * Starts timing a stage.
+   *
+   * @return the start time in nanoseconds, or {@code 0} when no recorder is bound
+   */
+  public long start() {
+    return recorder == null ? 0L : System.nanoTime();
+  }
+
+  /**
+   * Records the duration of a stage started by {@link #start()}.
+   *
+   * @param stage the validation stage
+   * @param start the value returned by {@link #start()}
+   */
+  public void stop(Stage stage, long start) {
+    Recorder current = recorder;
+    if (current != null && start != 0L) {
+      current.record(stage, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Counts a rejected token.
+   *
+   * @param errorKey the i18n key of the error returned for the token
+   */
+  public void rejected(String errorKey) {
+    Recorder current = recorder;
+    if (current != null) {
+      current.rejected(errorKey);
+    }
+  }
+
+  /**
+   * Binds the recorder of the measurements.
+   *
+   * @param recorder the recorder, or {@code null} to stop recording
+   */
+  public void bind(Recorder recorder) {
+    this.recorder = recorder;
+  }
+
+  /**
+   * Returns whether measurements are recorded.
+   *
+   * @return {@code true} if a recorder is bound
+   */
+  public boolean isEnabled() {
+    return recorder != null;
+  }
+
+  /**
+   * Timed stages of the token validation.
+   */
+  public enum Stage {
+
+    /**
+     * Whole validation of a token by the plugin, cache hits included.
+     */
+    TOTAL("total"),
+
+    /**
+     * Resolution of the provider metadata from its discovery endpoint.
+     */
+    DISCOVERY("discovery"),
+
+    /**
+     * Download, or read, of the provider's JWK Set.
+     */
+    JWKS("jwks"),
+
+    /**
+     * Parsing of the compact JWS serialization and of its claims.
+     */
+    PARSE("parse"),
+
+    /**
+     * Checks of the unverified header and claims, before signature verification.
+     */
+    PRECHECK("precheck"),
+
+    /**
+     * Signature verification and claims verification by the JWT processor.
+     */
+    VERIFICATION("verification"),
+
+    /**
+     * Revocation and required claims checks of the plugin.
+     */
+    CLAIMS("claims");
+
+    /**
+     * Value of the {@code stage} tag of the timer.
+     */
+    private final String tag;
+
+    Stage(String tag) {
+      this.tag = tag;
+    }
+
+    /**
+     * Returns the value of the {@code stage} tag of the timer.
+     *
+     * @return the tag value
+     */
+    public String tag() {
+      return tag;
+    }
+  }
+
+  /**
+   * Sink of the measurements, implemented on top of a meter registry.
+   */
+  public interface Recorder {
+
+    /**
+     * Records the duration of a stage.
+     *
+     * @param stage the validation stage
+     * @param nanos the duration in nanoseconds
+     */
+    void record(Stage stage, long nanos);
+
+    /**
+     * Counts a rejected token.
+     *
+     * @param errorKey the i18n key of the error returned for the token
+     */
+    void rejected(String errorKey);
+  }
+}
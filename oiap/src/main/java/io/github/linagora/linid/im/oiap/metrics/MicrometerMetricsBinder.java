@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.metrics;
+
+import io.github.linagora.linid.im.oiap.cache.RejectedTokenCache;
+import io.github.linagora.linid.im.oiap.cache.ValidatedTokenCache;
+import io.github.linagora.linid.im.oiap.jwks.JWKSetStoreRegistry;
+import io.github.linagora.linid.im.oiap.processor.IntrospectionProcessor;
+import io.github.linagora.linid.im.oiap.processor.JWTProcessorRegistry;
+import io.github.linagora.linid.im.oiap.userinfo.UserInfoEnricher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.function.ToDoubleFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+
+/**
+ * Binds the {@link AuthenticationMetrics} and the cache statistics to the meter registry of the
+ * host application.
+ *
+ * <p>The component is only created when Micrometer is on the classpath, and binds nothing when no
+ * {@link MeterRegistry} bean exists, in which case the metrics stay disabled. The cache hit and
+ * miss counts are read from the caches when the registry is scraped, so they add nothing to the
+ * validation path.
+ */
+@Slf4j
+@Component
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class MicrometerMetricsBinder {
+
+  /**
+   * Name of the counter of the cache hits.
+   */
+  static final String CACHE_HITS = "oiap.cache.hits";
+
+  /**
+   * Name of the counter of the cache misses.
+   */
+  static final String CACHE_MISSES = "oiap.cache.misses";
+
+  /**
+   * Name of the gauge of the number of cache entries.
+   */
+  static final String CACHE_SIZE = "oiap.cache.size";
+
+  /**
+   * Binds the metrics to the meter registry, when one is available.
+   *
+   * @param metrics         the metrics of the token validation path
+   * @param registries      the provider of the meter registry of the host application
+   * @param validatedTokens the cache of the validated tokens
+   * @param rejectedTokens  the negative cache of the rejected tokens
+   * @param introspection   the processor caching the introspection results
+   * @param userInfo        the enricher caching the userinfo responses
+   * @param processors      the registry of the JWT processors
+   * @param jwkSets         the registry of the JWK Set stores
+   */
+  public MicrometerMetricsBinder(
+      AuthenticationMetrics metrics,
+      ObjectProvider<MeterRegistry> registries,
+      ValidatedTokenCache validatedTokens,
+      RejectedTokenCache rejectedTokens,
+      IntrospectionProcessor introspection,
+      UserInfoEnricher userInfo,
+      JWTProcessorRegistry processors,
+      JWKSetStoreRegistry jwkSets) {
+    MeterRegistry registry = registries.getIfAvailable();
+    if (registry == null) {
+      log.debug("No meter registry available, OIDC authentication metrics are disabled");
+      return;
+    }
+    bindCache(registry, "validated", validatedTokens, ValidatedTokenCache::hitCount,
+        ValidatedTokenCache::missCount, ValidatedTokenCache::size);
+    bindCache(registry, "rejected", rejectedTokens, RejectedTokenCache::hitCount,
+        RejectedTokenCache::missCount, RejectedTokenCache::size);
+    bindCache(registry, "introspection", introspection, IntrospectionProcessor::hitCount,
+        IntrospectionProcessor::missCount, IntrospectionProcessor::size);
+    bindCache(registry, "userinfo", userInfo, UserInfoEnricher::hitCount,
+        UserInfoEnricher::missCount, UserInfoEnricher::size);
+    bindCache(registry, "processors", processors, JWTProcessorRegistry::hitCount,
+        JWTProcessorRegistry::missCount, JWTProcessorRegistry::size);
+    bindCache(registry, "jwks", jwkSets, JWKSetStoreRegistry::hitCount,
+        JWKSetStoreRegistry::missCount, JWKSetStoreRegistry::size);
+    metrics.bind(new MicrometerRecorder(registry));
+  }
+
+  /**
+   * Registers the hit, miss and size meters of a cache.
+   *
+   * @param registry the meter registry
+   * @param name     the value of the {@code cache} tag
+   * @param cache    the cache
+   * @param hits     the function reading the number of hits
+   * @param misses   the function reading the number of misses
+   * @param size     the function reading the number of entries
+   * @param <T>      the type of the cache
+   */
+  private static <T> void bindCache(
+      MeterRegistry registry,
+      String name,
+      T cache,
+      ToDoubleFunction<T> hits,
+      ToDoubleFunction<T> misses,
+      ToDoubleFunction<T> size) {
+    FunctionCounter.builder(CACHE_HITS, cache, hits)
+        .description("Lookups answered by a cache of the OIDC authentication plugin")
+        .tag("cache", name)
+        .register(registry);
+    FunctionCounter.builder(CACHE_MISSES, cache, misses)
+        .description("Lookups not answered by a cache of the OIDC authentication plugin")
+        .tag("cache", name)
+        .register(registry);
+    Gauge.builder(CACHE_SIZE, cache, size)
+        .description("Entries held by a cache of the OIDC authentication plugin")
+        .tag("cache", name)
+        .register(registry);
+  }
+}
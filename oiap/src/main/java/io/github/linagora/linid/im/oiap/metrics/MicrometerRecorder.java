@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.metrics;
+
+import io.github.linagora.linid.im.oiap.model.ErrorKey;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AuthenticationMetrics.Recorder} registering its meters in a Micrometer registry.
+ *
+ * <p>All the meters are registered up front, so that recording never looks a meter up by name
+ * and tags.
+ */
+class MicrometerRecorder implements AuthenticationMetrics.Recorder {
+
+  /**
+   * Name of the timer of the validation stages.
+   */
+  static final String STAGE_TIMER = "oiap.validation";
+
+  /**
+   * Name of the counter of the rejected tokens.
+   */
+  static final String REJECTION_COUNTER = "oiap.rejections";
+
+  /**
+   * Value of the {@code reason} tag of the rejections whose error key is not an {@link ErrorKey}.
+   */
+  static final String OTHER_REASON = "other";
+
+  /**
+   * Timers of the validation stages.
+   */
+  private final Map<AuthenticationMetrics.Stage, Timer> timers =
+      new EnumMap<>(AuthenticationMetrics.Stage.class);
+
+  /**
+   * Counters of the rejected tokens, by i18n error key.
+   */
+  private final Map<String, Counter> rejections = new HashMap<>();
+
+  /**
+   * Counter of the rejected tokens whose error key is not an {@link ErrorKey}.
+   */
+  private final Counter otherRejections;
+
+  /**
+   * Registers the meters in the given registry.
+   *
+   * @param registry the meter registry of the host application
+   */
+  MicrometerRecorder(MeterRegistry registry) {
+    for (AuthenticationMetrics.Stage stage : AuthenticationMetrics.Stage.values()) {
+      timers.put(stage, Timer.builder(STAGE_TIMER)
+          .description("Duration of the stages of the OIDC access token validation")
+          .tag("stage", stage.tag())
+          .register(registry));
+    }
+    for (ErrorKey errorKey : ErrorKey.values()) {
+      rejections.put(errorKey.getKey(), rejectionCounter(registry, errorKey.getKey()));
+    }
+    otherRejections = rejectionCounter(registry, OTHER_REASON);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void record(AuthenticationMetrics.Stage stage, long nanos) {
+    timers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void rejected(String errorKey) {
+    rejections.getOrDefault(errorKey, otherRejections).increment();
+  }
+
+  /**
+   * Registers the rejection counter of a reason.
+   *
+   * @param registry the meter registry
+   * @param reason   the value of the {@code reason} tag
+   * @return the counter
+   */
+  private static Counter rejectionCounter(MeterRegistry registry, String reason) {
+    return Counter.builder(REJECTION_COUNTER)
+        .description("Access tokens rejected by the OIDC authentication plugin")
+        .tag("reason", reason)
+        .register(registry);
+  }
+}
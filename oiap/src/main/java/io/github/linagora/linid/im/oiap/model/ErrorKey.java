@@ -38,6 +38,23 @@ public enum ErrorKey {
    */
   JWT_PROCESSOR_CREATION_ERROR("oiap.error.jwt.processor.creation"),
 
+  /**
+   * The OIDC provider did not answer in time to a fetch (discovery, JWK Set, introspection) shared
+   * with concurrent requests.
+   */
+  PROVIDER_UNAVAILABLE("oiap.error.provider.unavailable"),
+
+  /**
+   * Failure to introspect an opaque token (endpoint unknown or unreachable, error response, etc.).
+   */
+  INTROSPECTION_ERROR("oiap.error.introspection"),
+
+  /**
+   * Failure to fetch the userinfo of a token (endpoint unknown or unreachable, error response,
+   * subject mismatch, etc.).
+   */
+  USERINFO_ERROR("oiap.error.userinfo"),
+
   /**
    * The configured token type is not a valid {@link TokenType} value.
    */
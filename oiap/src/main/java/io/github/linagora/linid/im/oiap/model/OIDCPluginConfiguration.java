@@ -27,24 +27,435 @@
 package io.github.linagora.linid.im.oiap.model;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Immutable configuration record for the OIDC authentication plugin.
  *
- * @param issuerURI      the URI of the OpenID Connect provider used to resolve provider metadata
- * @param audience       the expected audience ({@code aud}) claim value to enforce during token
- *                       validation
- * @param tokenType      the access token format, used to select the appropriate
- *                       {@link io.github.linagora.linid.im.oiap.processor.AccessTokenProcessor}
- * @param requiredClaims the claim names that must be present and non-blank in the validated token;
- *                       these claims are propagated into the task execution context
- * @param optionalClaims the claim names that are propagated into the task execution context when
- *                       present but whose absence does not cause token rejection
+ * <p>Instances are built with {@link #builder(String, String, TokenType)}, which defaults every
+ * setting that is not given.
+ *
+ * @param issuerURI              the URI of the OpenID Connect provider used to resolve provider
+ *                               metadata
+ * @param audience               the expected audience ({@code aud}) claim value to enforce during
+ *                               token validation
+ * @param tokenType              the access token format, used to select the appropriate
+ *                               {@link io.github.linagora.linid.im.oiap.processor.AccessTokenProcessor}
+ * @param requiredClaims         the claim names that must be present and non-blank in the validated
+ *                               token; these claims are propagated into the task execution context
+ * @param optionalClaims         the claim names that are propagated into the task execution context
+ *                               when present but whose absence does not cause token rejection
+ * @param metadataCacheTtl       the time, in milliseconds, during which the resolved provider
+ *                               metadata and the JWT processor built from it are reused before
+ *                               being refreshed
+ * @param jwksCacheTtl           the time, in milliseconds, during which a downloaded JWK Set is
+ *                               considered fresh; it is refreshed in the background shortly before
+ *                               expiring
+ * @param jwksRefetchMinInterval the minimum time, in milliseconds, between two JWK Set downloads
+ *                               triggered by tokens signed with an unknown key
+ * @param tokenCache             the settings of the cache of already validated tokens
+ * @param introspection          the settings of the token introspection used to validate opaque
+ *                               tokens
+ * @param fetchMaxWait           the maximum time, in milliseconds, during which a request waits for
+ *                               a provider fetch (discovery, JWK Set, introspection) already run by
+ *                               a concurrent request
+ * @param warmUp                 the settings of the warm-up of the provider at application startup
+ * @param issuers                all the accepted providers, including the one identified by
+ *                               {@code issuerURI}, indexed by issuer URI
+ * @param staticKeys             the JWK Set provided with the configuration, used instead of the
+ *                               discovered one when configured
+ * @param revocation             the settings of the list of revoked tokens and sessions
+ * @param userInfo               the settings of the enrichment of the propagated claims with
+ *                               userinfo fields
  */
 public record OIDCPluginConfiguration(
     String issuerURI,
     String audience,
     TokenType tokenType,
     List<String> requiredClaims,
-    List<String> optionalClaims) {
+    List<String> optionalClaims,
+    long metadataCacheTtl,
+    long jwksCacheTtl,
+    long jwksRefetchMinInterval,
+    TokenCacheConfiguration tokenCache,
+    IntrospectionConfiguration introspection,
+    long fetchMaxWait,
+    WarmUpConfiguration warmUp,
+    Map<String, IssuerConfiguration> issuers,
+    StaticKeysConfiguration staticKeys,
+    RevocationConfiguration revocation,
+    UserInfoConfiguration userInfo) {
+
+  /**
+   * Default time, in milliseconds, during which the provider metadata is cached (one hour).
+   */
+  public static final long DEFAULT_METADATA_CACHE_TTL = 3_600_000L;
+
+  /**
+   * Default time, in milliseconds, during which a JWK Set is cached (five minutes).
+   */
+  public static final long DEFAULT_JWKS_CACHE_TTL = 300_000L;
+
+  /**
+   * Default minimum time, in milliseconds, between two JWK Set refetches (thirty seconds).
+   */
+  public static final long DEFAULT_JWKS_REFETCH_MIN_INTERVAL = 30_000L;
+
+  /**
+   * Default maximum time, in milliseconds, during which a request waits for a concurrent provider
+   * fetch (five seconds).
+   */
+  public static final long DEFAULT_FETCH_MAX_WAIT = 5_000L;
+
+  /**
+   * Creates a configuration using the default cache settings.
+   *
+   * @param issuerURI      the URI of the OpenID Connect provider
+   * @param audience       the expected audience claim value
+   * @param tokenType      the access token format
+   * @param requiredClaims the claim names that must be present in the validated token
+   * @param optionalClaims the claim names that are propagated when present
+   */
+  public OIDCPluginConfiguration(
+      String issuerURI,
+      String audience,
+      TokenType tokenType,
+      List<String> requiredClaims,
+      List<String> optionalClaims) {
+    this(builder(issuerURI, audience, tokenType)
+        .requiredClaims(requiredClaims)
+        .optionalClaims(optionalClaims));
+  }
+
+  /**
+   * Creates a configuration from the settings of a builder.
+   *
+   * @param builder the builder holding the settings
+   */
+  private OIDCPluginConfiguration(Builder builder) {
+    this(builder.issuerURI, builder.audience, builder.tokenType, builder.requiredClaims,
+        builder.optionalClaims, builder.metadataCacheTtl, builder.jwksCacheTtl,
+        builder.jwksRefetchMinInterval, builder.tokenCache, builder.introspection, builder.fetchMaxWait,
+        builder.warmUp,
+        builder.issuers == null
+            ? Map.of(builder.issuerURI, new IssuerConfiguration(builder.issuerURI, builder.audience))
+            : builder.issuers,
+        builder.staticKeys, builder.revocation, builder.userInfo);
+  }
+
+  /**
+   * Starts a configuration of the given provider, with the default value of every other setting.
+   *
+   * @param issuerURI the URI of the OpenID Connect provider
+   * @param audience  the expected audience claim value
+   * @param tokenType the access token format
+   * @return the builder of the configuration
+   */
+  public static Builder builder(String issuerURI, String audience, TokenType tokenType) {
+    return new Builder(issuerURI, audience, tokenType);
+  }
+
+  /**
+   * Starts a configuration holding the settings of this one.
+   *
+   * @return the builder of the configuration
+   */
+  public Builder toBuilder() {
+    return new Builder(issuerURI, audience, tokenType).from(this);
+  }
+
+  /**
+   * Returns the configuration to use for tokens issued by the given provider.
+   *
+   * <p>The lookup is a single hash map access, so that tokens from unknown issuers can be rejected
+   * before any cryptographic or network operation.
+   *
+   * @param issuer the unverified {@code iss} claim of the token
+   * @return this configuration bound to the issuer URI and audience of the provider, or
+   *     {@code null} if the issuer is not accepted
+   */
+  public OIDCPluginConfiguration forIssuer(String issuer) {
+    IssuerConfiguration accepted = issuer == null ? null : issuers.get(issuer);
+    if (accepted == null) {
+      return null;
+    }
+    if (accepted.issuerURI().equals(issuerURI) && accepted.audience().equals(audience)) {
+      return this;
+    }
+    return new Builder(accepted.issuerURI(), accepted.audience(), tokenType).from(this).build();
+  }
+
+  /**
+   * Builder of {@link OIDCPluginConfiguration}, initialized with the default settings.
+   */
+  public static final class Builder {
+
+    /**
+     * The URI of the OpenID Connect provider.
+     */
+    private final String issuerURI;
+
+    /**
+     * The expected audience claim value.
+     */
+    private final String audience;
+
+    /**
+     * The access token format.
+     */
+    private final TokenType tokenType;
+
+    /**
+     * The claim names that must be present in the validated token.
+     */
+    private List<String> requiredClaims = List.of();
+
+    /**
+     * The claim names that are propagated when present.
+     */
+    private List<String> optionalClaims = List.of();
+
+    /**
+     * The time, in milliseconds, during which the provider metadata is cached.
+     */
+    private long metadataCacheTtl = DEFAULT_METADATA_CACHE_TTL;
+
+    /**
+     * The time, in milliseconds, during which a JWK Set is cached.
+     */
+    private long jwksCacheTtl = DEFAULT_JWKS_CACHE_TTL;
+
+    /**
+     * The minimum time, in milliseconds, between two JWK Set refetches.
+     */
+    private long jwksRefetchMinInterval = DEFAULT_JWKS_REFETCH_MIN_INTERVAL;
+
+    /**
+     * The settings of the validated-token cache.
+     */
+    private TokenCacheConfiguration tokenCache = TokenCacheConfiguration.DISABLED;
+
+    /**
+     * The settings of the token introspection.
+     */
+    private IntrospectionConfiguration introspection = IntrospectionConfiguration.DEFAULT;
+
+    /**
+     * The maximum time, in milliseconds, during which a request waits for a concurrent fetch.
+     */
+    private long fetchMaxWait = DEFAULT_FETCH_MAX_WAIT;
+
+    /**
+     * The settings of the warm-up of the provider.
+     */
+    private WarmUpConfiguration warmUp = WarmUpConfiguration.DEFAULT;
+
+    /**
+     * The accepted providers, {@code null} to accept the configured provider only.
+     */
+    private Map<String, IssuerConfiguration> issuers;
+
+    /**
+     * The JWK Set provided with the configuration.
+     */
+    private StaticKeysConfiguration staticKeys = StaticKeysConfiguration.NONE;
+
+    /**
+     * The settings of the list of revoked tokens and sessions.
+     */
+    private RevocationConfiguration revocation = RevocationConfiguration.NONE;
+
+    /**
+     * The settings of the userinfo enrichment.
+     */
+    private UserInfoConfiguration userInfo = UserInfoConfiguration.DISABLED;
+
+    /**
+     * Creates a builder with the default settings.
+     *
+     * @param issuerURI the URI of the OpenID Connect provider
+     * @param audience  the expected audience claim value
+     * @param tokenType the access token format
+     */
+    private Builder(String issuerURI, String audience, TokenType tokenType) {
+      this.issuerURI = issuerURI;
+      this.audience = audience;
+      this.tokenType = tokenType;
+    }
+
+    /**
+     * Copies the settings of a configuration, except its provider and token type.
+     *
+     * @param source the configuration to copy
+     * @return this builder
+     */
+    private Builder from(OIDCPluginConfiguration source) {
+      requiredClaims = source.requiredClaims();
+      optionalClaims = source.optionalClaims();
+      metadataCacheTtl = source.metadataCacheTtl();
+      jwksCacheTtl = source.jwksCacheTtl();
+      jwksRefetchMinInterval = source.jwksRefetchMinInterval();
+      tokenCache = source.tokenCache();
+      introspection = source.introspection();
+      fetchMaxWait = source.fetchMaxWait();
+      warmUp = source.warmUp();
+      issuers = source.issuers();
+      staticKeys = source.staticKeys();
+      revocation = source.revocation();
+      userInfo = source.userInfo();
+      return this;
+    }
+
+    /**
+     * Sets the claim names that must be present in the validated token.
+     *
+     * @param value the claim names
+     * @return this builder
+     */
+    public Builder requiredClaims(List<String> value) {
+      this.requiredClaims = value;
+      return this;
+    }
+
+    /**
+     * Sets the claim names that are propagated when present.
+     *
+     * @param value the claim names
+     * @return this builder
+     */
+    public Builder optionalClaims(List<String> value) {
+      this.optionalClaims = value;
+      return this;
+    }
+
+    /**
+     * Sets the time, in milliseconds, during which the provider metadata is cached.
+     *
+     * @param value the time to live
+     * @return this builder
+     */
+    public Builder metadataCacheTtl(long value) {
+      this.metadataCacheTtl = value;
+      return this;
+    }
+
+    /**
+     * Sets the time, in milliseconds, during which a JWK Set is cached.
+     *
+     * @param value the time to live
+     * @return this builder
+     */
+    public Builder jwksCacheTtl(long value) {
+      this.jwksCacheTtl = value;
+      return this;
+    }
+
+    /**
+     * Sets the minimum time, in milliseconds, between two JWK Set refetches.
+     *
+     * @param value the minimum interval
+     * @return this builder
+     */
+    public Builder jwksRefetchMinInterval(long value) {
+      this.jwksRefetchMinInterval = value;
+      return this;
+    }
+
+    /**
+     * Sets the settings of the validated-token cache.
+     *
+     * @param value the cache settings
+     * @return this builder
+     */
+    public Builder tokenCache(TokenCacheConfiguration value) {
+      this.tokenCache = value;
+      return this;
+    }
+
+    /**
+     * Sets the settings of the token introspection.
+     *
+     * @param value the introspection settings
+     * @return this builder
+     */
+    public Builder introspection(IntrospectionConfiguration value) {
+      this.introspection = value;
+      return this;
+    }
+
+    /**
+     * Sets the maximum time, in milliseconds, during which a request waits for a concurrent fetch.
+     *
+     * @param value the maximum wait
+     * @return this builder
+     */
+    public Builder fetchMaxWait(long value) {
+      this.fetchMaxWait = value;
+      return this;
+    }
+
+    /**
+     * Sets the settings of the warm-up of the provider.
+     *
+     * @param value the warm-up settings
+     * @return this builder
+     */
+    public Builder warmUp(WarmUpConfiguration value) {
+      this.warmUp = value;
+      return this;
+    }
+
+    /**
+     * Sets all the accepted providers, including the configured one, indexed by issuer URI.
+     *
+     * @param value the accepted providers
+     * @return this builder
+     */
+    public Builder issuers(Map<String, IssuerConfiguration> value) {
+      this.issuers = value;
+      return this;
+    }
+
+    /**
+     * Sets the JWK Set provided with the configuration.
+     *
+     * @param value the static keys settings
+     * @return this builder
+     */
+    public Builder staticKeys(StaticKeysConfiguration value) {
+      this.staticKeys = value;
+      return this;
+    }
+
+    /**
+     * Sets the settings of the list of revoked tokens and sessions.
+     *
+     * @param value the revocation settings
+     * @return this builder
+     */
+    public Builder revocation(RevocationConfiguration value) {
+      this.revocation = value;
+      return this;
+    }
+
+    /**
+     * Sets the settings of the userinfo enrichment.
+     *
+     * @param value the userinfo settings
+     * @return this builder
+     */
+    public Builder userInfo(UserInfoConfiguration value) {
+      this.userInfo = value;
+      return this;
+    }
+
+    /**
+     * Builds the configuration.
+     *
+     * @return the configuration
+     */
+    public OIDCPluginConfiguration build() {
+      return new OIDCPluginConfiguration(this);
+    }
+  }
 }
@@ -29,9 +29,14 @@ package io.github.linagora.linid.im.oiap.model;
 import io.github.linagora.linid.im.corelib.exception.ApiException;
 import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
 import io.github.linagora.linid.im.corelib.plugin.config.dto.AuthenticationConfiguration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import tools.jackson.core.type.TypeReference;
@@ -39,6 +44,10 @@ import tools.jackson.core.type.TypeReference;
 /**
  * Factory that builds an {@link OIDCPluginConfiguration} from an {@link AuthenticationConfiguration},
  * validating that all required options are present.
+ *
+ * <p>Binding the options is costly compared to the validation of a cached token, so
+ * {@link #get(AuthenticationConfiguration)} keeps the last built configuration and only binds the
+ * options again when they change.
  */
 @Component
 public class OIDCPluginConfigurationFactory {
@@ -68,11 +77,98 @@ public class OIDCPluginConfigurationFactory {
    */
   private static final String OPTIONAL_CLAIMS = "optionalClaims";
 
+  /**
+   * Option key for the time, in milliseconds, during which the provider metadata is cached.
+   */
+  private static final String METADATA_CACHE_TTL = "metadataCacheTtl";
+
+  /**
+   * Option key for the time, in milliseconds, during which a JWK Set is cached.
+   */
+  private static final String JWKS_CACHE_TTL = "jwksCacheTtl";
+
+  /**
+   * Option key for the minimum time, in milliseconds, between two JWK Set refetches.
+   */
+  private static final String JWKS_REFETCH_MIN_INTERVAL = "jwksRefetchMinInterval";
+
+  /**
+   * Option key for the maximum time, in milliseconds, during which a request waits for a concurrent
+   * provider fetch.
+   */
+  private static final String FETCH_MAX_WAIT = "fetchMaxWait";
+
+  /**
+   * Option key for the settings of the validated-token cache ({@link TokenCacheConfiguration}).
+   */
+  private static final String TOKEN_CACHE = "tokenCache";
+
+  /**
+   * Option key for the settings of the token introspection ({@link IntrospectionConfiguration}).
+   */
+  private static final String INTROSPECTION = "introspection";
+
+  /**
+   * Option key for the settings of the warm-up at application startup ({@link WarmUpConfiguration}).
+   */
+  private static final String WARM_UP = "warmUp";
+
+  /**
+   * Option key for the list of additional accepted providers ({@link IssuerConfiguration}).
+   */
+  private static final String ISSUERS = "issuers";
+
+  /**
+   * Option key for the JWK Set provided with the configuration ({@link StaticKeysConfiguration}).
+   */
+  private static final String STATIC_KEYS = "staticKeys";
+
+  /**
+   * Option key for the list of revoked tokens and sessions ({@link RevocationConfiguration}).
+   */
+  private static final String REVOCATION = "revocation";
+
+  /**
+   * Option key for the userinfo enrichment settings ({@link UserInfoConfiguration}).
+   */
+  private static final String USER_INFO = "userInfo";
+
   /**
    * I18n key used when a required option is missing from the configuration.
    */
   private static final String MISSING_OPTION = "error.plugin.default.missing.option";
 
+  /**
+   * Last built configuration along with the options it was built from, {@code null} until first use.
+   */
+  private volatile BoundConfiguration bound;
+
+  /**
+   * Returns the {@link OIDCPluginConfiguration} of the given authentication configuration, reusing
+   * the last built one when the options have not changed since.
+   *
+   * <p>The options are compared with a deep copy taken when the configuration was built, so that
+   * nested maps and lists modified in place are detected too. The comparison walks the option
+   * values, which stays much cheaper than binding them again.
+   *
+   * @param configuration the authentication configuration containing plugin options
+   * @return a fully validated {@link OIDCPluginConfiguration}
+   * @throws ApiException with HTTP 500 if any required option is missing
+   */
+  public OIDCPluginConfiguration get(AuthenticationConfiguration configuration) {
+    Map<String, Object> options = configuration.getOptions();
+    if (options == null) {
+      return create(configuration);
+    }
+    BoundConfiguration snapshot = bound;
+    if (snapshot != null && snapshot.options().equals(options)) {
+      return snapshot.config();
+    }
+    OIDCPluginConfiguration config = create(configuration);
+    bound = new BoundConfiguration(deepCopy(options), config);
+    return config;
+  }
+
   /**
    * Creates an {@link OIDCPluginConfiguration} from the given authentication configuration.
    *
@@ -81,12 +177,20 @@ public class OIDCPluginConfigurationFactory {
    * @throws ApiException with HTTP 500 if any required option is missing
    */
   public OIDCPluginConfiguration create(AuthenticationConfiguration configuration) {
+    List<IssuerConfiguration> issuerList = configuration.getOption(ISSUERS,
+            new TypeReference<List<IssuerConfiguration>>() {
+            })
+        .orElse(List.of());
+    Optional<IssuerConfiguration> firstIssuer = issuerList.stream().findFirst();
+
     String issuerURI = configuration.getOption(ISSUER_URI)
+        .or(() -> firstIssuer.map(IssuerConfiguration::issuerURI))
         .orElseThrow(() -> new ApiException(
             HttpStatus.INTERNAL_SERVER_ERROR.value(),
             I18nMessage.of(MISSING_OPTION, Map.of("option", ISSUER_URI))));
 
     String audience = configuration.getOption(AUDIENCE)
+        .or(() -> firstIssuer.map(IssuerConfiguration::audience))
         .orElseThrow(() -> new ApiException(
             HttpStatus.INTERNAL_SERVER_ERROR.value(),
             I18nMessage.of(MISSING_OPTION, Map.of("option", AUDIENCE))));
@@ -115,6 +219,132 @@ public class OIDCPluginConfigurationFactory {
         })
         .orElse(List.of());
 
-    return new OIDCPluginConfiguration(issuerURI, audience, tokenType, requiredClaims, optionalClaims);
+    long metadataCacheTtl = getDurationOption(
+        configuration, METADATA_CACHE_TTL, OIDCPluginConfiguration.DEFAULT_METADATA_CACHE_TTL);
+    long jwksCacheTtl = getDurationOption(
+        configuration, JWKS_CACHE_TTL, OIDCPluginConfiguration.DEFAULT_JWKS_CACHE_TTL);
+    long jwksRefetchMinInterval = getDurationOption(
+        configuration, JWKS_REFETCH_MIN_INTERVAL, OIDCPluginConfiguration.DEFAULT_JWKS_REFETCH_MIN_INTERVAL);
+    long fetchMaxWait = getDurationOption(
+        configuration, FETCH_MAX_WAIT, OIDCPluginConfiguration.DEFAULT_FETCH_MAX_WAIT);
+
+    TokenCacheConfiguration tokenCache = configuration.getOption(TOKEN_CACHE,
+            new TypeReference<TokenCacheConfiguration>() {
+            })
+        .orElse(TokenCacheConfiguration.DISABLED);
+
+    IntrospectionConfiguration introspection = configuration.getOption(INTROSPECTION,
+            new TypeReference<IntrospectionConfiguration>() {
+            })
+        .orElse(IntrospectionConfiguration.DEFAULT);
+
+    WarmUpConfiguration warmUp = configuration.getOption(WARM_UP, new TypeReference<WarmUpConfiguration>() {
+        })
+        .orElse(WarmUpConfiguration.DEFAULT);
+
+    StaticKeysConfiguration staticKeys = configuration.getOption(STATIC_KEYS,
+            new TypeReference<StaticKeysConfiguration>() {
+            })
+        .orElse(StaticKeysConfiguration.NONE);
+
+    RevocationConfiguration revocation = configuration.getOption(REVOCATION,
+            new TypeReference<RevocationConfiguration>() {
+            })
+        .orElse(RevocationConfiguration.NONE);
+
+    UserInfoConfiguration userInfo = configuration.getOption(USER_INFO,
+            new TypeReference<UserInfoConfiguration>() {
+            })
+        .orElse(UserInfoConfiguration.DISABLED);
+
+    return OIDCPluginConfiguration.builder(issuerURI, audience, tokenType)
+        .requiredClaims(requiredClaims)
+        .optionalClaims(optionalClaims)
+        .metadataCacheTtl(metadataCacheTtl)
+        .jwksCacheTtl(jwksCacheTtl)
+        .jwksRefetchMinInterval(jwksRefetchMinInterval)
+        .tokenCache(tokenCache)
+        .introspection(introspection)
+        .fetchMaxWait(fetchMaxWait)
+        .warmUp(warmUp)
+        .issuers(indexIssuers(issuerURI, audience, issuerList))
+        .staticKeys(staticKeys)
+        .revocation(revocation)
+        .userInfo(userInfo)
+        .build();
+  }
+
+  /**
+   * Indexes the accepted providers by issuer URI, the top-level one first.
+   *
+   * <p>Providers without an audience inherit the top-level one, so that every entry of the returned map
+   * is complete.
+   *
+   * @param issuerURI  the top-level issuer URI
+   * @param audience   the top-level audience
+   * @param issuerList the additional providers read from the {@code issuers} option
+   * @return an unmodifiable map of the accepted providers, keyed by issuer URI
+   * @throws ApiException with HTTP 500 if an additional provider has no issuer URI
+   */
+  private Map<String, IssuerConfiguration> indexIssuers(
+      String issuerURI, String audience, List<IssuerConfiguration> issuerList) {
+    Map<String, IssuerConfiguration> issuers = new LinkedHashMap<>();
+    issuers.put(issuerURI, new IssuerConfiguration(issuerURI, audience));
+    for (IssuerConfiguration issuer : issuerList) {
+      if (issuer.issuerURI() == null) {
+        throw new ApiException(
+            HttpStatus.INTERNAL_SERVER_ERROR.value(),
+            I18nMessage.of(MISSING_OPTION, Map.of("option", ISSUERS + "." + ISSUER_URI)));
+      }
+      issuers.putIfAbsent(issuer.issuerURI(), new IssuerConfiguration(
+          issuer.issuerURI(), issuer.audience() != null ? issuer.audience() : audience));
+    }
+    return Collections.unmodifiableMap(issuers);
+  }
+
+  /**
+   * Reads an optional duration option expressed in milliseconds.
+   *
+   * @param configuration the authentication configuration containing plugin options
+   * @param option        the option key
+   * @param defaultValue  the value returned when the option is absent
+   * @return the configured duration in milliseconds, or {@code defaultValue}
+   */
+  private long getDurationOption(
+      AuthenticationConfiguration configuration, String option, long defaultValue) {
+    return configuration.getOption(option, new TypeReference<Long>() {
+        })
+        .orElse(defaultValue);
+  }
+
+  /**
+   * Copies the maps and lists of an option value recursively, keeping the other values as is.
+   *
+   * @param value the option value
+   * @param <T>   the type of the option value
+   * @return a copy sharing no map or list with the value
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> T deepCopy(T value) {
+    if (value instanceof Map<?, ?> map) {
+      Map<Object, Object> copy = new HashMap<>();
+      map.forEach((key, item) -> copy.put(key, deepCopy(item)));
+      return (T) copy;
+    }
+    if (value instanceof List<?> list) {
+      List<Object> copy = new ArrayList<>(list.size());
+      list.forEach(item -> copy.add(deepCopy(item)));
+      return (T) copy;
+    }
+    return value;
+  }
+
+  /**
+   * Configuration built from a snapshot of the plugin options.
+   *
+   * @param options the deep copy of the options the configuration was built from
+   * @param config  the built configuration
+   */
+  private record BoundConfiguration(Map<String, Object> options, OIDCPluginConfiguration config) {
   }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.model;
+
+/**
+ * Settings of the list of revoked access tokens and sessions.
+ *
+ * <p>When either {@code endpoint} or {@code file} is set, the list is loaded from it and reloaded
+ * every {@code refreshInterval}, and tokens whose {@code jti} or {@code sid} claim is listed are
+ * rejected, including tokens already held by the validated-token cache. Missing values are replaced
+ * by their defaults, so that the record can be bound from a partial {@code revocation} option.
+ *
+ * @param endpoint        the URL of a local endpoint serving the revocation list
+ * @param file            the path of a file holding the revocation list, reloaded when it changes
+ * @param refreshInterval the time, in milliseconds, between two reloads of the revocation list
+ * @param defaultTtl      the time, in milliseconds, during which an entry without expiration time
+ *                        is kept
+ * @param expectedEntries the number of revoked entries the Bloom filter is initially sized for
+ */
+public record RevocationConfiguration(
+    String endpoint, String file, Long refreshInterval, Long defaultTtl, Integer expectedEntries) {
+
+  /**
+   * Default time, in milliseconds, between two reloads of the revocation list (thirty seconds).
+   */
+  public static final long DEFAULT_REFRESH_INTERVAL = 30_000L;
+
+  /**
+   * Default time, in milliseconds, during which an entry without expiration time is kept (one hour).
+   */
+  public static final long DEFAULT_TTL = 3_600_000L;
+
+  /**
+   * Default number of revoked entries the Bloom filter is initially sized for.
+   */
+  public static final int DEFAULT_EXPECTED_ENTRIES = 10_000;
+
+  /**
+   * Configuration without revocation list.
+   */
+  public static final RevocationConfiguration NONE = new RevocationConfiguration(null, null, null, null, null);
+
+  /**
+   * Replaces missing values by their defaults.
+   */
+  public RevocationConfiguration {
+    refreshInterval = refreshInterval == null ? DEFAULT_REFRESH_INTERVAL : refreshInterval;
+    defaultTtl = defaultTtl == null ? DEFAULT_TTL : defaultTtl;
+    expectedEntries = expectedEntries == null ? DEFAULT_EXPECTED_ENTRIES : expectedEntries;
+  }
+
+  /**
+   * Returns whether a revocation list is loaded, from an endpoint or a file.
+   *
+   * @return {@code true} if the revocation list must be loaded
+   */
+  public boolean isConfigured() {
+    return endpoint != null || file != null;
+  }
+}
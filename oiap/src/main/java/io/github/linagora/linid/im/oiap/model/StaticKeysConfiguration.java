@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.model;
+
+import java.util.Map;
+
+/**
+ * Settings of a JWK Set provided with the configuration instead of being discovered from the OIDC
+ * provider.
+ *
+ * <p>When either {@code jwks} or {@code jwksFile} is set, JWS tokens are validated without any
+ * request to the provider: the signing keys are read from the configuration or from the file, and
+ * the {@code iss} claim is checked against the configured issuer URI. Missing values are replaced by
+ * their defaults, so that the record can be bound from a partial {@code staticKeys} option.
+ *
+ * @param jwks           the JWK Set document, given inline
+ * @param jwksFile       the path of a file holding the JWK Set document, reloaded when it changes
+ * @param reloadInterval the maximum time, in milliseconds, before a change of the file is picked up
+ */
+public record StaticKeysConfiguration(Map<String, Object> jwks, String jwksFile, Long reloadInterval) {
+
+  /**
+   * Default maximum time, in milliseconds, before a change of the JWK Set file is picked up.
+   */
+  public static final long DEFAULT_RELOAD_INTERVAL = 10_000L;
+
+  /**
+   * Configuration without static keys, in which the keys are discovered from the provider.
+   */
+  public static final StaticKeysConfiguration NONE = new StaticKeysConfiguration(null, null, null);
+
+  /**
+   * Replaces missing values by their defaults.
+   */
+  public StaticKeysConfiguration {
+    reloadInterval = reloadInterval == null ? DEFAULT_RELOAD_INTERVAL : reloadInterval;
+  }
+
+  /**
+   * Returns whether a JWK Set is provided, inline or as a file.
+   *
+   * @return {@code true} if the keys must not be discovered from the provider
+   */
+  public boolean isConfigured() {
+    return jwks != null || jwksFile != null;
+  }
+}
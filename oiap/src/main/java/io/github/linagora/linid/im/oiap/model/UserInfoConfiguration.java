@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.model;
+
+import java.util.List;
+
+/**
+ * Settings of the enrichment of the propagated claims with fields of the provider's userinfo
+ * endpoint.
+ *
+ * <p>Missing values are replaced by their defaults, so that the record can be bound from a partial
+ * {@code userInfo} option.
+ *
+ * @param enabled    whether the propagated claims are enriched; disabled by default
+ * @param endpoint   the URI of the userinfo endpoint; when absent, it is read from the provider
+ *                   metadata ({@code userinfo_endpoint})
+ * @param claims     the userinfo fields merged into the propagated claims
+ * @param cacheTtl   the maximum time, in milliseconds, during which a userinfo response is reused;
+ *                   it is never cached beyond the token's {@code exp} claim
+ * @param maxEntries the maximum number of cached userinfo responses
+ */
+public record UserInfoConfiguration(
+    Boolean enabled, String endpoint, List<String> claims, Long cacheTtl, Integer maxEntries) {
+
+  /**
+   * Default maximum time, in milliseconds, during which a userinfo response is reused (five
+   * minutes).
+   */
+  public static final long DEFAULT_CACHE_TTL = 300_000L;
+
+  /**
+   * Default maximum number of cached userinfo responses.
+   */
+  public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+  /**
+   * Configuration disabling the enrichment.
+   */
+  public static final UserInfoConfiguration DISABLED = new UserInfoConfiguration(false, null, null, null, null);
+
+  /**
+   * Replaces missing values by their defaults.
+   */
+  public UserInfoConfiguration {
+    enabled = Boolean.TRUE.equals(enabled);
+    claims = claims == null ? List.of() : List.copyOf(claims);
+    cacheTtl = cacheTtl == null ? DEFAULT_CACHE_TTL : cacheTtl;
+    maxEntries = maxEntries == null ? DEFAULT_MAX_ENTRIES : maxEntries;
+  }
+}
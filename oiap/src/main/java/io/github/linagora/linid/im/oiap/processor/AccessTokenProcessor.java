@@ -59,4 +59,17 @@ public interface AccessTokenProcessor {
    */
   Map<String, Object> process(String accessToken, OIDCPluginConfiguration config)
       throws ApiException;
+
+  /**
+   * Loads ahead of the first request the provider resources needed to validate tokens, such as
+   * the provider metadata or the signing keys.
+   *
+   * <p>Does nothing by default; resources are then loaded lazily by
+   * {@link #process(String, OIDCPluginConfiguration)}.
+   *
+   * @param config the plugin configuration containing the issuer URI and expected audience
+   * @throws ApiException if the provider resources cannot be loaded
+   */
+  default void warmUp(OIDCPluginConfiguration config) throws ApiException {
+  }
 }
@@ -30,6 +30,8 @@ import io.github.linagora.linid.im.corelib.exception.ApiException;
 import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
 import io.github.linagora.linid.im.oiap.model.ErrorKey;
 import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.TokenType;
+import java.util.EnumMap;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -39,21 +41,26 @@ import org.springframework.stereotype.Component;
  * Factory that selects the appropriate {@link AccessTokenProcessor} for a given plugin
  * configuration.
  *
- * <p>All registered {@link AccessTokenProcessor} beans are injected at construction time. When
- * {@link #getProcessor(OIDCPluginConfiguration)} is called, the factory iterates over them and
- * returns the first one whose {@link AccessTokenProcessor#supports(io.github.linagora.linid.im.oiap.model.TokenType)}
- * method matches the configured token type.
+ * <p>All registered {@link AccessTokenProcessor} beans are injected at construction time, and the
+ * first one whose {@link AccessTokenProcessor#supports(TokenType)} method matches each token type
+ * is resolved once. {@link #getProcessor(OIDCPluginConfiguration)} then returns the processor of
+ * the configured token type with a single {@link EnumMap} lookup.
  */
 @Slf4j
 @Component
 public class AccessTokenProcessorFactory {
   /**
-   * All registered {@link AccessTokenProcessor} beans, injected by Spring.
+   * Processor resolved for each supported token type.
    */
-  private final List<AccessTokenProcessor> processors;
+  private final EnumMap<TokenType, AccessTokenProcessor> processors = new EnumMap<>(TokenType.class);
 
   public AccessTokenProcessorFactory(List<AccessTokenProcessor> processors) {
-    this.processors = processors;
+    for (TokenType type : TokenType.values()) {
+      processors.stream()
+          .filter(processor -> processor.supports(type))
+          .findFirst()
+          .ifPresent(processor -> this.processors.put(type, processor));
+    }
   }
 
   /**
@@ -65,15 +72,12 @@ public class AccessTokenProcessorFactory {
    * @throws ApiException with HTTP 401 if no registered processor supports the token type
    */
   public AccessTokenProcessor getProcessor(OIDCPluginConfiguration config) {
-
-    return processors.stream()
-        .filter(processor -> processor.supports(config.tokenType()))
-        .findFirst()
-        .orElseThrow(
-            () -> {
-              log.debug("No AccessTokenProcessor found for token format");
-              return new ApiException(
-                  HttpStatus.UNAUTHORIZED.value(), I18nMessage.of(ErrorKey.INVALID_TOKEN.getKey()));
-            });
+    AccessTokenProcessor processor = config.tokenType() == null ? null : processors.get(config.tokenType());
+    if (processor == null) {
+      log.debug("No AccessTokenProcessor found for token format");
+      throw new ApiException(
+          HttpStatus.UNAUTHORIZED.value(), I18nMessage.of(ErrorKey.INVALID_TOKEN.getKey()));
+    }
+    return processor;
   }
 }
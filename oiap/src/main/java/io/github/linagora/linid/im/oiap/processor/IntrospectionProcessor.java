@@ -0,0 +1,444 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.processor;
+
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.TokenIntrospectionRequest;
+import com.nimbusds.oauth2.sdk.TokenIntrospectionResponse;
+import com.nimbusds.oauth2.sdk.TokenIntrospectionSuccessResponse;
+import com.nimbusds.oauth2.sdk.auth.ClientAuthentication;
+import com.nimbusds.oauth2.sdk.auth.ClientSecretBasic;
+import com.nimbusds.oauth2.sdk.auth.Secret;
+import com.nimbusds.oauth2.sdk.http.HTTPRequest;
+import com.nimbusds.oauth2.sdk.http.HTTPResponse;
+import com.nimbusds.oauth2.sdk.id.Audience;
+import com.nimbusds.oauth2.sdk.id.ClientID;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.nimbusds.oauth2.sdk.token.TypelessAccessToken;
+import com.nimbusds.openid.connect.sdk.op.OIDCProviderMetadata;
+import io.github.linagora.linid.im.corelib.exception.ApiException;
+import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
+import io.github.linagora.linid.im.oiap.cache.ExpiringCache;
+import io.github.linagora.linid.im.oiap.cache.SingleFlight;
+import io.github.linagora.linid.im.oiap.cache.TokenDigest;
+import io.github.linagora.linid.im.oiap.model.ErrorKey;
+import io.github.linagora.linid.im.oiap.model.IntrospectionConfiguration;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.TokenType;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Clock;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link AccessTokenProcessor} implementation for opaque access tokens, validated by the
+ * provider's introspection endpoint.
+ *
+ * <p>Conforms to <a href="https://datatracker.ietf.org/doc/html/rfc7662">RFC 7662</a>.
+ *
+ * <p>Introspection results, including inactive ones, are cached for
+ * {@link IntrospectionConfiguration#cacheTtl()}, and never beyond the token's {@code exp} claim.
+ * Concurrent introspections of the same token are coalesced into a single outbound call, which
+ * other requests wait for at most {@link OIDCPluginConfiguration#fetchMaxWait()}.
+ */
+@Slf4j
+@Component
+public class IntrospectionProcessor implements AccessTokenProcessor {
+
+  /**
+   * Timeout, in milliseconds, to connect to the introspection endpoint.
+   */
+  static final int CONNECT_TIMEOUT = 2_000;
+
+  /**
+   * Timeout, in milliseconds, to read the response of the introspection endpoint.
+   */
+  static final int READ_TIMEOUT = 2_000;
+
+  /**
+   * Maximum number of issuers whose discovered introspection endpoint is cached.
+   */
+  private static final int MAX_ENDPOINTS = 100;
+
+  /**
+   * Result of the introspection of an inactive token.
+   */
+  private static final IntrospectionResult INACTIVE =
+      new IntrospectionResult(false, Map.of(), null, null, null);
+
+  /**
+   * Introspection endpoints discovered from the provider metadata, by issuer URI.
+   */
+  private final ExpiringCache<String, URI> endpoints;
+
+  /**
+   * Introspection calls currently in flight, by token.
+   */
+  private final SingleFlight<IntrospectionKey, IntrospectionResult> inFlight = new SingleFlight<>();
+
+  /**
+   * Clock used to check the expiration of tokens and cache entries.
+   */
+  private final Clock clock;
+
+  /**
+   * Cache of the introspection results, {@code null} until first use.
+   */
+  private volatile ExpiringCache<IntrospectionKey, IntrospectionResult> results;
+
+  /**
+   * Creates a processor based on the system UTC clock.
+   */
+  public IntrospectionProcessor() {
+    this(Clock.systemUTC());
+  }
+
+  /**
+   * Creates a processor based on the given clock.
+   *
+   * @param clock the clock used to check the expiration of tokens and cache entries
+   */
+  IntrospectionProcessor(Clock clock) {
+    this.clock = clock;
+    this.endpoints = new ExpiringCache<>(MAX_ENDPOINTS, MAX_ENDPOINTS, clock);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean supports(TokenType type) {
+    return TokenType.OPAQUE == type;
+  }
+
+  /**
+   * Introspects the opaque access token and returns its claims.
+   *
+   * @param accessToken the raw access token
+   * @param config      the plugin configuration containing the issuer URI, expected audience and
+   *                    introspection settings
+   * @return the members of the introspection response
+   * @throws ApiException with HTTP 401 if the token is inactive, expired, or issued for another
+   *                      issuer or audience; with HTTP 500 if the introspection endpoint cannot be
+   *                      resolved or does not answer successfully; with HTTP 503 if a concurrent
+   *                      introspection of the same token does not complete in time
+   */
+  @Override
+  public Map<String, Object> process(String accessToken, OIDCPluginConfiguration config)
+      throws ApiException {
+    IntrospectionKey key = IntrospectionKey.of(accessToken, config);
+    ExpiringCache<IntrospectionKey, IntrospectionResult> cache = resultsFor(config.introspection());
+
+    IntrospectionResult result = cache.get(key);
+    if (result == null) {
+      result = inFlight.execute(key, () -> {
+        IntrospectionResult cached = cache.get(key);
+        if (cached != null) {
+          return cached;
+        }
+        IntrospectionResult introspected = introspect(accessToken, config);
+        cache.put(key, introspected, expirationOf(introspected, config.introspection()), 1);
+        return introspected;
+      }, config.fetchMaxWait(), () -> {
+        log.debug("Timed out waiting for the introspection of a token by issuer {}", config.issuerURI());
+        return new ApiException(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            I18nMessage.of(ErrorKey.PROVIDER_UNAVAILABLE.getKey()));
+      });
+    }
+
+    verify(result, config);
+    return result.claims();
+  }
+
+  /**
+   * Resolves the introspection endpoint from the provider metadata, unless it is configured.
+   *
+   * @param config the plugin configuration
+   * @throws ApiException with HTTP 500 if the introspection endpoint cannot be resolved
+   */
+  @Override
+  public void warmUp(OIDCPluginConfiguration config) throws ApiException {
+    try {
+      resolveEndpoint(config);
+    } catch (GeneralException | IOException e) {
+      log.debug("Failed to resolve introspection endpoint for issuer URI {}", config.issuerURI(), e);
+      throw introspectionError();
+    }
+  }
+
+  /**
+   * Calls the introspection endpoint.
+   *
+   * @param accessToken the raw access token
+   * @param config      the plugin configuration
+   * @return the introspection result
+   * @throws ApiException with HTTP 500 if the endpoint cannot be resolved or does not answer
+   *                      successfully
+   */
+  private IntrospectionResult introspect(String accessToken, OIDCPluginConfiguration config)
+      throws ApiException {
+    IntrospectionConfiguration settings = config.introspection();
+    try {
+      TokenIntrospectionRequest request = new TokenIntrospectionRequest(
+          resolveEndpoint(config), clientAuthentication(settings), new TypelessAccessToken(accessToken));
+      HTTPRequest httpRequest = request.toHTTPRequest();
+      httpRequest.setConnectTimeout(CONNECT_TIMEOUT);
+      httpRequest.setReadTimeout(READ_TIMEOUT);
+      HTTPResponse httpResponse = httpRequest.send();
+
+      TokenIntrospectionResponse response = TokenIntrospectionResponse.parse(httpResponse);
+      if (!response.indicatesSuccess()) {
+        log.debug("Introspection endpoint of issuer {} answered with {}",
+            config.issuerURI(), response.toErrorResponse().getErrorObject());
+        throw introspectionError();
+      }
+      TokenIntrospectionSuccessResponse success = response.toSuccessResponse();
+      if (!success.isActive()) {
+        return INACTIVE;
+      }
+      return new IntrospectionResult(
+          true,
+          Collections.unmodifiableMap(new HashMap<>(success.toJSONObject())),
+          success.getExpirationTime(),
+          success.getIssuer(),
+          success.getAudience());
+    } catch (GeneralException | IOException e) {
+      log.debug("Failed to introspect access token for issuer URI {}", config.issuerURI(), e);
+      throw introspectionError();
+    }
+  }
+
+  /**
+   * Returns the configured introspection endpoint, or the one advertised in the provider metadata.
+   *
+   * <p>Discovered endpoints are cached for {@link OIDCPluginConfiguration#metadataCacheTtl()}.
+   *
+   * @param config the plugin configuration
+   * @return the introspection endpoint
+   * @throws GeneralException if the provider metadata cannot be resolved
+   * @throws IOException      if the provider cannot be reached
+   * @throws ApiException     with HTTP 500 if the provider does not advertise an introspection
+   *                          endpoint
+   */
+  private URI resolveEndpoint(OIDCPluginConfiguration config) throws GeneralException, IOException {
+    if (config.introspection().endpoint() != null) {
+      return URI.create(config.introspection().endpoint());
+    }
+    URI endpoint = endpoints.get(config.issuerURI());
+    if (endpoint != null) {
+      return endpoint;
+    }
+    endpoint = OIDCProviderMetadata.resolve(new Issuer(config.issuerURI()), CONNECT_TIMEOUT, READ_TIMEOUT)
+        .getIntrospectionEndpointURI();
+    if (endpoint == null) {
+      log.debug("Issuer {} does not advertise an introspection endpoint", config.issuerURI());
+      throw introspectionError();
+    }
+    endpoints.put(config.issuerURI(), endpoint, clock.millis() + config.metadataCacheTtl(), 1);
+    return endpoint;
+  }
+
+  /**
+   * Checks an introspection result against the plugin configuration.
+   *
+   * <p>Members are optional in an introspection response, so {@code exp}, {@code iss} and
+   * {@code aud} are only checked when present.
+   *
+   * @param result the introspection result
+   * @param config the plugin configuration containing the issuer URI and expected audience
+   * @throws ApiException with HTTP 401 if the token is inactive, expired, or issued for another
+   *                      issuer or audience
+   */
+  private void verify(IntrospectionResult result, OIDCPluginConfiguration config)
+      throws ApiException {
+    if (!result.active()) {
+      log.debug("Introspected access token is not active");
+      throw invalidToken();
+    }
+    if (result.expirationTime() != null && result.expirationTime().getTime() <= clock.millis()) {
+      log.debug("Introspected access token is expired");
+      throw invalidToken();
+    }
+    if (result.issuer() != null && !result.issuer().getValue().equals(config.issuerURI())) {
+      log.debug("Introspected access token was issued by {}", result.issuer());
+      throw invalidToken();
+    }
+    if (result.audience() != null && !result.audience().contains(new Audience(config.audience()))) {
+      log.debug("Introspected access token is not intended for audience {}", config.audience());
+      throw invalidToken();
+    }
+  }
+
+  /**
+   * Returns the epoch milliseconds until which an introspection result may be cached.
+   *
+   * @param result   the introspection result
+   * @param settings the introspection settings
+   * @return the expiration of the cache entry
+   */
+  private long expirationOf(IntrospectionResult result, IntrospectionConfiguration settings) {
+    long expiresAt = clock.millis() + settings.cacheTtl();
+    if (result.expirationTime() != null) {
+      expiresAt = Math.min(expiresAt, result.expirationTime().getTime());
+    }
+    return expiresAt;
+  }
+
+  /**
+   * Returns the number of lookups that returned a cached introspection result.
+   *
+   * @return the hit count of the current cache
+   */
+  public long hitCount() {
+    ExpiringCache<IntrospectionKey, IntrospectionResult> cache = results;
+    return cache == null ? 0 : cache.hitCount();
+  }
+
+  /**
+   * Returns the number of lookups that found no cached introspection result.
+   *
+   * @return the miss count of the current cache
+   */
+  public long missCount() {
+    ExpiringCache<IntrospectionKey, IntrospectionResult> cache = results;
+    return cache == null ? 0 : cache.missCount();
+  }
+
+  /**
+   * Returns the number of cached introspection results.
+   *
+   * @return the size of the current cache
+   */
+  public int size() {
+    ExpiringCache<IntrospectionKey, IntrospectionResult> cache = results;
+    return cache == null ? 0 : cache.size();
+  }
+
+  /**
+   * Returns the cache of introspection results, recreating it when its size changes.
+   *
+   * @param settings the introspection settings
+   * @return the cache
+   */
+  private ExpiringCache<IntrospectionKey, IntrospectionResult> resultsFor(
+      IntrospectionConfiguration settings) {
+    ExpiringCache<IntrospectionKey, IntrospectionResult> cache = results;
+    if (cache != null && cache.maxEntries() == settings.maxEntries()) {
+      return cache;
+    }
+    synchronized (this) {
+      if (results == null || results.maxEntries() != settings.maxEntries()) {
+        results = new ExpiringCache<>(settings.maxEntries(), settings.maxEntries(), clock);
+      }
+      return results;
+    }
+  }
+
+  /**
+   * Builds the HTTP Basic client authentication to the introspection endpoint.
+   *
+   * @param settings the introspection settings
+   * @return the client authentication, or {@code null} if no client is configured
+   */
+  private ClientAuthentication clientAuthentication(IntrospectionConfiguration settings) {
+    if (settings.clientId() == null) {
+      return null;
+    }
+    return new ClientSecretBasic(
+        new ClientID(settings.clientId()),
+        new Secret(settings.clientSecret() == null ? "" : settings.clientSecret()));
+  }
+
+  /**
+   * Builds the exception raised for tokens rejected by the introspection.
+   *
+   * @return an {@link ApiException} with HTTP 401
+   */
+  private ApiException invalidToken() {
+    return new ApiException(
+        HttpStatus.UNAUTHORIZED.value(), I18nMessage.of(ErrorKey.INVALID_TOKEN.getKey()));
+  }
+
+  /**
+   * Builds the exception raised when the introspection cannot be performed.
+   *
+   * @return an {@link ApiException} with HTTP 500
+   */
+  private ApiException introspectionError() {
+    return new ApiException(
+        HttpStatus.INTERNAL_SERVER_ERROR.value(),
+        I18nMessage.of(ErrorKey.INTROSPECTION_ERROR.getKey()));
+  }
+
+  /**
+   * Cache key identifying a token introspected for a given issuer and client.
+   *
+   * @param digest    the Base64url-encoded SHA-256 digest of the token
+   * @param issuerURI the issuer URI of the provider
+   * @param endpoint  the configured introspection endpoint, or {@code null} if discovered
+   * @param clientId  the client used to call the introspection endpoint
+   */
+  private record IntrospectionKey(String digest, String issuerURI, String endpoint, String clientId) {
+
+    /**
+     * Builds the key of the given token.
+     *
+     * @param accessToken the raw access token
+     * @param config      the plugin configuration
+     * @return the cache key
+     */
+    static IntrospectionKey of(String accessToken, OIDCPluginConfiguration config) {
+      return new IntrospectionKey(TokenDigest.sha256(accessToken), config.issuerURI(),
+          config.introspection().endpoint(), config.introspection().clientId());
+    }
+  }
+
+  /**
+   * Outcome of the introspection of a token.
+   *
+   * @param active         whether the token is active
+   * @param claims         the members of the introspection response
+   * @param expirationTime the {@code exp} member, or {@code null} if absent
+   * @param issuer         the {@code iss} member, or {@code null} if absent
+   * @param audience       the {@code aud} member, or {@code null} if absent
+   */
+  private record IntrospectionResult(
+      boolean active,
+      Map<String, Object> claims,
+      Date expirationTime,
+      Issuer issuer,
+      List<Audience> audience) {
+  }
+}
@@ -28,33 +28,43 @@ package io.github.linagora.linid.im.oiap.processor;
 
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.KeySourceException;
-import com.nimbusds.jose.jwk.source.JWKSource;
-import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
 import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.BadJWSException;
 import com.nimbusds.jose.proc.DefaultJOSEObjectTypeVerifier;
-import com.nimbusds.jose.proc.JWSAlgorithmFamilyJWSKeySelector;
-import com.nimbusds.jose.proc.JWSKeySelector;
 import com.nimbusds.jose.proc.SecurityContext;
 import com.nimbusds.jwt.JWTClaimNames;
 import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
 import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
 import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
 import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.nimbusds.jwt.util.DateUtils;
 import com.nimbusds.oauth2.sdk.GeneralException;
 import com.nimbusds.oauth2.sdk.id.Issuer;
 import com.nimbusds.openid.connect.sdk.op.OIDCProviderMetadata;
 import io.github.linagora.linid.im.corelib.exception.ApiException;
 import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
+import io.github.linagora.linid.im.oiap.cache.RejectedTokenCache;
+import io.github.linagora.linid.im.oiap.jwks.CachingJWSKeySelector;
+import io.github.linagora.linid.im.oiap.jwks.JWKSetStore;
+import io.github.linagora.linid.im.oiap.jwks.JWKSetStoreRegistry;
+import io.github.linagora.linid.im.oiap.jwks.JWKSetTimeoutException;
+import io.github.linagora.linid.im.oiap.metrics.AuthenticationMetrics;
+import io.github.linagora.linid.im.oiap.metrics.AuthenticationMetrics.Stage;
 import io.github.linagora.linid.im.oiap.model.ErrorKey;
 import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
 import io.github.linagora.linid.im.oiap.model.TokenType;
 import java.io.IOException;
-import java.net.URL;
 import java.text.ParseException;
+import java.time.Clock;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
@@ -73,12 +83,97 @@ public class JWSProcessor implements AccessTokenProcessor {
   private static final JOSEObjectType[] SUPPORTED_JWT_TYPES =
       new JOSEObjectType[] {new JOSEObjectType("at+jwt"), new JOSEObjectType("application/at+jwt")};
 
+  /**
+   * JWT type header values accepted for JWS access tokens, checked before signature verification.
+   */
+  private static final Set<JOSEObjectType> SUPPORTED_JWT_TYPE_SET = Set.of(SUPPORTED_JWT_TYPES);
+
+  /**
+   * Maximum clock skew, in seconds, tolerated when checking the {@code exp} and {@code nbf} claims,
+   * the same as the one applied by the claims verifier.
+   */
+  private static final int MAX_CLOCK_SKEW = DefaultJWTClaimsVerifier.DEFAULT_MAX_CLOCK_SKEW_SECONDS;
+
   /**
    * JWT claim names that must be present in the token payload.
    */
   private static final Set<String> REQUIRED_CLAIMS =
       Set.of(JWTClaimNames.EXPIRATION_TIME, JWTClaimNames.AUDIENCE, JWTClaimNames.ISSUER);
 
+  /**
+   * Timeout, in milliseconds, to connect to the provider discovery endpoint.
+   */
+  static final int DISCOVERY_CONNECT_TIMEOUT = 2_000;
+
+  /**
+   * Timeout, in milliseconds, to read the response of the provider discovery endpoint.
+   */
+  static final int DISCOVERY_READ_TIMEOUT = 2_000;
+
+  /**
+   * Registry caching the JWT processors built for each issuer and audience.
+   */
+  private final JWTProcessorRegistry registry;
+
+  /**
+   * Registry of the long-lived JWK Set stores used to resolve the signing keys.
+   */
+  private final JWKSetStoreRegistry jwkSetStores;
+
+  /**
+   * Negative cache of the recently rejected tokens.
+   */
+  private final RejectedTokenCache rejectedTokens;
+
+  /**
+   * Metrics timing the parsing, pre-checks, verification and discovery stages.
+   */
+  private final AuthenticationMetrics metrics;
+
+  /**
+   * Clock used to check the {@code exp} and {@code nbf} claims before signature verification.
+   */
+  private final Clock clock;
+
+  /**
+   * Creates a processor based on the system UTC clock.
+   *
+   * @param registry       the registry caching the JWT processors
+   * @param jwkSetStores   the registry of the JWK Set stores
+   * @param rejectedTokens the negative cache of the recently rejected tokens
+   * @param metrics        the metrics timing the validation stages
+   */
+  @Autowired
+  public JWSProcessor(
+      JWTProcessorRegistry registry,
+      JWKSetStoreRegistry jwkSetStores,
+      RejectedTokenCache rejectedTokens,
+      AuthenticationMetrics metrics) {
+    this(registry, jwkSetStores, rejectedTokens, metrics, Clock.systemUTC());
+  }
+
+  /**
+   * Creates a processor based on the given clock.
+   *
+   * @param registry       the registry caching the JWT processors
+   * @param jwkSetStores   the registry of the JWK Set stores
+   * @param rejectedTokens the negative cache of the recently rejected tokens
+   * @param metrics        the metrics timing the validation stages
+   * @param clock          the clock used to check the {@code exp} and {@code nbf} claims
+   */
+  JWSProcessor(
+      JWTProcessorRegistry registry,
+      JWKSetStoreRegistry jwkSetStores,
+      RejectedTokenCache rejectedTokens,
+      AuthenticationMetrics metrics,
+      Clock clock) {
+    this.registry = registry;
+    this.jwkSetStores = jwkSetStores;
+    this.rejectedTokens = rejectedTokens;
+    this.metrics = metrics;
+    this.clock = clock;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -90,29 +185,109 @@ public class JWSProcessor implements AccessTokenProcessor {
   /**
    * Validates the JWT access token and returns its claims.
    *
+   * <p>The token is parsed once and its unverified {@code iss} claim selects the cached processor of
+   * the matching provider; tokens from providers that are not configured are rejected before any
+   * signature verification or provider request. The claim is verified afterwards by the processor,
+   * whose metadata is bound to the same issuer.
+   *
+   * <p>Before signature verification, the token is also checked for its structure, {@code typ} and
+   * {@code alg} headers, and {@code aud}, {@code exp} and {@code nbf} claims. Tokens rejected for a
+   * reason that cannot change over time are remembered in the {@link RejectedTokenCache}, so that
+   * they are dropped without being parsed again when replayed.
+   *
    * @param accessToken the raw JWT string
    * @param config      the plugin configuration containing the issuer URI and expected audience
    * @return a map of claim names to their values
    * @throws ApiException with HTTP 401 if the token is invalid, expired, or fails signature
-   *                      verification; with HTTP 500 if the JWT processor cannot be created
+   *                      verification; with HTTP 500 if the JWT processor cannot be created; with
+   *                      HTTP 503 if the provider does not answer in time to a concurrent fetch
    */
   @Override
   public Map<String, Object> process(String accessToken, OIDCPluginConfiguration config)
       throws ApiException {
-    ConfigurableJWTProcessor<SecurityContext> jwtProcessor = createJWTProcessor(config);
+    if (!hasThreeSegments(accessToken)) {
+      log.debug("Rejected JWT access token without three segments");
+      throw invalidToken();
+    }
+    if (rejectedTokens.contains(accessToken, config)) {
+      log.debug("Rejected recently rejected JWT access token");
+      throw invalidToken();
+    }
+
+    SignedJWT signedJWT;
+    JWTClaimsSet unverifiedClaims;
+    long start = metrics.start();
+    try {
+      signedJWT = SignedJWT.parse(accessToken);
+      unverifiedClaims = signedJWT.getJWTClaimsSet();
+    } catch (ParseException e) {
+      log.debug("Failed to parse JWT access token", e);
+      throw rejected(accessToken, config);
+    } finally {
+      metrics.stop(Stage.PARSE, start);
+    }
+    start = metrics.start();
+    OIDCPluginConfiguration issuerConfig = config.forIssuer(unverifiedClaims.getIssuer());
+    String failure = issuerConfig == null
+        ? null : preValidate(signedJWT.getHeader(), unverifiedClaims, issuerConfig.audience());
+    metrics.stop(Stage.PRECHECK, start);
+    if (issuerConfig == null) {
+      log.debug("Rejected JWT access token from an unknown issuer");
+      throw rejected(accessToken, config);
+    }
+    if (failure != null) {
+      log.debug("Rejected JWT access token: {}", failure);
+      throw rejected(accessToken, config);
+    }
+    if (isPremature(unverifiedClaims)) {
+      log.debug("Rejected JWT access token used before its nbf claim");
+      throw invalidToken();
+    }
+
+    ConfigurableJWTProcessor<SecurityContext> jwtProcessor =
+        registry.getProcessor(issuerConfig, this::createJWTProcessor);
+    start = metrics.start();
     try {
-      JWTClaimsSet claimsSet = jwtProcessor.process(accessToken, null);
+      JWTClaimsSet claimsSet = jwtProcessor.process(signedJWT, null);
       return claimsSet.getClaims();
-    } catch (ParseException | BadJOSEException | JOSEException e) {
+    } catch (JWKSetTimeoutException e) {
+      log.debug("Timed out waiting for the JWK Set of issuer URI {}", issuerConfig.issuerURI());
+      throw providerUnavailable();
+    } catch (BadJWSException e) {
+      log.debug("Failed to verify JWT access token", e);
+      throw rejected(accessToken, config);
+    } catch (BadJOSEException | JOSEException e) {
       log.debug("Failed to validate JWT access token", e);
-      throw new ApiException(
-          HttpStatus.UNAUTHORIZED.value(), I18nMessage.of(ErrorKey.INVALID_TOKEN.getKey()));
+      throw invalidToken();
+    } finally {
+      metrics.stop(Stage.VERIFICATION, start);
+    }
+  }
+
+  /**
+   * Builds and caches the JWT processor of every configured provider, which resolves the provider
+   * metadata and loads the provider's JWK Set.
+   *
+   * @param config the plugin configuration containing the issuer URI and expected audience
+   * @throws ApiException with HTTP 500 if the JWT processor cannot be created; with HTTP 503 if
+   *                      the provider does not answer in time to a concurrent fetch
+   */
+  @Override
+  public void warmUp(OIDCPluginConfiguration config) throws ApiException {
+    for (String issuer : config.issuers().keySet()) {
+      registry.getProcessor(config.forIssuer(issuer), this::createJWTProcessor);
     }
   }
 
   /**
    * Builds and configures a {@link ConfigurableJWTProcessor} for the given plugin configuration.
    *
+   * <p>The built processor is cached by the {@link JWTProcessorRegistry}, so this method is only
+   * invoked when no processor exists for the issuer or when the cached one has expired.
+   *
+   * <p>When static keys are configured, the provider metadata is not resolved: the keys are read
+   * from the configuration or from the JWK Set file, and the issuer is the configured issuer URI.
+   *
    * @param config the plugin configuration containing the issuer URI and expected audience
    * @return a fully configured JWT processor ready to validate and parse tokens
    * @throws ApiException with HTTP 500 if any error occurs during provider metadata resolution or
@@ -122,13 +297,31 @@ public class JWSProcessor implements AccessTokenProcessor {
   private ConfigurableJWTProcessor<SecurityContext> createJWTProcessor(
       OIDCPluginConfiguration config) throws ApiException {
     try {
-      OIDCProviderMetadata opMetadata =
-          OIDCProviderMetadata.resolve(new Issuer(config.issuerURI()));
+      JWKSetStore keySource;
+      String issuer;
+      if (config.staticKeys().isConfigured()) {
+        keySource = jwkSetStores.getStaticStore(config);
+        issuer = config.issuerURI();
+      } else {
+        long start = metrics.start();
+        OIDCProviderMetadata opMetadata;
+        try {
+          opMetadata = OIDCProviderMetadata.resolve(
+              new Issuer(config.issuerURI()), DISCOVERY_CONNECT_TIMEOUT, DISCOVERY_READ_TIMEOUT);
+        } finally {
+          metrics.stop(Stage.DISCOVERY, start);
+        }
+        keySource = jwkSetStores.getStore(opMetadata.getJWKSetURI(), config);
+        issuer = opMetadata.getIssuer().getValue();
+      }
       ConfigurableJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
       jwtProcessor.setJWSTypeVerifier(new DefaultJOSEObjectTypeVerifier<>(SUPPORTED_JWT_TYPES));
-      configureJWSKeySelector(jwtProcessor, opMetadata);
-      configureClaimsVerifier(jwtProcessor, opMetadata, config.audience());
+      configureJWSKeySelector(jwtProcessor, keySource);
+      configureClaimsVerifier(jwtProcessor, issuer, config.audience());
       return jwtProcessor;
+    } catch (JWKSetTimeoutException e) {
+      log.debug("Timed out waiting for the JWK Set of issuer URI {}", config.issuerURI());
+      throw providerUnavailable();
     } catch (GeneralException | IOException | KeySourceException e) {
       log.debug("Failed to create JWT processor for issuer URI {}", config.issuerURI(), e);
       throw new ApiException(
@@ -137,25 +330,111 @@ public class JWSProcessor implements AccessTokenProcessor {
     }
   }
 
+  /**
+   * Returns whether the token is made of three dot-separated segments, as a JWS in compact
+   * serialization is.
+   *
+   * @param accessToken the raw JWT string
+   * @return {@code true} if the token contains exactly two dots
+   */
+  private static boolean hasThreeSegments(String accessToken) {
+    int first = accessToken.indexOf('.');
+    if (first < 0) {
+      return false;
+    }
+    int second = accessToken.indexOf('.', first + 1);
+    return second > 0 && accessToken.indexOf('.', second + 1) < 0;
+  }
+
+  /**
+   * Checks the unverified header and claims of the token that cannot become valid over time.
+   *
+   * @param header   the unverified JWS header
+   * @param claims   the unverified claims of the token
+   * @param audience the expected {@code aud} claim value
+   * @return a description of the first failed check, or {@code null} if all checks pass
+   */
+  private String preValidate(JWSHeader header, JWTClaimsSet claims, String audience) {
+    if (header.getType() == null || !SUPPORTED_JWT_TYPE_SET.contains(header.getType())) {
+      return "unsupported typ header";
+    }
+    if (!CachingJWSKeySelector.SUPPORTED_ALGORITHMS.contains(header.getAlgorithm())) {
+      return "unsupported alg header";
+    }
+    List<String> audiences = claims.getAudience();
+    if (audiences == null || !audiences.contains(audience)) {
+      return "unexpected aud claim";
+    }
+    Date expirationTime = claims.getExpirationTime();
+    if (expirationTime == null
+        || DateUtils.isBefore(expirationTime, Date.from(clock.instant()), MAX_CLOCK_SKEW)) {
+      return "expired or missing exp claim";
+    }
+    return null;
+  }
+
+  /**
+   * Returns whether the token is used before its {@code nbf} claim.
+   *
+   * @param claims the unverified claims of the token
+   * @return {@code true} if the token is not valid yet
+   */
+  private boolean isPremature(JWTClaimsSet claims) {
+    Date notBeforeTime = claims.getNotBeforeTime();
+    return notBeforeTime != null
+        && DateUtils.isAfter(notBeforeTime, Date.from(clock.instant()), MAX_CLOCK_SKEW);
+  }
+
+  /**
+   * Remembers the token as rejected and builds the exception raised for it.
+   *
+   * @param accessToken the raw JWT string
+   * @param config      the plugin configuration the token was rejected for
+   * @return an {@link ApiException} with HTTP 401
+   */
+  private ApiException rejected(String accessToken, OIDCPluginConfiguration config) {
+    rejectedTokens.put(accessToken, config);
+    return invalidToken();
+  }
+
+  /**
+   * Builds the exception raised when the token cannot be validated.
+   *
+   * @return an {@link ApiException} with HTTP 401
+   */
+  private ApiException invalidToken() {
+    return new ApiException(
+        HttpStatus.UNAUTHORIZED.value(), I18nMessage.of(ErrorKey.INVALID_TOKEN.getKey()));
+  }
+
+  /**
+   * Builds the exception raised when the provider does not answer in time to a concurrent fetch.
+   *
+   * @return an {@link ApiException} with HTTP 503
+   */
+  private ApiException providerUnavailable() {
+    return new ApiException(
+        HttpStatus.SERVICE_UNAVAILABLE.value(),
+        I18nMessage.of(ErrorKey.PROVIDER_UNAVAILABLE.getKey()));
+  }
+
   /**
    * Configures the JWS key selector on the processor using the provider's JWK Set.
    *
-   * <p>The key selector automatically negotiates the signing algorithm from the JWK Set.
+   * <p>Keys are served by the long-lived {@link JWKSetStore} of the provider, which survives the
+   * rebuild of the processor. The selector also acts as the verifier factory of the processor, so
+   * that the public keys and verifiers cached by the store are reused by every verification.
    *
    * @param processor the JWT processor to configure
-   * @param metadata  the OIDC provider metadata providing the JWK Set URI
+   * @param keySource the store serving the JWK Set of the provider
    * @throws KeySourceException if the JWKs cannot be retrieved or no suitable public JWKs are found
-   * @throws IOException        if the JWK Set URI cannot be converted to a URL
    */
   private void configureJWSKeySelector(
-      ConfigurableJWTProcessor<SecurityContext> processor, OIDCProviderMetadata metadata)
-      throws KeySourceException, IOException {
-    URL jwkSetURL = metadata.getJWKSetURI().toURL();
-    JWKSource<SecurityContext> keySource =
-        JWKSourceBuilder.create(jwkSetURL).retrying(true).build();
-    JWSKeySelector<SecurityContext> keySelector =
-        JWSAlgorithmFamilyJWSKeySelector.fromJWKSource(keySource);
+      ConfigurableJWTProcessor<SecurityContext> processor, JWKSetStore keySource)
+      throws KeySourceException {
+    CachingJWSKeySelector keySelector = CachingJWSKeySelector.fromJWKSetStore(keySource);
     processor.setJWSKeySelector(keySelector);
+    processor.setJWSVerifierFactory(keySelector);
   }
 
   /**
@@ -165,14 +444,11 @@ public class JWSProcessor implements AccessTokenProcessor {
    * defined in {@link #REQUIRED_CLAIMS} are present.
    *
    * @param processor the JWT processor to configure
-   * @param metadata  the OIDC provider metadata providing the issuer identifier
+   * @param issuer    the issuer identifier of the provider
    * @param audience  the expected {@code aud} claim value that the JWT must contain
    */
   private void configureClaimsVerifier(
-      ConfigurableJWTProcessor<SecurityContext> processor,
-      OIDCProviderMetadata metadata,
-      String audience) {
-    String issuer = metadata.getIssuer().getValue();
+      ConfigurableJWTProcessor<SecurityContext> processor, String issuer, String audience) {
     JWTClaimsSet checkedClaims = new JWTClaimsSet.Builder().issuer(issuer).build();
     processor.setJWTClaimsSetVerifier(
         new DefaultJWTClaimsVerifier<>(audience, checkedClaims, REQUIRED_CLAIMS));
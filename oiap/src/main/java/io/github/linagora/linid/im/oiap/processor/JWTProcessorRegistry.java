@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.processor;
+
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import io.github.linagora.linid.im.corelib.exception.ApiException;
+import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
+import io.github.linagora.linid.im.oiap.cache.SingleFlight;
+import io.github.linagora.linid.im.oiap.model.ErrorKey;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.StaticKeysConfiguration;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry caching one {@link ConfigurableJWTProcessor} per issuer URI and audience.
+ *
+ * <p>Building a JWT processor requires resolving the OIDC provider metadata and the provider's JWK
+ * Set, both of which involve network round trips. The registry keeps each built processor until
+ * the configured {@link OIDCPluginConfiguration#metadataCacheTtl()} elapses, so that steady-state
+ * token validation performs no network I/O. A processor is also rebuilt as soon as the settings of
+ * its key source change, i.e. the static keys or the JWK Set cache and refetch intervals.
+ *
+ * <p>When a refresh fails while a previously built processor is available, the previous processor
+ * keeps being served and the refresh is retried after {@link #RETRY_DELAY}.
+ *
+ * <p>Builds are coalesced: a single build runs per issuer URI and audience at a time. While it
+ * runs, concurrent requests are served the previous processor if any, or otherwise wait for the
+ * build for at most {@link OIDCPluginConfiguration#fetchMaxWait()} before failing with HTTP 503.
+ */
+@Slf4j
+@Component
+public class JWTProcessorRegistry {
+
+  /**
+   * Delay before retrying a failed refresh while a stale processor is still being served.
+   */
+  static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+
+  /**
+   * Cached processors, indexed by issuer URI and audience.
+   */
+  private final ConcurrentHashMap<IssuerKey, CachedProcessor> processors = new ConcurrentHashMap<>();
+
+  /**
+   * Processor builds currently in flight, by issuer URI and audience.
+   */
+  private final SingleFlight<IssuerKey, ConfigurableJWTProcessor<SecurityContext>> builds =
+      new SingleFlight<>();
+
+  /**
+   * Number of lookups answered by a cached processor.
+   */
+  private final LongAdder hits = new LongAdder();
+
+  /**
+   * Number of lookups that had to build a processor.
+   */
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Clock used to compute entry expiration.
+   */
+  private final Clock clock;
+
+  /**
+   * Creates a registry based on the system UTC clock.
+   */
+  public JWTProcessorRegistry() {
+    this(Clock.systemUTC());
+  }
+
+  /**
+   * Creates a registry based on the given clock.
+   *
+   * @param clock the clock used to compute entry expiration
+   */
+  JWTProcessorRegistry(Clock clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the JWT processor associated with the issuer URI and audience of the given
+   * configuration, building it with {@code factory} when absent or expired.
+   *
+   * @param config  the plugin configuration containing the issuer URI and expected audience
+   * @param factory the function building a new processor for the configuration
+   * @return the cached or newly built processor
+   * @throws ApiException if no processor is cached and the factory fails to build one; with HTTP
+   *                      503 if a concurrent build does not complete within
+   *                      {@link OIDCPluginConfiguration#fetchMaxWait()}
+   */
+  public ConfigurableJWTProcessor<SecurityContext> getProcessor(
+      OIDCPluginConfiguration config,
+      Function<OIDCPluginConfiguration, ConfigurableJWTProcessor<SecurityContext>> factory) {
+    IssuerKey key = new IssuerKey(config.issuerURI(), config.audience());
+    KeySource source = KeySource.of(config);
+    CachedProcessor cached = current(key, source);
+
+    if (cached != null && clock.instant().isBefore(cached.expiresAt())) {
+      hits.increment();
+      return cached.processor();
+    }
+    if (cached != null && builds.isInFlight(key)) {
+      hits.increment();
+      return cached.processor();
+    }
+
+    misses.increment();
+    return builds.execute(key, () -> build(key, source, config, factory), config.fetchMaxWait(), () -> {
+      log.warn("Timed out waiting for the JWT processor of issuer URI {}", config.issuerURI());
+      return new ApiException(
+          HttpStatus.SERVICE_UNAVAILABLE.value(),
+          I18nMessage.of(ErrorKey.PROVIDER_UNAVAILABLE.getKey()));
+    });
+  }
+
+  /**
+   * Builds and caches the processor of the given key, unless a build that just completed already
+   * refreshed it.
+   *
+   * @param key     the issuer URI and audience
+   * @param source  the key source settings of the configuration
+   * @param config  the plugin configuration
+   * @param factory the function building a new processor for the configuration
+   * @return the cached or newly built processor
+   * @throws ApiException if no processor is cached and the factory fails to build one
+   */
+  private ConfigurableJWTProcessor<SecurityContext> build(
+      IssuerKey key,
+      KeySource source,
+      OIDCPluginConfiguration config,
+      Function<OIDCPluginConfiguration, ConfigurableJWTProcessor<SecurityContext>> factory) {
+    Instant now = clock.instant();
+    CachedProcessor cached = current(key, source);
+    if (cached != null && now.isBefore(cached.expiresAt())) {
+      return cached.processor();
+    }
+
+    try {
+      ConfigurableJWTProcessor<SecurityContext> processor = factory.apply(config);
+      processors.put(key, new CachedProcessor(processor, now.plusMillis(config.metadataCacheTtl()), source));
+      return processor;
+    } catch (ApiException e) {
+      if (cached == null) {
+        throw e;
+      }
+      log.warn("Failed to refresh JWT processor for issuer URI {}, keeping the previous one",
+          config.issuerURI());
+      processors.put(key, new CachedProcessor(cached.processor(), now.plus(RETRY_DELAY), source));
+      return cached.processor();
+    }
+  }
+
+  /**
+   * Returns the cached processor of the given key, dropping it when it was built with other key
+   * source settings.
+   *
+   * <p>The settings of a memoized configuration are the same instances from one request to the
+   * next, so the comparison is an identity check in the steady state.
+   *
+   * @param key    the issuer URI and audience
+   * @param source the key source settings of the configuration
+   * @return the cached processor, or {@code null} if none was built with these settings
+   */
+  private CachedProcessor current(IssuerKey key, KeySource source) {
+    CachedProcessor cached = processors.get(key);
+    if (cached != null && !cached.source().equals(source)) {
+      processors.remove(key, cached);
+      return null;
+    }
+    return cached;
+  }
+
+  /**
+   * Returns the number of lookups answered by a cached processor, including the stale processors
+   * served while a refresh is in flight.
+   *
+   * @return the hit count
+   */
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the number of lookups that built a processor or waited for a concurrent build.
+   *
+   * @return the miss count
+   */
+  public long missCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the number of cached processors.
+   *
+   * @return the number of processors
+   */
+  public int size() {
+    return processors.size();
+  }
+
+  /**
+   * Removes all cached processors, forcing the next validation to resolve the provider metadata
+   * again.
+   */
+  public void clear() {
+    processors.clear();
+  }
+
+  /**
+   * Cache key identifying a JWT processor.
+   *
+   * @param issuerURI the URI of the OIDC provider
+   * @param audience  the expected audience claim value
+   */
+  private record IssuerKey(String issuerURI, String audience) {
+  }
+
+  /**
+   * Settings of the configuration that determine the key source of a JWT processor.
+   *
+   * @param staticKeys             the JWK Set provided with the configuration
+   * @param jwksCacheTtl           the time during which a downloaded JWK Set is considered fresh
+   * @param jwksRefetchMinInterval the minimum time between two JWK Set downloads
+   */
+  private record KeySource(StaticKeysConfiguration staticKeys, long jwksCacheTtl, long jwksRefetchMinInterval) {
+
+    /**
+     * Returns the key source settings of the given configuration.
+     *
+     * @param config the plugin configuration
+     * @return the key source settings
+     */
+    static KeySource of(OIDCPluginConfiguration config) {
+      return new KeySource(config.staticKeys(), config.jwksCacheTtl(), config.jwksRefetchMinInterval());
+    }
+  }
+
+  /**
+   * Cached JWT processor along with its expiration instant.
+   *
+   * @param processor the built JWT processor
+   * @param expiresAt the instant after which the processor must be rebuilt
+   * @param source    the key source settings the processor was built with
+   */
+  private record CachedProcessor(
+      ConfigurableJWTProcessor<SecurityContext> processor, Instant expiresAt, KeySource source) {
+  }
+}
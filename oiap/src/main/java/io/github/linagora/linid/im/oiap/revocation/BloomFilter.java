@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.revocation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over pre-computed 32-bit hashes.
+ *
+ * <p>Lookups read the bit array without locking nor allocating: a negative answer is definitive,
+ * while a positive one may be a false positive and must be confirmed against an exact set. The
+ * filter is sized for a false-positive probability of one percent at its expected number of
+ * entries. Entries cannot be removed; the filter is rebuilt instead.
+ */
+public final class BloomFilter {
+
+  /**
+   * False-positive probability the filter is sized for.
+   */
+  private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+  /**
+   * Bits of the filter, packed in 64-bit words.
+   */
+  private final AtomicLongArray words;
+
+  /**
+   * Number of bits of the filter.
+   */
+  private final long bitCount;
+
+  /**
+   * Number of bits set per entry.
+   */
+  private final int hashCount;
+
+  /**
+   * Number of entries the filter is sized for.
+   */
+  private final int capacity;
+
+  /**
+   * Creates an empty filter sized for the given number of entries.
+   *
+   * @param expectedEntries the number of entries the filter is sized for
+   */
+  public BloomFilter(int expectedEntries) {
+    this.capacity = Math.max(1, expectedEntries);
+    double ln2 = Math.log(2);
+    long bits = (long) Math.ceil(-capacity * Math.log(FALSE_POSITIVE_PROBABILITY) / (ln2 * ln2));
+    int wordCount = (int) Math.max(1, (bits + Long.SIZE - 1) / Long.SIZE);
+    this.words = new AtomicLongArray(wordCount);
+    this.bitCount = (long) wordCount * Long.SIZE;
+    this.hashCount = (int) Math.max(1, Math.round((double) bits / capacity * ln2));
+  }
+
+  /**
+   * Returns the number of entries the filter is sized for.
+   *
+   * @return the capacity of the filter
+   */
+  public int capacity() {
+    return capacity;
+  }
+
+  /**
+   * Adds an entry to the filter.
+   *
+   * @param hash the hash of the entry
+   */
+  public void add(int hash) {
+    long mixed = mix(hash);
+    int first = (int) mixed;
+    int second = (int) (mixed >>> Integer.SIZE);
+    for (int i = 0; i < hashCount; i++) {
+      long index = ((first + i * second) & Integer.MAX_VALUE) % bitCount;
+      int word = (int) (index >>> 6);
+      long mask = 1L << index;
+      long current = words.get(word);
+      while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+        current = words.get(word);
+      }
+    }
+  }
+
+  /**
+   * Returns whether an entry may have been added to the filter.
+   *
+   * @param hash the hash of the entry
+   * @return {@code false} if the entry has certainly not been added
+   */
+  public boolean mightContain(int hash) {
+    long mixed = mix(hash);
+    int first = (int) mixed;
+    int second = (int) (mixed >>> Integer.SIZE);
+    for (int i = 0; i < hashCount; i++) {
+      long index = ((first + i * second) & Integer.MAX_VALUE) % bitCount;
+      if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Spreads a 32-bit hash over 64 bits, so that its two halves can serve as independent hashes.
+   *
+   * @param hash the hash of the entry
+   * @return the mixed hash
+   */
+  private static long mix(int hash) {
+    long z = hash * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.revocation;
+
+import com.nimbusds.jose.util.JSONObjectUtils;
+import com.nimbusds.oauth2.sdk.http.HTTPRequest;
+import com.nimbusds.oauth2.sdk.http.HTTPResponse;
+import io.github.linagora.linid.im.oiap.model.RevocationConfiguration;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Store of the revoked access tokens ({@code jti} claim) and sessions ({@code sid} claim, as
+ * carried by back-channel logout tokens).
+ *
+ * <p>Entries come from the revocation list configured by {@link RevocationConfiguration}, reloaded
+ * in the background, or from {@link #revokeToken(String, Instant)} and
+ * {@link #revokeSession(String, Instant)}. The list is a JSON object mapping each revoked
+ * identifier to the expiration time, in seconds since the epoch, of the tokens it covers:
+ *
+ * <pre>{"jti": {"token-id": 1767225600}, "sid": {"session-id": null}}</pre>
+ *
+ * <p>A {@link BloomFilter} answers the common "not revoked" case without locking nor allocating;
+ * only possible hits are looked up in the exact sets. Entries are dropped once the tokens they
+ * cover have expired, or after {@link RevocationConfiguration#defaultTtl()} when no expiration time
+ * is known, and the filter is then rebuilt, so that memory stays bounded. Entries removed from the
+ * list before they expire stay revoked.
+ */
+@Slf4j
+@Component
+public class RevocationStore {
+
+  /**
+   * Minimum time, in milliseconds, between two purges of the expired entries.
+   */
+  static final long PURGE_INTERVAL = 60_000L;
+
+  /**
+   * Timeout, in milliseconds, to connect to the revocation endpoint.
+   */
+  static final int CONNECT_TIMEOUT = 2_000;
+
+  /**
+   * Timeout, in milliseconds, to read the response of the revocation endpoint.
+   */
+  static final int READ_TIMEOUT = 2_000;
+
+  /**
+   * Claim, and revocation list member, holding the identifier of a token.
+   */
+  private static final String JTI = "jti";
+
+  /**
+   * Claim, and revocation list member, holding the identifier of a session.
+   */
+  private static final String SID = "sid";
+
+  /**
+   * Value mixed into the hash of session identifiers, so that they do not share the filter bits of
+   * equal token identifiers.
+   */
+  private static final int SID_SALT = 0x5BD1E995;
+
+  /**
+   * Scheduler reloading the revocation list.
+   */
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * Clock used to expire the entries.
+   */
+  private final Clock clock;
+
+  /**
+   * Revoked token identifiers, mapped to the epoch milliseconds after which they can be dropped.
+   */
+  private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+  /**
+   * Revoked session identifiers, mapped to the epoch milliseconds after which they can be dropped.
+   */
+  private final Map<String, Long> revokedSessions = new ConcurrentHashMap<>();
+
+  /**
+   * Lock serializing the reads of the revocation list, kept apart from the store monitor so that
+   * a slow endpoint does not block the purges run by requests.
+   */
+  private final Object loadLock = new Object();
+
+  /**
+   * Bloom filter holding every entry of the exact sets; rebuilt, never cleared, by the writers.
+   */
+  private volatile BloomFilter filter = new BloomFilter(RevocationConfiguration.DEFAULT_EXPECTED_ENTRIES);
+
+  /**
+   * Settings of the revocation list currently loaded.
+   */
+  private volatile RevocationConfiguration settings = RevocationConfiguration.NONE;
+
+  /**
+   * Epoch milliseconds of the next purge of the expired entries.
+   */
+  private volatile long nextPurge;
+
+  /**
+   * Periodic reload of the revocation list, {@code null} when no list is configured.
+   */
+  private ScheduledFuture<?> reloads;
+
+  /**
+   * Settings the revocation list was last read with, guarded by {@link #loadLock}.
+   */
+  private RevocationConfiguration readWith;
+
+  /**
+   * Modification time of the revocation file when it was last read.
+   */
+  private FileTime lastModified;
+
+  /**
+   * Size of the revocation file when it was last read.
+   */
+  private long lastSize;
+
+  /**
+   * Creates a store with its own background reload thread.
+   */
+  public RevocationStore() {
+    this(Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "oiap-revocation-reload");
+      thread.setDaemon(true);
+      return thread;
+    }), Clock.systemUTC());
+  }
+
+  /**
+   * Creates a store with the given scheduler and clock.
+   *
+   * @param scheduler the scheduler reloading the revocation list
+   * @param clock     the clock used to expire the entries
+   */
+  RevocationStore(ScheduledExecutorService scheduler, Clock clock) {
+    this.scheduler = scheduler;
+    this.clock = clock;
+    this.nextPurge = clock.millis() + PURGE_INTERVAL;
+  }
+
+  /**
+   * Returns whether the token carrying the given claims, or its session, has been revoked.
+   *
+   * <p>The revocation list of the configuration is loaded on the first call and whenever the
+   * settings change.
+   *
+   * @param claims the claims of the validated token
+   * @param config the settings of the revocation list
+   * @return {@code true} if the token must be rejected
+   */
+  public boolean isRevoked(Map<String, Object> claims, RevocationConfiguration config) {
+    if (config != settings) {
+      configure(config);
+    }
+    if (revokedTokens.isEmpty() && revokedSessions.isEmpty()) {
+      return false;
+    }
+    long now = clock.millis();
+    if (now >= nextPurge) {
+      purge(now);
+    }
+    BloomFilter current = filter;
+    return isListed(current, revokedTokens, claims.get(JTI), 0, now)
+        || isListed(current, revokedSessions, claims.get(SID), SID_SALT, now);
+  }
+
+  /**
+   * Revokes an access token.
+   *
+   * @param jti       the identifier of the token
+   * @param expiresAt the expiration time of the token, or {@code null} to keep the entry for
+   *                  {@link RevocationConfiguration#defaultTtl()}
+   */
+  public void revokeToken(String jti, Instant expiresAt) {
+    revoke(revokedTokens, jti, 0, expiresAt == null ? null : expiresAt.toEpochMilli());
+  }
+
+  /**
+   * Revokes all the access tokens of a session, as notified by a back-channel logout.
+   *
+   * @param sid       the identifier of the session
+   * @param expiresAt the expiration time of the last token of the session, or {@code null} to keep
+   *                  the entry for {@link RevocationConfiguration#defaultTtl()}
+   */
+  public void revokeSession(String sid, Instant expiresAt) {
+    revoke(revokedSessions, sid, SID_SALT, expiresAt == null ? null : expiresAt.toEpochMilli());
+  }
+
+  /**
+   * Returns the number of revoked tokens and sessions currently held.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return revokedTokens.size() + revokedSessions.size();
+  }
+
+  /**
+   * Reloads the revocation list now, adding its new entries to the store.
+   */
+  public void reload() {
+    RevocationConfiguration current = settings;
+    if (!current.isConfigured()) {
+      return;
+    }
+    try {
+      String document;
+      synchronized (loadLock) {
+        document = read(current);
+      }
+      if (document != null) {
+        merge(JSONObjectUtils.parse(document));
+      }
+    } catch (IOException | ParseException | RuntimeException e) {
+      log.warn("Failed to load the revocation list from {}",
+          current.file() != null ? current.file() : current.endpoint(), e);
+    }
+  }
+
+  /**
+   * Stops the background reloads when the application shuts down.
+   */
+  @PreDestroy
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  /**
+   * Returns whether an identifier is listed in an exact set, consulting the Bloom filter first.
+   *
+   * @param current the Bloom filter
+   * @param entries the exact set
+   * @param value   the claim value, ignored unless it is a string
+   * @param salt    the value mixed into the hash of the identifier
+   * @param now     the current epoch milliseconds
+   * @return {@code true} if the identifier is revoked
+   */
+  private static boolean isListed(
+      BloomFilter current, Map<String, Long> entries, Object value, int salt, long now) {
+    if (!(value instanceof String id) || !current.mightContain(id.hashCode() ^ salt)) {
+      return false;
+    }
+    Long expiresAt = entries.get(id);
+    return expiresAt != null && expiresAt > now;
+  }
+
+  /**
+   * Applies new revocation list settings, scheduling the loads of the list.
+   *
+   * <p>The first load runs right away on the scheduler, like the periodic ones, so that neither the
+   * request applying the settings nor the requests revoking or purging entries wait for the file or
+   * the endpoint. Until it completes, only the entries revoked through the API are enforced.
+   *
+   * @param config the settings of the revocation list
+   */
+  private void configure(RevocationConfiguration config) {
+    synchronized (this) {
+      if (config.equals(settings)) {
+        settings = config;
+        return;
+      }
+      if (reloads != null) {
+        reloads.cancel(false);
+        reloads = null;
+      }
+      settings = config;
+      rebuild(Math.max(config.expectedEntries(), size() * 2));
+      if (!config.isConfigured()) {
+        return;
+      }
+      reloads = scheduler.scheduleWithFixedDelay(
+          this::reload, 0L, config.refreshInterval(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Reads the revocation list from its file or endpoint.
+   *
+   * @param config the settings of the revocation list
+   * @return the revocation list document, or {@code null} if the file has not changed
+   * @throws IOException if the list cannot be read
+   */
+  private String read(RevocationConfiguration config) throws IOException {
+    if (!config.equals(readWith)) {
+      readWith = config;
+      lastModified = null;
+      lastSize = 0;
+    }
+    if (config.file() != null) {
+      Path path = Path.of(config.file());
+      BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      if (attributes.lastModifiedTime().equals(lastModified) && attributes.size() == lastSize) {
+        return null;
+      }
+      lastModified = attributes.lastModifiedTime();
+      lastSize = attributes.size();
+      return Files.readString(path);
+    }
+    HTTPRequest request = new HTTPRequest(HTTPRequest.Method.GET, URI.create(config.endpoint()));
+    request.setConnectTimeout(CONNECT_TIMEOUT);
+    request.setReadTimeout(READ_TIMEOUT);
+    HTTPResponse response = request.send();
+    if (response.getStatusCode() != HTTPResponse.SC_OK) {
+      throw new IOException("Unexpected status " + response.getStatusCode());
+    }
+    return response.getBody();
+  }
+
+  /**
+   * Adds the entries of a revocation list document to the store.
+   *
+   * @param document the revocation list document
+   * @throws ParseException if the document members are not JSON objects
+   */
+  private synchronized void merge(Map<String, Object> document) throws ParseException {
+    merge(JSONObjectUtils.getJSONObject(document, JTI), revokedTokens, 0);
+    merge(JSONObjectUtils.getJSONObject(document, SID), revokedSessions, SID_SALT);
+  }
+
+  /**
+   * Adds the entries of a revocation list member to an exact set.
+   *
+   * @param listed  the identifiers of the member, mapped to their expiration time in seconds
+   * @param entries the exact set
+   * @param salt    the value mixed into the hash of the identifiers
+   */
+  private void merge(Map<String, Object> listed, Map<String, Long> entries, int salt) {
+    if (listed == null) {
+      return;
+    }
+    listed.forEach((id, expiration) -> revoke(entries, id, salt,
+        expiration instanceof Number seconds ? seconds.longValue() * 1000 : null));
+  }
+
+  /**
+   * Adds an entry to an exact set and to the Bloom filter, growing the filter when it is full.
+   *
+   * @param entries   the exact set
+   * @param id        the identifier to revoke
+   * @param salt      the value mixed into the hash of the identifier
+   * @param expiresAt the epoch milliseconds after which the entry can be dropped, or {@code null}
+   *                  to use the default time to live
+   */
+  private synchronized void revoke(Map<String, Long> entries, String id, int salt, Long expiresAt) {
+    long now = clock.millis();
+    long expiry = expiresAt != null ? expiresAt : now + settings.defaultTtl();
+    if (expiry <= now) {
+      return;
+    }
+    entries.merge(id, expiry, Math::max);
+    if (size() > filter.capacity()) {
+      rebuild(filter.capacity() * 2);
+    } else {
+      filter.add(id.hashCode() ^ salt);
+    }
+  }
+
+  /**
+   * Drops the expired entries and rebuilds the Bloom filter from the remaining ones.
+   *
+   * @param now the current epoch milliseconds
+   */
+  private synchronized void purge(long now) {
+    if (now < nextPurge) {
+      return;
+    }
+    nextPurge = now + PURGE_INTERVAL;
+    int before = size();
+    revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+    revokedSessions.values().removeIf(expiresAt -> expiresAt <= now);
+    if (size() < before) {
+      log.debug("Dropped {} expired revocation entries", before - size());
+      rebuild(Math.max(settings.expectedEntries(), size() * 2));
+    }
+  }
+
+  /**
+   * Replaces the Bloom filter by one holding the current entries.
+   *
+   * @param capacity the number of entries the new filter is sized for
+   */
+  private void rebuild(int capacity) {
+    BloomFilter rebuilt = new BloomFilter(capacity);
+    revokedTokens.keySet().forEach(id -> rebuilt.add(id.hashCode()));
+    revokedSessions.keySet().forEach(id -> rebuilt.add(id.hashCode() ^ SID_SALT));
+    filter = rebuilt;
+  }
+}
@@ -0,0 +1,367 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.userinfo;
+
+import com.nimbusds.oauth2.sdk.GeneralException;
+import com.nimbusds.oauth2.sdk.http.HTTPRequest;
+import com.nimbusds.oauth2.sdk.id.Issuer;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import com.nimbusds.openid.connect.sdk.UserInfoRequest;
+import com.nimbusds.openid.connect.sdk.UserInfoResponse;
+import com.nimbusds.openid.connect.sdk.claims.UserInfo;
+import com.nimbusds.openid.connect.sdk.op.OIDCProviderMetadata;
+import io.github.linagora.linid.im.corelib.exception.ApiException;
+import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
+import io.github.linagora.linid.im.oiap.cache.ExpiringCache;
+import io.github.linagora.linid.im.oiap.cache.SingleFlight;
+import io.github.linagora.linid.im.oiap.cache.TokenDigest;
+import io.github.linagora.linid.im.oiap.cache.ValidatedTokenCache;
+import io.github.linagora.linid.im.oiap.model.ErrorKey;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.UserInfoConfiguration;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Clock;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Enriches the propagated claims with fields of the provider's userinfo endpoint.
+ *
+ * <p>Userinfo responses are cached per token and subject for
+ * {@link UserInfoConfiguration#cacheTtl()}, and never beyond the token's {@code exp} claim.
+ * Concurrent lookups for the same token are coalesced into a single outbound call, which other
+ * requests wait for at most {@link OIDCPluginConfiguration#fetchMaxWait()}. Fields already present
+ * in the propagated claims are never overwritten, so that the validated token stays authoritative.
+ *
+ * <p>The userinfo endpoint is the one of the provider that issued the token, so that a token is
+ * never sent to another provider. The configured {@link UserInfoConfiguration#endpoint()} only
+ * applies to the provider identified by {@link OIDCPluginConfiguration#issuerURI()}.
+ */
+@Slf4j
+@Component
+public class UserInfoEnricher {
+
+  /**
+   * Timeout, in milliseconds, to connect to the userinfo endpoint.
+   */
+  static final int CONNECT_TIMEOUT = 2_000;
+
+  /**
+   * Timeout, in milliseconds, to read the response of the userinfo endpoint.
+   */
+  static final int READ_TIMEOUT = 2_000;
+
+  /**
+   * Maximum number of issuers whose discovered userinfo endpoint is cached.
+   */
+  private static final int MAX_ENDPOINTS = 100;
+
+  /**
+   * Name of the subject claim, which the userinfo response must match.
+   */
+  private static final String SUBJECT = "sub";
+
+  /**
+   * Name of the issuer claim, which selects the provider whose userinfo endpoint is called.
+   */
+  private static final String ISSUER = "iss";
+
+  /**
+   * Userinfo endpoints discovered from the provider metadata, by issuer URI.
+   */
+  private final ExpiringCache<String, URI> endpoints;
+
+  /**
+   * Userinfo calls currently in flight, by token and subject.
+   */
+  private final SingleFlight<UserInfoKey, Map<String, Object>> inFlight = new SingleFlight<>();
+
+  /**
+   * Clock used to check the expiration of cache entries.
+   */
+  private final Clock clock;
+
+  /**
+   * Cache of the userinfo responses, {@code null} until first use.
+   */
+  private volatile ExpiringCache<UserInfoKey, Map<String, Object>> results;
+
+  /**
+   * Creates an enricher based on the system UTC clock.
+   */
+  public UserInfoEnricher() {
+    this(Clock.systemUTC());
+  }
+
+  /**
+   * Creates an enricher based on the given clock.
+   *
+   * @param clock the clock used to check the expiration of cache entries
+   */
+  UserInfoEnricher(Clock clock) {
+    this.clock = clock;
+    this.endpoints = new ExpiringCache<>(MAX_ENDPOINTS, MAX_ENDPOINTS, clock);
+  }
+
+  /**
+   * Merges the configured userinfo fields into the propagated claims, when the enrichment is
+   * enabled.
+   *
+   * @param accessToken the raw access token, sent to the userinfo endpoint
+   * @param claims      the claims of the validated token
+   * @param config      the plugin configuration holding the userinfo settings
+   * @param propagated  the claims propagated into the task execution context, enriched in place
+   * @throws ApiException with HTTP 500 if the issuer of the token is not accepted, or if the
+   *                      userinfo endpoint cannot be resolved, does not answer successfully or
+   *                      answers for another subject; with HTTP 503 if a
+   *                      concurrent lookup of the same token does not complete in time
+   */
+  public void enrich(
+      String accessToken,
+      Map<String, Object> claims,
+      OIDCPluginConfiguration config,
+      Map<String, Object> propagated) throws ApiException {
+    UserInfoConfiguration settings = config.userInfo();
+    if (!settings.enabled() || settings.claims().isEmpty()) {
+      return;
+    }
+    if (!(claims.get(SUBJECT) instanceof String subject)) {
+      log.debug("Cannot fetch the userinfo of a token without subject");
+      throw userInfoError();
+    }
+    OIDCPluginConfiguration issuerConfig = issuerConfig(claims, config);
+    UserInfoKey key = new UserInfoKey(TokenDigest.sha256(accessToken), issuerConfig.issuerURI(), subject);
+    ExpiringCache<UserInfoKey, Map<String, Object>> cache = resultsFor(settings);
+
+    Map<String, Object> userInfo = cache.get(key);
+    if (userInfo == null) {
+      userInfo = inFlight.execute(key, () -> {
+        Map<String, Object> cached = cache.get(key);
+        if (cached != null) {
+          return cached;
+        }
+        String endpoint = issuerConfig == config ? settings.endpoint() : null;
+        Map<String, Object> fetched = fetch(accessToken, subject, endpoint, issuerConfig);
+        cache.put(key, fetched, expirationOf(claims, settings), 1);
+        return fetched;
+      }, issuerConfig.fetchMaxWait(), () -> {
+        log.debug("Timed out waiting for the userinfo of a token by issuer {}", issuerConfig.issuerURI());
+        return new ApiException(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            I18nMessage.of(ErrorKey.PROVIDER_UNAVAILABLE.getKey()));
+      });
+    }
+
+    for (String name : settings.claims()) {
+      Object value = userInfo.get(name);
+      if (value != null) {
+        propagated.putIfAbsent(name, value);
+      }
+    }
+  }
+
+  /**
+   * Returns the configuration of the provider that issued the token.
+   *
+   * <p>Tokens without {@code iss} claim, such as some introspected opaque tokens, belong to the
+   * provider identified by {@link OIDCPluginConfiguration#issuerURI()}.
+   *
+   * @param claims the claims of the validated token
+   * @param config the plugin configuration
+   * @return the configuration bound to the issuer of the token
+   * @throws ApiException with HTTP 500 if the issuer of the token is not accepted
+   */
+  private OIDCPluginConfiguration issuerConfig(Map<String, Object> claims, OIDCPluginConfiguration config)
+      throws ApiException {
+    if (!(claims.get(ISSUER) instanceof String issuer) || issuer.equals(config.issuerURI())) {
+      return config;
+    }
+    OIDCPluginConfiguration issuerConfig = config.forIssuer(issuer);
+    if (issuerConfig == null) {
+      log.debug("Cannot fetch the userinfo of a token by unaccepted issuer {}", issuer);
+      throw userInfoError();
+    }
+    return issuerConfig;
+  }
+
+  /**
+   * Calls the userinfo endpoint with the access token.
+   *
+   * @param accessToken the raw access token
+   * @param subject     the subject of the token, which the response must match
+   * @param endpoint    the configured userinfo endpoint, {@code null} to discover it
+   * @param config      the plugin configuration bound to the provider that issued the token
+   * @return the members of the userinfo response
+   * @throws ApiException with HTTP 500 if the endpoint cannot be resolved, does not answer
+   *                      successfully or answers for another subject
+   */
+  private Map<String, Object> fetch(
+      String accessToken, String subject, String endpoint, OIDCPluginConfiguration config) throws ApiException {
+    try {
+      HTTPRequest httpRequest = new UserInfoRequest(resolveEndpoint(endpoint, config),
+          new BearerAccessToken(accessToken)).toHTTPRequest();
+      httpRequest.setConnectTimeout(CONNECT_TIMEOUT);
+      httpRequest.setReadTimeout(READ_TIMEOUT);
+      UserInfoResponse response = UserInfoResponse.parse(httpRequest.send());
+      if (!response.indicatesSuccess()) {
+        log.debug("Userinfo endpoint of issuer {} answered with {}",
+            config.issuerURI(), response.toErrorResponse().getErrorObject());
+        throw userInfoError();
+      }
+      UserInfo userInfo = response.toSuccessResponse().getUserInfo();
+      if (userInfo == null || !subject.equals(userInfo.getSubject().getValue())) {
+        log.debug("Userinfo endpoint of issuer {} did not answer with the token subject", config.issuerURI());
+        throw userInfoError();
+      }
+      return Collections.unmodifiableMap(new HashMap<>(userInfo.toJSONObject()));
+    } catch (GeneralException | IOException e) {
+      log.debug("Failed to fetch the userinfo for issuer URI {}", config.issuerURI(), e);
+      throw userInfoError();
+    }
+  }
+
+  /**
+   * Returns the configured userinfo endpoint, or the one advertised in the provider metadata.
+   *
+   * <p>Discovered endpoints are cached for {@link OIDCPluginConfiguration#metadataCacheTtl()}.
+   *
+   * @param configured the configured userinfo endpoint, {@code null} to discover it
+   * @param config     the plugin configuration bound to the provider
+   * @return the userinfo endpoint
+   * @throws GeneralException if the provider metadata cannot be resolved
+   * @throws IOException      if the provider cannot be reached
+   * @throws ApiException     with HTTP 500 if the provider does not advertise a userinfo endpoint
+   */
+  private URI resolveEndpoint(String configured, OIDCPluginConfiguration config)
+      throws GeneralException, IOException {
+    if (configured != null) {
+      return URI.create(configured);
+    }
+    URI endpoint = endpoints.get(config.issuerURI());
+    if (endpoint != null) {
+      return endpoint;
+    }
+    endpoint = OIDCProviderMetadata.resolve(new Issuer(config.issuerURI()), CONNECT_TIMEOUT, READ_TIMEOUT)
+        .getUserInfoEndpointURI();
+    if (endpoint == null) {
+      log.debug("Issuer {} does not advertise a userinfo endpoint", config.issuerURI());
+      throw userInfoError();
+    }
+    endpoints.put(config.issuerURI(), endpoint, clock.millis() + config.metadataCacheTtl(), 1);
+    return endpoint;
+  }
+
+  /**
+   * Returns the epoch milliseconds until which a userinfo response may be cached.
+   *
+   * @param claims   the claims of the validated token
+   * @param settings the userinfo settings
+   * @return the expiration of the cache entry
+   */
+  private long expirationOf(Map<String, Object> claims, UserInfoConfiguration settings) {
+    long expiresAt = clock.millis() + settings.cacheTtl();
+    Long tokenExpiration = ValidatedTokenCache.expirationOf(claims);
+    if (tokenExpiration != null) {
+      expiresAt = Math.min(expiresAt, tokenExpiration);
+    }
+    return expiresAt;
+  }
+
+  /**
+   * Returns the number of lookups that returned a cached userinfo response.
+   *
+   * @return the hit count of the current cache
+   */
+  public long hitCount() {
+    ExpiringCache<UserInfoKey, Map<String, Object>> cache = results;
+    return cache == null ? 0 : cache.hitCount();
+  }
+
+  /**
+   * Returns the number of lookups that found no cached userinfo response.
+   *
+   * @return the miss count of the current cache
+   */
+  public long missCount() {
+    ExpiringCache<UserInfoKey, Map<String, Object>> cache = results;
+    return cache == null ? 0 : cache.missCount();
+  }
+
+  /**
+   * Returns the number of cached userinfo responses.
+   *
+   * @return the size of the current cache
+   */
+  public int size() {
+    ExpiringCache<UserInfoKey, Map<String, Object>> cache = results;
+    return cache == null ? 0 : cache.size();
+  }
+
+  /**
+   * Returns the cache of userinfo responses, recreating it when its size changes.
+   *
+   * @param settings the userinfo settings
+   * @return the cache
+   */
+  private ExpiringCache<UserInfoKey, Map<String, Object>> resultsFor(UserInfoConfiguration settings) {
+    ExpiringCache<UserInfoKey, Map<String, Object>> cache = results;
+    if (cache != null && cache.maxEntries() == settings.maxEntries()) {
+      return cache;
+    }
+    synchronized (this) {
+      if (results == null || results.maxEntries() != settings.maxEntries()) {
+        results = new ExpiringCache<>(settings.maxEntries(), settings.maxEntries(), clock);
+      }
+      return results;
+    }
+  }
+
+  /**
+   * Builds the exception raised when the userinfo cannot be fetched.
+   *
+   * @return an {@link ApiException} with HTTP 500
+   */
+  private ApiException userInfoError() {
+    return new ApiException(
+        HttpStatus.INTERNAL_SERVER_ERROR.value(), I18nMessage.of(ErrorKey.USERINFO_ERROR.getKey()));
+  }
+
+  /**
+   * Cache key identifying the userinfo fetched with a token for a given issuer and subject.
+   *
+   * @param digest    the Base64url-encoded SHA-256 digest of the token
+   * @param issuerURI the issuer URI of the provider
+   * @param subject   the subject of the token
+   */
+  private record UserInfoKey(String digest, String issuerURI, String subject) {
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.warmup;
+
+import io.github.linagora.linid.im.corelib.exception.ApiException;
+import io.github.linagora.linid.im.corelib.plugin.authentication.AuthenticationFactory;
+import io.github.linagora.linid.im.corelib.plugin.config.dto.AuthenticationConfiguration;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfigurationFactory;
+import io.github.linagora.linid.im.oiap.processor.AccessTokenProcessorFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the OIDC provider resources (metadata, signing keys, introspection endpoint) at application
+ * startup, so that the first requests after a restart do not pay for them.
+ *
+ * <p>The warm-up runs when the application is ready, before it reports accepting traffic. It waits
+ * at most {@link io.github.linagora.linid.im.oiap.model.WarmUpConfiguration#timeout()}; when the
+ * provider is slow or unreachable, startup goes on and the resources are loaded lazily by the first
+ * requests, as without warm-up.
+ */
+@Slf4j
+@Component
+public class IssuerWarmUp {
+
+  /**
+   * Plugin type handled by the OIDC authentication plugin.
+   */
+  private static final String OIDC_TYPE = "oidc";
+
+  /**
+   * Provider of the host authentication factory, which exposes the configured authentication.
+   */
+  private final ObjectProvider<AuthenticationFactory> authenticationFactory;
+
+  /**
+   * Factory used to build an {@link OIDCPluginConfiguration} from the authentication configuration.
+   */
+  private final OIDCPluginConfigurationFactory configurationFactory;
+
+  /**
+   * Factory used to select the processor matching the configured token type.
+   */
+  private final AccessTokenProcessorFactory processorFactory;
+
+  public IssuerWarmUp(
+      ObjectProvider<AuthenticationFactory> authenticationFactory,
+      OIDCPluginConfigurationFactory configurationFactory,
+      AccessTokenProcessorFactory processorFactory) {
+    this.authenticationFactory = authenticationFactory;
+    this.configurationFactory = configurationFactory;
+    this.processorFactory = processorFactory;
+  }
+
+  /**
+   * Warms up the configured OIDC provider when the application is ready.
+   *
+   * <p>Never fails: any error is logged and the plugin falls back to lazy loading.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    AuthenticationFactory factory = authenticationFactory.getIfAvailable();
+    if (factory == null) {
+      log.debug("No authentication factory available, skipping OIDC warm-up");
+      return;
+    }
+    AuthenticationConfiguration configuration = factory.getAuthenticationConfiguration();
+    if (configuration == null || !OIDC_TYPE.equals(configuration.getType())) {
+      return;
+    }
+
+    OIDCPluginConfiguration config;
+    try {
+      config = configurationFactory.create(configuration);
+    } catch (ApiException e) {
+      log.warn("Invalid OIDC authentication configuration, skipping warm-up");
+      return;
+    }
+    if (!config.warmUp().enabled()) {
+      return;
+    }
+    warmUp(config);
+  }
+
+  /**
+   * Loads the provider resources of the given configuration, waiting at most the configured
+   * timeout.
+   *
+   * @param config the plugin configuration
+   */
+  void warmUp(OIDCPluginConfiguration config) {
+    ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "oiap-warm-up");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long start = System.nanoTime();
+    try {
+      CompletableFuture
+          .runAsync(() -> processorFactory.getProcessor(config).warmUp(config), executor)
+          .get(config.warmUp().timeout(), TimeUnit.MILLISECONDS);
+      log.info("OIDC provider {} warmed up in {} ms",
+          config.issuerURI(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    } catch (TimeoutException e) {
+      log.warn("OIDC provider {} warm-up did not complete within {} ms, falling back to lazy loading",
+          config.issuerURI(), config.warmUp().timeout());
+    } catch (ExecutionException e) {
+      log.warn("OIDC provider {} warm-up failed, falling back to lazy loading",
+          config.issuerURI(), e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("OIDC provider {} warm-up interrupted, falling back to lazy loading", config.issuerURI());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -35,9 +35,16 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import io.github.linagora.linid.im.corelib.exception.ApiException;
 import io.github.linagora.linid.im.corelib.plugin.config.dto.AuthenticationConfiguration;
 import io.github.linagora.linid.im.corelib.plugin.task.TaskExecutionContext;
+import io.github.linagora.linid.im.oiap.cache.RejectedTokenCache;
+import io.github.linagora.linid.im.oiap.cache.ValidatedTokenCache;
+import io.github.linagora.linid.im.oiap.jwks.JWKSetStoreRegistry;
+import io.github.linagora.linid.im.oiap.metrics.AuthenticationMetrics;
 import io.github.linagora.linid.im.oiap.model.OIDCPluginConfigurationFactory;
 import io.github.linagora.linid.im.oiap.processor.AccessTokenProcessorFactory;
 import io.github.linagora.linid.im.oiap.processor.JWSProcessor;
+import io.github.linagora.linid.im.oiap.processor.JWTProcessorRegistry;
+import io.github.linagora.linid.im.oiap.revocation.RevocationStore;
+import io.github.linagora.linid.im.oiap.userinfo.UserInfoEnricher;
 import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.net.URI;
@@ -109,9 +116,13 @@ class OIDCAuthenticationPluginE2ETest {
   @BeforeEach
   void setUp() {
     var configurationFactory = new OIDCPluginConfigurationFactory();
-    var jwsProcessor = new JWSProcessor();
+    var jwsProcessor = new JWSProcessor(
+        new JWTProcessorRegistry(), new JWKSetStoreRegistry(new AuthenticationMetrics()),
+        new RejectedTokenCache(), new AuthenticationMetrics());
     var processorFactory = new AccessTokenProcessorFactory(List.of(jwsProcessor));
-    plugin = new OIDCAuthenticationPlugin(configurationFactory, processorFactory);
+    plugin = new OIDCAuthenticationPlugin(
+        configurationFactory, processorFactory, new ValidatedTokenCache(), new RevocationStore(),
+        new UserInfoEnricher(), new AuthenticationMetrics());
   }
 
   @Test
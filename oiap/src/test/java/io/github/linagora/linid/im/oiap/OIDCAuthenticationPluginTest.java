@@ -36,12 +36,18 @@ import io.github.linagora.linid.im.corelib.exception.ApiException;
 import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
 import io.github.linagora.linid.im.corelib.plugin.config.dto.AuthenticationConfiguration;
 import io.github.linagora.linid.im.corelib.plugin.task.TaskExecutionContext;
+import io.github.linagora.linid.im.oiap.cache.ValidatedTokenCache;
+import io.github.linagora.linid.im.oiap.metrics.AuthenticationMetrics;
 import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
 import io.github.linagora.linid.im.oiap.model.OIDCPluginConfigurationFactory;
+import io.github.linagora.linid.im.oiap.model.TokenCacheConfiguration;
 import io.github.linagora.linid.im.oiap.model.TokenType;
 import io.github.linagora.linid.im.oiap.processor.AccessTokenProcessor;
 import io.github.linagora.linid.im.oiap.processor.AccessTokenProcessorFactory;
+import io.github.linagora.linid.im.oiap.revocation.RevocationStore;
+import io.github.linagora.linid.im.oiap.userinfo.UserInfoEnricher;
 import jakarta.servlet.http.HttpServletRequest;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -67,6 +73,7 @@ class OIDCAuthenticationPluginTest {
   private OIDCPluginConfigurationFactory configurationFactory;
   private AccessTokenProcessorFactory processorFactory;
   private AccessTokenProcessor processor;
+  private RevocationStore revocations;
   private OIDCAuthenticationPlugin plugin;
 
   @BeforeEach
@@ -74,9 +81,12 @@ class OIDCAuthenticationPluginTest {
     configurationFactory = Mockito.mock(OIDCPluginConfigurationFactory.class);
     processorFactory = Mockito.mock(AccessTokenProcessorFactory.class);
     processor = Mockito.mock(AccessTokenProcessor.class);
-    Mockito.when(configurationFactory.create(Mockito.any())).thenReturn(DEFAULT_CONFIG);
+    Mockito.when(configurationFactory.get(Mockito.any())).thenReturn(DEFAULT_CONFIG);
     Mockito.when(processorFactory.getProcessor(Mockito.any())).thenReturn(processor);
-    plugin = new OIDCAuthenticationPlugin(configurationFactory, processorFactory);
+    revocations = new RevocationStore();
+    plugin = new OIDCAuthenticationPlugin(
+        configurationFactory, processorFactory, new ValidatedTokenCache(), revocations,
+        new UserInfoEnricher(), new AuthenticationMetrics());
   }
 
   @Test
@@ -268,6 +278,33 @@ class OIDCAuthenticationPluginTest {
     assertEquals("admin", claims.get("roles"));
   }
 
+  @Test
+  @DisplayName("test validateToken: should propagate nested claims addressed by a claim path")
+  void testValidateTokenPropagateNestedClaims() {
+    OIDCPluginConfiguration nestedConfig = new OIDCPluginConfiguration(
+        DEFAULT_CONFIG.issuerURI(), DEFAULT_CONFIG.audience(), DEFAULT_CONFIG.tokenType(),
+        List.of("sub", "realm_access.roles"), List.of("resource_access.app.roles"));
+    Mockito.when(configurationFactory.get(Mockito.any())).thenReturn(nestedConfig);
+    Mockito.when(processor.process(Mockito.anyString(), Mockito.any()))
+        .thenReturn(
+            Map.of(
+                "sub", "user123",
+                "realm_access", Map.of("roles", List.of("admin")),
+                "resource_access", Map.of("app", Map.of("roles", List.of("reader")))));
+
+    var context = new TaskExecutionContext();
+    var request = requestWithToken("some.token");
+
+    assertDoesNotThrow(
+        () -> plugin.validateToken(new AuthenticationConfiguration(), request, context));
+
+    @SuppressWarnings("unchecked")
+    Map<String, Object> claims = (Map<String, Object>) context.get("claims");
+    assertEquals(List.of("admin"), claims.get("realm_access.roles"));
+    assertEquals(List.of("reader"), claims.get("resource_access.app.roles"));
+    assertFalse(claims.containsKey("realm_access"));
+  }
+
   @Test
   @DisplayName("test validateToken: should not propagate claims outside the allowed list")
   void testValidateTokenNotPropagateClaimsOutsideAllowedList() {
@@ -331,6 +368,76 @@ class OIDCAuthenticationPluginTest {
     assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), exception.getStatusCode());
   }
 
+  @Test
+  @DisplayName("test validateToken: should validate a token only once when the token cache is enabled")
+  void testValidateTokenUsesTokenCacheWhenEnabled() {
+    OIDCPluginConfiguration cachingConfig = DEFAULT_CONFIG.toBuilder()
+        .tokenCache(new TokenCacheConfiguration(true, null, null))
+        .build();
+    Mockito.when(configurationFactory.get(Mockito.any())).thenReturn(cachingConfig);
+    Mockito.when(processor.process(Mockito.anyString(), Mockito.any()))
+        .thenReturn(Map.of(
+            "sub", "user123",
+            "email", "user@example.com",
+            "exp", new Date(System.currentTimeMillis() + 60_000L)));
+
+    var request = requestWithToken("some.token");
+    plugin.validateToken(new AuthenticationConfiguration(), request, new TaskExecutionContext());
+    var context = new TaskExecutionContext();
+    plugin.validateToken(new AuthenticationConfiguration(), request, context);
+
+    Mockito.verify(processor, Mockito.times(1)).process(Mockito.anyString(), Mockito.any());
+    @SuppressWarnings("unchecked")
+    Map<String, Object> claims = (Map<String, Object>) context.get("claims");
+    assertEquals("user123", claims.get("sub"));
+  }
+
+  @Test
+  @DisplayName("test validateToken: should reject a cached token once it has been revoked")
+  void testValidateTokenRejectsRevokedCachedToken() {
+    OIDCPluginConfiguration cachingConfig = DEFAULT_CONFIG.toBuilder()
+        .tokenCache(new TokenCacheConfiguration(true, null, null))
+        .build();
+    Mockito.when(configurationFactory.get(Mockito.any())).thenReturn(cachingConfig);
+    Mockito.when(processor.process(Mockito.anyString(), Mockito.any()))
+        .thenReturn(Map.of(
+            "sub", "user123",
+            "email", "user@example.com",
+            "jti", "token-1",
+            "exp", new Date(System.currentTimeMillis() + 60_000L)));
+
+    var request = requestWithToken("some.token");
+    plugin.validateToken(new AuthenticationConfiguration(), request, new TaskExecutionContext());
+    revocations.revokeToken("token-1", null);
+
+    ApiException exception =
+        assertThrows(
+            ApiException.class,
+            () ->
+                plugin.validateToken(
+                    new AuthenticationConfiguration(), request, new TaskExecutionContext()));
+
+    assertEquals(HttpStatus.UNAUTHORIZED.value(), exception.getStatusCode());
+    assertEquals(INVALID_TOKEN, exception.getError().key());
+    Mockito.verify(processor, Mockito.times(1)).process(Mockito.anyString(), Mockito.any());
+  }
+
+  @Test
+  @DisplayName("test validateToken: should validate the token on each call when the token cache is disabled")
+  void testValidateTokenBypassesTokenCacheWhenDisabled() {
+    Mockito.when(processor.process(Mockito.anyString(), Mockito.any()))
+        .thenReturn(Map.of(
+            "sub", "user123",
+            "email", "user@example.com",
+            "exp", new Date(System.currentTimeMillis() + 60_000L)));
+
+    var request = requestWithToken("some.token");
+    plugin.validateToken(new AuthenticationConfiguration(), request, new TaskExecutionContext());
+    plugin.validateToken(new AuthenticationConfiguration(), request, new TaskExecutionContext());
+
+    Mockito.verify(processor, Mockito.times(2)).process(Mockito.anyString(), Mockito.any());
+  }
+
   private HttpServletRequest requestWithToken(String token) {
     var request = Mockito.mock(HttpServletRequest.class);
     Mockito.when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
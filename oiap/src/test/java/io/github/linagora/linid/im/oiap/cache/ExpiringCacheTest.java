@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.linagora.linid.im.oiap.MutableClock;
+import java.time.Duration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test class: ExpiringCache")
+class ExpiringCacheTest {
+
+  private final MutableClock clock = new MutableClock();
+
+  @Test
+  @DisplayName("test get: should return cached value until it expires")
+  void testGetReturnsValueUntilExpiration() {
+    ExpiringCache<String, String> cache = new ExpiringCache<>(10, 1_000L, clock);
+    cache.put("key", "value", clock.millis() + 1_000L, 1L);
+
+    assertEquals("value", cache.get("key"));
+    clock.advance(Duration.ofSeconds(1));
+    assertNull(cache.get("key"));
+    assertEquals(0, cache.size());
+    assertEquals(0L, cache.weight());
+    assertEquals(1L, cache.hitCount());
+    assertEquals(1L, cache.missCount());
+  }
+
+  @Test
+  @DisplayName("test put: should ignore values already expired or heavier than the maximum weight")
+  void testPutIgnoresExpiredAndOversizedValues() {
+    ExpiringCache<String, String> cache = new ExpiringCache<>(10, 100L, clock);
+    cache.put("expired", "value", clock.millis(), 1L);
+    cache.put("oversized", "value", clock.millis() + 1_000L, 101L);
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  @DisplayName("test put: should evict entries when the maximum number of entries is exceeded")
+  void testPutEvictsWhenMaxEntriesExceeded() {
+    ExpiringCache<Integer, String> cache = new ExpiringCache<>(10, 1_000L, clock);
+    for (int i = 0; i < 11; i++) {
+      cache.put(i, "value", clock.millis() + 1_000L, 1L);
+    }
+
+    assertTrue(cache.size() <= 9);
+    assertEquals(cache.size(), cache.weight());
+  }
+
+  @Test
+  @DisplayName("test put: should evict entries when the maximum weight is exceeded")
+  void testPutEvictsWhenMaxWeightExceeded() {
+    ExpiringCache<Integer, String> cache = new ExpiringCache<>(100, 100L, clock);
+    for (int i = 0; i < 5; i++) {
+      cache.put(i, "value", clock.millis() + 1_000L, 30L);
+    }
+
+    assertTrue(cache.weight() <= 90L);
+  }
+
+  @Test
+  @DisplayName("test put: should purge expired entries before evicting live ones")
+  void testPutPurgesExpiredEntriesFirst() {
+    ExpiringCache<Integer, String> cache = new ExpiringCache<>(2, 1_000L, clock);
+    cache.put(1, "short", clock.millis() + 1_000L, 1L);
+    cache.put(2, "short", clock.millis() + 1_000L, 1L);
+    clock.advance(Duration.ofSeconds(2));
+    cache.put(3, "long", clock.millis() + 1_000L, 1L);
+
+    assertEquals("long", cache.get(3));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  @DisplayName("test invalidate: should remove the entry and its weight")
+  void testInvalidateRemovesEntry() {
+    ExpiringCache<String, String> cache = new ExpiringCache<>(10, 1_000L, clock);
+    cache.put("key", "value", clock.millis() + 1_000L, 5L);
+    cache.put("other", "value", clock.millis() + 1_000L, 5L);
+
+    cache.invalidate("key");
+    assertNull(cache.get("key"));
+    assertEquals(5L, cache.weight());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0L, cache.weight());
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.linagora.linid.im.oiap.MutableClock;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.TokenType;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test class: RejectedTokenCache")
+class RejectedTokenCacheTest {
+
+  private static final OIDCPluginConfiguration CONFIG = new OIDCPluginConfiguration(
+      "https://issuer.example.com", "audience", TokenType.JWS, List.of("sub"), List.of());
+
+  private final MutableClock clock = new MutableClock();
+  private final RejectedTokenCache cache = new RejectedTokenCache(clock);
+
+  @Test
+  @DisplayName("test contains: should remember a rejected token")
+  void testContainsRejectedToken() {
+    cache.put("rejected.token.value", CONFIG);
+
+    assertTrue(cache.contains("rejected.token.value", CONFIG));
+    assertFalse(cache.contains("other.token.value", CONFIG));
+    assertEquals(1, cache.hitCount());
+    assertEquals(1, cache.missCount());
+  }
+
+  @Test
+  @DisplayName("test contains: should forget a rejected token after the rejection TTL")
+  void testContainsForgetsExpiredRejection() {
+    cache.put("rejected.token.value", CONFIG);
+    clock.advance(Duration.ofMillis(RejectedTokenCache.REJECTION_TTL + 1));
+
+    assertFalse(cache.contains("rejected.token.value", CONFIG));
+  }
+
+  @Test
+  @DisplayName("test contains: should scope rejections to the issuer and audience")
+  void testContainsIsScopedToConfiguration() {
+    OIDCPluginConfiguration other = new OIDCPluginConfiguration(
+        "https://issuer.example.com", "other", TokenType.JWS, List.of("sub"), List.of());
+
+    cache.put("rejected.token.value", CONFIG);
+
+    assertFalse(cache.contains("rejected.token.value", other));
+  }
+
+  @Test
+  @DisplayName("test put: should stay bounded by the maximum number of entries")
+  void testPutStaysBounded() {
+    for (int i = 0; i <= RejectedTokenCache.MAX_ENTRIES; i++) {
+      cache.put("rejected.token." + i, CONFIG);
+    }
+
+    assertTrue(cache.size() <= RejectedTokenCache.MAX_ENTRIES);
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test class: SingleFlight")
+class SingleFlightTest {
+
+  private static final Supplier<RuntimeException> TIMEOUT = () -> new UnsupportedOperationException("timeout");
+
+  private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+  @Test
+  @DisplayName("test execute: should share a call between concurrent requests for the same key")
+  void testExecuteSharesConcurrentCalls() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Future<String> first = executor.submit(() -> singleFlight.execute("key", () -> {
+        calls.incrementAndGet();
+        started.countDown();
+        await(release);
+        return "value";
+      }, 5_000L, TIMEOUT));
+      started.await(5, TimeUnit.SECONDS);
+      List<Future<String>> others = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        others.add(executor.submit(() -> singleFlight.execute("key", () -> {
+          calls.incrementAndGet();
+          return "other";
+        }, 5_000L, TIMEOUT)));
+      }
+      Thread.sleep(100);
+      release.countDown();
+
+      assertEquals("value", first.get(5, TimeUnit.SECONDS));
+      for (Future<String> other : others) {
+        assertEquals("value", other.get(5, TimeUnit.SECONDS));
+      }
+      assertEquals(1, calls.get());
+      assertEquals(0, singleFlight.inFlight());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("test execute: should start a new call once the previous one has completed")
+  void testExecuteDoesNotRetainResults() {
+    assertEquals("first", singleFlight.execute("key", () -> "first", 1_000L, TIMEOUT));
+    assertEquals("second", singleFlight.execute("key", () -> "second", 1_000L, TIMEOUT));
+  }
+
+  @Test
+  @DisplayName("test execute: should rethrow the exception of the loader")
+  void testExecuteRethrowsLoaderException() {
+    IllegalStateException failure = new IllegalStateException("failure");
+
+    IllegalStateException exception = assertThrows(
+        IllegalStateException.class, () -> singleFlight.execute("key", () -> {
+          throw failure;
+        }, 1_000L, TIMEOUT));
+
+    assertSame(failure, exception);
+    assertEquals(0, singleFlight.inFlight());
+  }
+
+  @Test
+  @DisplayName("test execute: should stop waiting for a call in flight after the maximum wait")
+  void testExecuteBoundsTheWait() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<String> first = executor.submit(() -> singleFlight.execute("key", () -> {
+        started.countDown();
+        await(release);
+        return "value";
+      }, 5_000L, TIMEOUT));
+      started.await(5, TimeUnit.SECONDS);
+
+      assertThrows(UnsupportedOperationException.class,
+          () -> singleFlight.execute("key", () -> "other", 50L, TIMEOUT));
+      assertTrue(singleFlight.isInFlight("key"));
+
+      release.countDown();
+      assertEquals("value", first.get(5, TimeUnit.SECONDS));
+      assertFalse(singleFlight.isInFlight("key"));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.linagora.linid.im.oiap.MutableClock;
+import io.github.linagora.linid.im.oiap.model.IssuerConfiguration;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.TokenCacheConfiguration;
+import io.github.linagora.linid.im.oiap.model.TokenType;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test class: ValidatedTokenCache")
+class ValidatedTokenCacheTest {
+
+  private final MutableClock clock = new MutableClock();
+  private final ValidatedTokenCache cache = new ValidatedTokenCache(clock);
+
+  private static OIDCPluginConfiguration config(String audience, TokenCacheConfiguration tokenCache) {
+    return OIDCPluginConfiguration.builder("https://issuer.example.com", audience, TokenType.JWS)
+        .requiredClaims(List.of("sub"))
+        .tokenCache(tokenCache)
+        .build();
+  }
+
+  private Map<String, Object> claimsExpiringIn(Duration duration) {
+    return Map.of("sub", "user123", "exp", Date.from(clock.instant().plus(duration)));
+  }
+
+  @Test
+  @DisplayName("test get: should return nothing when the cache is disabled")
+  void testGetReturnsNullWhenDisabled() {
+    OIDCPluginConfiguration config = config("audience", TokenCacheConfiguration.DISABLED);
+    cache.put("token", config, claimsExpiringIn(Duration.ofMinutes(1)));
+
+    assertNull(cache.get("token", config));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  @DisplayName("test get: should return cached claims until the token expires")
+  void testGetReturnsClaimsUntilExpiration() {
+    OIDCPluginConfiguration config = config("audience", new TokenCacheConfiguration(true, null, null));
+    Map<String, Object> claims = claimsExpiringIn(Duration.ofMinutes(1));
+    cache.put("token", config, claims);
+
+    assertEquals(claims, cache.get("token", config));
+    clock.advance(Duration.ofMinutes(1));
+    assertNull(cache.get("token", config));
+    assertEquals(1L, cache.hitCount());
+    assertEquals(1L, cache.missCount());
+  }
+
+  @Test
+  @DisplayName("test get: should not share entries between audiences")
+  void testGetIsScopedByAudience() {
+    TokenCacheConfiguration settings = new TokenCacheConfiguration(true, null, null);
+    cache.put("token", config("audience", settings), claimsExpiringIn(Duration.ofMinutes(1)));
+
+    assertNull(cache.get("token", config("other", settings)));
+  }
+
+  @Test
+  @DisplayName("test get: should drop cached tokens once an issuer is removed from the configuration")
+  void testGetDropsEntriesWhenIssuersChange() {
+    String partner = "https://partner.example.com";
+    OIDCPluginConfiguration config = config("audience", new TokenCacheConfiguration(true, null, null));
+    OIDCPluginConfiguration withPartner = config.toBuilder()
+        .issuers(Map.of(
+            config.issuerURI(), new IssuerConfiguration(config.issuerURI(), "audience"),
+            partner, new IssuerConfiguration(partner, "audience")))
+        .build();
+    Map<String, Object> claims = claimsExpiringIn(Duration.ofMinutes(1));
+    cache.put("token", withPartner, claims);
+    assertEquals(claims, cache.get("token", withPartner));
+
+    OIDCPluginConfiguration withoutPartner = withPartner.toBuilder().issuers(config.issuers()).build();
+
+    assertNull(cache.get("token", withoutPartner));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  @DisplayName("test put: should not cache tokens without expiration")
+  void testPutIgnoresTokensWithoutExpiration() {
+    OIDCPluginConfiguration config = config("audience", new TokenCacheConfiguration(true, null, null));
+    cache.put("token", config, Map.of("sub", "user123"));
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  @DisplayName("test put: should honour the maximum number of entries")
+  void testPutHonoursMaxEntries() {
+    OIDCPluginConfiguration config = config("audience", new TokenCacheConfiguration(true, 10, null));
+    for (int i = 0; i < 20; i++) {
+      cache.put("token" + i, config, claimsExpiringIn(Duration.ofMinutes(1)));
+    }
+
+    assertTrue(cache.size() <= 10);
+  }
+
+  @Test
+  @DisplayName("test expirationOf: should read exp as a date, an instant or a number of seconds")
+  void testExpirationOf() {
+    assertEquals(Long.valueOf(5_000L), ValidatedTokenCache.expirationOf(Map.of("exp", new Date(5_000L))));
+    assertEquals(Long.valueOf(5_000L), ValidatedTokenCache.expirationOf(Map.of("exp", Instant.ofEpochSecond(5))));
+    assertEquals(Long.valueOf(5_000L), ValidatedTokenCache.expirationOf(Map.of("exp", 5L)));
+    assertNull(ValidatedTokenCache.expirationOf(Map.of("exp", "soon")));
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.claims;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("Test class: ClaimExtractionPlan")
+class ClaimExtractionPlanTest {
+
+  private static final Map<String, Object> CLAIMS = Map.of(
+      "sub", "user123",
+      "realm_access", Map.of("roles", List.of("admin", "user")),
+      "resource_access", Map.of("app", Map.of("roles", List.of("reader"))),
+      "https://example.com/tenant", "acme",
+      "blank", " ");
+
+  @Test
+  @DisplayName("test extract: should resolve top-level claims and nested claim paths")
+  void testExtractResolvesNestedPaths() {
+    ClaimExtractionPlan plan = ClaimExtractionPlan.compile(
+        List.of("sub", "realm_access.roles"), List.of("resource_access.app.roles", "sub"));
+
+    Map<String, Object> extracted = plan.extract(CLAIMS);
+
+    assertEquals(3, extracted.size());
+    assertEquals("user123", extracted.get("sub"));
+    assertEquals(List.of("admin", "user"), extracted.get("realm_access.roles"));
+    assertEquals(List.of("reader"), extracted.get("resource_access.app.roles"));
+  }
+
+  @Test
+  @DisplayName("test extract: should prefer a top-level claim whose name contains dots")
+  void testExtractPrefersDottedTopLevelClaim() {
+    ClaimExtractionPlan plan = ClaimExtractionPlan.compile(List.of(), List.of("https://example.com/tenant"));
+
+    assertEquals("acme", plan.extract(CLAIMS).get("https://example.com/tenant"));
+  }
+
+  @Test
+  @DisplayName("test extract: should omit paths that are absent or cross a non-object value")
+  void testExtractOmitsUnresolvedPaths() {
+    ClaimExtractionPlan plan = ClaimExtractionPlan.compile(
+        List.of(), List.of("realm_access.groups", "sub.name", "missing.roles"));
+
+    assertTrue(plan.extract(CLAIMS).isEmpty());
+  }
+
+  @Test
+  @DisplayName("test findMissingRequiredClaim: should report the first missing or blank required claim")
+  void testFindMissingRequiredClaim() {
+    assertNull(ClaimExtractionPlan.compile(List.of("sub", "realm_access.roles"), List.of())
+        .findMissingRequiredClaim(CLAIMS));
+    assertEquals("realm_access.groups",
+        ClaimExtractionPlan.compile(List.of("sub", "realm_access.groups"), List.of())
+            .findMissingRequiredClaim(CLAIMS));
+    assertEquals("blank",
+        ClaimExtractionPlan.compile(List.of("blank"), List.of()).findMissingRequiredClaim(CLAIMS));
+  }
+
+  @Test
+  @DisplayName("test isCompiledFrom: should match equal claim lists only")
+  void testIsCompiledFrom() {
+    List<String> required = List.of("sub");
+    List<String> optional = List.of("email");
+    ClaimExtractionPlan plan = ClaimExtractionPlan.compile(required, optional);
+
+    assertTrue(plan.isCompiledFrom(required, optional));
+    assertTrue(plan.isCompiledFrom(new ArrayList<>(required), new ArrayList<>(optional)));
+    assertFalse(plan.isCompiledFrom(required, List.of("email", "roles")));
+  }
+}
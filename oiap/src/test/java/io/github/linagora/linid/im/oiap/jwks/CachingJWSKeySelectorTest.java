@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.jwks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.github.linagora.linid.im.oiap.MutableClock;
+import java.security.Key;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+@DisplayName("Test class: CachingJWSKeySelector")
+class CachingJWSKeySelectorTest {
+
+  private static RSAKey rsaKey;
+  private static ECKey ecKey;
+  private static RSAKey rotatedKey;
+
+  private final MutableClock clock = new MutableClock();
+  private final AtomicReference<JWKSet> published = new AtomicReference<>();
+  private final JWKSetStore store = new JWKSetStore("test", published::get, 300_000L, 30_000L, 1_000L,
+      Mockito.mock(ScheduledExecutorService.class), clock);
+
+  @BeforeAll
+  static void generateKeys() throws Exception {
+    rsaKey = new RSAKeyGenerator(2048).keyID("rsa").generate();
+    ecKey = new ECKeyGenerator(Curve.P_256).keyID("ec").generate();
+    rotatedKey = new RSAKeyGenerator(2048).keyID("rotated").generate();
+  }
+
+  @Test
+  @DisplayName("test selectJWSKeys: should reuse the same public key and verifier for a key ID")
+  void testSelectReusesCachedVerifier() throws Exception {
+    published.set(new JWKSet(List.<JWK>of(rsaKey.toPublicJWK(), ecKey.toPublicJWK())));
+    CachingJWSKeySelector selector = CachingJWSKeySelector.fromJWKSetStore(store);
+    SignedJWT token = sign(new RSASSASigner(rsaKey), JWSAlgorithm.RS256, "rsa");
+
+    Key first = selector.selectJWSKeys(token.getHeader(), null).get(0);
+    Key second = selector.selectJWSKeys(token.getHeader(), null).get(0);
+    JWSVerifier verifier = selector.createJWSVerifier(token.getHeader(), first);
+
+    assertSame(first, second);
+    assertSame(verifier, selector.createJWSVerifier(token.getHeader(), second));
+    assertTrue(token.verify(verifier));
+    assertEquals(2, store.verifiers().size());
+  }
+
+  @Test
+  @DisplayName("test selectJWSKeys: should serve cached verifiers for EC keys")
+  void testSelectServesEcKeys() throws Exception {
+    published.set(new JWKSet(List.<JWK>of(rsaKey.toPublicJWK(), ecKey.toPublicJWK())));
+    CachingJWSKeySelector selector = CachingJWSKeySelector.fromJWKSetStore(store);
+    SignedJWT token = sign(new ECDSASigner(ecKey), JWSAlgorithm.ES256, "ec");
+
+    List<? extends Key> keys = selector.selectJWSKeys(token.getHeader(), null);
+
+    assertEquals(1, keys.size());
+    assertTrue(token.verify(selector.createJWSVerifier(token.getHeader(), keys.get(0))));
+  }
+
+  @Test
+  @DisplayName("test selectJWSKeys: should select keys without key ID without caching them")
+  void testSelectServesKeysWithoutKeyId() throws Exception {
+    RSAKey anonymous = new RSAKeyGenerator(2048).generate();
+    published.set(new JWKSet(anonymous.toPublicJWK()));
+    CachingJWSKeySelector selector = CachingJWSKeySelector.fromJWKSetStore(store);
+    SignedJWT token = sign(new RSASSASigner(anonymous), JWSAlgorithm.RS256, null);
+
+    List<? extends Key> keys = selector.selectJWSKeys(token.getHeader(), null);
+
+    assertEquals(1, keys.size());
+    assertTrue(token.verify(selector.createJWSVerifier(token.getHeader(), keys.get(0))));
+    assertEquals(0, store.verifiers().size());
+  }
+
+  @Test
+  @DisplayName("test selectJWSKeys: should drop the verifiers of rotated keys")
+  void testSelectDropsRotatedKeys() throws Exception {
+    published.set(new JWKSet(rsaKey.toPublicJWK()));
+    CachingJWSKeySelector selector = CachingJWSKeySelector.fromJWKSetStore(store);
+    Key previous = selector.selectJWSKeys(
+        sign(new RSASSASigner(rsaKey), JWSAlgorithm.RS256, "rsa").getHeader(), null).get(0);
+
+    published.set(new JWKSet(rotatedKey.toPublicJWK()));
+    clock.advance(Duration.ofSeconds(31));
+    SignedJWT token = sign(new RSASSASigner(rotatedKey), JWSAlgorithm.RS256, "rotated");
+    Key current = selector.selectJWSKeys(token.getHeader(), null).get(0);
+
+    assertNotSame(previous, current);
+    assertEquals(1, store.verifiers().size());
+    assertTrue(token.verify(selector.createJWSVerifier(token.getHeader(), current)));
+  }
+
+  @Test
+  @DisplayName("test selectJWSKeys: should select no key for an unsupported algorithm")
+  void testSelectIgnoresUnsupportedAlgorithm() throws Exception {
+    published.set(new JWKSet(rsaKey.toPublicJWK()));
+    CachingJWSKeySelector selector = CachingJWSKeySelector.fromJWKSetStore(store);
+
+    assertTrue(selector.selectJWSKeys(
+        new JWSHeader.Builder(JWSAlgorithm.HS256).keyID("rsa").build(), null).isEmpty());
+  }
+
+  @Test
+  @DisplayName("test fromJWKSetStore: should throw KeySourceException when no signing key is published")
+  void testFromJWKSetStoreThrowsWithoutKeys() {
+    published.set(new JWKSet());
+
+    assertThrows(KeySourceException.class, () -> CachingJWSKeySelector.fromJWKSetStore(store));
+  }
+
+  private static SignedJWT sign(JWSSigner signer, JWSAlgorithm algorithm, String keyID) throws Exception {
+    SignedJWT token = new SignedJWT(
+        new JWSHeader.Builder(algorithm).keyID(keyID).build(),
+        new JWTClaimsSet.Builder().subject("user").build());
+    token.sign(signer);
+    return token;
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.jwks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+@DisplayName("Test class: FileJWKSetLoader")
+class FileJWKSetLoaderTest {
+
+  private static RSAKey firstKey;
+  private static RSAKey secondKey;
+
+  @TempDir
+  Path directory;
+
+  @BeforeAll
+  static void generateKeys() throws Exception {
+    firstKey = new RSAKeyGenerator(2048).keyID("first").generate().toPublicJWK();
+    secondKey = new RSAKeyGenerator(2048).keyID("second").generate().toPublicJWK();
+  }
+
+  @Test
+  @DisplayName("test load: should serve the same JWK Set while the file is unchanged")
+  void testLoadReusesUnchangedFile() throws Exception {
+    Path file = Files.writeString(directory.resolve("jwks.json"), new JWKSet(firstKey).toString());
+    FileJWKSetLoader loader = new FileJWKSetLoader(file);
+
+    JWKSet first = loader.load();
+
+    assertSame(first, loader.load());
+    assertEquals("first", first.getKeys().get(0).getKeyID());
+  }
+
+  @Test
+  @DisplayName("test load: should parse the file again once it has changed")
+  void testLoadReloadsChangedFile() throws Exception {
+    Path file = Files.writeString(directory.resolve("jwks.json"), new JWKSet(firstKey).toString());
+    FileJWKSetLoader loader = new FileJWKSetLoader(file);
+    JWKSet first = loader.load();
+
+    Files.writeString(file, new JWKSet(List.<JWK>of(firstKey, secondKey)).toString());
+    JWKSet second = loader.load();
+
+    assertNotSame(first, second);
+    assertEquals(2, second.size());
+  }
+
+  @Test
+  @DisplayName("test load: should throw IOException when the file does not exist")
+  void testLoadThrowsForMissingFile() {
+    FileJWKSetLoader loader = new FileJWKSetLoader(directory.resolve("missing.json"));
+
+    assertThrows(IOException.class, loader::load);
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.jwks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.github.linagora.linid.im.oiap.MutableClock;
+import io.github.linagora.linid.im.oiap.metrics.AuthenticationMetrics;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.StaticKeysConfiguration;
+import io.github.linagora.linid.im.oiap.model.TokenType;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+@DisplayName("Test class: JWKSetStoreRegistry")
+class JWKSetStoreRegistryTest {
+
+  private final JWKSetStoreRegistry registry = new JWKSetStoreRegistry(
+      Mockito.mock(ScheduledExecutorService.class), new MutableClock(), new AuthenticationMetrics());
+
+  private static OIDCPluginConfiguration config(String issuerURI, Map<String, Object> jwks) {
+    return OIDCPluginConfiguration.builder(issuerURI, "audience", TokenType.JWS)
+        .staticKeys(new StaticKeysConfiguration(jwks, null, null))
+        .build();
+  }
+
+  @Test
+  @DisplayName("test getStaticStore: should not share a store between inline JWK Sets with the same hash code")
+  void testGetStaticStoreSeparatesCollidingJwkSets() {
+    Map<String, Object> first = Map.of("keys", List.of(), "note", "Aa");
+    Map<String, Object> second = Map.of("keys", List.of(), "note", "BB");
+
+    JWKSetStore firstStore = registry.getStaticStore(config("https://first.example.com", first));
+    JWKSetStore secondStore = registry.getStaticStore(config("https://second.example.com", second));
+
+    assertEquals(first.hashCode(), second.hashCode());
+    assertNotSame(firstStore, secondStore);
+    assertSame(firstStore, registry.getStaticStore(config("https://first.example.com", first)));
+    assertEquals(2, registry.size());
+  }
+
+  @Test
+  @DisplayName("test getStaticStore: should drop the store of a replaced inline JWK Set")
+  void testGetStaticStoreDropsReplacedStore() {
+    Map<String, Object> shared = Map.of("keys", List.of(), "note", "shared");
+
+    registry.getStaticStore(config("https://first.example.com", Map.of("keys", List.of(), "note", "old")));
+    registry.getStaticStore(config("https://second.example.com", shared));
+    registry.getStaticStore(config("https://first.example.com", shared));
+
+    assertEquals(1, registry.size());
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.jwks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import io.github.linagora.linid.im.oiap.MutableClock;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+@DisplayName("Test class: JWKSetStore")
+class JWKSetStoreTest {
+
+  private static RSAKey firstKey;
+  private static RSAKey secondKey;
+
+  private final MutableClock clock = new MutableClock();
+  private final ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+  private final AtomicInteger loads = new AtomicInteger();
+  private final AtomicReference<JWKSet> published = new AtomicReference<>();
+
+  @BeforeAll
+  static void generateKeys() throws Exception {
+    firstKey = new RSAKeyGenerator(2048).keyID("first").generate().toPublicJWK();
+    secondKey = new RSAKeyGenerator(2048).keyID("second").generate().toPublicJWK();
+  }
+
+  @Test
+  @DisplayName("test get: should load the JWK Set once and serve subsequent lookups from memory")
+  void testGetLoadsOnce() throws Exception {
+    published.set(new JWKSet(firstKey));
+    JWKSetStore store = newStore();
+
+    store.get(selectorFor("first"), null);
+    store.get(selectorFor("first"), null);
+
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  @DisplayName("test get: should refetch the JWK Set once when an unknown key is requested")
+  void testGetRefetchesOnUnknownKey() throws Exception {
+    published.set(new JWKSet(firstKey));
+    JWKSetStore store = newStore();
+    store.get(selectorFor("first"), null);
+
+    published.set(new JWKSet(List.<JWK>of(firstKey, secondKey)));
+    clock.advance(Duration.ofSeconds(31));
+    List<JWK> matches = store.get(selectorFor("second"), null);
+
+    assertEquals(1, matches.size());
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  @DisplayName("test get: should rate-limit refetches triggered by unknown keys")
+  void testGetRateLimitsRefetches() throws Exception {
+    published.set(new JWKSet(firstKey));
+    JWKSetStore store = newStore();
+    store.get(selectorFor("first"), null);
+    clock.advance(Duration.ofSeconds(31));
+
+    store.get(selectorFor("unknown"), null);
+    List<JWK> matches = store.get(selectorFor("unknown"), null);
+
+    assertTrue(matches.isEmpty());
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  @DisplayName("test get: should throw KeySourceException when the initial load fails")
+  void testGetThrowsWhenInitialLoadFails() {
+    JWKSetStore store = new JWKSetStore("test", () -> {
+      throw new IOException("unreachable");
+    }, 300_000L, 30_000L, 1_000L, scheduler, clock);
+
+    assertThrows(KeySourceException.class, () -> store.get(selectorFor("first"), null));
+  }
+
+  @Test
+  @DisplayName("test get: should rate-limit loads after a failed initial load")
+  void testGetRateLimitsLoadsAfterFailedInitialLoad() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    JWKSetStore store = new JWKSetStore("test", () -> {
+      if (calls.incrementAndGet() == 1) {
+        throw new IOException("unreachable");
+      }
+      return new JWKSet(firstKey);
+    }, 300_000L, 30_000L, 1_000L, scheduler, clock);
+
+    assertThrows(KeySourceException.class, () -> store.get(selectorFor("first"), null));
+    assertThrows(KeySourceException.class, () -> store.get(selectorFor("first"), null));
+    assertEquals(1, calls.get());
+
+    clock.advance(Duration.ofSeconds(30));
+    assertEquals(1, store.get(selectorFor("first"), null).size());
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  @DisplayName("test get: should keep the current JWK Set when a refetch fails")
+  void testGetKeepsCurrentSetWhenRefetchFails() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    JWKSetStore store = new JWKSetStore("test", () -> {
+      if (calls.incrementAndGet() > 1) {
+        throw new IOException("unreachable");
+      }
+      return new JWKSet(firstKey);
+    }, 300_000L, 30_000L, 1_000L, scheduler, clock);
+    store.get(selectorFor("first"), null);
+    clock.advance(Duration.ofSeconds(31));
+
+    assertTrue(store.get(selectorFor("unknown"), null).isEmpty());
+    assertEquals(1, store.get(selectorFor("first"), null).size());
+  }
+
+  @Test
+  @DisplayName("test get: should schedule a background refresh before the JWK Set expires")
+  void testGetSchedulesBackgroundRefresh() throws Exception {
+    published.set(new JWKSet(firstKey));
+    JWKSetStore store = newStore();
+
+    store.get(selectorFor("first"), null);
+
+    Mockito.verify(scheduler)
+        .schedule(Mockito.any(Runnable.class), Mockito.eq(270_000L), Mockito.eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  @DisplayName("test get: should throw JWKSetTimeoutException when a concurrent initial load is too slow")
+  void testGetThrowsWhenConcurrentInitialLoadIsTooSlow() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    JWKSetStore store = new JWKSetStore("test", () -> {
+      started.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return new JWKSet(firstKey);
+    }, 300_000L, 30_000L, 50L, scheduler, clock);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<List<JWK>> slowLoad = executor.submit(() -> store.get(selectorFor("first"), null));
+      started.await(5, TimeUnit.SECONDS);
+
+      assertThrows(JWKSetTimeoutException.class, () -> store.get(selectorFor("first"), null));
+      release.countDown();
+      assertEquals(1, slowLoad.get(5, TimeUnit.SECONDS).size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private JWKSetStore newStore() {
+    return new JWKSetStore("test", () -> {
+      loads.incrementAndGet();
+      return published.get();
+    }, 300_000L, 30_000L, 1_000L, scheduler, clock);
+  }
+
+  private JWKSelector selectorFor(String keyId) {
+    return new JWKSelector(new JWKMatcher.Builder().keyID(keyId).build());
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.linagora.linid.im.oiap.metrics.AuthenticationMetrics.Stage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+@DisplayName("Test class: AuthenticationMetrics")
+class AuthenticationMetricsTest {
+
+  private final AuthenticationMetrics metrics = new AuthenticationMetrics();
+
+  @Test
+  @DisplayName("test start: should not read the clock while no recorder is bound")
+  void testStartWithoutRecorder() {
+    assertFalse(metrics.isEnabled());
+    assertEquals(0L, metrics.start());
+  }
+
+  @Test
+  @DisplayName("test stop: should forward the measurements to the bound recorder")
+  void testStopForwardsToRecorder() {
+    AuthenticationMetrics.Recorder recorder = Mockito.mock(AuthenticationMetrics.Recorder.class);
+    metrics.bind(recorder);
+
+    long start = metrics.start();
+    metrics.stop(Stage.PARSE, start);
+    metrics.rejected("oiap.error.invalid.token");
+
+    assertTrue(metrics.isEnabled());
+    Mockito.verify(recorder).record(Mockito.eq(Stage.PARSE), Mockito.longThat(nanos -> nanos >= 0));
+    Mockito.verify(recorder).rejected("oiap.error.invalid.token");
+  }
+
+  @Test
+  @DisplayName("test stop: should ignore a stage started before the recorder was bound")
+  void testStopIgnoresUntimedStage() {
+    long start = metrics.start();
+    AuthenticationMetrics.Recorder recorder = Mockito.mock(AuthenticationMetrics.Recorder.class);
+    metrics.bind(recorder);
+
+    metrics.stop(Stage.PARSE, start);
+
+    Mockito.verifyNoInteractions(recorder);
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.github.linagora.linid.im.oiap.cache.RejectedTokenCache;
+import io.github.linagora.linid.im.oiap.cache.ValidatedTokenCache;
+import io.github.linagora.linid.im.oiap.jwks.JWKSetStoreRegistry;
+import io.github.linagora.linid.im.oiap.metrics.AuthenticationMetrics.Stage;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.TokenType;
+import io.github.linagora.linid.im.oiap.processor.IntrospectionProcessor;
+import io.github.linagora.linid.im.oiap.processor.JWTProcessorRegistry;
+import io.github.linagora.linid.im.oiap.userinfo.UserInfoEnricher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+@DisplayName("Test class: MicrometerMetricsBinder")
+class MicrometerMetricsBinderTest {
+
+  private static final OIDCPluginConfiguration CONFIG = new OIDCPluginConfiguration(
+      "https://issuer.example.com", "audience", TokenType.JWS, List.of(), List.of());
+
+  private final AuthenticationMetrics metrics = new AuthenticationMetrics();
+  private final RejectedTokenCache rejectedTokens = new RejectedTokenCache();
+  private final JWTProcessorRegistry processors = new JWTProcessorRegistry();
+
+  @SuppressWarnings("unchecked")
+  private void bind(MeterRegistry registry) {
+    ObjectProvider<MeterRegistry> registries = Mockito.mock(ObjectProvider.class);
+    Mockito.when(registries.getIfAvailable()).thenReturn(registry);
+    new MicrometerMetricsBinder(metrics, registries, new ValidatedTokenCache(), rejectedTokens,
+        new IntrospectionProcessor(), new UserInfoEnricher(), processors, new JWKSetStoreRegistry(metrics));
+  }
+
+  @Test
+  @DisplayName("test binder: should keep the metrics disabled without meter registry")
+  void testBinderWithoutRegistry() {
+    bind(null);
+
+    assertFalse(metrics.isEnabled());
+  }
+
+  @Test
+  @DisplayName("test binder: should record the stage timers and the rejections by error key")
+  void testBinderRecordsStagesAndRejections() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    bind(registry);
+
+    metrics.stop(Stage.VERIFICATION, metrics.start());
+    metrics.rejected("oiap.error.invalid.token");
+    metrics.rejected("oiap.error.invalid.token");
+    metrics.rejected("error.plugin.default.missing.option");
+
+    assertTrue(metrics.isEnabled());
+    assertEquals(1, registry.get(MicrometerRecorder.STAGE_TIMER).tag("stage", "verification").timer().count());
+    assertEquals(0, registry.get(MicrometerRecorder.STAGE_TIMER).tag("stage", "parse").timer().count());
+    assertEquals(2, registry.get(MicrometerRecorder.REJECTION_COUNTER)
+        .tag("reason", "oiap.error.invalid.token").counter().count());
+    assertEquals(1, registry.get(MicrometerRecorder.REJECTION_COUNTER)
+        .tag("reason", MicrometerRecorder.OTHER_REASON).counter().count());
+  }
+
+  @Test
+  @DisplayName("test binder: should expose the hits and misses of the caches")
+  void testBinderExposesCacheStatistics() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    bind(registry);
+
+    rejectedTokens.put("rejected.token.value", CONFIG);
+    rejectedTokens.contains("rejected.token.value", CONFIG);
+    rejectedTokens.contains("other.token.value", CONFIG);
+
+    assertEquals(1, registry.get(MicrometerMetricsBinder.CACHE_HITS).tag("cache", "rejected")
+        .functionCounter().count());
+    assertEquals(1, registry.get(MicrometerMetricsBinder.CACHE_MISSES).tag("cache", "rejected")
+        .functionCounter().count());
+    assertEquals(1, registry.get(MicrometerMetricsBinder.CACHE_SIZE).tag("cache", "rejected")
+        .gauge().value());
+    assertEquals(0, registry.get(MicrometerMetricsBinder.CACHE_HITS).tag("cache", "validated")
+        .functionCounter().count());
+  }
+
+  @Test
+  @DisplayName("test binder: should expose the hits and misses of the metadata and result caches")
+  void testBinderExposesMetadataCacheStatistics() {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    bind(registry);
+
+    ConfigurableJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+    processors.getProcessor(CONFIG, config -> processor);
+    processors.getProcessor(CONFIG, config -> processor);
+
+    assertEquals(1, registry.get(MicrometerMetricsBinder.CACHE_HITS).tag("cache", "processors")
+        .functionCounter().count());
+    assertEquals(1, registry.get(MicrometerMetricsBinder.CACHE_MISSES).tag("cache", "processors")
+        .functionCounter().count());
+    assertEquals(1, registry.get(MicrometerMetricsBinder.CACHE_SIZE).tag("cache", "processors")
+        .gauge().value());
+    for (String cache : List.of("introspection", "userinfo", "jwks")) {
+      assertEquals(0, registry.get(MicrometerMetricsBinder.CACHE_MISSES).tag("cache", cache)
+          .functionCounter().count());
+      assertEquals(0, registry.get(MicrometerMetricsBinder.CACHE_SIZE).tag("cache", cache)
+          .gauge().value());
+    }
+  }
+}
@@ -27,12 +27,19 @@
 package io.github.linagora.linid.im.oiap.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.github.linagora.linid.im.corelib.exception.ApiException;
 import io.github.linagora.linid.im.corelib.plugin.config.dto.AuthenticationConfiguration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -59,6 +66,7 @@ class OIDCPluginConfigurationFactoryTest {
     assertEquals(TokenType.JWS, config.tokenType());
     assertEquals(List.of("sub", "email"), config.requiredClaims());
     assertEquals(List.of("scope"), config.optionalClaims());
+    assertFalse(config.staticKeys().isConfigured());
   }
 
   @Test
@@ -166,6 +174,158 @@ class OIDCPluginConfigurationFactoryTest {
     assertEquals("oiap.error.invalid.token.type", exception.getError().key());
   }
 
+  @Test
+  @DisplayName("test create: should index the additional issuers, inheriting the top-level audience")
+  void testCreateWithAdditionalIssuers() {
+    AuthenticationConfiguration authConfig = mockConfiguration(
+        "https://issuer.example.com", "my-audience", "JWS",
+        Optional.of(List.of("sub")), Optional.empty());
+    Mockito.doReturn(Optional.of(List.of(
+            new IssuerConfiguration("https://other.example.com", null),
+            new IssuerConfiguration("https://partner.example.com", "partner-audience"))))
+        .when(authConfig)
+        .getOption(Mockito.eq("issuers"), Mockito.any(TypeReference.class));
+
+    OIDCPluginConfiguration config = factory.create(authConfig);
+
+    assertEquals(
+        List.of("https://issuer.example.com", "https://other.example.com", "https://partner.example.com"),
+        List.copyOf(config.issuers().keySet()));
+    assertSame(config, config.forIssuer("https://issuer.example.com"));
+    assertEquals("my-audience", config.forIssuer("https://other.example.com").audience());
+    OIDCPluginConfiguration partner = config.forIssuer("https://partner.example.com");
+    assertEquals("https://partner.example.com", partner.issuerURI());
+    assertEquals("partner-audience", partner.audience());
+    assertNull(config.forIssuer("https://unknown.example.com"));
+  }
+
+  @Test
+  @DisplayName("test create: should take the issuer and audience from the first issuer when absent")
+  void testCreateWithIssuersOnly() {
+    AuthenticationConfiguration authConfig = mockConfiguration(
+        "https://issuer.example.com", "my-audience", "JWS",
+        Optional.of(List.of("sub")), Optional.empty());
+    Mockito.when(authConfig.getOption("issuerURI")).thenReturn(Optional.empty());
+    Mockito.when(authConfig.getOption("audience")).thenReturn(Optional.empty());
+    Mockito.doReturn(Optional.of(List.of(
+            new IssuerConfiguration("https://first.example.com", "first-audience"))))
+        .when(authConfig)
+        .getOption(Mockito.eq("issuers"), Mockito.any(TypeReference.class));
+
+    OIDCPluginConfiguration config = factory.create(authConfig);
+
+    assertEquals("https://first.example.com", config.issuerURI());
+    assertEquals("first-audience", config.audience());
+    assertEquals(1, config.issuers().size());
+  }
+
+  @Test
+  @DisplayName("test create: should read the static keys settings")
+  void testCreateWithStaticKeys() {
+    AuthenticationConfiguration authConfig = mockConfiguration(
+        "https://issuer.example.com", "my-audience", "JWS",
+        Optional.of(List.of("sub")), Optional.empty());
+    Mockito.doReturn(Optional.of(new StaticKeysConfiguration(null, "/etc/oiap/jwks.json", null)))
+        .when(authConfig)
+        .getOption(Mockito.eq("staticKeys"), Mockito.any(TypeReference.class));
+
+    OIDCPluginConfiguration config = factory.create(authConfig);
+
+    assertTrue(config.staticKeys().isConfigured());
+    assertEquals("/etc/oiap/jwks.json", config.staticKeys().jwksFile());
+    assertEquals(StaticKeysConfiguration.DEFAULT_RELOAD_INTERVAL, config.staticKeys().reloadInterval());
+  }
+
+  @Test
+  @DisplayName("test create: should read the revocation list settings")
+  void testCreateWithRevocation() {
+    AuthenticationConfiguration authConfig = mockConfiguration(
+        "https://issuer.example.com", "my-audience", "JWS",
+        Optional.of(List.of("sub")), Optional.empty());
+    Mockito.doReturn(Optional.of(new RevocationConfiguration(null, "/etc/oiap/revoked.json", null, null, null)))
+        .when(authConfig)
+        .getOption(Mockito.eq("revocation"), Mockito.any(TypeReference.class));
+
+    OIDCPluginConfiguration config = factory.create(authConfig);
+
+    assertTrue(config.revocation().isConfigured());
+    assertEquals("/etc/oiap/revoked.json", config.revocation().file());
+    assertEquals(RevocationConfiguration.DEFAULT_REFRESH_INTERVAL, config.revocation().refreshInterval());
+  }
+
+  @Test
+  @DisplayName("test create: should disable the userinfo enrichment by default and read its settings")
+  void testCreateWithUserInfo() {
+    AuthenticationConfiguration authConfig = mockConfiguration(
+        "https://issuer.example.com", "my-audience", "JWS",
+        Optional.of(List.of("sub")), Optional.empty());
+
+    assertFalse(factory.create(authConfig).userInfo().enabled());
+
+    Mockito.doReturn(Optional.of(new UserInfoConfiguration(true, null, List.of("department"), null, null)))
+        .when(authConfig)
+        .getOption(Mockito.eq("userInfo"), Mockito.any(TypeReference.class));
+
+    OIDCPluginConfiguration config = factory.create(authConfig);
+
+    assertTrue(config.userInfo().enabled());
+    assertEquals(List.of("department"), config.userInfo().claims());
+    assertEquals(UserInfoConfiguration.DEFAULT_CACHE_TTL, config.userInfo().cacheTtl());
+  }
+
+  @Test
+  @DisplayName("test get: should reuse the built configuration while the options are unchanged")
+  void testGetReusesConfigurationForUnchangedOptions() {
+    AuthenticationConfiguration authConfig = new AuthenticationConfiguration();
+    authConfig.getOptions().put("issuerURI", "https://issuer.example.com");
+    authConfig.getOptions().put("audience", "my-audience");
+    authConfig.getOptions().put("tokenType", "JWS");
+    authConfig.getOptions().put("requiredClaims", List.of("sub"));
+
+    OIDCPluginConfiguration first = factory.get(authConfig);
+
+    assertSame(first, factory.get(authConfig));
+  }
+
+  @Test
+  @DisplayName("test get: should bind the options again once they have changed")
+  void testGetRebindsChangedOptions() {
+    AuthenticationConfiguration authConfig = new AuthenticationConfiguration();
+    authConfig.getOptions().put("issuerURI", "https://issuer.example.com");
+    authConfig.getOptions().put("audience", "my-audience");
+    authConfig.getOptions().put("tokenType", "JWS");
+    authConfig.getOptions().put("requiredClaims", List.of("sub"));
+    OIDCPluginConfiguration first = factory.get(authConfig);
+
+    authConfig.getOptions().put("audience", "other-audience");
+    OIDCPluginConfiguration second = factory.get(authConfig);
+
+    assertNotSame(first, second);
+    assertEquals("other-audience", second.audience());
+  }
+
+  @Test
+  @DisplayName("test get: should bind the options again once a nested option has changed in place")
+  void testGetRebindsNestedOptionsChangedInPlace() {
+    AuthenticationConfiguration authConfig = new AuthenticationConfiguration();
+    List<String> requiredClaims = new ArrayList<>(List.of("sub"));
+    Map<String, Object> userInfo = new HashMap<>(Map.of("enabled", true));
+    authConfig.getOptions().put("issuerURI", "https://issuer.example.com");
+    authConfig.getOptions().put("audience", "my-audience");
+    authConfig.getOptions().put("tokenType", "JWS");
+    authConfig.getOptions().put("requiredClaims", requiredClaims);
+    authConfig.getOptions().put("userInfo", userInfo);
+    OIDCPluginConfiguration first = factory.get(authConfig);
+
+    requiredClaims.add("email");
+    userInfo.put("claims", List.of("department"));
+    OIDCPluginConfiguration second = factory.get(authConfig);
+
+    assertNotSame(first, second);
+    assertEquals(List.of("sub", "email"), second.requiredClaims());
+    assertEquals(List.of("department"), second.userInfo().claims());
+  }
+
   private AuthenticationConfiguration mockConfiguration(
       String issuerUri,
       String audience,
@@ -109,4 +109,21 @@ class AccessTokenProcessorFactoryTest {
     assertEquals(HttpStatus.UNAUTHORIZED.value(), exception.getStatusCode());
     assertEquals(INVALID_TOKEN, exception.getError().key());
   }
+
+  @Test
+  @DisplayName("test getProcessor: should resolve the processors once at construction")
+  void testGetProcessorResolvesOnce() {
+    AccessTokenProcessor jwsProcessor = Mockito.mock(AccessTokenProcessor.class);
+    Mockito.when(jwsProcessor.supports(TokenType.JWS)).thenReturn(true);
+    AccessTokenProcessorFactory factory =
+        new AccessTokenProcessorFactory(List.of(jwsProcessor));
+    OIDCPluginConfiguration config =
+        new OIDCPluginConfiguration(
+            "https://issuer.example.com", "audience", TokenType.JWS, List.of(), List.of());
+
+    factory.getProcessor(config);
+    factory.getProcessor(config);
+
+    Mockito.verify(jwsProcessor, Mockito.times(TokenType.values().length)).supports(Mockito.any());
+  }
 }
@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.linagora.linid.im.corelib.exception.ApiException;
+import io.github.linagora.linid.im.oiap.MutableClock;
+import io.github.linagora.linid.im.oiap.model.IntrospectionConfiguration;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.TokenType;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+@DisplayName("Test class: IntrospectionProcessor")
+class IntrospectionProcessorTest {
+
+  private static final String ISSUER = "https://issuer.example.com";
+
+  private final MutableClock clock = new MutableClock();
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicReference<String> authorization = new AtomicReference<>();
+  private volatile int status = 200;
+  private volatile String body;
+  private volatile CountDownLatch release;
+  private HttpServer server;
+  private IntrospectionProcessor processor;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/introspect", this::handle);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.start();
+    processor = new IntrospectionProcessor(clock);
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    authorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+    exchange.getRequestBody().readAllBytes();
+    try {
+      if (release != null) {
+        release.await(5, TimeUnit.SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    byte[] response = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, response.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(response);
+    }
+  }
+
+  private OIDCPluginConfiguration config(String clientId) {
+    String endpoint = "http://localhost:" + server.getAddress().getPort() + "/introspect";
+    return OIDCPluginConfiguration.builder(ISSUER, "my-api", TokenType.OPAQUE)
+        .requiredClaims(List.of("sub"))
+        .metadataCacheTtl(60_000L)
+        .introspection(new IntrospectionConfiguration(endpoint, clientId, "secret", 1_000L, null))
+        .build();
+  }
+
+  private String activeResponse(String audience) {
+    long exp = clock.millis() / 1000 + 3600;
+    return "{\"active\":true,\"sub\":\"user123\",\"iss\":\"" + ISSUER + "\",\"aud\":\"" + audience
+        + "\",\"exp\":" + exp + "}";
+  }
+
+  @Test
+  @DisplayName("test supports: should support only opaque tokens")
+  void testSupports() {
+    assertTrue(processor.supports(TokenType.OPAQUE));
+    assertFalse(processor.supports(TokenType.JWS));
+  }
+
+  @Test
+  @DisplayName("test process: should return the claims of an active token and cache them")
+  void testProcessReturnsClaimsOfActiveToken() {
+    body = activeResponse("my-api");
+
+    Map<String, Object> claims = processor.process("opaque-token", config("client"));
+    processor.process("opaque-token", config("client"));
+
+    assertEquals("user123", claims.get("sub"));
+    assertEquals(1, requests.get());
+    assertTrue(authorization.get().startsWith("Basic "));
+  }
+
+  @Test
+  @DisplayName("test process: should introspect again once the cached result expires")
+  void testProcessIntrospectsAgainAfterCacheTtl() {
+    body = activeResponse("my-api");
+
+    processor.process("opaque-token", config(null));
+    clock.advance(Duration.ofSeconds(2));
+    processor.process("opaque-token", config(null));
+
+    assertEquals(2, requests.get());
+    assertNull(authorization.get());
+  }
+
+  @Test
+  @DisplayName("test process: should throw 401 for an inactive token and cache the result")
+  void testProcessThrow401WhenTokenIsInactive() {
+    body = "{\"active\":false}";
+
+    for (int i = 0; i < 2; i++) {
+      ApiException exception = assertThrows(
+          ApiException.class, () -> processor.process("opaque-token", config("client")));
+      assertEquals(HttpStatus.UNAUTHORIZED.value(), exception.getStatusCode());
+      assertEquals("oiap.error.invalid.token", exception.getError().key());
+    }
+    assertEquals(1, requests.get());
+  }
+
+  @Test
+  @DisplayName("test process: should throw 401 when the token is intended for another audience")
+  void testProcessThrow401WhenAudienceDoesNotMatch() {
+    body = activeResponse("other-api");
+
+    ApiException exception = assertThrows(
+        ApiException.class, () -> processor.process("opaque-token", config("client")));
+
+    assertEquals(HttpStatus.UNAUTHORIZED.value(), exception.getStatusCode());
+  }
+
+  @Test
+  @DisplayName("test process: should throw 500 when the introspection endpoint answers with an error")
+  void testProcessThrow500WhenEndpointFails() {
+    status = 401;
+    body = "{\"error\":\"invalid_client\"}";
+
+    ApiException exception = assertThrows(
+        ApiException.class, () -> processor.process("opaque-token", config("client")));
+
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), exception.getStatusCode());
+    assertEquals("oiap.error.introspection", exception.getError().key());
+  }
+
+  @Test
+  @DisplayName("test process: should coalesce concurrent introspections of the same token")
+  void testProcessCoalescesConcurrentIntrospections() throws Exception {
+    body = activeResponse("my-api");
+    release = new CountDownLatch(1);
+    OIDCPluginConfiguration config = config("client");
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Map<String, Object>>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> processor.process("opaque-token", config)));
+      }
+      while (requests.get() == 0) {
+        Thread.sleep(10);
+      }
+      Thread.sleep(100);
+      release.countDown();
+
+      for (Future<Map<String, Object>> result : results) {
+        assertEquals("user123", result.get(5, TimeUnit.SECONDS).get("sub"));
+      }
+      assertEquals(1, requests.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
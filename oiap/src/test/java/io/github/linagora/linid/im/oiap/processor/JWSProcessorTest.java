@@ -28,17 +28,36 @@ package io.github.linagora.linid.im.oiap.processor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
 import com.nimbusds.oauth2.sdk.GeneralException;
 import com.nimbusds.oauth2.sdk.id.Issuer;
 import com.nimbusds.openid.connect.sdk.op.OIDCProviderMetadata;
 import io.github.linagora.linid.im.corelib.exception.ApiException;
+import io.github.linagora.linid.im.oiap.MutableClock;
+import io.github.linagora.linid.im.oiap.cache.RejectedTokenCache;
+import io.github.linagora.linid.im.oiap.jwks.JWKSetStoreRegistry;
+import io.github.linagora.linid.im.oiap.metrics.AuthenticationMetrics;
 import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.StaticKeysConfiguration;
 import io.github.linagora.linid.im.oiap.model.TokenType;
 import java.io.IOException;
+import java.time.Instant;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
@@ -50,7 +69,18 @@ class JWSProcessorTest {
 
   private static final String JWT_PROCESSOR_CREATION_ERROR = "oiap.error.jwt.processor.creation";
 
-  private final JWSProcessor processor = new JWSProcessor();
+  private static final String ISSUER = "https://unreachable.invalid";
+
+  private static final String HEADER = "{\"alg\":\"RS256\",\"typ\":\"at+jwt\"}";
+
+  private static final OIDCPluginConfiguration CONFIG =
+      new OIDCPluginConfiguration(ISSUER, "audience", TokenType.JWS, List.of(), List.of());
+
+  private final MutableClock clock = new MutableClock();
+  private final RejectedTokenCache rejectedTokens = new RejectedTokenCache();
+  private final JWSProcessor processor = new JWSProcessor(
+      new JWTProcessorRegistry(), new JWKSetStoreRegistry(new AuthenticationMetrics()), rejectedTokens,
+      new AuthenticationMetrics(), clock);
 
   @Test
   @DisplayName("test supports: should return true for JWS token type")
@@ -82,15 +112,16 @@ class JWSProcessorTest {
     try (MockedStatic<OIDCProviderMetadata> opMetadata =
              Mockito.mockStatic(OIDCProviderMetadata.class)) {
       opMetadata
-          .when(() -> OIDCProviderMetadata.resolve(Mockito.any(Issuer.class)))
+          .when(() -> OIDCProviderMetadata.resolve(
+              Mockito.any(Issuer.class), Mockito.anyInt(), Mockito.anyInt()))
           .thenThrow(new GeneralException("unreachable"));
 
       OIDCPluginConfiguration config =
           new OIDCPluginConfiguration(
-              "https://unreachable.invalid", "audience", TokenType.JWS, List.of(), List.of());
+              ISSUER, "audience", TokenType.JWS, List.of(), List.of());
 
       ApiException exception =
-          assertThrows(ApiException.class, () -> processor.process("some.token", config));
+          assertThrows(ApiException.class, () -> processor.process(token(ISSUER), config));
 
       assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), exception.getStatusCode());
       assertEquals(JWT_PROCESSOR_CREATION_ERROR, exception.getError().key());
@@ -103,18 +134,153 @@ class JWSProcessorTest {
     try (MockedStatic<OIDCProviderMetadata> opMetadata =
              Mockito.mockStatic(OIDCProviderMetadata.class)) {
       opMetadata
-          .when(() -> OIDCProviderMetadata.resolve(Mockito.any(Issuer.class)))
+          .when(() -> OIDCProviderMetadata.resolve(
+              Mockito.any(Issuer.class), Mockito.anyInt(), Mockito.anyInt()))
           .thenThrow(new IOException("network error"));
 
       OIDCPluginConfiguration config =
           new OIDCPluginConfiguration(
-              "https://unreachable.invalid", "audience", TokenType.JWS, List.of(), List.of());
+              ISSUER, "audience", TokenType.JWS, List.of(), List.of());
 
       ApiException exception =
-          assertThrows(ApiException.class, () -> processor.process("some.token", config));
+          assertThrows(ApiException.class, () -> processor.process(token(ISSUER), config));
 
       assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), exception.getStatusCode());
       assertEquals(JWT_PROCESSOR_CREATION_ERROR, exception.getError().key());
     }
   }
+
+  @Test
+  @DisplayName("test process: should throw 401 without resolving the provider when the issuer is unknown")
+  void testProcessRejectsUnknownIssuer() {
+    try (MockedStatic<OIDCProviderMetadata> opMetadata =
+             Mockito.mockStatic(OIDCProviderMetadata.class)) {
+      OIDCPluginConfiguration config =
+          new OIDCPluginConfiguration(ISSUER, "audience", TokenType.JWS, List.of(), List.of());
+
+      ApiException exception = assertThrows(ApiException.class,
+          () -> processor.process(token("https://other.example.com"), config));
+
+      assertEquals(HttpStatus.UNAUTHORIZED.value(), exception.getStatusCode());
+      assertEquals("oiap.error.invalid.token", exception.getError().key());
+      opMetadata.verifyNoInteractions();
+    }
+  }
+
+  @Test
+  @DisplayName("test process: should throw 401 when the token is not a JWS")
+  void testProcessRejectsMalformedToken() {
+    OIDCPluginConfiguration config =
+        new OIDCPluginConfiguration(ISSUER, "audience", TokenType.JWS, List.of(), List.of());
+
+    ApiException exception =
+        assertThrows(ApiException.class, () -> processor.process("some.token", config));
+
+    assertEquals(HttpStatus.UNAUTHORIZED.value(), exception.getStatusCode());
+  }
+
+  @Test
+  @DisplayName("test process: should throw 401 without resolving the provider for a pre-check failure")
+  void testProcessRejectsBeforeSignatureVerification() {
+    long now = clock.instant().getEpochSecond();
+    List<String> tokens = List.of(
+        token(HEADER, claims(ISSUER, "audience", now - 3_600, null)),
+        token(HEADER, claims(ISSUER, "other", now + 3_600, null)),
+        token("{\"alg\":\"HS256\",\"typ\":\"at+jwt\"}", claims(ISSUER, "audience", now + 3_600, null)),
+        token("{\"alg\":\"none\",\"typ\":\"at+jwt\"}", claims(ISSUER, "audience", now + 3_600, null)),
+        token("{\"alg\":\"RS256\",\"typ\":\"JWT\"}", claims(ISSUER, "audience", now + 3_600, null)),
+        "only.two",
+        "too.many.segments.here");
+    try (MockedStatic<OIDCProviderMetadata> opMetadata =
+             Mockito.mockStatic(OIDCProviderMetadata.class)) {
+      for (String token : tokens) {
+        ApiException exception =
+            assertThrows(ApiException.class, () -> processor.process(token, CONFIG));
+
+        assertEquals(HttpStatus.UNAUTHORIZED.value(), exception.getStatusCode());
+      }
+      opMetadata.verifyNoInteractions();
+    }
+  }
+
+  @Test
+  @DisplayName("test process: should throw 401 for a token without typ header")
+  void testProcessRejectsTokenWithoutType() {
+    String untyped = token("{\"alg\":\"RS256\"}",
+        claims(ISSUER, "audience", clock.instant().getEpochSecond() + 3_600, null));
+
+    ApiException exception =
+        assertThrows(ApiException.class, () -> processor.process(untyped, CONFIG));
+
+    assertEquals(HttpStatus.UNAUTHORIZED.value(), exception.getStatusCode());
+    assertTrue(rejectedTokens.contains(untyped, CONFIG));
+  }
+
+  @Test
+  @DisplayName("test process: should drop a replayed rejected token from the negative cache")
+  void testProcessRejectsReplayedTokenFromCache() {
+    String expired = token(HEADER, claims(ISSUER, "audience", clock.instant().getEpochSecond() - 3_600, null));
+
+    assertThrows(ApiException.class, () -> processor.process(expired, CONFIG));
+    assertThrows(ApiException.class, () -> processor.process(expired, CONFIG));
+
+    assertTrue(rejectedTokens.contains(expired, CONFIG));
+    assertNotEquals(0, rejectedTokens.hitCount());
+  }
+
+  @Test
+  @DisplayName("test process: should not remember a token rejected for being used before its nbf claim")
+  void testProcessDoesNotCachePrematureToken() {
+    long now = clock.instant().getEpochSecond();
+    String premature = token(HEADER, claims(ISSUER, "audience", now + 7_200, now + 3_600));
+
+    ApiException exception =
+        assertThrows(ApiException.class, () -> processor.process(premature, CONFIG));
+
+    assertEquals(HttpStatus.UNAUTHORIZED.value(), exception.getStatusCode());
+    assertFalse(rejectedTokens.contains(premature, CONFIG));
+  }
+
+  @Test
+  @DisplayName("test process: should validate a token against static keys without resolving the provider")
+  void testProcessWithStaticKeys() throws Exception {
+    RSAKey key = new RSAKeyGenerator(2048).keyID("static").generate();
+    OIDCPluginConfiguration config = OIDCPluginConfiguration.builder(ISSUER, "audience", TokenType.JWS)
+        .metadataCacheTtl(60_000L)
+        .issuers(CONFIG.issuers())
+        .staticKeys(new StaticKeysConfiguration(new JWKSet(key.toPublicJWK()).toJSONObject(), null, null))
+        .build();
+    Instant now = Instant.now().isAfter(clock.instant()) ? Instant.now() : clock.instant();
+    SignedJWT token = new SignedJWT(
+        new JWSHeader.Builder(JWSAlgorithm.RS256).keyID("static").type(new JOSEObjectType("at+jwt")).build(),
+        new JWTClaimsSet.Builder()
+            .issuer(ISSUER)
+            .audience("audience")
+            .subject("user")
+            .expirationTime(Date.from(now.plusSeconds(3_600)))
+            .build());
+    token.sign(new RSASSASigner(key));
+
+    try (MockedStatic<OIDCProviderMetadata> opMetadata =
+             Mockito.mockStatic(OIDCProviderMetadata.class)) {
+      Map<String, Object> claims = processor.process(token.serialize(), config);
+
+      assertEquals("user", claims.get("sub"));
+      opMetadata.verifyNoInteractions();
+    }
+  }
+
+  private String token(String issuer) {
+    return token(HEADER, claims(issuer, "audience", clock.instant().getEpochSecond() + 3_600, null));
+  }
+
+  private static String token(String header, String claims) {
+    return Base64URL.encode(header) + "." + Base64URL.encode(claims) + "."
+        + Base64URL.encode("signature");
+  }
+
+  private static String claims(String issuer, String audience, long expirationTime, Long notBeforeTime) {
+    return "{\"iss\":\"" + issuer + "\",\"aud\":\"" + audience + "\",\"exp\":" + expirationTime
+        + (notBeforeTime == null ? "" : ",\"nbf\":" + notBeforeTime) + "}";
+  }
 }
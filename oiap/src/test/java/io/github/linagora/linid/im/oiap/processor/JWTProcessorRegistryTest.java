@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.github.linagora.linid.im.corelib.exception.ApiException;
+import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
+import io.github.linagora.linid.im.oiap.MutableClock;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.StaticKeysConfiguration;
+import io.github.linagora.linid.im.oiap.model.TokenType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+@DisplayName("Test class: JWTProcessorRegistry")
+class JWTProcessorRegistryTest {
+
+  private static final OIDCPluginConfiguration CONFIG =
+      OIDCPluginConfiguration.builder("https://issuer.example.com", "audience", TokenType.JWS)
+          .metadataCacheTtl(60_000L)
+          .build();
+
+  private final MutableClock clock = new MutableClock();
+  private final JWTProcessorRegistry registry = new JWTProcessorRegistry(clock);
+
+  @Test
+  @DisplayName("test getProcessor: should build the processor once while the entry is fresh")
+  void testGetProcessorReusesFreshEntry() {
+    AtomicInteger builds = new AtomicInteger();
+    Function<OIDCPluginConfiguration, ConfigurableJWTProcessor<SecurityContext>> factory =
+        config -> {
+          builds.incrementAndGet();
+          return new DefaultJWTProcessor<>();
+        };
+
+    var first = registry.getProcessor(CONFIG, factory);
+    clock.advance(Duration.ofSeconds(59));
+    var second = registry.getProcessor(CONFIG, factory);
+
+    assertSame(first, second);
+    assertEquals(1, builds.get());
+  }
+
+  @Test
+  @DisplayName("test getProcessor: should rebuild the processor once the entry has expired")
+  void testGetProcessorRebuildsExpiredEntry() {
+    AtomicInteger builds = new AtomicInteger();
+    Function<OIDCPluginConfiguration, ConfigurableJWTProcessor<SecurityContext>> factory =
+        config -> {
+          builds.incrementAndGet();
+          return new DefaultJWTProcessor<>();
+        };
+
+    registry.getProcessor(CONFIG, factory);
+    clock.advance(Duration.ofSeconds(61));
+    registry.getProcessor(CONFIG, factory);
+
+    assertEquals(2, builds.get());
+  }
+
+  @Test
+  @DisplayName("test getProcessor: should rebuild the processor when the key source settings change")
+  void testGetProcessorRebuildsOnKeySourceChange() {
+    OIDCPluginConfiguration staticConfig = CONFIG.toBuilder()
+        .staticKeys(new StaticKeysConfiguration(null, "/etc/oiap/jwks.json", null))
+        .build();
+    AtomicInteger builds = new AtomicInteger();
+    Function<OIDCPluginConfiguration, ConfigurableJWTProcessor<SecurityContext>> factory =
+        config -> {
+          builds.incrementAndGet();
+          return new DefaultJWTProcessor<>();
+        };
+
+    var discovered = registry.getProcessor(CONFIG, factory);
+    var fromFile = registry.getProcessor(staticConfig, factory);
+
+    assertNotSame(discovered, fromFile);
+    assertSame(fromFile, registry.getProcessor(staticConfig, factory));
+    assertEquals(2, builds.get());
+  }
+
+  @Test
+  @DisplayName("test getProcessor: should keep serving the stale processor when refresh fails")
+  void testGetProcessorKeepsStaleEntryOnRefreshFailure() {
+    ConfigurableJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+    registry.getProcessor(CONFIG, config -> processor);
+    clock.advance(Duration.ofSeconds(61));
+
+    var result = registry.getProcessor(CONFIG, config -> {
+      throw new ApiException(500, I18nMessage.of("oiap.error.jwt.processor.creation"));
+    });
+
+    assertSame(processor, result);
+  }
+
+  @Test
+  @DisplayName("test getProcessor: should propagate the failure when no processor is cached")
+  void testGetProcessorPropagatesFailureWithoutCachedEntry() {
+    ApiException exception = assertThrows(ApiException.class,
+        () -> registry.getProcessor(CONFIG, config -> {
+          throw new ApiException(
+              HttpStatus.INTERNAL_SERVER_ERROR.value(),
+              I18nMessage.of("oiap.error.jwt.processor.creation"));
+        }));
+
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), exception.getStatusCode());
+  }
+
+  @Test
+  @DisplayName("test getProcessor: should cache processors per issuer and audience")
+  void testGetProcessorCachesPerIssuerAndAudience() {
+    OIDCPluginConfiguration other =
+        OIDCPluginConfiguration.builder("https://issuer.example.com", "other", TokenType.JWS)
+            .metadataCacheTtl(60_000L)
+            .build();
+
+    var first = registry.getProcessor(CONFIG, config -> new DefaultJWTProcessor<>());
+    var second = registry.getProcessor(other, config -> new DefaultJWTProcessor<>());
+
+    assertNotSame(first, second);
+  }
+
+  @Test
+  @DisplayName("test getProcessor: should build the processor once for concurrent requests")
+  void testGetProcessorCoalescesConcurrentBuilds() throws Exception {
+    AtomicInteger builds = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    Function<OIDCPluginConfiguration, ConfigurableJWTProcessor<SecurityContext>> factory =
+        config -> {
+          builds.incrementAndGet();
+          await(release);
+          return new DefaultJWTProcessor<>();
+        };
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<ConfigurableJWTProcessor<SecurityContext>>> results = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        results.add(executor.submit(() -> registry.getProcessor(CONFIG, factory)));
+      }
+      Thread.sleep(100);
+      release.countDown();
+
+      for (Future<ConfigurableJWTProcessor<SecurityContext>> result : results) {
+        assertSame(results.get(0).get(5, TimeUnit.SECONDS), result.get(5, TimeUnit.SECONDS));
+      }
+      assertEquals(1, builds.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("test getProcessor: should throw 503 when a concurrent build does not complete in time")
+  void testGetProcessorThrows503WhenConcurrentBuildIsTooSlow() throws Exception {
+    OIDCPluginConfiguration config = CONFIG.toBuilder().fetchMaxWait(50L).build();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> slowBuild = executor.submit(() -> registry.getProcessor(config, ignored -> {
+        started.countDown();
+        await(release);
+        return new DefaultJWTProcessor<>();
+      }));
+      started.await(5, TimeUnit.SECONDS);
+
+      ApiException exception = assertThrows(ApiException.class,
+          () -> registry.getProcessor(config, ignored -> new DefaultJWTProcessor<>()));
+
+      assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), exception.getStatusCode());
+      assertEquals("oiap.error.provider.unavailable", exception.getError().key());
+      release.countDown();
+      slowBuild.get(5, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("test getProcessor: should serve the stale processor while a refresh is in flight")
+  void testGetProcessorServesStaleEntryDuringRefresh() throws Exception {
+    ConfigurableJWTProcessor<SecurityContext> stale = new DefaultJWTProcessor<>();
+    registry.getProcessor(CONFIG, config -> stale);
+    clock.advance(Duration.ofSeconds(61));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> refresh = executor.submit(() -> registry.getProcessor(CONFIG, config -> {
+        started.countDown();
+        await(release);
+        return new DefaultJWTProcessor<>();
+      }));
+      started.await(5, TimeUnit.SECONDS);
+
+      assertSame(stale, registry.getProcessor(CONFIG, config -> new DefaultJWTProcessor<>()));
+      release.countDown();
+      refresh.get(5, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
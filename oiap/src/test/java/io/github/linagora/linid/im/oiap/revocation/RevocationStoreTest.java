@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.revocation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.linagora.linid.im.oiap.MutableClock;
+import io.github.linagora.linid.im.oiap.model.RevocationConfiguration;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+@DisplayName("Test class: RevocationStore")
+class RevocationStoreTest {
+
+  private final MutableClock clock = new MutableClock();
+  private final ScheduledExecutorService scheduler = Mockito.mock(ScheduledExecutorService.class);
+  private final RevocationStore store = new RevocationStore(scheduler, clock);
+
+  @TempDir
+  Path directory;
+
+  @Test
+  @DisplayName("test isRevoked: should reject revoked tokens and sessions only")
+  void testIsRevokedMatchesTokensAndSessions() {
+    store.revokeToken("token-1", null);
+    store.revokeSession("session-1", null);
+
+    assertTrue(store.isRevoked(Map.of("jti", "token-1"), RevocationConfiguration.NONE));
+    assertTrue(store.isRevoked(Map.of("jti", "token-2", "sid", "session-1"), RevocationConfiguration.NONE));
+    assertFalse(store.isRevoked(Map.of("jti", "token-2", "sid", "session-2"), RevocationConfiguration.NONE));
+    assertFalse(store.isRevoked(Map.of("sid", "token-1"), RevocationConfiguration.NONE));
+    assertFalse(store.isRevoked(Map.of("sub", "user"), RevocationConfiguration.NONE));
+  }
+
+  @Test
+  @DisplayName("test isRevoked: should drop entries once the revoked tokens have expired")
+  void testIsRevokedDropsExpiredEntries() {
+    store.revokeToken("token-1", clock.instant().plusSeconds(30));
+    store.revokeToken("token-2", clock.instant().plusSeconds(300));
+
+    clock.advance(Duration.ofSeconds(61));
+
+    assertFalse(store.isRevoked(Map.of("jti", "token-1"), RevocationConfiguration.NONE));
+    assertTrue(store.isRevoked(Map.of("jti", "token-2"), RevocationConfiguration.NONE));
+    assertEquals(1, store.size());
+  }
+
+  @Test
+  @DisplayName("test revokeToken: should ignore tokens that have already expired")
+  void testRevokeTokenIgnoresExpiredToken() {
+    store.revokeToken("token-1", clock.instant().minusSeconds(1));
+
+    assertEquals(0, store.size());
+  }
+
+  @Test
+  @DisplayName("test revokeToken: should keep every entry when the filter outgrows its capacity")
+  void testRevokeTokenGrowsFilter() {
+    RevocationConfiguration config = new RevocationConfiguration(null, null, null, null, 16);
+    store.isRevoked(Map.of(), config);
+
+    for (int i = 0; i < 100; i++) {
+      store.revokeToken("token-" + i, null);
+    }
+
+    for (int i = 0; i < 100; i++) {
+      assertTrue(store.isRevoked(Map.of("jti", "token-" + i), config));
+    }
+  }
+
+  @Test
+  @DisplayName("test isRevoked: should load the revocation file and pick up its changes")
+  void testIsRevokedLoadsRevocationFile() throws Exception {
+    long exp = clock.instant().plusSeconds(600).getEpochSecond();
+    Path file = Files.writeString(directory.resolve("revoked.json"),
+        "{\"jti\": {\"token-1\": " + exp + "}, \"sid\": {\"session-1\": null}}");
+    RevocationConfiguration config = new RevocationConfiguration(null, file.toString(), null, null, null);
+
+    assertFalse(store.isRevoked(Map.of("jti", "token-1"), config));
+    scheduledLoad().run();
+
+    assertTrue(store.isRevoked(Map.of("jti", "token-1"), config));
+    assertTrue(store.isRevoked(Map.of("sid", "session-1"), config));
+    assertFalse(store.isRevoked(Map.of("jti", "token-2"), config));
+
+    Files.writeString(file, "{\"jti\": {\"token-2\": " + exp + "}}");
+    Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 1_000));
+    store.reload();
+
+    assertTrue(store.isRevoked(Map.of("jti", "token-2"), config));
+    assertTrue(store.isRevoked(Map.of("jti", "token-1"), config));
+  }
+
+  @Test
+  @DisplayName("test revokeToken: should not wait for a slow revocation endpoint")
+  void testRevokeTokenDoesNotWaitForSlowEndpoint() throws Exception {
+    CountDownLatch requested = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/revoked", exchange -> {
+      requested.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      byte[] body = "{\"jti\": {}}".getBytes();
+      exchange.sendResponseHeaders(200, body.length);
+      exchange.getResponseBody().write(body);
+      exchange.close();
+    });
+    server.start();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      RevocationConfiguration config = new RevocationConfiguration(
+          "http://localhost:" + server.getAddress().getPort() + "/revoked", null, null, null, null);
+      assertTimeout(Duration.ofMillis(500), () -> store.isRevoked(Map.of("jti", "token-2"), config));
+      Future<?> loading = executor.submit(scheduledLoad());
+      assertTrue(requested.await(5, TimeUnit.SECONDS));
+
+      assertTimeout(Duration.ofMillis(500), () -> store.revokeToken("token-1", null));
+      assertTimeout(Duration.ofMillis(500), () -> store.isRevoked(Map.of("jti", "token-2"), config));
+      release.countDown();
+
+      loading.get(5, TimeUnit.SECONDS);
+      assertTrue(store.isRevoked(Map.of("jti", "token-1"), config));
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+      server.stop(0);
+    }
+  }
+
+  @Test
+  @DisplayName("test isRevoked: should keep the current entries when the revocation file is invalid")
+  void testIsRevokedKeepsEntriesOnInvalidFile() throws Exception {
+    store.revokeToken("token-1", null);
+    Path file = Files.writeString(directory.resolve("revoked.json"), "not json");
+    RevocationConfiguration config = new RevocationConfiguration(null, file.toString(), null, null, null);
+    store.isRevoked(Map.of(), config);
+    scheduledLoad().run();
+
+    assertTrue(store.isRevoked(Map.of("jti", "token-1"), config));
+  }
+
+  private Runnable scheduledLoad() {
+    ArgumentCaptor<Runnable> load = ArgumentCaptor.forClass(Runnable.class);
+    Mockito.verify(scheduler).scheduleWithFixedDelay(
+        load.capture(), Mockito.eq(0L), Mockito.anyLong(), Mockito.eq(TimeUnit.MILLISECONDS));
+    return load.getValue();
+  }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.userinfo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.linagora.linid.im.corelib.exception.ApiException;
+import io.github.linagora.linid.im.oiap.MutableClock;
+import io.github.linagora.linid.im.oiap.model.IssuerConfiguration;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.TokenType;
+import io.github.linagora.linid.im.oiap.model.UserInfoConfiguration;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+@DisplayName("Test class: UserInfoEnricher")
+class UserInfoEnricherTest {
+
+  private static final String ISSUER = "https://issuer.example.com";
+
+  private final MutableClock clock = new MutableClock();
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicReference<String> authorization = new AtomicReference<>();
+  private final AtomicInteger secondaryRequests = new AtomicInteger();
+  private final AtomicReference<String> secondaryAuthorization = new AtomicReference<>();
+  private volatile int status = 200;
+  private volatile String body =
+      "{\"sub\":\"user123\",\"email\":\"userinfo@example.com\",\"department\":\"R&D\",\"phone_number\":\"+33\"}";
+  private volatile CountDownLatch release;
+  private HttpServer server;
+  private UserInfoEnricher enricher;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/userinfo", this::handle);
+    server.createContext("/secondary/.well-known/openid-configuration", this::handleDiscovery);
+    server.createContext("/secondary/userinfo", this::handleSecondary);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.start();
+    enricher = new UserInfoEnricher(clock);
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop(0);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    authorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+    exchange.getRequestBody().readAllBytes();
+    try {
+      if (release != null) {
+        release.await(5, TimeUnit.SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    byte[] response = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, response.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(response);
+    }
+  }
+
+  private void handleDiscovery(HttpExchange exchange) throws IOException {
+    String issuer = secondaryIssuer();
+    respond(exchange, "{\"issuer\":\"" + issuer + "\",\"authorization_endpoint\":\"" + issuer + "/authorize\","
+        + "\"jwks_uri\":\"" + issuer + "/jwks\",\"userinfo_endpoint\":\"" + issuer + "/userinfo\","
+        + "\"response_types_supported\":[\"code\"],\"subject_types_supported\":[\"public\"],"
+        + "\"id_token_signing_alg_values_supported\":[\"RS256\"]}");
+  }
+
+  private void handleSecondary(HttpExchange exchange) throws IOException {
+    secondaryRequests.incrementAndGet();
+    secondaryAuthorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+    respond(exchange, "{\"sub\":\"user123\",\"department\":\"Sales\"}");
+  }
+
+  private void respond(HttpExchange exchange, String json) throws IOException {
+    exchange.getRequestBody().readAllBytes();
+    byte[] response = json.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, response.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(response);
+    }
+  }
+
+  private String secondaryIssuer() {
+    return "http://localhost:" + server.getAddress().getPort() + "/secondary";
+  }
+
+  private OIDCPluginConfiguration config(boolean enabled) {
+    String endpoint = "http://localhost:" + server.getAddress().getPort() + "/userinfo";
+    return OIDCPluginConfiguration.builder(ISSUER, "my-api", TokenType.JWS)
+        .requiredClaims(List.of("sub"))
+        .optionalClaims(List.of("email"))
+        .metadataCacheTtl(60_000L)
+        .userInfo(new UserInfoConfiguration(enabled, endpoint, List.of("email", "department"), 1_000L, null))
+        .build();
+  }
+
+  private Map<String, Object> claims() {
+    return Map.of("sub", "user123", "email", "token@example.com", "exp", clock.millis() / 1000 + 3600);
+  }
+
+  private Map<String, Object> propagated() {
+    return new HashMap<>(Map.of("sub", "user123", "email", "token@example.com"));
+  }
+
+  @Test
+  @DisplayName("test enrich: should merge the selected userinfo fields without overriding token claims")
+  void testEnrichMergesSelectedFields() {
+    Map<String, Object> propagated = propagated();
+
+    enricher.enrich("access-token", claims(), config(true), propagated);
+
+    assertEquals(Map.of("sub", "user123", "email", "token@example.com", "department", "R&D"), propagated);
+    assertEquals("Bearer access-token", authorization.get());
+  }
+
+  @Test
+  @DisplayName("test enrich: should not call the userinfo endpoint when disabled")
+  void testEnrichDoesNothingWhenDisabled() {
+    Map<String, Object> propagated = propagated();
+
+    enricher.enrich("access-token", claims(), config(false), propagated);
+
+    assertEquals(propagated(), propagated);
+    assertEquals(0, requests.get());
+  }
+
+  @Test
+  @DisplayName("test enrich: should reuse the cached userinfo until the cache entry expires")
+  void testEnrichCachesUserInfo() {
+    enricher.enrich("access-token", claims(), config(true), propagated());
+    enricher.enrich("access-token", claims(), config(true), propagated());
+    enricher.enrich("other-token", claims(), config(true), propagated());
+    assertEquals(2, requests.get());
+
+    clock.advance(Duration.ofSeconds(2));
+    enricher.enrich("access-token", claims(), config(true), propagated());
+
+    assertEquals(3, requests.get());
+  }
+
+  @Test
+  @DisplayName("test enrich: should share a single call between concurrent lookups of the same token")
+  void testEnrichCoalescesConcurrentLookups() throws Exception {
+    release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Map<String, Object>>> results = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        results.add(executor.submit(() -> {
+          Map<String, Object> propagated = propagated();
+          enricher.enrich("access-token", claims(), config(true), propagated);
+          return propagated;
+        }));
+      }
+      Thread.sleep(200);
+      release.countDown();
+
+      for (Future<Map<String, Object>> result : results) {
+        assertEquals("R&D", result.get(5, TimeUnit.SECONDS).get("department"));
+      }
+      assertEquals(1, requests.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("test enrich: should call the userinfo endpoint of the provider that issued the token")
+  void testEnrichCallsUserInfoOfTokenIssuer() {
+    OIDCPluginConfiguration primary = config(true);
+    Map<String, IssuerConfiguration> issuers = Map.of(
+        ISSUER, new IssuerConfiguration(ISSUER, "my-api"),
+        secondaryIssuer(), new IssuerConfiguration(secondaryIssuer(), "my-api"));
+    OIDCPluginConfiguration config = primary.toBuilder().issuers(issuers).build();
+    Map<String, Object> secondaryClaims = new HashMap<>(claims());
+    secondaryClaims.put("iss", secondaryIssuer());
+    Map<String, Object> primaryClaims = new HashMap<>(claims());
+    primaryClaims.put("iss", ISSUER);
+    Map<String, Object> fromSecondary = propagated();
+    Map<String, Object> fromPrimary = propagated();
+
+    enricher.enrich("access-token", secondaryClaims, config, fromSecondary);
+    enricher.enrich("access-token", primaryClaims, config, fromPrimary);
+
+    assertEquals("Sales", fromSecondary.get("department"));
+    assertEquals("R&D", fromPrimary.get("department"));
+    assertEquals(1, secondaryRequests.get());
+    assertEquals(1, requests.get());
+    assertEquals("Bearer access-token", secondaryAuthorization.get());
+  }
+
+  @Test
+  @DisplayName("test enrich: should throw 500 when the userinfo answers for another subject")
+  void testEnrichThrow500WhenSubjectDoesNotMatch() {
+    body = "{\"sub\":\"someone-else\",\"department\":\"R&D\"}";
+
+    ApiException exception = assertThrows(ApiException.class,
+        () -> enricher.enrich("access-token", claims(), config(true), propagated()));
+
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), exception.getStatusCode());
+    assertEquals("oiap.error.userinfo", exception.getError().key());
+  }
+
+  @Test
+  @DisplayName("test enrich: should throw 500 when the userinfo endpoint answers with an error")
+  void testEnrichThrow500WhenEndpointFails() {
+    status = 401;
+    body = "{\"error\":\"invalid_token\"}";
+
+    ApiException exception = assertThrows(ApiException.class,
+        () -> enricher.enrich("access-token", claims(), config(true), propagated()));
+
+    assertEquals(HttpStatus.INTERNAL_SERVER_ERROR.value(), exception.getStatusCode());
+    assertEquals("oiap.error.userinfo", exception.getError().key());
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2020-2026 Linagora
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU Affero General
+ * Public License as published by the Free Software Foundation, either version 3 of the License, or (at your option)
+ * any later version, provided you comply with the Additional Terms applicable for LinID Identity Manager software by
+ * LINAGORA pursuant to Section 7 of the GNU Affero General Public License, subsections (b), (c), and (e), pursuant to
+ * which these Appropriate Legal Notices must notably (i) retain the display of the "LinID™" trademark/logo at the top
+ * of the interface window, the display of the “You are using the Open Source and free version of LinID™, powered by
+ * Linagora © 2009–2013. Contribute to LinID R&D by subscribing to an Enterprise offer!” infobox and in the e-mails
+ * sent with the Program, notice appended to any type of outbound messages (e.g. e-mail and meeting requests) as well
+ * as in the LinID Identity Manager user interface, (ii) retain all hypertext links between LinID Identity Manager
+ * and https://linid.org/, as well as between LINAGORA and LINAGORA.com, and (iii) refrain from infringing LINAGORA
+ * intellectual property rights over its trademarks and commercial brands. Other Additional Terms apply, see
+ * <http://www.linagora.com/licenses/> for more details.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Affero General Public License and its applicable Additional Terms for
+ * LinID Identity Manager along with this program. If not, see <http://www.gnu.org/licenses/> for the GNU Affero
+ * General Public License version 3 and <http://www.linagora.com/licenses/> for the Additional Terms applicable to the
+ * LinID Identity Manager software.
+ */
+
+package io.github.linagora.linid.im.oiap.warmup;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.linagora.linid.im.corelib.exception.ApiException;
+import io.github.linagora.linid.im.corelib.i18n.I18nMessage;
+import io.github.linagora.linid.im.corelib.plugin.authentication.AuthenticationFactory;
+import io.github.linagora.linid.im.corelib.plugin.config.dto.AuthenticationConfiguration;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfiguration;
+import io.github.linagora.linid.im.oiap.model.OIDCPluginConfigurationFactory;
+import io.github.linagora.linid.im.oiap.model.TokenType;
+import io.github.linagora.linid.im.oiap.model.WarmUpConfiguration;
+import io.github.linagora.linid.im.oiap.processor.AccessTokenProcessor;
+import io.github.linagora.linid.im.oiap.processor.AccessTokenProcessorFactory;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+
+@DisplayName("Test class: IssuerWarmUp")
+class IssuerWarmUpTest {
+
+  private AuthenticationConfiguration authConfig;
+  private OIDCPluginConfigurationFactory configurationFactory;
+  private AccessTokenProcessor processor;
+  private IssuerWarmUp warmUp;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    authConfig = Mockito.mock(AuthenticationConfiguration.class);
+    Mockito.when(authConfig.getType()).thenReturn("oidc");
+    AuthenticationFactory authenticationFactory = Mockito.mock(AuthenticationFactory.class);
+    Mockito.when(authenticationFactory.getAuthenticationConfiguration()).thenReturn(authConfig);
+    ObjectProvider<AuthenticationFactory> provider = Mockito.mock(ObjectProvider.class);
+    Mockito.when(provider.getIfAvailable()).thenReturn(authenticationFactory);
+
+    configurationFactory = Mockito.mock(OIDCPluginConfigurationFactory.class);
+    processor = Mockito.mock(AccessTokenProcessor.class);
+    AccessTokenProcessorFactory processorFactory = Mockito.mock(AccessTokenProcessorFactory.class);
+    Mockito.when(processorFactory.getProcessor(Mockito.any())).thenReturn(processor);
+
+    warmUp = new IssuerWarmUp(provider, configurationFactory, processorFactory);
+  }
+
+  private static OIDCPluginConfiguration config(WarmUpConfiguration settings) {
+    return OIDCPluginConfiguration.builder("https://issuer.example.com", "audience", TokenType.JWS)
+        .requiredClaims(List.of("sub"))
+        .warmUp(settings)
+        .build();
+  }
+
+  @Test
+  @DisplayName("test warmUp: should warm up the processor of the configured provider")
+  void testWarmUpLoadsProviderResources() {
+    OIDCPluginConfiguration config = config(WarmUpConfiguration.DEFAULT);
+    Mockito.when(configurationFactory.create(authConfig)).thenReturn(config);
+
+    warmUp.warmUp();
+
+    Mockito.verify(processor).warmUp(config);
+  }
+
+  @Test
+  @DisplayName("test warmUp: should do nothing when the warm-up is disabled")
+  void testWarmUpSkippedWhenDisabled() {
+    Mockito.when(configurationFactory.create(authConfig))
+        .thenReturn(config(new WarmUpConfiguration(false, null)));
+
+    warmUp.warmUp();
+
+    Mockito.verifyNoInteractions(processor);
+  }
+
+  @Test
+  @DisplayName("test warmUp: should do nothing when the authentication is not OIDC")
+  void testWarmUpSkippedForOtherAuthenticationTypes() {
+    Mockito.when(authConfig.getType()).thenReturn("ldap");
+
+    warmUp.warmUp();
+
+    Mockito.verifyNoInteractions(configurationFactory, processor);
+  }
+
+  @Test
+  @DisplayName("test warmUp: should fall back to lazy loading when the provider fails")
+  void testWarmUpFallsBackWhenProviderFails() {
+    OIDCPluginConfiguration config = config(WarmUpConfiguration.DEFAULT);
+    Mockito.when(configurationFactory.create(authConfig)).thenReturn(config);
+    Mockito.doThrow(new ApiException(
+            HttpStatus.INTERNAL_SERVER_ERROR.value(),
+            I18nMessage.of("oiap.error.jwt.processor.creation")))
+        .when(processor).warmUp(config);
+
+    assertDoesNotThrow(() -> warmUp.warmUp());
+  }
+
+  @Test
+  @DisplayName("test warmUp: should stop waiting for a slow provider after the timeout")
+  void testWarmUpHonoursTimeout() {
+    OIDCPluginConfiguration config = config(new WarmUpConfiguration(true, 50L));
+    Mockito.when(configurationFactory.create(authConfig)).thenReturn(config);
+    CountDownLatch release = new CountDownLatch(1);
+    Mockito.doAnswer(invocation -> release.await(5, TimeUnit.SECONDS))
+        .when(processor).warmUp(config);
+
+    long start = System.nanoTime();
+    warmUp.warmUp();
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    release.countDown();
+
+    assertTrue(elapsed < 5_000L);
+  }
+}